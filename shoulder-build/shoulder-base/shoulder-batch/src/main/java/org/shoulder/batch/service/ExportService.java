@@ -34,6 +34,24 @@ public interface ExportService {
                 String templateId)
         throws IOException;
 
+    /**
+     * 流式导出数据列表：分页查询提前在后台执行（最多预取 prefetchPages 页），与写出重叠；逐行写入输出缓冲，不生成中间列表，
+     * 内存占用只与预取页数有关，适合百万行以上的大数据量导出
+     * 注意：exportData 会在其他线程中按顺序调用（已传递 AppContext），不能依赖其他线程变量
+     *
+     * @param outputStream  输出流
+     * @param exportType    导出方式：CSV / EXCEL
+     * @param exportData    要导出的数据（分页）
+     * @param templateId    导出模板标识
+     * @param prefetchPages 最多提前查询多少页
+     * @return 编码
+     * @throws IOException io异常
+     */
+    default String exportStreaming(OutputStream outputStream, String exportType, List<Supplier<List<Map<String, String>>>> exportData,
+                                   String templateId, int prefetchPages) throws IOException {
+        return export(outputStream, exportType, exportData, templateId);
+    }
+
     /**
      * 导出 批处理详情列表
      *
@@ -34,9 +34,15 @@ import org.shoulder.core.util.JsonUtils;
 import org.shoulder.core.util.StringUtils;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
+import java.io.Serializable;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
@@ -112,6 +118,65 @@ public class DefaultBatchExportService implements BatchAndExportService {
     public String export(OutputStream outputStream, String exportType,
                          List<Supplier<List<Map<String, String>>>> dataSupplierList,
                          String templateId) throws IOException {
+        DataExporter dataExporter = prepareExport(outputStream, exportType, templateId);
+        try {
+            // 输出数据
+            log.debug("output data total turn: {}", dataSupplierList.size());
+            String[] row = newDataArray();
+            for (int i = 0; i < dataSupplierList.size(); i++) {
+                Supplier<List<Map<String, String>>> dataSupplier = dataSupplierList.get(i);
+                List<Map<String, String>> exportDataList = dataSupplier.get();
+                log.trace("output data turn {}", i);
+                outputRows(dataExporter, exportDataList, row);
+            }
+            log.trace("output data finished.");
+            // 刷入流
+            dataExporter.flush();
+            return BatchOutputContext.get().getExportConfig().getEncode();
+            // todo 【流程】记录业务日志
+        } finally {
+            // 清理上下文
+            cleanContext();
+        }
+    }
+
+    /**
+     * 流式导出：单个后台任务按顺序查询各页放入有界队列，当前线程边取边写
+     */
+    @Override
+    public String exportStreaming(OutputStream outputStream, String exportType,
+                                  List<Supplier<List<Map<String, String>>>> dataSupplierList,
+                                  String templateId, int prefetchPages) throws IOException {
+        AssertUtils.isTrue(prefetchPages > 0, CommonErrorCodeEnum.ILLEGAL_PARAM, "prefetchPages must > 0");
+        DataExporter dataExporter = prepareExport(outputStream, exportType, templateId);
+        PagePrefetcher prefetcher = new PagePrefetcher(dataSupplierList, prefetchPages);
+        try {
+            String[] row = newDataArray();
+            if (!prefetcher.start()) {
+                // 批处理线程池繁忙，退化为在当前线程查询
+                log.info("batch thread pool busy, export without prefetch.");
+                for (Supplier<List<Map<String, String>>> dataSupplier : dataSupplierList) {
+                    outputRows(dataExporter, dataSupplier.get(), row);
+                }
+            } else {
+                List<Map<String, String>> page;
+                while ((page = prefetcher.take()) != null) {
+                    outputRows(dataExporter, page, row);
+                }
+            }
+            log.trace("output data finished.");
+            dataExporter.flush();
+            return BatchOutputContext.get().getExportConfig().getEncode();
+        } finally {
+            prefetcher.cancel();
+            cleanContext();
+        }
+    }
+
+    /**
+     * 初始化线程变量、准备输出并输出头部信息
+     */
+    private DataExporter prepareExport(OutputStream outputStream, String exportType, String templateId) throws IOException {
         // 初始化线程变量
         DataExporter dataExporter = dataExporterList.stream()
             .filter(exporter -> exporter.support(exportType))
@@ -122,6 +187,7 @@ public class DefaultBatchExportService implements BatchAndExportService {
 
         ExportFileConfig exportFileConfig = exportConfigManager.getFileConfigWithLocale(templateId, AppContext.getLocaleOrDefault());
         if (exportFileConfig == null) {
+            cleanContext();
             // 编码问题，未提供配置，需先调用 ExportConfigManager.putConfig 方法设置输出配置
             throw new BaseRuntimeException("templateId:" + templateId + " not existed! ");
         }
@@ -132,25 +198,11 @@ public class DefaultBatchExportService implements BatchAndExportService {
             // 输出头部信息
             outputCommentLinesAndHeaders();
             log.trace("output headers finished.");
-            // 输出数据
-            log.debug("output data total turn: {}", dataSupplierList.size());
-            for (int i = 0; i < dataSupplierList.size(); i++) {
-                Supplier<List<Map<String, String>>> dataSupplier = dataSupplierList.get(i);
-                List<Map<String, String>> exportDataList = dataSupplier.get();
-                log.trace("output data turn {}", i);
-                if (CollectionUtils.isNotEmpty(exportDataList)) {
-                    outputData(exportDataList);
-                }
-            }
-            log.trace("output data finished.");
-            // 刷入流
-            dataExporter.flush();
-            return exportFileConfig.getEncode();
-            // todo 【流程】记录业务日志
-        } finally {
-            // 清理上下文
+        } catch (IOException | RuntimeException e) {
             cleanContext();
+            throw e;
         }
+        return dataExporter;
     }
 
     /**
@@ -179,31 +231,44 @@ public class DefaultBatchExportService implements BatchAndExportService {
     }
 
     /**
-     * 导出数据，不关闭流
+     * 逐行导出数据，不关闭流
      *
-     * @param data 要导出的数据
+     * @param dataExporter 导出器
+     * @param data         要导出的数据
+     * @param row          复用的数据行，导出器不支持复用时每行新建
      * @throws IOException IO异常
      */
-    private void outputData(List<Map<String, String>> data) throws IOException {
-        // 格式转换
-        List<String[]> dataLine = data.stream()
-            .map(this::toDataArray)
-            .collect(Collectors.toList());
-        BatchOutputContext.get().getCurrentDataExporter().outputData(dataLine);
+    private void outputRows(DataExporter dataExporter, List<Map<String, String>> data, String[] row) throws IOException {
+        if (CollectionUtils.isEmpty(data)) {
+            return;
+        }
+        ExportFileConfig exportFileConfig = BatchOutputContext.get().getExportConfig();
+        List<ExportColumnConfig> columnList = exportFileConfig.getColumns();
+        boolean exportRecordInfo = BatchOutputContext.get().isExtraDetail();
+        boolean reuseRow = dataExporter.copiesRow();
+        for (Map<String, String> dataMap : data) {
+            String[] dataArray = reuseRow ? row : new String[row.length];
+            fillDataArray(dataMap, columnList, exportRecordInfo, dataArray);
+            dataExporter.outputRow(dataArray);
+        }
+    }
+
+    private String[] newDataArray() {
+        int dataColumnNum = BatchOutputContext.get().getExportConfig().getColumns().size();
+        return new String[dataColumnNum + (BatchOutputContext.get().isExtraDetail() ? 3 : 0)];
     }
 
     /**
-     * 将 Map 数据转为行
+     * 将 Map 数据填充到行
      *
-     * @param dataMap 数据
-     * @return 数据行
+     * @param dataMap          数据
+     * @param columnList       列配置
+     * @param exportRecordInfo 是否导出批处理信息
+     * @param dataArray        数据行
      */
-    private String[] toDataArray(Map<String, String> dataMap) {
-        ExportFileConfig exportFileConfig = BatchOutputContext.get().getExportConfig();
-        List<ExportColumnConfig> columnList = exportFileConfig.getColumns();
-        boolean exportRecordInfo = BatchOutputContext.get().isExtraDetail();
+    private static void fillDataArray(Map<String, String> dataMap, List<ExportColumnConfig> columnList,
+                                      boolean exportRecordInfo, String[] dataArray) {
         int dataColumnNum = columnList.size();
-        String[] dataArray = new String[dataColumnNum + (exportRecordInfo ? 3 : 0)];
         // 数据
         for (int i = 0; i < dataColumnNum; i++) {
             ExportColumnConfig column = columnList.get(i);
@@ -215,7 +280,6 @@ public class DefaultBatchExportService implements BatchAndExportService {
             dataArray[dataColumnNum + 1] = dataMap.get(BatchConstants.RESULT);
             dataArray[dataColumnNum + 2] = dataMap.get(BatchConstants.DETAIL);
         }
-        return dataArray;
     }
 
     private void cleanContext() {
@@ -356,4 +420,122 @@ public class DefaultBatchExportService implements BatchAndExportService {
         return batchRecordDetailPersistentService.findAllByRecordIdAndStatusAndIndex(recordId, resultList, indexStart, indexEnd);
     }
 
+    /**
+     * 分页预取：在批处理线程池中按顺序查询各页，放入有界队列，队列满时查询线程等待，从而限制内存
+     */
+    private class PagePrefetcher {
+
+        private static final long OFFER_TIMEOUT_MILLIS = 200;
+
+        /**
+         * 数据查询完毕标记
+         */
+        private static final List<Map<String, String>> END = Collections.emptyList();
+
+        private final List<Supplier<List<Map<String, String>>>> dataSupplierList;
+
+        private final BlockingQueue<List<Map<String, String>>> pageQueue;
+
+        private volatile boolean cancelled = false;
+
+        /**
+         * 查询线程已结束（所有非空页已放入队列）
+         */
+        private volatile boolean finished = false;
+
+        private volatile Throwable error;
+
+        PagePrefetcher(List<Supplier<List<Map<String, String>>>> dataSupplierList, int prefetchPages) {
+            this.dataSupplierList = dataSupplierList;
+            this.pageQueue = new ArrayBlockingQueue<>(prefetchPages);
+        }
+
+        /**
+         * @return 是否成功提交到线程池
+         */
+        boolean start() {
+            Map<String, Serializable> allContext = AppContext.getAll();
+            try {
+                batchThreadPool.execute(() -> {
+                    try {
+                        AppContext.set(allContext);
+                        for (int i = 0; i < dataSupplierList.size() && !cancelled; i++) {
+                            List<Map<String, String>> page = dataSupplierList.get(i).get();
+                            log.trace("prefetch data turn {}", i);
+                            if (CollectionUtils.isNotEmpty(page)) {
+                                put(page);
+                            }
+                        }
+                    } catch (Throwable t) {
+                        error = t;
+                    } finally {
+                        AppContext.clean();
+                        finished = true;
+                        put(END);
+                    }
+                });
+                return true;
+            } catch (RejectedExecutionException e) {
+                return false;
+            }
+        }
+
+        private void put(List<Map<String, String>> page) {
+            try {
+                while (!cancelled) {
+                    if (pageQueue.offer(page, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                        return;
+                    }
+                }
+            } catch (InterruptedException e) {
+                // 被中断（如线程池 shutdownNow），未放入的页视为查询失败，不能当作正常结束
+                Thread.currentThread().interrupt();
+                cancelled = true;
+                if (error == null) {
+                    error = e;
+                }
+            }
+        }
+
+        /**
+         * 查询线程结束后没能放入结束标记（被中断），或任务在线程池中未执行就被丢弃（shutdownNow）时，
+         * 通过 finished / 线程池状态判断结束，不会一直等待
+         *
+         * @return 下一页，null 表示已结束
+         */
+        List<Map<String, String>> take() throws IOException {
+            while (true) {
+                List<Map<String, String>> page;
+                try {
+                    page = pageQueue.poll(OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("export interrupted");
+                }
+                if (page != null && page != END) {
+                    return page;
+                }
+                boolean end = page == END || (finished || batchThreadPool.isTerminated()) && pageQueue.isEmpty();
+                if (!end) {
+                    continue;
+                }
+                if (error != null) {
+                    throw new BaseRuntimeException("query export data fail", error);
+                }
+                if (!finished) {
+                    throw new BaseRuntimeException("query export data fail: prefetch task discarded by batchThreadPool");
+                }
+                return null;
+            }
+        }
+
+        /**
+         * 写出结束 / 异常时通知查询线程停止，并释放已预取的数据
+         */
+        void cancel() {
+            cancelled = true;
+            pageQueue.clear();
+        }
+    }
+
 }
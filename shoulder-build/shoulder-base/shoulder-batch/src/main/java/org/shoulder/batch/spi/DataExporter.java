@@ -4,6 +4,7 @@ import org.shoulder.batch.config.model.ExportFileConfig;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -60,6 +61,28 @@ public interface DataExporter {
      */
     void outputData(List<String[]> dataLine) throws IOException;
 
+    /**
+     * 输出 单行数据，导出时逐行调用，默认包装为单行列表调用 outputData，实现类可覆盖以直接写入输出缓冲
+     * 注意：仅当 {@link #copiesRow()} 返回 true 时调用方才会复用 row 数组
+     *
+     * @param row 数据行
+     * @throws IOException IO 异常
+     */
+    default void outputRow(String[] row) throws IOException {
+        outputData(Collections.singletonList(row));
+    }
+
+
+    /**
+     * outputRow 返回后是否不再持有 row 的引用（已写出或自行复制），为 true 时调用方复用同一个数组减少分配
+     * 默认 false：每行传入新数组，实现类可以缓存数据行（如缓存后写入 Excel）
+     *
+     * @return 是否可复用数据行数组
+     */
+    default boolean copiesRow() {
+        return false;
+    }
+
 
     /**
      * 刷入输出流
@@ -91,8 +91,27 @@ public class CsvExporter implements DataExporter {
     @Override
     public void outputData(List<String[]> dataLine) throws IOException {
         CsvWriter writer = BatchOutputContext.get().getExtValue(LOCAL_CSV_WRITER);
+        // 不在每页后强制 flush，由 BufferedWriter 缓冲满时写出，导出结束时统一 flush
         dataLine.forEach(writer::writeRow);
-        writer.flush();
+    }
+
+    /**
+     * 直接写入输出缓冲
+     *
+     * @param row 一行数据
+     */
+    @Override
+    public void outputRow(String[] row) {
+        CsvWriter writer = BatchOutputContext.get().getExtValue(LOCAL_CSV_WRITER);
+        writer.writeRow(row);
+    }
+
+    /**
+     * 直接写入 CsvWriter，不持有数据行
+     */
+    @Override
+    public boolean copiesRow() {
+        return true;
     }
 
     /**
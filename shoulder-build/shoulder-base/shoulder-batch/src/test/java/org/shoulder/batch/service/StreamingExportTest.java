@@ -0,0 +1,347 @@
+package org.shoulder.batch.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.shoulder.batch.config.ExportConfigManager;
+import org.shoulder.batch.config.model.ExportColumnConfig;
+import org.shoulder.batch.config.model.ExportFileConfig;
+import org.shoulder.batch.config.model.ExportLocalizeConfig;
+import org.shoulder.batch.service.impl.DefaultBatchExportService;
+import org.shoulder.batch.spi.DataExporter;
+import org.shoulder.core.exception.BaseRuntimeException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 流式导出：分页预取保持顺序、数据结束、查询失败 / 线程池异常时调用方不会一直等待
+ *
+ * @author lym
+ */
+public class StreamingExportTest {
+
+    private static final String EXPORT_TYPE = "ut";
+
+    private static final String TEMPLATE_ID = "ut_streaming_export";
+
+    private final ThreadPoolExecutor batchThreadPool = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(1), r -> new Thread(r, "ut-batch"));
+
+    private final RecordingDataExporter exporter = new RecordingDataExporter();
+
+    @AfterEach
+    public void shutdown() {
+        batchThreadPool.shutdownNow();
+    }
+
+    /**
+     * 在批处理线程中查询，按页顺序写出，空页跳过；结果与 export 一致
+     */
+    @Test
+    public void testPageOrder() throws IOException {
+        List<String> queryThreads = Collections.synchronizedList(new ArrayList<>());
+        List<Supplier<List<Map<String, String>>>> pages = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            int pageNo = i;
+            pages.add(() -> {
+                queryThreads.add(Thread.currentThread().getName());
+                // 后面的页查询更快，不影响顺序
+                sleep(20 - pageNo);
+                return pageNo % 5 == 4 ? List.of() : page(pageNo, 10);
+            });
+        }
+        Assertions.assertEquals("UTF-8", newService(batchThreadPool)
+                .exportStreaming(new ByteArrayOutputStream(), EXPORT_TYPE, pages, TEMPLATE_ID, 2));
+        List<String> expectedRows = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            if (i % 5 != 4) {
+                for (int j = 0; j < 10; j++) {
+                    expectedRows.add(i + "-" + j + ",v" + j);
+                }
+            }
+        }
+        Assertions.assertEquals(List.of("名称,值"), exporter.headers);
+        Assertions.assertEquals(expectedRows, exporter.rows);
+        Assertions.assertEquals(1, exporter.flushCount);
+        Assertions.assertEquals(Collections.nCopies(20, "ut-batch"), queryThreads);
+
+        RecordingDataExporter syncExporter = new RecordingDataExporter();
+        new DefaultBatchExportService(batchThreadPool, null, List.of(syncExporter), null, null, null, new SingleConfigManager())
+                .export(new ByteArrayOutputStream(), EXPORT_TYPE, pages, TEMPLATE_ID);
+        Assertions.assertEquals(exporter.rows, syncExporter.rows);
+    }
+
+    /**
+     * 导出器未声明 copiesRow 时每行传入新数组，缓存数据行的导出器不会拿到同一个数组；声明后复用
+     */
+    @Test
+    public void testRetainedRows() throws IOException {
+        List<Supplier<List<Map<String, String>>>> pages = List.of(() -> page(0, 3), () -> page(1, 2));
+        newService(batchThreadPool).export(new ByteArrayOutputStream(), EXPORT_TYPE, pages, TEMPLATE_ID);
+        newService(batchThreadPool).exportStreaming(new ByteArrayOutputStream(), EXPORT_TYPE, pages, TEMPLATE_ID, 1);
+        List<String> retained = exporter.retainedRows.stream().map(row -> String.join(",", row)).toList();
+        Assertions.assertEquals(exporter.rows, retained);
+        Assertions.assertEquals(10, exporter.retainedRows.stream().distinct().count());
+
+        RecordingDataExporter copiesRowExporter = new RecordingDataExporter();
+        copiesRowExporter.copiesRow = true;
+        new DefaultBatchExportService(batchThreadPool, null, List.of(copiesRowExporter), null, null, null, new SingleConfigManager())
+                .exportStreaming(new ByteArrayOutputStream(), EXPORT_TYPE, pages, TEMPLATE_ID, 1);
+        Assertions.assertEquals(5, copiesRowExporter.rows.size());
+        Assertions.assertEquals(1, copiesRowExporter.retainedRows.stream().distinct().count());
+    }
+
+    /**
+     * 没有数据 / 全是空页：只输出表头，正常结束
+     */
+    @Test
+    public void testEndOfData() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            newService(batchThreadPool).exportStreaming(new ByteArrayOutputStream(), EXPORT_TYPE, List.of(), TEMPLATE_ID, 1);
+            newService(batchThreadPool).exportStreaming(new ByteArrayOutputStream(), EXPORT_TYPE,
+                    List.of(List::of, () -> null, List::of), TEMPLATE_ID, 1);
+        });
+        Assertions.assertTrue(exporter.rows.isEmpty());
+        Assertions.assertEquals(2, exporter.headers.size());
+        Assertions.assertEquals(2, exporter.flushCount);
+    }
+
+    /**
+     * 查询某页失败：之前的页正常写出，异常抛给调用方，后续页不再查询
+     */
+    @Test
+    public void testPageFetchFail() {
+        AtomicInteger queried = new AtomicInteger();
+        List<Supplier<List<Map<String, String>>>> pages = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            int pageNo = i;
+            pages.add(() -> {
+                queried.incrementAndGet();
+                if (pageNo == 3) {
+                    throw new IllegalStateException("mock db fail");
+                }
+                return page(pageNo, 2);
+            });
+        }
+        BaseRuntimeException e = Assertions.assertTimeoutPreemptively(Duration.ofSeconds(5), () -> Assertions.assertThrows(
+                BaseRuntimeException.class,
+                () -> newService(batchThreadPool).exportStreaming(new ByteArrayOutputStream(), EXPORT_TYPE, pages, TEMPLATE_ID, 1)));
+        Assertions.assertInstanceOf(IllegalStateException.class, e.getCause());
+        Assertions.assertEquals(6, exporter.rows.size());
+        Assertions.assertEquals(4, queried.get());
+    }
+
+    /**
+     * 写出失败：查询线程停止，不会阻塞在队列上占用批处理线程
+     */
+    @Test
+    public void testWriteFailStopPrefetch() throws Exception {
+        exporter.failAtRow = 3;
+        AtomicInteger queried = new AtomicInteger();
+        List<Supplier<List<Map<String, String>>>> pages = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            int pageNo = i;
+            pages.add(() -> {
+                queried.incrementAndGet();
+                return page(pageNo, 2);
+            });
+        }
+        Assertions.assertThrows(IOException.class,
+                () -> newService(batchThreadPool).exportStreaming(new ByteArrayOutputStream(), EXPORT_TYPE, pages, TEMPLATE_ID, 1));
+        waitPoolIdle();
+        Assertions.assertTrue(queried.get() < 100);
+    }
+
+    /**
+     * 预取任务排队时线程池被 shutdownNow 丢弃：调用方感知失败，不会一直等待
+     */
+    @Test
+    public void testPrefetchTaskDiscarded() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        batchThreadPool.execute(() -> {
+            running.countDown();
+            sleep(60_000);
+        });
+        Assertions.assertTrue(running.await(5, TimeUnit.SECONDS));
+        Thread stopper = new Thread(() -> {
+            sleep(200);
+            batchThreadPool.shutdownNow();
+        });
+        stopper.start();
+        BaseRuntimeException e = Assertions.assertTimeoutPreemptively(Duration.ofSeconds(5), () -> Assertions.assertThrows(
+                BaseRuntimeException.class,
+                () -> newService(batchThreadPool).exportStreaming(new ByteArrayOutputStream(), EXPORT_TYPE,
+                        List.of(() -> page(0, 1)), TEMPLATE_ID, 1)));
+        Assertions.assertTrue(e.getMessage().contains("discarded"));
+        stopper.join();
+    }
+
+    /**
+     * 线程池拒绝：退化为当前线程查询
+     */
+    @Test
+    public void testPoolRejectFallback() throws IOException {
+        ThreadPoolExecutor busyPool = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new SynchronousQueue<>());
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            busyPool.execute(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            List<String> queryThreads = new ArrayList<>();
+            newService(busyPool).exportStreaming(new ByteArrayOutputStream(), EXPORT_TYPE, List.of(() -> {
+                queryThreads.add(Thread.currentThread().getName());
+                return page(0, 3);
+            }), TEMPLATE_ID, 1);
+            Assertions.assertEquals(List.of(Thread.currentThread().getName()), queryThreads);
+            Assertions.assertEquals(3, exporter.rows.size());
+        } finally {
+            release.countDown();
+            busyPool.shutdownNow();
+        }
+    }
+
+    private DefaultBatchExportService newService(ThreadPoolExecutor pool) {
+        return new DefaultBatchExportService(pool, null, List.of(exporter), null, null, null, new SingleConfigManager());
+    }
+
+    private void waitPoolIdle() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (batchThreadPool.getActiveCount() > 0) {
+            Assertions.assertTrue(System.currentTimeMillis() < deadline, "prefetch thread not stop");
+            Thread.sleep(10);
+        }
+    }
+
+    private static List<Map<String, String>> page(int pageNo, int size) {
+        List<Map<String, String>> page = new ArrayList<>(size);
+        for (int j = 0; j < size; j++) {
+            page.add(Map.of("name", pageNo + "-" + j, "value", "v" + j));
+        }
+        return page;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 只有一个导出模板
+     */
+    private static class SingleConfigManager implements ExportConfigManager {
+
+        private final ExportFileConfig fileConfig;
+
+        SingleConfigManager() {
+            fileConfig = new ExportFileConfig();
+            fileConfig.setId(TEMPLATE_ID);
+            fileConfig.setEncode("UTF-8");
+            fileConfig.setCommentLines(List.of());
+            fileConfig.setHeaders(List.of("名称", "值"));
+            fileConfig.setColumns(List.of(new ExportColumnConfig("name", "名称"), new ExportColumnConfig("value", "值")));
+        }
+
+        @Override
+        public void addLocalizeConfig(ExportLocalizeConfig exportLocalizeConfig) {
+        }
+
+        @Override
+        public ExportLocalizeConfig findLocalizeConfig(Locale locale) {
+            return null;
+        }
+
+        @Override
+        public void addFileConfig(ExportFileConfig exportFileConfig) {
+        }
+
+        @Override
+        public ExportFileConfig findFileConfig(String csvId) {
+            return TEMPLATE_ID.equals(csvId) ? fileConfig : null;
+        }
+
+        @Override
+        public ExportFileConfig getFileConfigWithLocale(String templateId, Locale locale) {
+            return findFileConfig(templateId);
+        }
+    }
+
+    /**
+     * 记录输出的表头、数据行（逗号拼接），并持有传入的数据行数组
+     */
+    private static class RecordingDataExporter implements DataExporter {
+
+        private final List<String> headers = new ArrayList<>();
+
+        private final List<String> rows = new ArrayList<>();
+
+        private int flushCount;
+
+        private int failAtRow = -1;
+
+        private final List<String[]> retainedRows = new ArrayList<>();
+
+        private boolean copiesRow;
+
+        @Override
+        public boolean support(String exportType) {
+            return EXPORT_TYPE.equals(exportType);
+        }
+
+        @Override
+        public void prepare(OutputStream outputStream, ExportFileConfig exportFileConfig) {
+        }
+
+        @Override
+        public void outputComment(List<String> commentLines) {
+        }
+
+        @Override
+        public void outputHeader(List<String> headers) {
+            this.headers.add(String.join(",", headers));
+        }
+
+        @Override
+        public void outputData(List<String[]> dataLine) throws IOException {
+            for (String[] row : dataLine) {
+                if (rows.size() == failAtRow) {
+                    throw new IOException("mock write fail");
+                }
+                rows.add(String.join(",", row));
+                retainedRows.add(row);
+            }
+        }
+
+        @Override
+        public boolean copiesRow() {
+            return copiesRow;
+        }
+
+        @Override
+        public void flush() {
+            flushCount++;
+        }
+    }
+
+}
@@ -0,0 +1,346 @@
+package org.shoulder.cluster.cache.redis;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.apache.commons.collections4.CollectionUtils;
+import org.shoulder.core.cache.Cache;
+import org.shoulder.core.context.AppInfo;
+import org.springframework.cache.support.NullValue;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.lang.NonNull;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * 基于 Redis 的 {@link Cache}，批量操作原生实现：getMulti 使用 MGET，evictMulti 使用 pipeline 批量 DEL，clear 使用 SCAN，均按 batchSize 分批，
+ * 避免每个 key 一次网络往返
+ * <p>
+ * 二级缓存：可传入本地 nearCache，读时先查本地，未命中再查 redis 并回填本地；本实例写 / 删时同步更新本地。
+ * 注意：其他实例的修改不会通知本实例，nearCache 需设置较短的过期时间，适合读多写少、允许短暂不一致的数据
+ *
+ * @author lym
+ */
+public class ShoulderRedisCache implements Cache {
+
+    /**
+     * 默认每批最多多少个 key
+     */
+    public static final int DEFAULT_BATCH_SIZE = 100;
+
+    private final String name;
+
+    /**
+     * redis key 前缀：name + 分隔符
+     */
+    private final String keyPrefix;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    /**
+     * 过期时间，null 表示不过期
+     */
+    @Nullable
+    private final Duration ttl;
+
+    /**
+     * 批量操作每批 key 数
+     */
+    private final int batchSize;
+
+    /**
+     * 本地缓存，null 表示不使用二级缓存
+     */
+    @Nullable
+    private final Cache nearCache;
+
+    public ShoulderRedisCache(String name, RedisTemplate<String, Object> redisTemplate, @Nullable Duration ttl) {
+        this(name, redisTemplate, ttl, DEFAULT_BATCH_SIZE, null);
+    }
+
+    /**
+     * 构造器
+     *
+     * @param name          缓存名，作为 redis key 前缀
+     * @param redisTemplate redis 模板，value 序列化器需能处理 {@link NullValue}（如 RedisSerializer.json()）
+     * @param ttl           过期时间，null 表示不过期
+     * @param batchSize     批量操作每批 key 数
+     * @param nearCache     本地缓存，null 表示不使用二级缓存
+     */
+    public ShoulderRedisCache(String name, RedisTemplate<String, Object> redisTemplate, @Nullable Duration ttl,
+                              int batchSize, @Nullable Cache nearCache) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must > 0. batchSize=" + batchSize);
+        }
+        this.name = name;
+        this.keyPrefix = name + AppInfo.cacheKeySplit();
+        this.redisTemplate = redisTemplate;
+        this.ttl = ttl;
+        this.batchSize = batchSize;
+        this.nearCache = nearCache;
+    }
+
+    @Nonnull
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Nonnull
+    @Override
+    public Object getNativeCache() {
+        return redisTemplate;
+    }
+
+    @Override
+    public ValueWrapper get(@Nonnull Object key) {
+        if (nearCache != null) {
+            ValueWrapper local = nearCache.get(key);
+            if (local != null) {
+                return local;
+            }
+        }
+        Object value = redisTemplate.opsForValue().get(toRedisKey(key));
+        if (value == null) {
+            return null;
+        }
+        Object result = fromStoreValue(value);
+        if (nearCache != null) {
+            nearCache.put(key, result);
+        }
+        return new SimpleValueWrapper(result);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(@Nonnull Object key, Class<T> type) {
+        ValueWrapper valueWrapper = get(key);
+        Object value = valueWrapper == null ? null : valueWrapper.get();
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    /**
+     * 未命中时加载并写入；注意：不加分布式锁，多个实例并发未命中时可能都会调用 valueLoader
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(@Nonnull Object key, @Nonnull Callable<T> valueLoader) {
+        ValueWrapper valueWrapper = get(key);
+        if (valueWrapper != null) {
+            return (T) valueWrapper.get();
+        }
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        put(key, value);
+        return value;
+    }
+
+    @Override
+    public void put(@Nonnull Object key, @Nullable Object value) {
+        if (ttl == null) {
+            redisTemplate.opsForValue().set(toRedisKey(key), toStoreValue(value));
+        } else {
+            redisTemplate.opsForValue().set(toRedisKey(key), toStoreValue(value), ttl);
+        }
+        if (nearCache != null) {
+            nearCache.put(key, value);
+        }
+    }
+
+    @Override
+    public void evict(@Nonnull Object key) {
+        redisTemplate.delete(toRedisKey(key));
+        if (nearCache != null) {
+            nearCache.evict(key);
+        }
+    }
+
+    /**
+     * 使用 SCAN（每次约 batchSize 个）遍历该缓存的 key，每满一批 pipeline 删除，不会像 KEYS 一样长时间阻塞 redis。
+     * 注意：不是原子操作，清理过程中新写入的 key 可能不会被删除；集群模式需 redis 客户端支持跨节点 SCAN
+     */
+    @Override
+    public void clear() {
+        ScanOptions scanOptions = ScanOptions.scanOptions()
+            .match(keySerializer().serialize(escapeGlob(keyPrefix) + "*"))
+            .count(batchSize)
+            .build();
+        List<String> batch = new ArrayList<>(batchSize);
+        // key 序列化器可能添加了应用前缀，因此 match 使用序列化后的字节，返回的 key 已反序列化
+        try (Cursor<String> cursor = redisTemplate.scan(scanOptions)) {
+            while (cursor.hasNext()) {
+                batch.add(cursor.next());
+                if (batch.size() >= batchSize) {
+                    deleteInPipeline(batch);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            deleteInPipeline(batch);
+        }
+        if (nearCache != null) {
+            nearCache.clear();
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> List<T> getMulti(@NonNull List<? extends Serializable> keys) {
+        List<ValueWrapper> valueWrappers = getMultiWrapper(keys);
+        List<Object> result = new ArrayList<>(valueWrappers.size());
+        for (ValueWrapper valueWrapper : valueWrappers) {
+            result.add(valueWrapper == null ? null : valueWrapper.get());
+        }
+        return (List<T>) result;
+    }
+
+    /**
+     * 先批量查本地，剩余的按 batchSize 分批 MGET；缓存的空值返回 value 为 null 的 ValueWrapper
+     */
+    @Override
+    public List<ValueWrapper> getMultiWrapper(@NonNull List<? extends Serializable> keys) {
+        if (CollectionUtils.isEmpty(keys)) {
+            return Collections.emptyList();
+        }
+        List<ValueWrapper> result = nearCache == null ? new ArrayList<>(Collections.nCopies(keys.size(), null))
+                : new ArrayList<>(nearCache.getMultiWrapper(keys));
+
+        // 本地未命中的下标
+        List<Integer> missedIndexes = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            if (result.get(i) == null) {
+                missedIndexes.add(i);
+            }
+        }
+        for (int from = 0; from < missedIndexes.size(); from += batchSize) {
+            List<Integer> batchIndexes = missedIndexes.subList(from, Math.min(from + batchSize, missedIndexes.size()));
+            List<String> redisKeys = new ArrayList<>(batchIndexes.size());
+            for (Integer index : batchIndexes) {
+                redisKeys.add(toRedisKey(keys.get(index)));
+            }
+            List<Object> values = redisTemplate.opsForValue().multiGet(redisKeys);
+            if (values == null) {
+                // pipeline / 事务中
+                continue;
+            }
+            for (int i = 0; i < batchIndexes.size(); i++) {
+                Object value = values.get(i);
+                if (value == null) {
+                    continue;
+                }
+                Object v = fromStoreValue(value);
+                int index = batchIndexes.get(i);
+                result.set(index, new SimpleValueWrapper(v));
+                if (nearCache != null) {
+                    nearCache.put(keys.get(index), v);
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public <K extends Serializable, V> Map<K, V> getMultiMap(@NonNull List<K> keys) {
+        if (CollectionUtils.isEmpty(keys)) {
+            return Collections.emptyMap();
+        }
+        List<V> values = getMulti(keys);
+        Map<K, V> result = new HashMap<>(keys.size() * 4 / 3 + 1);
+        for (int i = 0; i < keys.size(); i++) {
+            V v = values.get(i);
+            if (v != null) {
+                result.put(keys.get(i), v);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 按 batchSize 分批，每批一个 pipeline 发送多个 DEL（集群模式下 key 可能位于不同 slot，不使用单个多 key DEL）
+     */
+    @Override
+    public void evictMulti(@NonNull Collection<? extends Serializable> keys) {
+        if (CollectionUtils.isEmpty(keys)) {
+            return;
+        }
+        List<String> redisKeys = new ArrayList<>(keys.size());
+        for (Serializable key : keys) {
+            redisKeys.add(toRedisKey(key));
+        }
+        deleteInPipeline(redisKeys);
+        if (nearCache != null) {
+            nearCache.evictMulti(keys);
+        }
+    }
+
+    private void deleteInPipeline(List<String> redisKeys) {
+        RedisSerializer<String> keySerializer = keySerializer();
+        for (int from = 0; from < redisKeys.size(); from += batchSize) {
+            List<String> batch = redisKeys.subList(from, Math.min(from + batchSize, redisKeys.size()));
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                deleteKeys(connection, keySerializer, batch);
+                return null;
+            });
+        }
+    }
+
+    private static void deleteKeys(RedisConnection connection, RedisSerializer<String> keySerializer, List<String> keys) {
+        for (String key : keys) {
+            connection.keyCommands().del(keySerializer.serialize(key));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private RedisSerializer<String> keySerializer() {
+        return (RedisSerializer<String>) redisTemplate.getKeySerializer();
+    }
+
+    /**
+     * 转义 glob 特殊字符，避免缓存名中的 * ? [ 匹配到其他缓存的 key
+     */
+    private static String escapeGlob(String str) {
+        StringBuilder sb = new StringBuilder(str.length() + 4);
+        for (int i = 0; i < str.length(); i++) {
+            char c = str.charAt(i);
+            if (c == '*' || c == '?' || c == '[' || c == ']' || c == '\\') {
+                sb.append('\\');
+            }
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    protected String toRedisKey(Object key) {
+        return keyPrefix + key;
+    }
+
+    private static Object toStoreValue(@Nullable Object value) {
+        return value == null ? NullValue.INSTANCE : value;
+    }
+
+    private static Object fromStoreValue(Object value) {
+        return value instanceof NullValue ? null : value;
+    }
+
+}
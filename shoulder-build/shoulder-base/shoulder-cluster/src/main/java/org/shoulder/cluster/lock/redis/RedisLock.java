@@ -7,11 +7,23 @@ import org.shoulder.core.context.AppInfo;
 import org.shoulder.core.lock.AbstractDistributeLock;
 import org.shoulder.core.lock.LockInfo;
 import org.shoulder.core.lock.ServerLock;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * 基于 Redis 的分布式锁
@@ -19,6 +31,11 @@ import java.util.Collections;
  * why not RedissonLock ? 虽然它提供了大量的工具包，但依赖了大量的 redis 的能力，若某一环节崩溃，更可能出现故障
  * 基础层，选择 keep it simple! 仅依赖 k-v 和原子性命令，提供基本实现，使用者可自行选择
  * why not RedLock ? 为了 redLock 专门提供 3 组隔离的 redis 集群代价太大得不偿失。
+ * <p>
+ * 等待方式：默认按 retryBlockTime 轮询；传入 RedisMessageListenerContainer 后改为通知唤醒：
+ * 释放锁时在同一 lua 脚本中向该锁的 channel（即序列化后的锁 key，含 key 序列化器添加的应用前缀，不同应用互不唤醒）发布消息，
+ * 本机等待同一资源的所有线程共用一个订阅，收到消息后通过 Condition 唤醒再尝试加锁。
+ * 锁过期、消息丢失、订阅尚未生效时仍以 notifyFallbackPollTime 轮询兜底
  *
  * @author lym
  */
@@ -34,15 +51,68 @@ public class RedisLock extends AbstractDistributeLock implements ServerLock {
      */
     private final StringRedisTemplate redis;
 
+    /**
+     * 用于订阅锁释放消息，null 则轮询等待
+     */
+    @Nullable
+    private final RedisMessageListenerContainer listenerContainer;
+
+    /**
+     * 本机正在等待的资源 -> 等待者，同一资源的等待线程共用一个订阅
+     */
+    private final Map<String, ResourceWaiter> waiterMap = new ConcurrentHashMap<>();
+
+    /**
+     * 通知等待时，未收到通知的兜底轮询间隔
+     */
+    private Duration notifyFallbackPollTime = Duration.ofMillis(500);
+
     public RedisLock(String lockKeyPrefix, StringRedisTemplate redis) {
+        this(lockKeyPrefix, redis, null);
+    }
+
+    /**
+     * 构造器
+     *
+     * @param lockKeyPrefix     锁 key 前缀
+     * @param redis             redis 模板
+     * @param listenerContainer 用于订阅锁释放消息，null 则轮询等待
+     */
+    public RedisLock(String lockKeyPrefix, StringRedisTemplate redis, @Nullable RedisMessageListenerContainer listenerContainer) {
         this.lockKeyPrefix = StringUtils.isBlank(lockKeyPrefix) ? "" :
                 lockKeyPrefix.endsWith(SPLIT) ?
                 lockKeyPrefix : lockKeyPrefix + SPLIT;
         this.redis = redis;
+        this.listenerContainer = listenerContainer;
     }
 
     public static final String SPLIT = "__";
 
+    /**
+     * 释放锁，若传入 channel 则释放成功后发布消息
+     */
+    private static final RedisScript<Long> RELEASE_LOCK_SCRIPT = new DefaultRedisScript<>("""
+            local value = ARGV[1];
+            if redis.call('GET', KEYS[1]) ~= value then
+            	return -1;
+            else
+            	redis.call('DEL', KEYS[1]);
+            	if ARGV[2] then
+            		redis.call('PUBLISH', ARGV[2], '1');
+            	end
+            	return 1;
+            	end""", Long.class);
+
+    /**
+     * 续期，仍持有锁时重新设置过期时间
+     */
+    private static final RedisScript<Long> RENEW_LOCK_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+            	return redis.call('PEXPIRE', KEYS[1], ARGV[2]);
+            else
+            	return 0;
+            end""", Long.class);
+
     /**
      * todo 【功能】这里为轻量化，仅存储了部分信息，可考虑改为使用 hash 存储
      *
@@ -60,10 +130,46 @@ public class RedisLock extends AbstractDistributeLock implements ServerLock {
         log.debug("Try lock [{}].", lockInfo.getResource());
         boolean success = Boolean.TRUE.equals(redis.opsForValue().setIfAbsent(genLockKey(lockInfo.getResource()),
                 genLockValue(lockInfo.getToken()), lockInfo.getHoldTime()));
-        log.info("Lock [{}] {} for {}.", lockInfo.getResource(), lockInfo.getHoldTime(), success ? "SUCCESS" : "FAIL");
+        log.debug("Lock [{}] {} for {}.", lockInfo.getResource(), lockInfo.getHoldTime(), success ? "SUCCESS" : "FAIL");
         return success;
     }
 
+    /**
+     * 未配置 listenerContainer 时按 retryBlockTime 轮询；否则等待释放通知，最多阻塞 exceptMaxBlockTime + 一次尝试获取时间
+     */
+    @Override
+    public boolean tryLock(LockInfo lockInfo, Duration exceptMaxBlockTime) throws InterruptedException {
+        if (listenerContainer == null) {
+            return super.tryLock(lockInfo, exceptMaxBlockTime);
+        }
+        if (tryLock(lockInfo)) {
+            return true;
+        }
+        long startTime = System.nanoTime();
+        long deadline = startTime + exceptMaxBlockTime.toNanos();
+        String resource = lockInfo.getResource();
+        // 先订阅再重试，避免错过两次尝试之间的释放
+        ResourceWaiter waiter = subscribe(resource);
+        try {
+            for (int tryTimes = 1; ; tryTimes++) {
+                long releaseVersion = waiter.releaseVersion;
+                if (tryLock(lockInfo)) {
+                    log.debug("try lock SUCCESS cost {}ms! {}", (System.nanoTime() - startTime) / 1_000_000, lockInfo);
+                    return true;
+                }
+                long maxBlockNanos = deadline - System.nanoTime();
+                if (maxBlockNanos <= 0) {
+                    log.info("try lock FAIL with {}! {}", exceptMaxBlockTime, lockInfo);
+                    return false;
+                }
+                log.trace("try lock {} for {} times.", resource, tryTimes);
+                waiter.await(releaseVersion, Math.min(maxBlockNanos, notifyFallbackPollTime.toNanos()));
+            }
+        } finally {
+            unsubscribe(resource, waiter);
+        }
+    }
+
     @Override
     public boolean holdLock(@Nonnull String resource, @Nonnull String token) {
         return genLockValue(token).equals(redis.opsForValue().get(genLockKey(resource)));
@@ -71,8 +177,11 @@ public class RedisLock extends AbstractDistributeLock implements ServerLock {
 
     @Override
     public void unlock(@Nonnull String resource, @Nonnull String token) {
-        Long result = redis.execute(releaseLockScript(), Collections.singletonList(genLockKey(resource)),
-                genLockValue(token));
+        String lockKey = genLockKey(resource);
+        List<String> keys = Collections.singletonList(lockKey);
+        Long result = listenerContainer == null ?
+                redis.execute(RELEASE_LOCK_SCRIPT, keys, genLockValue(token)) :
+                redis.execute(RELEASE_LOCK_SCRIPT, keys, genLockValue(token), genReleaseChannel(resource));
         if (result == null || 1 != result) {
             log.debug("invalid release operation: resource={}, token={}", resource, token);
         } else {
@@ -80,6 +189,13 @@ public class RedisLock extends AbstractDistributeLock implements ServerLock {
         }
     }
 
+    @Override
+    public boolean renew(@Nonnull String resource, @Nonnull String token, Duration holdTime) {
+        Long result = redis.execute(RENEW_LOCK_SCRIPT, Collections.singletonList(genLockKey(resource)),
+                genLockValue(token), String.valueOf(holdTime.toMillis()));
+        return result != null && result == 1;
+    }
+
     /**
      * 附带拥有者标识
      *
@@ -100,15 +216,115 @@ public class RedisLock extends AbstractDistributeLock implements ServerLock {
         return AppInfo.instanceId() + SPLIT + (StringUtils.isNotBlank(token) ? token : "");
     }
 
-    private RedisScript<Long> releaseLockScript() {
-        final String script = """
-                local value = ARGV[1];
-                if redis.call('GET', KEYS[1]) ~= value then
-                \treturn -1;
-                else
-                \tredis.call('DEL', KEYS[1]);
-                \treturn 1;
-                \tend""";
-        return new DefaultRedisScript<>(script, Long.class);
+    /**
+     * 锁释放消息的 channel：序列化后的锁 key（pub/sub 的 channel 与 key 互不影响）。
+     * lua 脚本的参数与订阅的 channel 都不经过 key 序列化器，因此在这里带上序列化器添加的应用前缀，
+     * 共用一个 redis 的不同应用不会收到彼此的释放消息
+     */
+    @SuppressWarnings("unchecked")
+    private String genReleaseChannel(String resource) {
+        byte[] channel = ((RedisSerializer<String>) redis.getKeySerializer()).serialize(genLockKey(resource));
+        return channel == null ? genLockKey(resource) : new String(channel, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 在 waiterMap.compute 中只修改等待数，订阅在 compute 外进行（订阅涉及网络交互，且不应在 ConcurrentHashMap 的 compute 中执行）。
+     * 每个 ResourceWaiter 是独立的监听器，旧等待者取消订阅与新等待者订阅交错时互不影响
+     */
+    private ResourceWaiter subscribe(String resource) {
+        ResourceWaiter[] created = new ResourceWaiter[1];
+        ResourceWaiter waiter = waiterMap.compute(resource, (k, current) -> {
+            if (current == null) {
+                current = new ResourceWaiter(new ChannelTopic(genReleaseChannel(k)));
+                created[0] = current;
+            }
+            current.waiterCount++;
+            return current;
+        });
+        if (created[0] != null) {
+            listenerContainer.addMessageListener(created[0], created[0].topic);
+        }
+        return waiter;
+    }
+
+    private void unsubscribe(String resource, ResourceWaiter waiter) {
+        boolean[] removed = new boolean[1];
+        waiterMap.computeIfPresent(resource, (k, current) -> {
+            if (current != waiter || --current.waiterCount > 0) {
+                return current;
+            }
+            removed[0] = true;
+            return null;
+        });
+        if (removed[0]) {
+            listenerContainer.removeMessageListener(waiter, waiter.topic);
+        }
+    }
+
+    public Duration getNotifyFallbackPollTime() {
+        return notifyFallbackPollTime;
+    }
+
+    public void setNotifyFallbackPollTime(Duration notifyFallbackPollTime) {
+        this.notifyFallbackPollTime = notifyFallbackPollTime;
+    }
+
+    /**
+     * 本机等待某个资源的线程，同时作为该资源释放消息的监听器
+     */
+    private static class ResourceWaiter implements MessageListener {
+
+        private final ChannelTopic topic;
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private final Condition released = lock.newCondition();
+
+        /**
+         * 收到释放消息的次数，用于判断等待前是否已经释放过，避免丢失唤醒
+         */
+        private volatile long releaseVersion;
+
+        /**
+         * 等待线程数，仅在 waiterMap.compute 中修改
+         */
+        private int waiterCount;
+
+        private ResourceWaiter(ChannelTopic topic) {
+            this.topic = topic;
+        }
+
+        @Override
+        public void onMessage(@Nonnull Message message, @Nullable byte[] pattern) {
+            signalRelease();
+        }
+
+        private void signalRelease() {
+            lock.lock();
+            try {
+                releaseVersion++;
+                released.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * 等待释放通知
+         *
+         * @param lastVersion  等待前读取的 releaseVersion
+         * @param timeoutNanos 最长等待时间
+         */
+        private void await(long lastVersion, long timeoutNanos) throws InterruptedException {
+            lock.lock();
+            try {
+                long nanos = timeoutNanos;
+                while (releaseVersion == lastVersion && nanos > 0) {
+                    nanos = released.awaitNanos(nanos);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
     }
 }
@@ -91,6 +91,23 @@ public interface Cache extends org.springframework.cache.Cache {
         return Collections.emptyList();
     }
 
+    /**
+     * 获取多个值，与 {@link #getMulti} 不同：能区分未命中（null）与命中但值为空（{@link ValueWrapper#get()} 为 null），
+     * 用于批量查询时缓存空值，避免不存在的数据每次都穿透到数据源
+     * 实现类可以通过并行手段优化，注意控制数量，不要单次太多即可
+     *
+     * @param keys k，有序
+     * @return 与 keys 一一对应，未命中为 null
+     */
+    default List<ValueWrapper> getMultiWrapper(@NonNull List<? extends Serializable> keys) {
+        if (CollectionUtils.isNotEmpty(keys)) {
+            return keys.stream()
+                    .map(this::get)
+                    .collect(Collectors.toList());
+        }
+        return Collections.emptyList();
+    }
+
     /**
      * 返回 map
      *
@@ -1,43 +1,42 @@
-
 package org.shoulder.core.concurrent;
 
-import cn.hutool.core.thread.NamedThreadFactory;
 import jakarta.annotation.Nonnull;
 import org.apache.ibatis.exceptions.TooManyResultsException;
 import org.shoulder.core.exception.CommonErrorCodeEnum;
 import org.shoulder.core.util.AssertUtils;
 
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
 /**
  * 高性能优先级阻塞队列
  * 比 PriorityBlockingQueue 不通级别隔离程度更高、性能更好，可用于处理请求，比如生产流量 VIP 优先，生产流量普通用户次之，测试流量再次之..
+ * <p>
+ * 取元素时先无锁挨个 poll 各优先级队列；都为空时，消费者统一阻塞在同一个 Condition 上，由 offer / put 唤醒，不借助额外线程
+ * 每个优先级都有使用情况统计 {@link LevelStatistics}，可用于监控低优先级是否被饿死
  *
  * @author lym
  * @see java.util.concurrent.PriorityBlockingQueue 插入复杂度为 O(log n)，而Linked / Array BlockingQueue 插入复杂度为 O(1), 性能差距太大，
  * 故针优先级别数量较小的场景定制该类，时间复杂度也为 O(1)
  * https://developer.aliyun.com/article/84588
- *
- * todo 【增强P3】统计不同下标使用情况
  */
 @SuppressWarnings("unchecked")
 public class FastPriorityBlockingQueue<E> implements BlockingQueue<E> {
 
     /**
      * 放的时候根据 priorityFetcher 计算数组下标（优先级）放入
-     * 取的时候从第一个队列先取，取不到再并发阻塞 take
+     * 取的时候按照选取策略（严格优先 / 加权轮询）非阻塞 poll，都取不到再阻塞等待唤醒
      */
     final BlockingQueue<E>[] queuesArray;
 
@@ -48,61 +47,194 @@ public class FastPriorityBlockingQueue<E> implements BlockingQueue<E> {
 
     /**
      * true 【高性能 | 默认】严格按照先处理高优先，再处理低优先的，高优先处理不完，低优先永远得不到处理
-     * false 整体会先处理高优先，但实际低优先也不至于不会处理
+     * false 按照 weights 加权轮询选择优先从哪个级别取，整体会先处理高优先，但实际低优先也不至于不会处理
      */
     final boolean alwaysAcquireHighPriorityFirst;
 
-    final ThreadPoolExecutor threadPoolExecutor;
+    /**
+     * 加权轮询调度表，长度为权重之和，每个元素为优先级下标（平滑加权轮询预先生成，避免取元素时加锁计算）
+     * 仅 alwaysAcquireHighPriorityFirst = false 时使用
+     */
+    final int[] weightedSchedule;
+
+    /**
+     * 各优先级使用情况统计，下标即优先级
+     */
+    final LevelStatistics[] levelStatistics;
+
+    /**
+     * 加权轮询游标
+     */
+    private final AtomicLong scheduleCursor = new AtomicLong();
+
+    /**
+     * 阻塞获取时使用的锁，仅在所有队列都为空时才会使用
+     */
+    private final ReentrantLock takeLock = new ReentrantLock();
+
+    /**
+     * 等待非空的条件，由 offer / put 唤醒
+     */
+    private final Condition notEmpty = takeLock.newCondition();
+
+    /**
+     * 正在等待的消费者数量，生产者据此判断是否需要加锁唤醒，无消费者等待时入队无需加锁
+     */
+    private final AtomicInteger waitingConsumers = new AtomicInteger();
 
     public FastPriorityBlockingQueue(Supplier<BlockingQueue<E>> blockingQueueConstruction, Function<E, Integer> priorityFetcher, int priorityCount) {
         this(blockingQueueConstruction, priorityFetcher, priorityCount, true);
     }
 
+    /**
+     * 构造器
+     *
+     * @param alwaysAcquireHighPriorityFirst false 时默认权重为 priorityCount, priorityCount - 1 ... 1，即越高优先级权重越大
+     */
     public FastPriorityBlockingQueue(Supplier<BlockingQueue<E>> blockingQueueConstruction, Function<E, Integer> priorityFetcher, int priorityCount, boolean alwaysAcquireHighPriorityFirst) {
-        this(blockingQueueConstruction, priorityFetcher, priorityCount, alwaysAcquireHighPriorityFirst,
-                // 由于该线程池只是用于等待，故理论上不会占用什么 CPU 资源，核数调大，避免阻塞
-                new ThreadPoolExecutor(priorityCount * 32, priorityCount * 32,
-                        60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
-                        new NamedThreadFactory("FastPriorityBlockingQueue", true)
-                ));
+        this(blockingQueueConstruction, priorityFetcher, priorityCount, alwaysAcquireHighPriorityFirst, defaultWeights(priorityCount));
     }
 
-
+    /**
+     * 兼容旧版本：旧实现借助线程池并发 take，现已不再需要线程池
+     *
+     * @param threadPoolExecutor 不再使用，调用方自行管理其生命周期
+     * @deprecated 使用 {@link #FastPriorityBlockingQueue(Supplier, Function, int, boolean)}
+     */
+    @Deprecated
     public FastPriorityBlockingQueue(Supplier<BlockingQueue<E>> blockingQueueConstruction, Function<E, Integer> priorityFetcher, int priorityCount, boolean alwaysAcquireHighPriorityFirst, ThreadPoolExecutor threadPoolExecutor) {
+        this(blockingQueueConstruction, priorityFetcher, priorityCount, alwaysAcquireHighPriorityFirst);
+    }
+
+    /**
+     * 加权轮询模式
+     *
+     * @param weights 各优先级权重，如 8:3:1，下标即优先级
+     */
+    public FastPriorityBlockingQueue(Supplier<BlockingQueue<E>> blockingQueueConstruction, Function<E, Integer> priorityFetcher, int[] weights) {
+        this(blockingQueueConstruction, priorityFetcher, weights.length, false, weights);
+    }
+
+    private FastPriorityBlockingQueue(Supplier<BlockingQueue<E>> blockingQueueConstruction, Function<E, Integer> priorityFetcher, int priorityCount, boolean alwaysAcquireHighPriorityFirst, int[] weights) {
         AssertUtils.isTrue(priorityCount < 30, CommonErrorCodeEnum.ILLEGAL_PARAM, "Too many priorityCount, use PriorityBlockingQueue pls.");
+        AssertUtils.isTrue(priorityCount > 0, CommonErrorCodeEnum.ILLEGAL_PARAM, "priorityCount must > 0");
         this.queuesArray = new BlockingQueue[priorityCount];
+        this.levelStatistics = new LevelStatistics[priorityCount];
         for (int i = 0; i < priorityCount; i++) {
             queuesArray[i] = blockingQueueConstruction.get();
+            levelStatistics[i] = new LevelStatistics(i, alwaysAcquireHighPriorityFirst ? 0 : weights[i]);
         }
         this.priorityFetcher = priorityFetcher;
         this.alwaysAcquireHighPriorityFirst = alwaysAcquireHighPriorityFirst;
-        // 核数可以多点，主要是 wait
-        this.threadPoolExecutor = threadPoolExecutor;
+        this.weightedSchedule = alwaysAcquireHighPriorityFirst ? null : buildWeightedSchedule(weights);
+    }
+
+    private static int[] defaultWeights(int priorityCount) {
+        int[] weights = new int[priorityCount];
+        for (int i = 0; i < priorityCount; i++) {
+            weights[i] = priorityCount - i;
+        }
+        return weights;
+    }
+
+    /**
+     * 平滑加权轮询（同 nginx），生成一轮完整的调度顺序，如 5:1:1 生成 0 0 1 0 2 0 0 而非 0 0 0 0 0 1 2
+     *
+     * @param weights 权重
+     * @return 调度表
+     */
+    static int[] buildWeightedSchedule(int[] weights) {
+        int total = 0;
+        for (int weight : weights) {
+            AssertUtils.isTrue(weight > 0, CommonErrorCodeEnum.ILLEGAL_PARAM, "weight must > 0");
+            total += weight;
+        }
+        AssertUtils.isTrue(total <= 1024, CommonErrorCodeEnum.ILLEGAL_PARAM, "sum of weights must <= 1024");
+        int[] schedule = new int[total];
+        int[] current = new int[weights.length];
+        for (int n = 0; n < total; n++) {
+            int selected = 0;
+            for (int i = 0; i < weights.length; i++) {
+                current[i] += weights[i];
+                if (current[i] > current[selected]) {
+                    selected = i;
+                }
+            }
+            current[selected] -= total;
+            schedule[n] = selected;
+        }
+        return schedule;
     }
 
     private BlockingQueue<E> getQueue(E e) {
         return queuesArray[priorityFetcher.apply(e)];
     }
 
+    /**
+     * 入队成功后，记录统计，若有消费者在等待则唤醒一个
+     */
+    private void afterEnqueue(int level) {
+        levelStatistics[level].onEnqueue();
+        signalNotEmpty();
+    }
+
+    /**
+     * 出队成功后，记录统计
+     */
+    private E afterDequeue(int level, E e) {
+        levelStatistics[level].onDequeue();
+        return e;
+    }
+
+    /**
+     * 若有消费者在等待则唤醒一个
+     */
+    private void signalNotEmpty() {
+        if (waitingConsumers.get() == 0) {
+            return;
+        }
+        final ReentrantLock lock = this.takeLock;
+        lock.lock();
+        try {
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
 
     @Override
     public boolean offer(E e, long timeout, @Nonnull TimeUnit unit) throws InterruptedException {
-        return getQueue(e).offer(e, timeout, unit);
+        int level = priorityFetcher.apply(e);
+        boolean added = queuesArray[level].offer(e, timeout, unit);
+        if (added) {
+            afterEnqueue(level);
+        }
+        return added;
     }
 
     @Override
     public boolean add(E e) {
-        return getQueue(e).add(e);
+        int level = priorityFetcher.apply(e);
+        boolean added = queuesArray[level].add(e);
+        afterEnqueue(level);
+        return added;
     }
 
     @Override
     public boolean offer(E e) {
-        return getQueue(e).offer(e);
+        int level = priorityFetcher.apply(e);
+        boolean added = queuesArray[level].offer(e);
+        if (added) {
+            afterEnqueue(level);
+        }
+        return added;
     }
 
     @Override
     public void put(E e) throws InterruptedException {
-        getQueue(e).put(e);
+        int level = priorityFetcher.apply(e);
+        queuesArray[level].put(e);
+        afterEnqueue(level);
     }
 
     @Override
@@ -130,10 +262,25 @@ public class FastPriorityBlockingQueue<E> implements BlockingQueue<E> {
 
     @Override
     public E poll() {
-        for (BlockingQueue<E> queue : queuesArray) {
-            E e = queue.poll();
-            if (e != null) {
-                return e;
+        if (alwaysAcquireHighPriorityFirst) {
+            // 由于设计上，该类的优先级不会特别多，故不会有太多循环带来的额外性能损耗
+            for (int i = 0; i < queuesArray.length; i++) {
+                E e = queuesArray[i].poll();
+                if (e != null) {
+                    return afterDequeue(i, e);
+                }
+            }
+            return null;
+        }
+        // 加权轮询：从本轮选中的级别开始取，取不到再按优先级依次尝试，避免空级别浪费一次调度
+        int selected = weightedSchedule[(int) (scheduleCursor.getAndIncrement() % weightedSchedule.length)];
+        E e = queuesArray[selected].poll();
+        if (e != null) {
+            return afterDequeue(selected, e);
+        }
+        for (int i = 0; i < queuesArray.length; i++) {
+            if (i != selected && (e = queuesArray[i].poll()) != null) {
+                return afterDequeue(i, e);
             }
         }
         return null;
@@ -141,76 +288,67 @@ public class FastPriorityBlockingQueue<E> implements BlockingQueue<E> {
 
     @Nonnull @Override
     public E take() throws InterruptedException {
-        if (alwaysAcquireHighPriorityFirst) {
-            // 先尝试挨个 poll 避免阻塞（由于设计上，该类的优先级不会特别多，故不会有太多循环带来的额外性能损耗）
-            E result = poll();
-            if (result != null) {
-                return result;
-            }
+        // 先尝试无锁 poll 避免阻塞
+        E result = poll();
+        if (result != null) {
+            return result;
         }
-        // 都是空的，再阻塞
-        return concurrentTake(queue -> {
-            try {
-                return queue.take();
-            } catch (InterruptedException e) {
-                throw new InterruptedExceptionWrapper(null, e);
+        // 都是空的，再阻塞等待生产者唤醒
+        final ReentrantLock lock = this.takeLock;
+        lock.lockInterruptibly();
+        waitingConsumers.incrementAndGet();
+        try {
+            // 先登记等待再 poll，保证生产者入队后一定能看到等待者，不会丢失唤醒
+            while ((result = poll()) == null) {
+                notEmpty.await();
             }
-        });
+            signalNextIfNecessary();
+            return result;
+        } finally {
+            waitingConsumers.decrementAndGet();
+            lock.unlock();
+        }
     }
 
     @Override
     public E poll(long timeout, @Nonnull TimeUnit unit) throws InterruptedException {
-        if (alwaysAcquireHighPriorityFirst) {
-            // 先尝试挨个 poll 避免阻塞（由于设计上，该类的优先级不会特别多，故不会有太多循环带来的额外性能损耗）
-            E result = poll();
-            if (result != null) {
-                return result;
-            }
+        E result = poll();
+        if (result != null) {
+            return result;
         }
-        return concurrentTake(queue -> {
-            try {
-                return queue.poll(timeout, unit);
-            } catch (InterruptedException e) {
-                throw new InterruptedExceptionWrapper(null, e);
+        long nanos = unit.toNanos(timeout);
+        final ReentrantLock lock = this.takeLock;
+        lock.lockInterruptibly();
+        waitingConsumers.incrementAndGet();
+        try {
+            while ((result = poll()) == null) {
+                if (nanos <= 0L) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
             }
-        });
+            signalNextIfNecessary();
+            return result;
+        } finally {
+            waitingConsumers.decrementAndGet();
+            lock.unlock();
+        }
     }
 
-    protected E concurrentTake(Function<BlockingQueue<E>, E> takeFunction) throws InterruptedException {
-        // 并行take,拿多了放回去
-        CountDownLatch latch = new CountDownLatch(1);
-        AtomicReference<E> finalTake = new AtomicReference<>();
-        for (BlockingQueue<E> queue : queuesArray) {
-            Runnable r = () -> {
-                E taked = null;
-                boolean setted = false;
-                try {
-                    taked = takeFunction.apply(queue);
-                    setted = finalTake.compareAndSet(null, taked);
-                    if (setted) {
-                        latch.countDown();
-                    }
-                } finally {
-                    // 避免拿出来了，还没尝试 set，就cancel了
-                    if (taked != null && !setted) {
-                        // 加回去，改为返回 null，相当于没拿出来
-                        queue.add(taked);
-                    }
-                }
-            };
-            threadPoolExecutor.execute(r);
+    /**
+     * 被唤醒的消费者取到元素后，若仍有剩余元素和其他等待者，则继续传递唤醒（同 LinkedBlockingQueue），需持有 takeLock
+     */
+    private void signalNextIfNecessary() {
+        if (waitingConsumers.get() > 1 && !isEmpty()) {
+            notEmpty.signal();
         }
-        latch.await();
-        return finalTake.get();
     }
 
     @Override
     public E remove() {
-        for (BlockingQueue<E> queue : queuesArray) {
-            E e = queue.remove();
-            if (e != null) {
-                return e;
-            }
+        E e = poll();
+        if (e != null) {
+            return e;
         }
         throw new NoSuchElementException("No such element");
     }
@@ -254,11 +392,9 @@ public class FastPriorityBlockingQueue<E> implements BlockingQueue<E> {
 
     @Override
     public E element() {
-        for (BlockingQueue<E> queue : queuesArray) {
-            E e = queue.element();
-            if (e != null) {
-                return e;
-            }
+        E e = peek();
+        if (e != null) {
+            return e;
         }
         throw new NoSuchElementException("No such element");
     }
@@ -266,7 +402,12 @@ public class FastPriorityBlockingQueue<E> implements BlockingQueue<E> {
 
     @Override
     public boolean remove(Object e) {
-        return getQueue((E) e).remove(e);
+        int level = priorityFetcher.apply((E) e);
+        boolean removed = queuesArray[level].remove(e);
+        if (removed) {
+            levelStatistics[level].onDequeue();
+        }
+        return removed;
     }
 
     @Override
@@ -282,15 +423,20 @@ public class FastPriorityBlockingQueue<E> implements BlockingQueue<E> {
 
         boolean addedOne = false;
         for (Object o : c) {
-            addedOne = addedOne || getQueue((E) o).add((E) o);
+            int level = priorityFetcher.apply((E) o);
+            if (queuesArray[level].add((E) o)) {
+                addedOne = true;
+                afterEnqueue(level);
+            }
         }
         return addedOne;
     }
 
     @Override
     public void clear() {
-        for (BlockingQueue<E> queue : queuesArray) {
-            queue.clear();
+        for (int i = 0; i < queuesArray.length; i++) {
+            queuesArray[i].clear();
+            levelStatistics[i].resetDepth(queuesArray[i].size());
         }
     }
 
@@ -298,8 +444,11 @@ public class FastPriorityBlockingQueue<E> implements BlockingQueue<E> {
     public boolean retainAll(@Nonnull Collection c) {
         // 删除指定集合中不存在的那些元素
         boolean hasDelete = false;
-        for (BlockingQueue<E> queue : queuesArray) {
-            boolean d = queue.retainAll(c);
+        for (int i = 0; i < queuesArray.length; i++) {
+            boolean d = queuesArray[i].retainAll(c);
+            if (d) {
+                levelStatistics[i].resetDepth(queuesArray[i].size());
+            }
             hasDelete = hasDelete || d;
         }
         return hasDelete;
@@ -354,7 +503,12 @@ public class FastPriorityBlockingQueue<E> implements BlockingQueue<E> {
 
     @Override
     public boolean isEmpty() {
-        return Arrays.stream(queuesArray).allMatch(Collection::isEmpty);
+        for (BlockingQueue<E> queue : queuesArray) {
+            if (!queue.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
@@ -366,16 +520,143 @@ public class FastPriorityBlockingQueue<E> implements BlockingQueue<E> {
     @Override
     public int drainTo(@Nonnull Collection c, int maxElements) {
         int pooled = 0;
-        for (BlockingQueue<E> queue : queuesArray) {
-            pooled += queue.drainTo(c, maxElements);
-            maxElements -= pooled;
-            if (maxElements == 0) {
+        for (int i = 0; i < queuesArray.length; i++) {
+            int drained = queuesArray[i].drainTo(c, maxElements - pooled);
+            if (drained > 0) {
+                levelStatistics[i].onDequeue(drained);
+            }
+            pooled += drained;
+            if (pooled >= maxElements) {
                 return pooled;
             }
         }
         return pooled;
     }
 
+    /**
+     * 获取各优先级使用情况统计
+     *
+     * @return 下标即优先级
+     */
+    public LevelStatistics[] getLevelStatistics() {
+        return levelStatistics.clone();
+    }
+
+    /**
+     * 单个优先级的使用情况统计（入队数、出队数、当前积压、等待时长），用于证明低优先级没有被饿死
+     * <p>
+     * 等待时长以该级别最近一次被消费（或由空变为非空）为起点计算，不记录每个元素的入队时间，以免给入队出队增加额外开销
+     */
+    public static class LevelStatistics {
+
+        /**
+         * 优先级（下标）
+         */
+        private final int level;
+
+        /**
+         * 权重，严格优先模式下为 0
+         */
+        private final int weight;
+
+        private final LongAdder enqueuedCount = new LongAdder();
+
+        private final LongAdder dequeuedCount = new LongAdder();
+
+        /**
+         * 当前积压数，避免统计时调用 queue.size()（部分 BlockingQueue 实现为 O(n) 或需加锁）
+         */
+        private final AtomicLong depth = new AtomicLong();
+
+        /**
+         * 该级别最近一次被消费，或由空变为非空的时间
+         */
+        private volatile long lastServedTime = System.currentTimeMillis();
+
+        /**
+         * 历史最长等待时长
+         */
+        private final AtomicLong maxWaitMillis = new AtomicLong();
+
+        LevelStatistics(int level, int weight) {
+            this.level = level;
+            this.weight = weight;
+        }
+
+        void onEnqueue() {
+            enqueuedCount.increment();
+            if (depth.getAndIncrement() <= 0) {
+                // 由空变为非空，从此刻开始计算等待
+                lastServedTime = System.currentTimeMillis();
+            }
+        }
+
+        void onDequeue() {
+            onDequeue(1);
+        }
+
+        void onDequeue(int num) {
+            dequeuedCount.add(num);
+            depth.addAndGet(-num);
+            long now = System.currentTimeMillis();
+            long lastServed = lastServedTime;
+            if (now == lastServed) {
+                // 同一毫秒内无需重复写，减少多消费者间的缓存行竞争
+                return;
+            }
+            lastServedTime = now;
+            long waited = now - lastServed;
+            if (waited > maxWaitMillis.get()) {
+                maxWaitMillis.accumulateAndGet(waited, Math::max);
+            }
+        }
+
+        void resetDepth(int currentSize) {
+            depth.set(currentSize);
+            lastServedTime = System.currentTimeMillis();
+        }
+
+        public int getLevel() {
+            return level;
+        }
+
+        public int getWeight() {
+            return weight;
+        }
+
+        public long getEnqueuedCount() {
+            return enqueuedCount.sum();
+        }
+
+        public long getDequeuedCount() {
+            return dequeuedCount.sum();
+        }
+
+        public long getDepth() {
+            return Math.max(depth.get(), 0);
+        }
+
+        /**
+         * 当前等待时长：有积压时，距离该级别上次被消费过去了多久，持续增长说明该级别正在被饿死
+         */
+        public long getCurrentWaitMillis() {
+            return getDepth() > 0 ? Math.max(System.currentTimeMillis() - lastServedTime, 0) : 0;
+        }
+
+        /**
+         * 历史最长等待时长（含当前正在等待的时长）
+         */
+        public long getMaxWaitMillis() {
+            return Math.max(maxWaitMillis.get(), getCurrentWaitMillis());
+        }
+
+        @Override
+        public String toString() {
+            return "LevelStatistics{level=" + level + ", weight=" + weight + ", enqueued=" + getEnqueuedCount()
+                   + ", dequeued=" + getDequeuedCount() + ", depth=" + getDepth() + ", maxWaitMillis=" + getMaxWaitMillis() + '}';
+        }
+    }
+
     public static class MultiIterator<X> implements Iterator<X> {
 
         private final AtomicInteger current = new AtomicInteger(0);
@@ -404,6 +685,10 @@ public class FastPriorityBlockingQueue<E> implements BlockingQueue<E> {
         }
     }
 
+    /**
+     * @deprecated 旧实现在线程池等待时被中断抛出，现在阻塞方法直接抛出 InterruptedException
+     */
+    @Deprecated
     public static class InterruptedExceptionWrapper extends RuntimeException {
         public InterruptedExceptionWrapper(String message, InterruptedException cause) {
             super(message, cause);
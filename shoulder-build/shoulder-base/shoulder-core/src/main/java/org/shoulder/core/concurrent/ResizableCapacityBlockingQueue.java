@@ -0,0 +1,95 @@
+package org.shoulder.core.concurrent;
+
+import org.shoulder.core.exception.CommonErrorCodeEnum;
+import org.shoulder.core.util.AssertUtils;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 容量可运行时修改的阻塞队列，用于线程池不重启调整队列长度
+ * <p>
+ * 被装饰的队列应为无界队列（默认 LinkedBlockingQueue），容量在入队时检查；
+ * 为了不额外加锁，并发入队时可能短暂超出容量（最多超出并发入队的线程数），调小容量时已在队列中的任务不受影响
+ *
+ * @author lym
+ */
+public class ResizableCapacityBlockingQueue<E> extends BaseDecorateableBlockingQueue<E> {
+
+    /**
+     * 阻塞入队时，队列满后的重试间隔
+     */
+    private static final long FULL_RETRY_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private volatile int capacity;
+
+    public ResizableCapacityBlockingQueue(int capacity) {
+        this(new LinkedBlockingQueue<>(), capacity);
+    }
+
+    public ResizableCapacityBlockingQueue(BlockingQueue<E> delegateBlockingQueue, int capacity) {
+        super(delegateBlockingQueue);
+        setCapacity(capacity);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * 修改容量
+     *
+     * @param capacity 新容量，> 0
+     */
+    public void setCapacity(int capacity) {
+        AssertUtils.isTrue(capacity > 0, CommonErrorCodeEnum.ILLEGAL_PARAM, "capacity must > 0, but got " + capacity);
+        this.capacity = capacity;
+    }
+
+    @Override
+    public boolean offer(E e) {
+        return size() < capacity && super.offer(e);
+    }
+
+    @Override
+    public boolean add(E e) {
+        if (offer(e)) {
+            return true;
+        }
+        throw new IllegalStateException("Queue full");
+    }
+
+    @Override
+    public boolean offer(E e, long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (!offer(e)) {
+            if (System.nanoTime() >= deadline) {
+                return false;
+            }
+            parkWhenFull();
+        }
+        return true;
+    }
+
+    @Override
+    public void put(E e) throws InterruptedException {
+        while (!offer(e)) {
+            parkWhenFull();
+        }
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return Math.max(0, capacity - size());
+    }
+
+    private static void parkWhenFull() throws InterruptedException {
+        LockSupport.parkNanos(FULL_RETRY_NANOS);
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+    }
+
+}
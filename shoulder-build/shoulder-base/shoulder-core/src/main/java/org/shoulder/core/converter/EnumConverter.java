@@ -1,6 +1,7 @@
 package org.shoulder.core.converter;
 
 import jakarta.annotation.Nonnull;
+import org.shoulder.core.dictionary.model.DictionaryEnumIndex;
 import org.springframework.core.convert.converter.Converter;
 
 /**
@@ -12,10 +13,13 @@ public class EnumConverter implements Converter<String, Enum<? extends Enum<?>>>
 
     private final Class<? extends Enum<?>> enumType;
 
+    private final DictionaryEnumIndex<?> enumIndex;
+
     private final EnumMissMatchHandler missMatchHandler;
 
     public EnumConverter(@Nonnull Class<? extends Enum<?>> enumType, EnumMissMatchHandler missMatchHandler) {
         this.enumType = enumType;
+        this.enumIndex = DictionaryEnumIndex.of(enumType);
         this.missMatchHandler = missMatchHandler;
     }
 
@@ -26,11 +30,9 @@ public class EnumConverter implements Converter<String, Enum<? extends Enum<?>>>
             return missMatchHandler.handleNullSource(enumType);
         }
         // 尝试用名称匹配。大小写敏感
-        Enum<?>[] enums = enumType.getEnumConstants();
-        for (Enum<?> e : enums) {
-            if (e.name().equals(source)) {
-                return e;
-            }
+        Enum<?> e = enumIndex.getByCodingName(source);
+        if (e != null) {
+            return e;
         }
         // 名称匹配失败时触发 MissMatch
         return missMatchHandler.handleMissMatch(enumType, source);
@@ -13,6 +13,9 @@ import java.io.IOException;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * 枚举反序列化工具，用于 Controller 接口用枚举接收字符串
@@ -34,6 +37,11 @@ public class EnumDeserializer extends StdDeserializer<Enum<?>> {
 
     private final String indexFieldName;
 
+    /**
+     * 枚举类 -> 转换方法，避免每次反射查找
+     */
+    private final ConcurrentMap<Class<?>, Optional<Method>> methodCache = new ConcurrentHashMap<>();
+
     public EnumDeserializer() {
         this(null, null);
     }
@@ -75,15 +83,27 @@ public class EnumDeserializer extends StdDeserializer<Enum<?>> {
             return null;
         }
         Class<?> fieldType = field.getType();
+        Optional<Method> method = methodCache.computeIfAbsent(fieldType, this::findStringToEnumMethod);
+        if (method.isEmpty()) {
+            log.warn("Deserialize enum fail! Can't find the method named  '" + stringToEnumMethodName + "' in " + fieldType.getName());
+            return null;
+        }
         try {
-            Method method = fieldType.getMethod(stringToEnumMethodName, String.class);
-            return (Enum<?>) method.invoke(null, value);
-        } catch (NoSuchMethodException | SecurityException | IllegalAccessException | InvocationTargetException e) {
+            return (Enum<?>) method.get().invoke(null, value);
+        } catch (IllegalAccessException | InvocationTargetException e) {
             log.warn("Deserialize enum fail! Can't invoke the method named  '" + stringToEnumMethodName + "'", e);
             return null;
         }
     }
 
+    private Optional<Method> findStringToEnumMethod(Class<?> fieldType) {
+        try {
+            return Optional.of(fieldType.getMethod(stringToEnumMethodName, String.class));
+        } catch (NoSuchMethodException | SecurityException e) {
+            return Optional.empty();
+        }
+    }
+
 }
 
 
@@ -1,5 +1,6 @@
 package org.shoulder.core.dictionary.convert;
 
+import org.shoulder.core.dictionary.model.DictionaryEnumIndex;
 import org.shoulder.core.dictionary.model.DictionaryItem;
 import org.shoulder.core.dictionary.model.DictionaryItemEnum;
 import org.shoulder.core.util.StringUtils;
@@ -46,44 +47,44 @@ public class ToDictionaryEnumGenericConverter implements ConditionalGenericConve
 
     public static Enum<? extends DictionaryItemEnum> parseStr2Enum(String sourceString, Class<?> targetEnumClass) {
         // String -> Enum
-        Class<?> identifyType = DictionaryItemEnum.resovleEnumItemIdClass(targetEnumClass);
-        Class<? extends Enum<? extends DictionaryItemEnum<?, String>>> enumClass = (Class<? extends Enum<? extends DictionaryItemEnum<?, String>>>) targetEnumClass;
-        if (identifyType == String.class) {
-
+        DictionaryEnumIndex<?> index = DictionaryEnumIndex.of(targetEnumClass);
+        if (index.getItemIdClass() == String.class) {
             // 1. fromId
-            return DictionaryItemEnum.decideActualEnum(enumClass.getEnumConstants(), sourceString, DictionaryItemEnum.compareWithId(),
-                    // 2. from name with
-                    (enumCls, sourceStr) -> parseStrToIntEnum(sourceString, targetEnumClass));
+            Enum<?> e = index.getById(sourceString);
+            if (e != null) {
+                return (Enum<? extends DictionaryItemEnum>) e;
+            }
+            // 2. from name with
         }
         return parseStrToIntEnum(sourceString, targetEnumClass);
     }
 
     public static Enum<? extends DictionaryItemEnum<?, String>> parseStrToIntEnum(String sourceString, Class<?> targetEnumClass) {
-        Class<? extends Enum<? extends DictionaryItemEnum<?, String>>> enumClass = (Class<? extends Enum<? extends DictionaryItemEnum<?, String>>>) targetEnumClass;
-        return DictionaryItemEnum.decideActualEnum((enumClass).getEnumConstants(), sourceString, DictionaryItemEnum.compareWithEnumCodingName(),
-                (enumCls2, sourceStr2) -> {
-                    // 3. 兜底判断是否为数字，尝试用数字转换
-                    if (StringUtils.isNumeric((String) sourceStr2)) {
-                        int intVal = Integer.parseInt((String) sourceStr2);
-                        return (Enum<? extends DictionaryItemEnum<?, String>>) parseInt2Enum(intVal, targetEnumClass);
-                    }
-                    // 找不到，肯定输入和当前代码版本不一致且这种使用方式无法兼容，报错
-                    return DictionaryItemEnum.onMissMatch(enumCls2, sourceStr2);
-                });
+        Enum<?> e = DictionaryEnumIndex.of(targetEnumClass).getByCodingName(sourceString);
+        if (e != null) {
+            return (Enum<? extends DictionaryItemEnum<?, String>>) e;
+        }
+        // 3. 兜底判断是否为数字，尝试用数字转换
+        if (StringUtils.isNumeric(sourceString)) {
+            int intVal = Integer.parseInt(sourceString);
+            return (Enum<? extends DictionaryItemEnum<?, String>>) parseInt2Enum(intVal, targetEnumClass);
+        }
+        // 找不到，肯定输入和当前代码版本不一致且这种使用方式无法兼容，报错
+        return DictionaryItemEnum.onMissMatch((Class) targetEnumClass, sourceString);
     }
 
     public static Object parseInt2Enum(Integer sourceInteger, Class<?> targetEnumClass) {
         // int -> Enum
-        Class<?> identifyType = DictionaryItemEnum.resovleEnumItemIdClass(targetEnumClass);
-        if (identifyType == Integer.class) {
+        DictionaryEnumIndex<?> index = DictionaryEnumIndex.of(targetEnumClass);
+        if (index.getItemIdClass() == Integer.class) {
             // 1. fromId
             return DictionaryItemEnum.fromId((Class<? extends Enum<? extends DictionaryItemEnum<?, Integer>>>) targetEnumClass, sourceInteger);
         }
 
         // 2. from index
-        Object[] enumItems = targetEnumClass.getEnumConstants();
-        if (sourceInteger >= 0 && sourceInteger < enumItems.length) {
-            return enumItems[sourceInteger];
+        Enum<?> e = index.getByOrdinal(sourceInteger);
+        if (e != null) {
+            return e;
         } else {
             // out of index
             throw new IllegalArgumentException("cannot convert [" + sourceInteger + "] To [" + targetEnumClass + "]");
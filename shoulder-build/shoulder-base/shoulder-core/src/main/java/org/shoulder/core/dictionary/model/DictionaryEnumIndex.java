@@ -0,0 +1,185 @@
+package org.shoulder.core.dictionary.model;
+
+import org.springframework.core.GenericTypeResolver;
+import org.springframework.lang.Nullable;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * 枚举索引：按 id、name、枚举编码名（Enum.name()）、ordinal 查找枚举，O(1)
+ * <p>
+ * 每个枚举类只构建一次（ClassValue 缓存，不阻止类卸载），之后只读，线程安全。
+ * 替代每次转换时 getEnumConstants() 复制数组 + 逐个比较 + 反射解析 itemId 类型。
+ * 同一个 key 对应多个枚举时，与逐个比较的行为一致，取第一个。
+ * 非 {@link DictionaryItemEnum} 的普通枚举也可使用，此时只有编码名、ordinal 索引。
+ *
+ * @author lym
+ */
+@SuppressWarnings("rawtypes")
+public final class DictionaryEnumIndex<E extends Enum<?>> {
+
+    private static final ClassValue<DictionaryEnumIndex<?>> INDEX_CACHE = new ClassValue<>() {
+        @Override
+        @SuppressWarnings("unchecked")
+        protected DictionaryEnumIndex<?> computeValue(Class<?> type) {
+            return new DictionaryEnumIndex(type);
+        }
+    };
+
+    private static final ClassValue<Class<?>> ITEM_ID_CLASS_CACHE = new ClassValue<>() {
+        @Override
+        protected Class<?> computeValue(Class<?> type) {
+            Class<?>[] typeArguments = GenericTypeResolver.resolveTypeArguments(type, DictionaryItemEnum.class);
+            // 第二个泛型是 itemId 类型
+            return typeArguments == null ? null : typeArguments[1];
+        }
+    };
+
+    private final Class<E> enumClass;
+
+    private final List<E> values;
+
+    /**
+     * itemId 类型，非 DictionaryItemEnum 为 null
+     */
+    @Nullable
+    private final Class<?> itemIdClass;
+
+    private final Map<Object, E> idMap;
+
+    private final Map<String, E> nameMap;
+
+    private final Map<String, E> nameIgnoreCaseMap;
+
+    private final Map<String, E> codingNameMap;
+
+    private final Map<String, E> codingNameIgnoreCaseMap;
+
+    private DictionaryEnumIndex(Class<E> enumClass) {
+        this.enumClass = enumClass;
+        E[] enumConstants = enumClass.getEnumConstants();
+        this.values = List.of(enumConstants);
+        boolean isDictionaryItemEnum = DictionaryItemEnum.class.isAssignableFrom(enumClass);
+        this.itemIdClass = isDictionaryItemEnum ? ITEM_ID_CLASS_CACHE.get(enumClass) : null;
+
+        int capacity = enumConstants.length * 4 / 3 + 1;
+        Map<Object, E> idMap = new HashMap<>(capacity);
+        Map<String, E> nameMap = new HashMap<>(capacity);
+        Map<String, E> nameIgnoreCaseMap = new HashMap<>(capacity);
+        Map<String, E> codingNameMap = new HashMap<>(capacity);
+        Map<String, E> codingNameIgnoreCaseMap = new HashMap<>(capacity);
+        for (E e : enumConstants) {
+            if (isDictionaryItemEnum) {
+                DictionaryItemEnum<?, ?> item = (DictionaryItemEnum<?, ?>) e;
+                idMap.putIfAbsent(item.getItemId(), e);
+                String name = item.getName();
+                if (name != null) {
+                    nameMap.putIfAbsent(name, e);
+                    nameIgnoreCaseMap.putIfAbsent(name.toLowerCase(Locale.ROOT), e);
+                }
+            }
+            codingNameMap.putIfAbsent(e.name(), e);
+            codingNameIgnoreCaseMap.putIfAbsent(e.name().toLowerCase(Locale.ROOT), e);
+        }
+        this.idMap = Collections.unmodifiableMap(idMap);
+        this.nameMap = Collections.unmodifiableMap(nameMap);
+        this.nameIgnoreCaseMap = Collections.unmodifiableMap(nameIgnoreCaseMap);
+        this.codingNameMap = Collections.unmodifiableMap(codingNameMap);
+        this.codingNameIgnoreCaseMap = Collections.unmodifiableMap(codingNameIgnoreCaseMap);
+    }
+
+    /**
+     * 获取枚举类的索引
+     *
+     * @param enumClass 枚举类，也支持带方法体的枚举项的 getClass()
+     * @return 索引
+     */
+    @SuppressWarnings("unchecked")
+    public static <E extends Enum<?>> DictionaryEnumIndex<E> of(Class<?> enumClass) {
+        if (!enumClass.isEnum() && enumClass.getSuperclass() != null && enumClass.getSuperclass().isEnum()) {
+            enumClass = enumClass.getSuperclass();
+        }
+        if (!enumClass.isEnum()) {
+            throw new IllegalArgumentException(enumClass.getName() + " is not an enum");
+        }
+        return (DictionaryEnumIndex<E>) INDEX_CACHE.get(enumClass);
+    }
+
+    /**
+     * 解析 DictionaryItemEnum / DictionaryItem 实现类的 itemId 类型（缓存）
+     *
+     * @param dictionaryItemClass 实现类
+     * @return integer / string
+     * @throws NoSuchElementException 无法解析
+     */
+    public static Class<?> resolveItemIdClass(Class<?> dictionaryItemClass) {
+        Class<?> itemIdClass = ITEM_ID_CLASS_CACHE.get(dictionaryItemClass);
+        if (itemIdClass == null) {
+            throw new NoSuchElementException("No value present");
+        }
+        return itemIdClass;
+    }
+
+    public Class<E> getEnumClass() {
+        return enumClass;
+    }
+
+    /**
+     * @return 所有枚举值，不可修改
+     */
+    public List<E> getValues() {
+        return values;
+    }
+
+    /**
+     * @return itemId 类型，非 DictionaryItemEnum 为 null
+     */
+    @Nullable
+    public Class<?> getItemIdClass() {
+        return itemIdClass;
+    }
+
+    @Nullable
+    public E getById(Object id) {
+        return idMap.get(id);
+    }
+
+    @Nullable
+    public E getByName(String name) {
+        return nameMap.get(name);
+    }
+
+    @Nullable
+    public E getByName(String name, boolean ignoreCase) {
+        if (!ignoreCase) {
+            return nameMap.get(name);
+        }
+        E e = nameMap.get(name);
+        return e != null || name == null ? e : nameIgnoreCaseMap.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    @Nullable
+    public E getByCodingName(String codingName) {
+        return codingNameMap.get(codingName);
+    }
+
+    @Nullable
+    public E getByCodingName(String codingName, boolean ignoreCase) {
+        if (!ignoreCase) {
+            return codingNameMap.get(codingName);
+        }
+        E e = codingNameMap.get(codingName);
+        return e != null || codingName == null ? e : codingNameIgnoreCaseMap.get(codingName.toLowerCase(Locale.ROOT));
+    }
+
+    @Nullable
+    public E getByOrdinal(int ordinal) {
+        return ordinal >= 0 && ordinal < values.size() ? values.get(ordinal) : null;
+    }
+
+}
@@ -1,8 +1,5 @@
 package org.shoulder.core.dictionary.model;
 
-import org.springframework.core.GenericTypeResolver;
-
-import java.util.Optional;
 import java.util.function.BiFunction;
 
 /**
@@ -19,6 +16,8 @@ import java.util.function.BiFunction;
  *
  * 不建议用户枚举直接继承该类，采用 {@link NameAsIdDictionaryItemEnum}{@link IntDictionaryItemEnum}
  *
+ * 3. fromXxx 查找基于 {@link DictionaryEnumIndex}，O(1)，不再每次复制枚举数组并逐个比较
+ *
  * @author lym
  */
 public interface DictionaryItemEnum<E extends Enum<? extends DictionaryItemEnum<?, IDENTIFY>>, IDENTIFY> extends
@@ -33,7 +32,7 @@ public interface DictionaryItemEnum<E extends Enum<? extends DictionaryItemEnum<
      */
     static <ID, ENUM extends Enum<? extends DictionaryItemEnum<?, ID>>> ENUM fromId(
             Class<? extends Enum<? extends DictionaryItemEnum<?, ID>>> enumClass, ID id) {
-        return decideActualEnum(enumClass.getEnumConstants(), id, compareWithId(), DictionaryItemEnum::onMissMatch);
+        return orMissMatch(enumClass, id, DictionaryEnumIndex.of(enumClass).getById(id));
     }
 
     /**
@@ -44,24 +43,28 @@ public interface DictionaryItemEnum<E extends Enum<? extends DictionaryItemEnum<
      * @param defaultVal 不存在时默认值
      * @return Enum
      */
+    @SuppressWarnings("unchecked")
     static <ID, ENUM extends Enum<? extends DictionaryItemEnum<?, ID>>> ENUM fromId(
             Class<? extends Enum<? extends DictionaryItemEnum<?, ID>>> enumClass, ID id, ENUM defaultVal) {
-        return decideActualEnum(enumClass.getEnumConstants(), id, compareWithId(), (enumClazz, val) -> defaultVal );
+        ENUM e = (ENUM) DictionaryEnumIndex.of(enumClass).getById(id);
+        return e != null ? e : defaultVal;
     }
 
     static <ID, ENUM extends Enum<? extends DictionaryItemEnum<?, ID>>> ENUM fromName(
             Class<? extends Enum<? extends DictionaryItemEnum<?, ID>>> enumClass, String name) {
-        return decideActualEnum(enumClass.getEnumConstants(), name, compareWithName(), DictionaryItemEnum::onMissMatch);
+        return orMissMatch(enumClass, name, DictionaryEnumIndex.of(enumClass).getByName(name));
     }
 
+    @SuppressWarnings("unchecked")
     static <ID, ENUM extends Enum<? extends DictionaryItemEnum<?, ID>>> ENUM fromName(
             Class<? extends Enum<? extends DictionaryItemEnum<?, ID>>> enumClass, String name, ENUM defaultVal) {
-        return decideActualEnum(enumClass.getEnumConstants(), name, compareWithName(), (enumClazz, val) -> defaultVal );
+        ENUM e = (ENUM) DictionaryEnumIndex.of(enumClass).getByName(name);
+        return e != null ? e : defaultVal;
     }
 
     static <ID, ENUM extends Enum<? extends DictionaryItemEnum<?, ID>>> ENUM fromOrder(
             Class<? extends Enum<? extends DictionaryItemEnum<?, ID>>> enumClass, int order) {
-        return decideActualEnum(enumClass.getEnumConstants(), order, compareWithEnumOrdinal(), DictionaryItemEnum::onMissMatch);
+        return orMissMatch(enumClass, order, DictionaryEnumIndex.of(enumClass).getByOrdinal(order));
     }
 
     /**
@@ -73,7 +76,13 @@ public interface DictionaryItemEnum<E extends Enum<? extends DictionaryItemEnum<
      */
     static <ID, ENUM extends Enum<? extends DictionaryItemEnum<?, ID>>> ENUM fromEnumCodingName(
             Class<? extends Enum<? extends DictionaryItemEnum<?, ID>>> enumClass, String name) {
-        return decideActualEnum(enumClass.getEnumConstants(), name, compareWithEnumCodingName(), DictionaryItemEnum::onMissMatch);
+        return orMissMatch(enumClass, name, DictionaryEnumIndex.of(enumClass).getByCodingName(name));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <ID, ENUM extends Enum<? extends DictionaryItemEnum<?, ID>>> ENUM orMissMatch(
+            Class<? extends Enum<? extends DictionaryItemEnum<?, ID>>> enumClass, Object source, Enum<?> e) {
+        return e != null ? (ENUM) e : onMissMatch((Class<ENUM>) enumClass, source);
     }
 
     static BiFunction<Enum<? extends DictionaryItemEnum<?, ?>>, Object, Boolean> compareWithId() {
@@ -144,8 +153,8 @@ public interface DictionaryItemEnum<E extends Enum<? extends DictionaryItemEnum<
      * @return integer / string
      */
     static Class<?> resovleEnumItemIdClass(Class<?> dictionaryItemClass) {
-        // 第二个泛型是 itemId 类型
-        return Optional.ofNullable(GenericTypeResolver.resolveTypeArguments(dictionaryItemClass, DictionaryItemEnum.class)).orElseThrow()[1];
+        // 第二个泛型是 itemId 类型，解析结果按类缓存
+        return DictionaryEnumIndex.resolveItemIdClass(dictionaryItemClass);
     }
 
     /**
@@ -1,21 +1,23 @@
 package org.shoulder.core.dictionary.spi;
 
 import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.shoulder.core.dictionary.model.DictionaryEnumIndex;
 import org.shoulder.core.dictionary.model.DictionaryItemEnum;
 import org.shoulder.core.exception.BaseRuntimeException;
 import org.shoulder.core.exception.CommonErrorCodeEnum;
 import org.shoulder.core.util.AssertUtils;
 
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Locale;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.stream.Collectors;
 
 /**
  * repo
+ * 注册时为枚举类构建 {@link DictionaryEnumIndex}，查询字典项为 O(1)
  *
  * @author lym
  */
@@ -25,7 +27,7 @@ public class DefaultDictionaryEnumStore implements DictionaryEnumStore {
     private final ConcurrentMap<String, Class<? extends Enum<? extends DictionaryItemEnum>>> repo = new ConcurrentHashMap<>();
 
     /**
-     * 是否忽略字典类型名称大小写
+     * 是否忽略字典类型名称、字典项名称大小写
      */
     private final boolean ignoreCase;
 
@@ -37,6 +39,8 @@ public class DefaultDictionaryEnumStore implements DictionaryEnumStore {
     public <ID, ENUM extends Enum<? extends DictionaryItemEnum<ENUM, ID>>> void register(
         @Nonnull Class<? extends Enum<? extends DictionaryItemEnum<?, ?>>> dictionaryEnum, @Nonnull String dictionaryType) {
         AssertUtils.notNull(dictionaryEnum, CommonErrorCodeEnum.ILLEGAL_PARAM);
+        // 提前构建索引
+        DictionaryEnumIndex.of(dictionaryEnum);
         Class<? extends Enum<? extends DictionaryItemEnum>> oldValue =
             repo.put(processDictionaryTypeName(dictionaryType), dictionaryEnum);
         AssertUtils.isTrue(oldValue == null || oldValue == dictionaryEnum, CommonErrorCodeEnum.CODING, "not support repeat name of enum.");
@@ -46,22 +50,40 @@ public class DefaultDictionaryEnumStore implements DictionaryEnumStore {
     @Override
     public <ID, ENUM extends Enum<? extends DictionaryItemEnum<ENUM, ID>>> List<DictionaryItemEnum<ENUM, ID>> list(
         @Nonnull String enumClassType) {
-        Class<? extends DictionaryItemEnum<ENUM, ID>> dictionaryEnumClass = (Class<? extends DictionaryItemEnum<ENUM, ID>>) repo.get(
-            processDictionaryTypeName(enumClassType));
-        if (dictionaryEnumClass == null) {
-            throw createDictionaryTypeNotFoundException(enumClassType);
-        }
-        return Arrays.stream(dictionaryEnumClass.getEnumConstants()).collect(Collectors.toList());
+        return new ArrayList<>((List<DictionaryItemEnum<ENUM, ID>>) (List) getIndex(enumClassType).getValues());
     }
 
     @Nonnull
     @Override
     public List<Enum<? extends DictionaryItemEnum>> listAllAsDictionaryEnum(String enumClassType) {
-        Class<? extends Enum<? extends DictionaryItemEnum>> dictionaryEnumClass = repo.get(processDictionaryTypeName(enumClassType));
+        return new ArrayList<>((List) getIndex(enumClassType).getValues());
+    }
+
+    @Nullable
+    @Override
+    public Enum<? extends DictionaryItemEnum> getItemById(String dictionaryType, Object itemId) {
+        return (Enum<? extends DictionaryItemEnum>) getIndex(dictionaryType).getById(itemId);
+    }
+
+    @Nullable
+    @Override
+    public Enum<? extends DictionaryItemEnum> getItemByName(String dictionaryType, String name) {
+        return (Enum<? extends DictionaryItemEnum>) getIndex(dictionaryType).getByName(name, ignoreCase);
+    }
+
+    /**
+     * 获取字典类型的索引
+     *
+     * @param dictionaryType 字典类型
+     * @return 索引
+     */
+    @Nonnull
+    public DictionaryEnumIndex<?> getIndex(String dictionaryType) {
+        Class<? extends Enum<? extends DictionaryItemEnum>> dictionaryEnumClass = repo.get(processDictionaryTypeName(dictionaryType));
         if (dictionaryEnumClass == null) {
-            throw createDictionaryTypeNotFoundException(enumClassType);
+            throw createDictionaryTypeNotFoundException(dictionaryType);
         }
-        return Arrays.stream(dictionaryEnumClass.getEnumConstants()).collect(Collectors.toList());
+        return DictionaryEnumIndex.of(dictionaryEnumClass);
     }
 
     @Nonnull
@@ -105,6 +127,7 @@ public class DefaultDictionaryEnumStore implements DictionaryEnumStore {
         return processDictionaryTypeName(key);
     }
 
+    @Override
     public boolean isIgnoreCase() {
         return ignoreCase;
     }
@@ -1,7 +1,11 @@
 package org.shoulder.core.dictionary.spi;
 
 import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.shoulder.core.dictionary.model.DictionaryEnumIndex;
 import org.shoulder.core.dictionary.model.DictionaryItemEnum;
+import org.shoulder.core.exception.BaseRuntimeException;
+import org.shoulder.core.exception.CommonErrorCodeEnum;
 
 import java.util.Collection;
 import java.util.List;
@@ -71,6 +75,32 @@ public interface DictionaryEnumStore {
     @SuppressWarnings("rawtypes")
     List<Enum<? extends DictionaryItemEnum>> listAllAsDictionaryEnum(String enumClassType);
 
+    /**
+     * 按 itemId 查找字典项
+     *
+     * @param dictionaryType 枚举类名/别名
+     * @param itemId         字典项 id
+     * @return 字典项，不存在返回 null
+     */
+    @Nullable
+    @SuppressWarnings("rawtypes, unchecked")
+    default Enum<? extends DictionaryItemEnum> getItemById(String dictionaryType, Object itemId) {
+        return (Enum<? extends DictionaryItemEnum>) DictionaryEnumIndex.of(getExistsType(dictionaryType)).getById(itemId);
+    }
+
+    /**
+     * 按 name 查找字典项
+     *
+     * @param dictionaryType 枚举类名/别名
+     * @param name           字典项名称，{@link #isIgnoreCase()} 时忽略大小写
+     * @return 字典项，不存在返回 null
+     */
+    @Nullable
+    @SuppressWarnings("rawtypes, unchecked")
+    default Enum<? extends DictionaryItemEnum> getItemByName(String dictionaryType, String name) {
+        return (Enum<? extends DictionaryItemEnum>) DictionaryEnumIndex.of(getExistsType(dictionaryType)).getByName(name, isIgnoreCase());
+    }
+
     /**
      * 列出所有支持的枚举类名
      *
@@ -79,6 +109,15 @@ public interface DictionaryEnumStore {
     @Nonnull
     Collection<String> listAllTypeNames();
 
+    /**
+     * 是否忽略字典类型名称、字典项名称大小写
+     *
+     * @return 默认不忽略
+     */
+    default boolean isIgnoreCase() {
+        return false;
+    }
+
     /**
      * 列出所有支持的枚举类名
      *
@@ -106,6 +145,15 @@ public interface DictionaryEnumStore {
     @SuppressWarnings("rawtypes")
     Class<? extends Enum<? extends DictionaryItemEnum>> getActuallyType(String dictionaryType);
 
+    @SuppressWarnings("rawtypes")
+    private Class<? extends Enum<? extends DictionaryItemEnum>> getExistsType(String dictionaryType) {
+        Class<? extends Enum<? extends DictionaryItemEnum>> type = getActuallyType(dictionaryType);
+        if (type == null) {
+            throw new BaseRuntimeException(CommonErrorCodeEnum.ILLEGAL_PARAM, "The dictionary type('" + dictionaryType + "') not exist!");
+        }
+        return type;
+    }
+
     @Nonnull
     default <ID, ENUM extends Enum<? extends DictionaryItemEnum<ENUM, ID>>> String mapToStorageKey(@Nonnull Class<? extends Enum<? extends DictionaryItemEnum<?, ?>>> dictionaryEnum) {
         return dictionaryEnum.getSimpleName();
@@ -0,0 +1,350 @@
+package org.shoulder.core.guid.impl;
+
+import cn.hutool.core.thread.NamedThreadFactory;
+import org.shoulder.core.guid.LongGuidGenerator;
+import org.shoulder.core.log.Logger;
+import org.shoulder.core.log.ShoulderLoggers;
+import org.shoulder.core.util.PaddedAtomicLong;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 预生成缓存模式的 id 生成器（RingBuffer）
+ * <p>
+ * 由后台单线程通过 delegate.nextIds 批量生成 id 填充到环形数组中，调用方只需 CAS 领取一个槽位，不再在调用线程上读时钟、创建 Node。
+ * 剩余可用 id 数低于阈值时自动异步填充；环被取空时按 {@link RingEmptyPolicy} 处理（直接生成 / 等待填充，最多等待 maxWaitTime 后直接生成）
+ * <pre>{@code
+ *                 cursor(已领取)           tail(已填充)
+ *                      |                        |
+ * +----+----+----+----+----+----+----+----+----+----+----+
+ * |    |    |    |    | id | id | id | id | id |    |    |  ← slots
+ * +----+----+----+----+----+----+----+----+----+----+----+
+ * }</pre>
+ * 注意：id 在填充时生成，故 id 中的时间为生成时间而非领取时间，生成速度快于时间流逝时会透支未来时间（同 ShoulderGuidGenerator.nextIds）
+ *
+ * @author lym
+ * @see ShoulderGuidGenerator 推荐作为 delegate
+ */
+public class CachedLongGuidGenerator implements LongGuidGenerator, AutoCloseable {
+
+    private static final Logger log = ShoulderLoggers.SHOULDER_DEFAULT;
+
+    /**
+     * 默认环大小
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    /**
+     * 默认剩余百分之多少时触发填充
+     */
+    public static final int DEFAULT_PADDING_FACTOR = 50;
+
+    /**
+     * WAIT 策略下默认最长等待时间
+     */
+    public static final Duration DEFAULT_MAX_WAIT_TIME = Duration.ofMillis(100);
+
+    /**
+     * 槽位状态：可填充
+     */
+    private static final long CAN_PUT = 0L;
+
+    /**
+     * 槽位状态：可领取
+     */
+    private static final long CAN_TAKE = 1L;
+
+    /**
+     * 每个 flag 之间间隔 8 个 long（64 bytes），避免相邻槽位的 flag 位于同一缓存行，多个消费者相互伪共享
+     */
+    private static final int FLAG_PADDING_SHIFT = 3;
+
+    private static final VarHandle LONG_ARRAY_HANDLE = MethodHandles.arrayElementVarHandle(long[].class);
+
+    /**
+     * 实际生成 id 的生成器
+     */
+    private final LongGuidGenerator delegate;
+
+    /**
+     * 环大小，2 的整数次幂
+     */
+    private final int bufferSize;
+
+    private final int indexMask;
+
+    /**
+     * 预生成的 id
+     */
+    private final long[] slots;
+
+    /**
+     * 槽位状态，下标为 slotIndex << FLAG_PADDING_SHIFT
+     */
+    private final long[] flags;
+
+    /**
+     * 剩余可领取 id 数小于该值时触发填充
+     */
+    private final int paddingThreshold;
+
+    /**
+     * 单次调用 delegate.nextIds 生成的个数
+     */
+    private final int fillBatchSize;
+
+    /**
+     * 环取空时的处理策略
+     */
+    private final RingEmptyPolicy emptyPolicy;
+
+    /**
+     * WAIT 策略下最长等待时间（纳秒），超时后在调用线程直接生成，避免填充失败 / 已关闭时一直等待
+     */
+    private final long maxWaitNanos;
+
+    /**
+     * 已填充的最大序号（仅填充线程写）
+     */
+    private final PaddedAtomicLong tail = new PaddedAtomicLong(-1);
+
+    /**
+     * 已领取的最大序号（消费者 CAS 竞争）
+     */
+    private final PaddedAtomicLong cursor = new PaddedAtomicLong(-1);
+
+    /**
+     * 是否正在填充，保证同一时刻最多一个填充任务
+     */
+    private final AtomicBoolean filling = new AtomicBoolean(false);
+
+    private final ExecutorService fillExecutor;
+
+    /**
+     * 是否已关闭，关闭后不再填充
+     */
+    private volatile boolean closed;
+
+    /**
+     * 领取时环为空的次数，该值持续增长说明环偏小或阈值偏低
+     */
+    private final LongAdder emptyCount = new LongAdder();
+
+    /**
+     * WAIT 策略下等待超时的次数
+     */
+    private final LongAdder waitTimeoutCount = new LongAdder();
+
+    public CachedLongGuidGenerator(LongGuidGenerator delegate) {
+        this(delegate, DEFAULT_BUFFER_SIZE, DEFAULT_PADDING_FACTOR, RingEmptyPolicy.GENERATE_DIRECTLY);
+    }
+
+    /**
+     * 构造器
+     *
+     * @param delegate      实际生成 id 的生成器
+     * @param bufferSize    环大小，会向上取 2 的整数次幂，[2, 1 << 24]
+     * @param paddingFactor 剩余可用 id 低于 bufferSize 的百分之多少时触发填充，(0, 100)
+     * @param emptyPolicy   环取空时的处理策略
+     */
+    public CachedLongGuidGenerator(LongGuidGenerator delegate, int bufferSize, int paddingFactor, RingEmptyPolicy emptyPolicy) {
+        this(delegate, bufferSize, paddingFactor, emptyPolicy, DEFAULT_MAX_WAIT_TIME);
+    }
+
+    /**
+     * 构造器
+     *
+     * @param delegate      实际生成 id 的生成器
+     * @param bufferSize    环大小，会向上取 2 的整数次幂，[2, 1 << 24]
+     * @param paddingFactor 剩余可用 id 低于 bufferSize 的百分之多少时触发填充，(0, 100)
+     * @param emptyPolicy   环取空时的处理策略
+     * @param maxWaitTime   WAIT 策略下最长等待时间，超时后直接通过 delegate 生成
+     */
+    public CachedLongGuidGenerator(LongGuidGenerator delegate, int bufferSize, int paddingFactor, RingEmptyPolicy emptyPolicy,
+                                   Duration maxWaitTime) {
+        if (bufferSize < 2 || bufferSize > 1 << 24) {
+            throw new IllegalArgumentException("bufferSize must in [2, 1 << 24]. bufferSize=" + bufferSize);
+        }
+        if (paddingFactor <= 0 || paddingFactor >= 100) {
+            throw new IllegalArgumentException("paddingFactor must in (0, 100). paddingFactor=" + paddingFactor);
+        }
+        this.delegate = delegate;
+        this.bufferSize = (-1 >>> Integer.numberOfLeadingZeros(bufferSize - 1)) + 1;
+        this.indexMask = this.bufferSize - 1;
+        this.slots = new long[this.bufferSize];
+        this.flags = new long[this.bufferSize << FLAG_PADDING_SHIFT];
+        this.paddingThreshold = Math.max(1, this.bufferSize * paddingFactor / 100);
+        int maxBatch = delegate instanceof ShoulderGuidGenerator shoulderGuidGenerator ? shoulderGuidGenerator.getMaxSequence() : 1024;
+        this.fillBatchSize = Math.min(this.bufferSize, maxBatch);
+        this.emptyPolicy = emptyPolicy;
+        this.maxWaitNanos = maxWaitTime.toNanos();
+        this.fillExecutor = Executors.newSingleThreadExecutor(new NamedThreadFactory("shoulder-guid-filler", true));
+        // 初始化时同步填满，避免启动后第一批请求都落到空环
+        fill();
+    }
+
+    @Override
+    public long nextId() {
+        long waitDeadline = 0;
+        boolean waiting = false;
+        while (true) {
+            long currentCursor = cursor.get();
+            long currentTail = tail.get();
+            if (currentTail - currentCursor <= paddingThreshold) {
+                asyncFill();
+            }
+            if (currentCursor == currentTail) {
+                if (!waiting) {
+                    emptyCount.increment();
+                }
+                if (emptyPolicy == RingEmptyPolicy.GENERATE_DIRECTLY) {
+                    return delegate.nextId();
+                }
+                if (closed) {
+                    throw new IllegalStateException("CachedLongGuidGenerator closed and ring buffer is empty.");
+                }
+                long now = System.nanoTime();
+                if (!waiting) {
+                    waiting = true;
+                    waitDeadline = now + maxWaitNanos;
+                } else if (now - waitDeadline >= 0) {
+                    // 填充线程长时间未补充（如 delegate 持续失败），不再等待
+                    waitTimeoutCount.increment();
+                    return delegate.nextId();
+                }
+                // 等待填充线程补充
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(10));
+                continue;
+            }
+            long nextCursor = currentCursor + 1;
+            if (cursor.compareAndSet(currentCursor, nextCursor)) {
+                int index = (int) nextCursor & indexMask;
+                // 填充线程先写 slot 再递增 tail，读到 tail 即可保证读到 slot
+                long id = slots[index];
+                LONG_ARRAY_HANDLE.setRelease(flags, index << FLAG_PADDING_SHIFT, CAN_PUT);
+                return id;
+            }
+        }
+    }
+
+    @Override
+    public Map<String, String> decode(long guid) {
+        return delegate.decode(guid);
+    }
+
+    private void asyncFill() {
+        if (closed || !filling.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            fillExecutor.execute(() -> {
+                try {
+                    fill();
+                } catch (Exception e) {
+                    log.warn("fill guid ring buffer fail", e);
+                } finally {
+                    filling.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // 已关闭
+            filling.set(false);
+        }
+    }
+
+    /**
+     * 填充至环满，仅单线程调用（构造器 / fillExecutor）
+     */
+    private void fill() {
+        while (true) {
+            long free = bufferSize - (tail.get() - cursor.get());
+            if (free <= 0) {
+                return;
+            }
+            long[] ids = delegate.nextIds((int) Math.min(free, fillBatchSize));
+            for (long id : ids) {
+                if (!put(id)) {
+                    // 消费者领取了但还未读完的槽位不能覆盖，剩余 id 直接丢弃（仅产生空洞，不会重复）
+                    return;
+                }
+            }
+        }
+    }
+
+    private boolean put(long id) {
+        long currentTail = tail.get();
+        if (currentTail - cursor.get() >= bufferSize) {
+            return false;
+        }
+        int index = (int) (currentTail + 1) & indexMask;
+        int flagIndex = index << FLAG_PADDING_SHIFT;
+        if ((long) LONG_ARRAY_HANDLE.getAcquire(flags, flagIndex) != CAN_PUT) {
+            return false;
+        }
+        slots[index] = id;
+        flags[flagIndex] = CAN_TAKE;
+        // 发布
+        tail.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * 当前可领取的 id 数
+     */
+    public long getAvailableCount() {
+        return Math.max(tail.get() - cursor.get(), 0);
+    }
+
+    /**
+     * 领取时环为空的次数
+     */
+    public long getEmptyCount() {
+        return emptyCount.sum();
+    }
+
+    /**
+     * WAIT 策略下等待超时的次数，大于 0 说明填充失败或跟不上消费
+     */
+    public long getWaitTimeoutCount() {
+        return waitTimeoutCount.sum();
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        fillExecutor.shutdownNow();
+    }
+
+    /**
+     * 环取空时的处理策略（填充速度跟不上消费速度）
+     */
+    public enum RingEmptyPolicy {
+
+        /**
+         * 【默认】在调用线程直接通过 delegate 生成，不阻塞
+         */
+        GENERATE_DIRECTLY,
+
+        /**
+         * 等待填充线程补充后再领取（背压），适合 delegate 生成受限，需要限制调用方速度的场景
+         * 最多等待 maxWaitTime，超时后直接通过 delegate 生成；已关闭时不再等待，直接抛出 IllegalStateException
+         */
+        WAIT,
+        ;
+    }
+
+}
@@ -271,23 +271,24 @@ public class ShoulderGuidGenerator implements LongGuidGenerator {
                 if (casNodeAt(index, node, newNode)) {
                     // 当且仅当没人更新时更新最新标记
                     latestTimeStamp.incrementAndGet();
-                    // 生成剩余所需所有 id
-                    for (int i = gotCounter; i < gotCounter + need; i++) {
-                        result[i] = newNode.template | i;
+                    // 生成剩余所需所有 id，新 node 的序列从 0 开始
+                    for (int i = 0; i < need; i++) {
+                        result[gotCounter + i] = newNode.template | i;
                     }
                     return result;
                 }
             }
             for (long currentOldValue = node.sequence.get(); currentOldValue < maxSequence; currentOldValue = node.sequence.get()) {
                 long canGet = maxSequence - currentOldValue;
-                long tryGet = canGet > need ? need : canGet;
+                int tryGet = (int) (canGet > need ? need : canGet);
                 if (node.sequence.compareAndSet(currentOldValue, currentOldValue + tryGet)) {
                     // 成功拿到，生成拿到的 id
-                    for (int i = gotCounter; i < gotCounter + tryGet; i++) {
-                        result[i] = node.template | (i + currentOldValue);
+                    for (int i = 0; i < tryGet; i++) {
+                        result[gotCounter + i] = node.template | (currentOldValue + i);
                     }
-                    // got = num;
-                    if (gotCounter + tryGet == num) {
+                    gotCounter += tryGet;
+                    need -= tryGet;
+                    if (gotCounter == num) {
                         return result;
                     }
                 }
@@ -297,6 +298,15 @@ public class ShoulderGuidGenerator implements LongGuidGenerator {
     }
 
 
+    /**
+     * 单个时间单元内最多可生成的 id 数，也是 nextIds 单次最大批量
+     *
+     * @return maxSequence
+     */
+    public int getMaxSequence() {
+        return 1 << instanceIdShift;
+    }
+
     /**
      * 返回当前时间戳
      * 默认为当前系统毫秒数，共 41 位。如果访问量很大 / 时间位数较少 可以对其进行 lazy 化缓存提高运行效率
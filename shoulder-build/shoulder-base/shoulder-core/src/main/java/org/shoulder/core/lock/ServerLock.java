@@ -106,6 +106,18 @@ public interface ServerLock extends Lock {
         unlock(lockInfo.getResource(), lockInfo.getToken());
     }
 
+    /**
+     * 续期：持有者延长锁的到期时间，用于看门狗避免业务执行过久导致锁被提前释放
+     *
+     * @param resource 锁定的资源
+     * @param token    锁操作令牌
+     * @param holdTime 从现在开始计算的持有时间
+     * @return 是否续期成功，未持锁或实现不支持时返回 false
+     */
+    default boolean renew(String resource, String token, Duration holdTime) {
+        return false;
+    }
+
     /**
      * 尝试全局锁
      *
@@ -1,16 +1,34 @@
 package org.shoulder.core.lock;
 
-import org.shoulder.core.lock.impl.MemoryLock;
+import org.shoulder.core.concurrent.PeriodicTask;
+import org.shoulder.core.concurrent.Threads;
+import org.shoulder.core.log.Logger;
+import org.shoulder.core.log.ShoulderLoggers;
+import org.shoulder.core.util.StringUtils;
 
 import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * 集群锁代理
  * - 通过该代理获取集群锁，保证每个服务示例在获取同一个资源时，最多只有一个线程尝试获取集群锁，以减少并发时锁冲突
- * - 可重入次数只需持有者统计即可，在此统计
- * - 分段加锁、避免持锁宕机（往往因使用者申请长时间锁导致）
- * - 锁续命，避免峰值/卡顿时意外释放
- * - 持有者才能释放，在此监管
+ * 本机每个资源一个公平的本地队列，只有队首线程去竞争远程锁，其余线程在本地排队，不再各自轮询数据库 / redis
+ * - 本机交接：持有者释放时若本地还有等待者且租约仍有效，则不释放远程锁，直接交给下一个本地等待者，
+ * 剩余租约不足新持有者申请的持有时间时续期一次再交接
+ * - 锁续命，避免峰值/卡顿时意外释放：调用 {@link #startWatchdog()} 后定期为本机仍持有的锁续期（{@link ServerLock#renew}），
+ * 进程宕机后不再续期，锁仍会按 holdTime 到期释放
+ * - 租约到期回收：持有者未释放（忘记 unlock、线程异常退出）且租约已到期、未被看门狗续期时，等待者回收其本地许可，不会一直阻塞
+ * - 持有者才能释放，在此监管：本机交接后远程锁的令牌与使用者的令牌不同，由代理记录映射，使用者仍用自己的令牌操作
+ * <p>
+ * 统计：远程加锁尝试次数、节省的远程尝试次数、本地排队线程数、续期次数
+ * 注意：被代理的锁需要支持 {@link ServerLock#renew}，否则看门狗不生效，且只有剩余租约充足时才能本机交接
  *
  * @author lym
  */
@@ -21,33 +39,502 @@ public class ServerLockAcquireProxy implements ServerLock {
      */
     public static final Duration DEFAULT_WAIT_DURATION = Duration.ofMillis(1);
 
-    private ServerLock delegate;
+    /**
+     * 看门狗默认检查周期
+     */
+    public static final Duration DEFAULT_WATCHDOG_PERIOD = Duration.ofSeconds(1);
 
-    private ServerLock memoryLock = new MemoryLock();
+    private final Logger log = ShoulderLoggers.SHOULDER_DEFAULT;
 
-    public ServerLockAcquireProxy(ServerLock delegate) {
+    private final ServerLock delegate;
+
+    /**
+     * 本机正在等待或持有的资源 -> 本地队列，无人使用时移除
+     */
+    private final Map<String, ResourceEntry> entryMap = new ConcurrentHashMap<>();
+
+    /**
+     * 看门狗检查周期
+     */
+    private Duration watchdogPeriod = DEFAULT_WATCHDOG_PERIOD;
 
+    private volatile ScheduledFuture<?> watchdogFuture;
+
+    /**
+     * 远程加锁尝试次数
+     */
+    private final LongAdder remoteAttemptCount = new LongAdder();
+
+    /**
+     * 节省的远程尝试次数：本机交接获得锁、或在本地排队超时的次数
+     */
+    private final LongAdder savedRemoteAttemptCount = new LongAdder();
+
+    private final LongAdder leaseRenewCount = new LongAdder();
+
+    private final LongAdder leaseRenewFailCount = new LongAdder();
+
+    public ServerLockAcquireProxy(ServerLock delegate) {
+        this.delegate = delegate;
     }
 
     @Override
     public boolean tryLock(LockInfo lockInfo, Duration exceptMaxBlockTime) throws InterruptedException {
-        return delegate.tryLock(lockInfo, exceptMaxBlockTime);
+        long startTime = System.nanoTime();
+        String resource = lockInfo.getResource();
+        ResourceEntry entry = retain(resource);
+        boolean locked = false;
+        try {
+            // 本地排队，同一资源本机只有队首线程竞争远程锁
+            if (!acquirePermit(resource, entry, exceptMaxBlockTime.toNanos())) {
+                savedRemoteAttemptCount.increment();
+                return false;
+            }
+            long maxBlockNanos = exceptMaxBlockTime.toNanos() - (System.nanoTime() - startTime);
+            locked = acquireAsHead(resource, entry, lockInfo, maxBlockNanos);
+            return locked;
+        } finally {
+            if (!locked) {
+                release(resource, entry);
+            }
+        }
     }
 
     @Override
     public boolean tryLock(LockInfo lockInfo) {
-        return delegate.tryLock(lockInfo);
+        String resource = lockInfo.getResource();
+        ResourceEntry entry = retain(resource);
+        boolean locked = false;
+        try {
+            if (!entry.permit.tryAcquire() && !(reclaimExpiredPermit(resource, entry) <= 0 && entry.permit.tryAcquire())) {
+                // 本机已有线程持有或正在竞争
+                savedRemoteAttemptCount.increment();
+                return false;
+            }
+            locked = acquireAsHead(resource, entry, lockInfo, 0);
+            return locked;
+        } catch (InterruptedException e) {
+            // 不阻塞，不会发生
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            if (!locked) {
+                release(resource, entry);
+            }
+        }
+    }
+
+    /**
+     * 本地排队获取许可，等待期间持有者租约到期则回收其许可
+     *
+     * @param timeoutNanos 最长等待时间
+     */
+    private boolean acquirePermit(String resource, ResourceEntry entry, long timeoutNanos) throws InterruptedException {
+        long deadline = System.nanoTime() + timeoutNanos;
+        while (true) {
+            long remainingNanos = deadline - System.nanoTime();
+            // 最多等到持有者租约到期，再检查是否需要回收
+            long waitNanos = Math.min(remainingNanos, reclaimExpiredPermit(resource, entry));
+            if (entry.permit.tryAcquire(Math.max(waitNanos, 0), TimeUnit.NANOSECONDS)) {
+                return true;
+            }
+            if (deadline - System.nanoTime() <= 0) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * 持有者租约已到期且未被看门狗续期时回收本地许可：持有者之后的 unlock / renew 令牌不匹配，不再生效
+     *
+     * @return 0 已回收；否则为下次检查前可等待的时间
+     */
+    private long reclaimExpiredPermit(String resource, ResourceEntry entry) {
+        String expiredRemoteToken;
+        synchronized (entry) {
+            // 正在竞争远程锁、交接中、或由看门狗续期时，最多等一个检查周期再看
+            if (entry.holderToken == null || watchdogFuture != null && entry.renewable) {
+                return watchdogPeriod.toNanos();
+            }
+            long remainingNanos = entry.leaseDeadline - System.nanoTime();
+            if (remainingNanos > 0) {
+                return remainingNanos;
+            }
+            log.warn("lock lease expired without unlock, reclaim it. resource={}", resource);
+            entry.holderToken = null;
+            expiredRemoteToken = entry.remoteToken;
+            entry.remoteToken = null;
+        }
+        if (expiredRemoteToken != null) {
+            releaseRemoteQuietly(resource, expiredRemoteToken);
+        }
+        entry.permit.release();
+        // 归还过期持有者的引用
+        release(resource, entry);
+        return 0;
+    }
+
+    /**
+     * 已获得本地许可：优先接管本机仍有效的租约，否则竞争远程锁，失败时归还本地许可
+     *
+     * @param maxBlockNanos 竞争远程锁最长阻塞时间，<= 0 则只尝试一次
+     */
+    private boolean acquireAsHead(String resource, ResourceEntry entry, LockInfo lockInfo, long maxBlockNanos)
+        throws InterruptedException {
+        boolean locked = false;
+        try {
+            if (takeOverLease(resource, entry, lockInfo)) {
+                savedRemoteAttemptCount.increment();
+                locked = true;
+                return true;
+            }
+            remoteAttemptCount.increment();
+            long leaseStart = System.nanoTime();
+            LocalDateTime leaseStartTime = LocalDateTime.now();
+            locked = maxBlockNanos > 0 ? delegate.tryLock(lockInfo, Duration.ofNanos(maxBlockNanos)) : delegate.tryLock(lockInfo);
+            if (locked) {
+                synchronized (entry) {
+                    entry.remoteToken = lockInfo.getToken();
+                    entry.holderToken = lockInfo.getToken();
+                    entry.leaseHoldTime = lockInfo.getHoldTime();
+                    entry.leaseDeadline = leaseDeadline(lockInfo, leaseStart, leaseStartTime);
+                    entry.renewable = true;
+                }
+            }
+            return locked;
+        } finally {
+            if (!locked) {
+                entry.permit.release();
+            }
+        }
+    }
+
+    /**
+     * 远程锁租约到期时间：JdbcLock 等按创建 LockInfo 时确定的 releaseTime 过期，不包含本地排队的时间，取两者中更早的
+     */
+    private static long leaseDeadline(LockInfo lockInfo, long leaseStart, LocalDateTime leaseStartTime) {
+        long deadline = leaseStart + lockInfo.getHoldTime().toNanos();
+        if (lockInfo.getReleaseTime() == null) {
+            return deadline;
+        }
+        return Math.min(deadline, leaseStart + Duration.between(leaseStartTime, lockInfo.getReleaseTime()).toNanos());
+    }
+
+    /**
+     * 接管上一个本地持有者留下的远程锁，剩余租约不足时先续期一次（仍比释放后重新加锁少一次远程交互），续期失败则释放后重新竞争
+     */
+    private boolean takeOverLease(String resource, ResourceEntry entry, LockInfo lockInfo) {
+        String remoteToken;
+        boolean tryRenew;
+        synchronized (entry) {
+            if (entry.remoteToken == null) {
+                return false;
+            }
+            long remainingNanos = entry.leaseDeadline - System.nanoTime();
+            if (remainingNanos >= minTakeOverLeaseNanos(entry, lockInfo)) {
+                entry.holderToken = lockInfo.getToken();
+                entry.leaseHoldTime = lockInfo.getHoldTime();
+                return true;
+            }
+            remoteToken = entry.remoteToken;
+            tryRenew = remainingNanos > 0 && entry.renewable;
+        }
+        if (tryRenew && renewLease(resource, entry, remoteToken, lockInfo.getHoldTime())) {
+            synchronized (entry) {
+                entry.holderToken = lockInfo.getToken();
+                entry.leaseHoldTime = lockInfo.getHoldTime();
+            }
+            return true;
+        }
+        synchronized (entry) {
+            entry.remoteToken = null;
+        }
+        releaseRemoteQuietly(resource, remoteToken);
+        return false;
+    }
+
+    /**
+     * 看门狗运行且可续期时，剩余租约只需撑到下次续期；否则需满足新持有者申请的持有时间
+     */
+    private long minTakeOverLeaseNanos(ResourceEntry entry, LockInfo lockInfo) {
+        return watchdogFuture != null && entry.renewable ? watchdogPeriod.toNanos() * 2 : lockInfo.getHoldTime().toNanos();
     }
 
     @Override
     public LockInfo getLockInfo(String resource) {
+        // 本机交接后，远程锁中的令牌为最初竞争到锁的线程的令牌
         return delegate.getLockInfo(resource);
     }
 
+    @Override
+    public boolean holdLock(String resource, String token) {
+        ResourceEntry entry = entryMap.get(resource);
+        if (entry == null) {
+            return false;
+        }
+        String remoteToken;
+        synchronized (entry) {
+            if (!StringUtils.equals(token, entry.holderToken)) {
+                return false;
+            }
+            remoteToken = entry.remoteToken;
+        }
+        return remoteToken != null && delegate.holdLock(resource, remoteToken);
+    }
+
     @Override
     public void unlock(String resource, String token) {
-        delegate.unlock(resource, token);
+        ResourceEntry entry = entryMap.get(resource);
+        if (entry == null) {
+            // 未通过本代理持锁
+            return;
+        }
+        String releaseToken;
+        synchronized (entry) {
+            if (!StringUtils.equals(token, entry.holderToken)) {
+                return;
+            }
+            entry.holderToken = null;
+            // 本地有等待者且租约未过期：保留远程锁交给下一个等待者，由其判断剩余租约是否足够
+            boolean handOver = entry.permit.hasQueuedThreads() && entry.leaseDeadline - System.nanoTime() > 0;
+            releaseToken = handOver ? null : entry.remoteToken;
+            if (!handOver) {
+                entry.remoteToken = null;
+            }
+        }
+        try {
+            if (releaseToken != null) {
+                delegate.unlock(resource, releaseToken);
+            }
+        } finally {
+            entry.permit.release();
+            release(resource, entry);
+        }
+    }
+
+    @Override
+    public boolean renew(String resource, String token, Duration holdTime) {
+        ResourceEntry entry = entryMap.get(resource);
+        if (entry == null) {
+            return false;
+        }
+        String remoteToken;
+        synchronized (entry) {
+            if (!StringUtils.equals(token, entry.holderToken) || entry.remoteToken == null) {
+                return false;
+            }
+            remoteToken = entry.remoteToken;
+            entry.leaseHoldTime = holdTime;
+        }
+        return renewLease(resource, entry, remoteToken, holdTime);
+    }
+
+    // ------------------------------ 看门狗 ------------------------------
+
+    /**
+     * 开始定期续期
+     */
+    public synchronized void startWatchdog() {
+        if (watchdogFuture != null) {
+            return;
+        }
+        watchdogFuture = Threads.schedule(PeriodicTask.create("serverLockWatchdog", this::renewLeases,
+            Instant.now().plus(watchdogPeriod), (now, runCount) -> now.plus(watchdogPeriod)));
+    }
+
+    /**
+     * 停止续期，Bean 销毁时调用
+     */
+    public synchronized void shutdown() {
+        if (watchdogFuture != null) {
+            watchdogFuture.cancel(false);
+            watchdogFuture = null;
+        }
+    }
+
+    /**
+     * 为本机仍持有的锁续期：剩余租约不足持有时间的 2/3 或两个检查周期时续期
+     */
+    public void renewLeases() {
+        long periodNanos = watchdogPeriod.toNanos();
+        for (Map.Entry<String, ResourceEntry> resourceEntry : entryMap.entrySet()) {
+            ResourceEntry entry = resourceEntry.getValue();
+            String remoteToken;
+            Duration holdTime;
+            synchronized (entry) {
+                // 交接中（无持有者）不续期，由接管者判断
+                if (entry.remoteToken == null || entry.holderToken == null || !entry.renewable) {
+                    continue;
+                }
+                long remainingNanos = entry.leaseDeadline - System.nanoTime();
+                if (remainingNanos > entry.leaseHoldTime.toNanos() * 2 / 3 && remainingNanos > periodNanos * 2) {
+                    continue;
+                }
+                remoteToken = entry.remoteToken;
+                holdTime = entry.leaseHoldTime;
+            }
+            renewLease(resourceEntry.getKey(), entry, remoteToken, holdTime);
+        }
+    }
+
+    private boolean renewLease(String resource, ResourceEntry entry, String remoteToken, Duration holdTime) {
+        long leaseStart = System.nanoTime();
+        boolean renewed;
+        try {
+            renewed = delegate.renew(resource, remoteToken, holdTime);
+        } catch (RuntimeException e) {
+            log.warn("renew lock lease FAIL! resource=" + resource, e);
+            renewed = false;
+        }
+        synchronized (entry) {
+            if (!remoteToken.equals(entry.remoteToken)) {
+                // 已释放
+                return renewed;
+            }
+            if (renewed) {
+                entry.leaseDeadline = leaseStart + holdTime.toNanos();
+            } else {
+                // 锁已丢失或不支持续期，本次租约不再尝试
+                entry.renewable = false;
+            }
+        }
+        if (renewed) {
+            leaseRenewCount.increment();
+            log.trace("renew lock {} for {}.", resource, holdTime);
+        } else {
+            leaseRenewFailCount.increment();
+            log.warn("renew lock lease FAIL, lock may expire before unlock! resource={}", resource);
+        }
+        return renewed;
+    }
+
+    // ------------------------------ 本地队列 ------------------------------
+
+    private ResourceEntry retain(String resource) {
+        return entryMap.compute(resource, (k, entry) -> {
+            if (entry == null) {
+                entry = new ResourceEntry();
+            }
+            entry.refCount++;
+            return entry;
+        });
     }
 
+    /**
+     * 无人使用时移除，若仍保留着交接中的远程锁（等待者都已超时离开）则释放
+     */
+    private void release(String resource, ResourceEntry entry) {
+        String[] leftToken = new String[1];
+        entryMap.computeIfPresent(resource, (k, current) -> {
+            if (current != entry || --current.refCount > 0) {
+                return current;
+            }
+            synchronized (current) {
+                leftToken[0] = current.remoteToken;
+                current.remoteToken = null;
+            }
+            return null;
+        });
+        if (leftToken[0] != null) {
+            releaseRemoteQuietly(resource, leftToken[0]);
+        }
+    }
+
+    private void releaseRemoteQuietly(String resource, String remoteToken) {
+        try {
+            delegate.unlock(resource, remoteToken);
+        } catch (RuntimeException e) {
+            // 租约可能已到期
+            log.debug("release expiring lock fail, resource=" + resource, e);
+        }
+    }
+
+    // ------------------------------ 统计 ------------------------------
+
+    /**
+     * @return 远程加锁尝试次数
+     */
+    public long getRemoteAttemptCount() {
+        return remoteAttemptCount.sum();
+    }
+
+    /**
+     * @return 节省的远程加锁尝试次数：本机交接获得锁、或在本地排队超时的次数
+     */
+    public long getSavedRemoteAttemptCount() {
+        return savedRemoteAttemptCount.sum();
+    }
+
+    /**
+     * @return 当前在本地排队的线程数（近似值）
+     */
+    public int getLocalQueueDepth() {
+        int depth = 0;
+        for (ResourceEntry entry : entryMap.values()) {
+            depth += entry.permit.getQueueLength();
+        }
+        return depth;
+    }
+
+    public long getLeaseRenewCount() {
+        return leaseRenewCount.sum();
+    }
+
+    public long getLeaseRenewFailCount() {
+        return leaseRenewFailCount.sum();
+    }
+
+    public Duration getWatchdogPeriod() {
+        return watchdogPeriod;
+    }
+
+    public void setWatchdogPeriod(Duration watchdogPeriod) {
+        this.watchdogPeriod = watchdogPeriod;
+    }
+
+    public ServerLock getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * 本机某资源的本地队列与租约，remoteToken 等状态受该对象监视器保护
+     */
+    private static class ResourceEntry {
+
+        /**
+         * 本地队列，使用信号量而非 ReentrantLock：ServerLock 允许非加锁线程通过令牌释放
+         */
+        private final Semaphore permit = new Semaphore(1, true);
+
+        /**
+         * 等待与持有的线程数，仅在 entryMap.compute 中修改
+         */
+        private int refCount;
+
+        /**
+         * 本机持有的远程锁令牌，null 表示未持有
+         */
+        private String remoteToken;
+
+        /**
+         * 当前本地持有者的令牌，null 表示交接中或未持有
+         */
+        private String holderToken;
+
+        /**
+         * 租约到期时间（System.nanoTime）
+         */
+        private long leaseDeadline;
+
+        /**
+         * 续期时使用的持有时间，为当前持有者申请的持有时间
+         */
+        private Duration leaseHoldTime;
+
+        /**
+         * 续期失败后本次租约不再续期
+         */
+        private boolean renewable;
+    }
 
 }
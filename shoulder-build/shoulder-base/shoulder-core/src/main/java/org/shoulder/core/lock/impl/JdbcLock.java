@@ -18,6 +18,8 @@ import org.springframework.transaction.annotation.Transactional;
 import javax.sql.DataSource;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
 
 /**
  * 基于 数据库 的分布式锁
@@ -59,6 +61,13 @@ public class JdbcLock extends AbstractDistributeLock implements ServerLock {
         "DELETE FROM system_lock WHERE resource=? AND token=?";
 
 
+    /**
+     * 续期- 更新到期时间
+     */
+    private static final String RENEW_LOCK_STATEMENT =
+        "UPDATE system_lock SET release_time=? WHERE resource=? AND token=?";
+
+
     /**
      * 清理已经过期的锁
      */
@@ -183,6 +192,14 @@ public class JdbcLock extends AbstractDistributeLock implements ServerLock {
         }
     }
 
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW, rollbackFor = BaseRuntimeException.class)
+    public boolean renew(String resource, String token, Duration holdTime) {
+        boolean renewed = jdbc.update(RENEW_LOCK_STATEMENT, LocalDateTime.now().plus(holdTime), resource, token) != 0;
+        log.trace("renew lock {} {}! token={}", resource, renewed ? "SUCCESS" : "FAIL", token);
+        return renewed;
+    }
+
     @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true, rollbackFor = BaseRuntimeException.class)
     public boolean cleanExpiredLock() {
         return jdbc.update(CLEAN_LOCK_STATEMENT) > 0;
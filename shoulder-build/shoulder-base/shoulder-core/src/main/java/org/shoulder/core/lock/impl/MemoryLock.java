@@ -67,6 +67,16 @@ public class MemoryLock extends AbstractServerLock {
         return holdLocks.get(resource);
     }
 
+    @Override
+    public boolean renew(String resource, String token, Duration holdTime) {
+        LockInfo lockInfo = holdLocks.get(resource);
+        if (lockInfo == null || !StringUtils.equals(token, lockInfo.getToken())) {
+            return false;
+        }
+        lockInfo.setReleaseTime(LocalDateTime.now().plus(holdTime));
+        return true;
+    }
+
     @Override
     public void unlock(String resource, String token) {
         LockInfo oldLock = holdLocks.get(resource);
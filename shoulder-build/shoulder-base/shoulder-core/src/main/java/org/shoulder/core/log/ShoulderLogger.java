@@ -10,7 +10,6 @@ import org.slf4j.MDC;
 import org.slf4j.Marker;
 import org.slf4j.event.Level;
 
-import java.util.Arrays;
 import java.util.function.Supplier;
 
 /**
@@ -20,6 +19,7 @@ import java.util.function.Supplier;
  * 推荐使用者开启异步日志优化IO（默认关闭）
  * 默认info以及以下级别，不配置日志框架输出日志打印处的类名，方法名及行号的信息（获取堆栈信息较消耗资源，应通过配置项是否开启）
  * 支持传入 {@link Supplier} 类型参数，激活时再打印
+ * 每个方法先判断日志级别，未开启时直接返回：不生成调用链信息、不操作 MDC、不解析 Supplier 参数、不拷贝可变参数
  *
  * @author lym
  */
@@ -79,27 +79,52 @@ public class ShoulderLogger implements org.shoulder.core.log.Logger {
 
     @Override
     public void trace(String msg) {
-        uniformLog(() -> delegateLogger.trace(msg));
+        if (!delegateLogger.isTraceEnabled()) {
+            return;
+        }
+        String traceInfo = beforeLog();
+        delegateLogger.trace(msg);
+        afterLog(traceInfo);
     }
 
     @Override
     public void trace(String format, Object arg) {
-        uniformLog(() -> delegateLogger.trace(format, tryGet(arg)));
+        if (!delegateLogger.isTraceEnabled()) {
+            return;
+        }
+        String traceInfo = beforeLog();
+        delegateLogger.trace(format, tryGet(arg));
+        afterLog(traceInfo);
     }
 
     @Override
     public void trace(String format, Object arg1, Object arg2) {
-        uniformLog(() -> delegateLogger.trace(format, tryGet(arg1), tryGet(arg2)));
+        if (!delegateLogger.isTraceEnabled()) {
+            return;
+        }
+        String traceInfo = beforeLog();
+        delegateLogger.trace(format, tryGet(arg1), tryGet(arg2));
+        afterLog(traceInfo);
     }
 
     @Override
     public void trace(String format, Object... arguments) {
-        uniformLog(() -> delegateLogger.trace(format, tryGet(arguments)));
+        if (!delegateLogger.isTraceEnabled()) {
+            return;
+        }
+        String traceInfo = beforeLog();
+        delegateLogger.trace(format, tryGet(arguments));
+        afterLog(traceInfo);
     }
 
     @Override
     public void trace(String msg, Throwable t) {
-        uniformLog(() -> delegateLogger.trace(msg, t));
+        if (!delegateLogger.isTraceEnabled()) {
+            return;
+        }
+        String traceInfo = beforeLog();
+        delegateLogger.trace(msg, t);
+        afterLog(traceInfo);
     }
 
     @Override
@@ -109,27 +134,52 @@ public class ShoulderLogger implements org.shoulder.core.log.Logger {
 
     @Override
     public void trace(Marker marker, String msg) {
-        uniformLog(() -> delegateLogger.trace(marker, msg));
+        if (!delegateLogger.isTraceEnabled(marker)) {
+            return;
+        }
+        String traceInfo = beforeLog();
+        delegateLogger.trace(marker, msg);
+        afterLog(traceInfo);
     }
 
     @Override
     public void trace(Marker marker, String format, Object arg) {
-        uniformLog(() -> delegateLogger.trace(marker, format, tryGet(arg)));
+        if (!delegateLogger.isTraceEnabled(marker)) {
+            return;
+        }
+        String traceInfo = beforeLog();
+        delegateLogger.trace(marker, format, tryGet(arg));
+        afterLog(traceInfo);
     }
 
     @Override
     public void trace(Marker marker, String format, Object arg1, Object arg2) {
-        uniformLog(() -> delegateLogger.trace(marker, format, tryGet(arg1), tryGet(arg2)));
+        if (!delegateLogger.isTraceEnabled(marker)) {
+            return;
+        }
+        String traceInfo = beforeLog();
+        delegateLogger.trace(marker, format, tryGet(arg1), tryGet(arg2));
+        afterLog(traceInfo);
     }
 
     @Override
     public void trace(Marker marker, String format, Object... argArray) {
-        uniformLog(() -> delegateLogger.trace(marker, format, argArray));
+        if (!delegateLogger.isTraceEnabled(marker)) {
+            return;
+        }
+        String traceInfo = beforeLog();
+        delegateLogger.trace(marker, format, tryGet(argArray));
+        afterLog(traceInfo);
     }
 
     @Override
     public void trace(Marker marker, String msg, Throwable t) {
-        uniformLog(() -> delegateLogger.trace(marker, msg, t));
+        if (!delegateLogger.isTraceEnabled(marker)) {
+            return;
+        }
+        String traceInfo = beforeLog();
+        delegateLogger.trace(marker, msg, t);
+        afterLog(traceInfo);
     }
 
 
@@ -143,30 +193,55 @@ public class ShoulderLogger implements org.shoulder.core.log.Logger {
 
     @Override
     public void debug(String msg) {
-        uniformLog(() -> delegateLogger.debug(msg));
+        if (!delegateLogger.isDebugEnabled()) {
+            return;
+        }
+        String traceInfo = beforeLog();
+        delegateLogger.debug(msg);
+        afterLog(traceInfo);
     }
 
     @Override
     public void debug(String format, Object arg) {
-        uniformLog(() -> delegateLogger.debug(format, tryGet(arg)));
+        if (!delegateLogger.isDebugEnabled()) {
+            return;
+        }
+        String traceInfo = beforeLog();
+        delegateLogger.debug(format, tryGet(arg));
+        afterLog(traceInfo);
     }
 
 
     @Override
     public void debug(String format, Object arg1, Object arg2) {
-        uniformLog(() -> delegateLogger.debug(format, tryGet(arg1), tryGet(arg2)));
+        if (!delegateLogger.isDebugEnabled()) {
+            return;
+        }
+        String traceInfo = beforeLog();
+        delegateLogger.debug(format, tryGet(arg1), tryGet(arg2));
+        afterLog(traceInfo);
     }
 
 
     @Override
     public void debug(String format, Object... arguments) {
-        uniformLog(() -> delegateLogger.debug(format, tryGet(arguments)));
+        if (!delegateLogger.isDebugEnabled()) {
+            return;
+        }
+        String traceInfo = beforeLog();
+        delegateLogger.debug(format, tryGet(arguments));
+        afterLog(traceInfo);
     }
 
 
     @Override
     public void debug(String msg, Throwable t) {
-        uniformLog(() -> delegateLogger.debug(msg, t));
+        if (!delegateLogger.isDebugEnabled()) {
+            return;
+        }
+        String traceInfo = beforeLog();
+        delegateLogger.debug(msg, t);
+        afterLog(traceInfo);
     }
 
 
@@ -178,31 +253,56 @@ public class ShoulderLogger implements org.shoulder.core.log.Logger {
 
     @Override
     public void debug(Marker marker, String msg) {
-        uniformLog(() -> delegateLogger.debug(marker, msg));
+        if (!delegateLogger.isDebugEnabled(marker)) {
+            return;
+        }
+        String traceInfo = beforeLog();
+        delegateLogger.debug(marker, msg);
+        afterLog(traceInfo);
     }
 
 
     @Override
     public void debug(Marker marker, String format, Object arg) {
-        uniformLog(() -> delegateLogger.debug(marker, format, tryGet(arg)));
+        if (!delegateLogger.isDebugEnabled(marker)) {
+            return;
+        }
+        String traceInfo = beforeLog();
+        delegateLogger.debug(marker, format, tryGet(arg));
+        afterLog(traceInfo);
     }
 
 
     @Override
     public void debug(Marker marker, String format, Object arg1, Object arg2) {
-        uniformLog(() -> delegateLogger.debug(marker, format, tryGet(arg1), tryGet(arg2)));
+        if (!delegateLogger.isDebugEnabled(marker)) {
+            return;
+        }
+        String traceInfo = beforeLog();
+        delegateLogger.debug(marker, format, tryGet(arg1), tryGet(arg2));
+        afterLog(traceInfo);
     }
 
 
     @Override
     public void debug(Marker marker, String format, Object... arguments) {
-        uniformLog(() -> delegateLogger.debug(marker, format, tryGet(arguments)));
+        if (!delegateLogger.isDebugEnabled(marker)) {
+            return;
+        }
+        String traceInfo = beforeLog();
+        delegateLogger.debug(marker, format, tryGet(arguments));
+        afterLog(traceInfo);
     }
 
 
     @Override
     public void debug(Marker marker, String msg, Throwable t) {
-        uniformLog(() -> delegateLogger.debug(marker, msg, t));
+        if (!delegateLogger.isDebugEnabled(marker)) {
+            return;
+        }
+        String traceInfo = beforeLog();
+        delegateLogger.debug(marker, msg, t);
+        afterLog(traceInfo);
     }
 
     // -------------------------------------- INFO 级别日志 -----------------------------------------
@@ -216,7 +316,12 @@ public class ShoulderLogger implements org.shoulder.core.log.Logger {
 
     @Override
     public void info(String msg) {
-        uniformLog(() -> delegateLogger.info(msg));
+        if (!delegateLogger.isInfoEnabled()) {
+            return;
+        }
+        String traceInfo = beforeLog();
+        delegateLogger.info(msg);
+        afterLog(traceInfo);
     }
 
     /**
@@ -227,7 +332,12 @@ public class ShoulderLogger implements org.shoulder.core.log.Logger {
      */
     @Override
     public void info(String format, Object arg) {
-        uniformLog(() -> delegateLogger.info(format, tryGet(arg)));
+        if (!delegateLogger.isInfoEnabled()) {
+            return;
+        }
+        String traceInfo = beforeLog();
+        delegateLogger.info(format, tryGet(arg));
+        afterLog(traceInfo);
     }
 
 
@@ -240,29 +350,57 @@ public class ShoulderLogger implements org.shoulder.core.log.Logger {
      */
     @Override
     public void info(String format, Object arg1, Object arg2) {
-        uniformLog(() -> delegateLogger.info(format, tryGet(arg1), tryGet(arg2)));
+        if (!delegateLogger.isInfoEnabled()) {
+            return;
+        }
+        String traceInfo = beforeLog();
+        delegateLogger.info(format, tryGet(arg1), tryGet(arg2));
+        afterLog(traceInfo);
     }
 
 
     @Override
     public void info(String format, Object... arguments) {
-        uniformLog(() -> delegateLogger.info(format, tryGet(arguments)));
+        if (!delegateLogger.isInfoEnabled()) {
+            return;
+        }
+        String traceInfo = beforeLog();
+        delegateLogger.info(format, tryGet(arguments));
+        afterLog(traceInfo);
     }
 
     private static Object tryGet(Object o) {
         return o instanceof Supplier? ((Supplier<?>) o).get() : o;
     }
-    
+
+    /**
+     * 仅在级别开启后调用；没有 Supplier 参数时直接返回原数组，避免拷贝
+     */
     private static Object[] tryGet(Object... arguments) {
-        return arguments == null ? null
-                : Arrays.stream(arguments)
-                .map(ShoulderLogger::tryGet)
-                .toArray();
+        if (arguments == null) {
+            return null;
+        }
+        Object[] resolved = arguments;
+        for (int i = 0; i < arguments.length; i++) {
+            if (arguments[i] instanceof Supplier<?> supplier) {
+                if (resolved == arguments) {
+                    // 不修改调用方传入的数组
+                    resolved = arguments.clone();
+                }
+                resolved[i] = supplier.get();
+            }
+        }
+        return resolved;
     }
 
     @Override
     public void info(String msg, Throwable t) {
-        uniformLog(() -> delegateLogger.info(msg, t));
+        if (!delegateLogger.isInfoEnabled()) {
+            return;
+        }
+        String traceInfo = beforeLog();
+        delegateLogger.info(msg, t);
+        afterLog(traceInfo);
     }
 
 
@@ -274,31 +412,56 @@ public class ShoulderLogger implements org.shoulder.core.log.Logger {
 
     @Override
     public void info(Marker marker, String msg) {
-        uniformLog(() -> delegateLogger.info(marker, msg));
+        if (!delegateLogger.isInfoEnabled(marker)) {
+            return;
+        }
+        String traceInfo = beforeLog();
+        delegateLogger.info(marker, msg);
+        afterLog(traceInfo);
     }
 
 
     @Override
     public void info(Marker marker, String format, Object arg) {
-        uniformLog(() -> delegateLogger.info(marker, format, tryGet(arg)));
+        if (!delegateLogger.isInfoEnabled(marker)) {
+            return;
+        }
+        String traceInfo = beforeLog();
+        delegateLogger.info(marker, format, tryGet(arg));
+        afterLog(traceInfo);
     }
 
 
     @Override
     public void info(Marker marker, String format, Object arg1, Object arg2) {
-        uniformLog(() -> delegateLogger.info(marker, format, tryGet(arg1), tryGet(arg2)));
+        if (!delegateLogger.isInfoEnabled(marker)) {
+            return;
+        }
+        String traceInfo = beforeLog();
+        delegateLogger.info(marker, format, tryGet(arg1), tryGet(arg2));
+        afterLog(traceInfo);
     }
 
 
     @Override
     public void info(Marker marker, String format, Object... arguments) {
-        uniformLog(() -> delegateLogger.info(marker, format, tryGet(arguments)));
+        if (!delegateLogger.isInfoEnabled(marker)) {
+            return;
+        }
+        String traceInfo = beforeLog();
+        delegateLogger.info(marker, format, tryGet(arguments));
+        afterLog(traceInfo);
     }
 
 
     @Override
     public void info(Marker marker, String msg, Throwable t) {
-        uniformLog(() -> delegateLogger.info(marker, msg, t));
+        if (!delegateLogger.isInfoEnabled(marker)) {
+            return;
+        }
+        String traceInfo = beforeLog();
+        delegateLogger.info(marker, msg, t);
+        afterLog(traceInfo);
     }
 
 
@@ -313,25 +476,45 @@ public class ShoulderLogger implements org.shoulder.core.log.Logger {
 
     @Override
     public void warn(String msg) {
-        uniformLog(() -> delegateLogger.warn(msg));
+        if (!delegateLogger.isWarnEnabled()) {
+            return;
+        }
+        String traceInfo = beforeLog();
+        delegateLogger.warn(msg);
+        afterLog(traceInfo);
     }
 
 
     @Override
     public void warn(String format, Object arg) {
-        uniformLog(() -> delegateLogger.warn(format, tryGet(arg)));
+        if (!delegateLogger.isWarnEnabled()) {
+            return;
+        }
+        String traceInfo = beforeLog();
+        delegateLogger.warn(format, tryGet(arg));
+        afterLog(traceInfo);
     }
 
 
     @Override
     public void warn(String format, Object... arguments) {
-        uniformLog(() -> delegateLogger.warn(format, tryGet(arguments)));
+        if (!delegateLogger.isWarnEnabled()) {
+            return;
+        }
+        String traceInfo = beforeLog();
+        delegateLogger.warn(format, tryGet(arguments));
+        afterLog(traceInfo);
     }
 
 
     @Override
     public void warn(String format, Object arg1, Object arg2) {
-        uniformLog(() -> delegateLogger.warn(format, tryGet(arg1), tryGet(arg2)));
+        if (!delegateLogger.isWarnEnabled()) {
+            return;
+        }
+        String traceInfo = beforeLog();
+        delegateLogger.warn(format, tryGet(arg1), tryGet(arg2));
+        afterLog(traceInfo);
     }
 
 
@@ -341,7 +524,12 @@ public class ShoulderLogger implements org.shoulder.core.log.Logger {
             warnWithErrorCode(((ErrorCode) t).getCode(), generateDetail((ErrorCode) t), t);
             return;
         }
-        uniformLog(() -> delegateLogger.warn(msg, t));
+        if (!delegateLogger.isWarnEnabled()) {
+            return;
+        }
+        String traceInfo = beforeLog();
+        delegateLogger.warn(msg, t);
+        afterLog(traceInfo);
     }
 
 
@@ -353,31 +541,56 @@ public class ShoulderLogger implements org.shoulder.core.log.Logger {
 
     @Override
     public void warn(Marker marker, String msg) {
-        uniformLog(() -> delegateLogger.warn(marker, msg));
+        if (!delegateLogger.isWarnEnabled(marker)) {
+            return;
+        }
+        String traceInfo = beforeLog();
+        delegateLogger.warn(marker, msg);
+        afterLog(traceInfo);
     }
 
 
     @Override
     public void warn(Marker marker, String format, Object arg) {
-        uniformLog(() -> delegateLogger.warn(marker, format, tryGet(arg)));
+        if (!delegateLogger.isWarnEnabled(marker)) {
+            return;
+        }
+        String traceInfo = beforeLog();
+        delegateLogger.warn(marker, format, tryGet(arg));
+        afterLog(traceInfo);
     }
 
 
     @Override
     public void warn(Marker marker, String format, Object arg1, Object arg2) {
-        uniformLog(() -> delegateLogger.warn(marker, format, tryGet(arg1), tryGet(arg2)));
+        if (!delegateLogger.isWarnEnabled(marker)) {
+            return;
+        }
+        String traceInfo = beforeLog();
+        delegateLogger.warn(marker, format, tryGet(arg1), tryGet(arg2));
+        afterLog(traceInfo);
     }
 
 
     @Override
     public void warn(Marker marker, String format, Object... arguments) {
-        uniformLog(() -> delegateLogger.warn(marker, format, tryGet(arguments)));
+        if (!delegateLogger.isWarnEnabled(marker)) {
+            return;
+        }
+        String traceInfo = beforeLog();
+        delegateLogger.warn(marker, format, tryGet(arguments));
+        afterLog(traceInfo);
     }
 
 
     @Override
     public void warn(Marker marker, String msg, Throwable t) {
-        uniformLog(() -> delegateLogger.warn(marker, msg, t));
+        if (!delegateLogger.isWarnEnabled(marker)) {
+            return;
+        }
+        String traceInfo = beforeLog();
+        delegateLogger.warn(marker, msg, t);
+        afterLog(traceInfo);
     }
 
     // --------- 带错误码的 WARN ---------
@@ -412,50 +625,83 @@ public class ShoulderLogger implements org.shoulder.core.log.Logger {
 
     @Override
     public void debug(ErrorCode errorCode) {
-        uniformLog(errorCode.getCode(), () -> {
-            if (errorCode instanceof Throwable) {
-                delegateLogger.debug(generateDetail(errorCode), (Throwable) errorCode);
-            } else {
-                delegateLogger.debug(generateDetail(errorCode));
-            }
-        });
+        if (!delegateLogger.isDebugEnabled()) {
+            return;
+        }
+        String traceInfo = beforeLog(errorCode.getCode());
+        if (errorCode instanceof Throwable) {
+            delegateLogger.debug(generateDetail(errorCode), (Throwable) errorCode);
+        } else {
+            delegateLogger.debug(generateDetail(errorCode));
+        }
+        afterLog(errorCode.getCode(), traceInfo);
     }
 
 
     @Override
     public void debug(ErrorCode errorCode, Throwable t) {
-        uniformLog(errorCode.getCode(), () -> delegateLogger.debug(generateDetail(errorCode), t));
+        if (!delegateLogger.isDebugEnabled()) {
+            return;
+        }
+        String traceInfo = beforeLog(errorCode.getCode());
+        delegateLogger.debug(generateDetail(errorCode), t);
+        afterLog(errorCode.getCode(), traceInfo);
     }
 
 
     @Override
     public void debugWithErrorCode(String errorCode, String msg) {
-        uniformLog(errorCode, () -> delegateLogger.debug(msg));
+        if (!delegateLogger.isDebugEnabled()) {
+            return;
+        }
+        String traceInfo = beforeLog(errorCode);
+        delegateLogger.debug(msg);
+        afterLog(errorCode, traceInfo);
     }
 
 
     @Override
     public void debugWithErrorCode(String errorCode, String format, Object arg) {
-        uniformLog(errorCode, () -> delegateLogger.debug(format, tryGet(arg)));
+        if (!delegateLogger.isDebugEnabled()) {
+            return;
+        }
+        String traceInfo = beforeLog(errorCode);
+        delegateLogger.debug(format, tryGet(arg));
+        afterLog(errorCode, traceInfo);
     }
 
 
     @Override
     public void debugWithErrorCode(String errorCode, String format, Object... arguments) {
-        uniformLog(errorCode, () -> delegateLogger.debug(format, tryGet(arguments)));
+        if (!delegateLogger.isDebugEnabled()) {
+            return;
+        }
+        String traceInfo = beforeLog(errorCode);
+        delegateLogger.debug(format, tryGet(arguments));
+        afterLog(errorCode, traceInfo);
 
     }
 
 
     @Override
     public void debugWithErrorCode(String errorCode, String format, Object arg1, Object arg2) {
-        uniformLog(errorCode, () -> delegateLogger.debug(format, tryGet(arg1), tryGet(arg2)));
+        if (!delegateLogger.isDebugEnabled()) {
+            return;
+        }
+        String traceInfo = beforeLog(errorCode);
+        delegateLogger.debug(format, tryGet(arg1), tryGet(arg2));
+        afterLog(errorCode, traceInfo);
     }
 
 
     @Override
     public void debugWithErrorCode(String errorCode, String msg, Throwable t) {
-        uniformLog(errorCode, () -> delegateLogger.debug(msg, t));
+        if (!delegateLogger.isDebugEnabled()) {
+            return;
+        }
+        String traceInfo = beforeLog(errorCode);
+        delegateLogger.debug(msg, t);
+        afterLog(errorCode, traceInfo);
     }
 
 
@@ -463,98 +709,164 @@ public class ShoulderLogger implements org.shoulder.core.log.Logger {
 
     @Override
     public void info(ErrorCode errorCode) {
-        uniformLog(errorCode.getCode(), () -> {
-            if (errorCode instanceof Throwable) {
-                delegateLogger.info(generateDetail(errorCode), (Throwable) errorCode);
-            } else {
-                delegateLogger.info(generateDetail(errorCode));
-            }
-        });
+        if (!delegateLogger.isInfoEnabled()) {
+            return;
+        }
+        String traceInfo = beforeLog(errorCode.getCode());
+        if (errorCode instanceof Throwable) {
+            delegateLogger.info(generateDetail(errorCode), (Throwable) errorCode);
+        } else {
+            delegateLogger.info(generateDetail(errorCode));
+        }
+        afterLog(errorCode.getCode(), traceInfo);
     }
 
     @Override
     public void info(ErrorCode errorCode, Throwable t) {
-        uniformLog(errorCode.getCode(), () -> delegateLogger.info(generateDetail(errorCode), t));
+        if (!delegateLogger.isInfoEnabled()) {
+            return;
+        }
+        String traceInfo = beforeLog(errorCode.getCode());
+        delegateLogger.info(generateDetail(errorCode), t);
+        afterLog(errorCode.getCode(), traceInfo);
     }
 
 
     @Override
     public void infoWithErrorCode(String errorCode, String msg) {
-        uniformLog(errorCode, () -> delegateLogger.info(msg));
+        if (!delegateLogger.isInfoEnabled()) {
+            return;
+        }
+        String traceInfo = beforeLog(errorCode);
+        delegateLogger.info(msg);
+        afterLog(errorCode, traceInfo);
     }
 
 
     @Override
     public void infoWithErrorCode(String errorCode, String format, Object arg) {
-        uniformLog(errorCode, () -> delegateLogger.info(format, tryGet(arg)));
+        if (!delegateLogger.isInfoEnabled()) {
+            return;
+        }
+        String traceInfo = beforeLog(errorCode);
+        delegateLogger.info(format, tryGet(arg));
+        afterLog(errorCode, traceInfo);
     }
 
 
     @Override
     public void infoWithErrorCode(String errorCode, String format, Object... arguments) {
-        uniformLog(errorCode, () -> delegateLogger.info(format, tryGet(arguments)));
+        if (!delegateLogger.isInfoEnabled()) {
+            return;
+        }
+        String traceInfo = beforeLog(errorCode);
+        delegateLogger.info(format, tryGet(arguments));
+        afterLog(errorCode, traceInfo);
 
     }
 
 
     @Override
     public void infoWithErrorCode(String errorCode, String format, Object arg1, Object arg2) {
-        uniformLog(errorCode, () -> delegateLogger.info(format, tryGet(arg1), tryGet(arg2)));
+        if (!delegateLogger.isInfoEnabled()) {
+            return;
+        }
+        String traceInfo = beforeLog(errorCode);
+        delegateLogger.info(format, tryGet(arg1), tryGet(arg2));
+        afterLog(errorCode, traceInfo);
     }
 
 
     @Override
     public void infoWithErrorCode(String errorCode, String msg, Throwable t) {
-        uniformLog(errorCode, () -> delegateLogger.info(msg, t));
+        if (!delegateLogger.isInfoEnabled()) {
+            return;
+        }
+        String traceInfo = beforeLog(errorCode);
+        delegateLogger.info(msg, t);
+        afterLog(errorCode, traceInfo);
     }
 
     // ----------------------------------- warn --------------------------------------
 
     @Override
     public void warn(ErrorCode errorCode) {
-        uniformLog(errorCode.getCode(), () -> {
-            if (errorCode instanceof Throwable) {
-                delegateLogger.warn(generateDetail(errorCode), (Throwable) errorCode);
-            } else {
-                delegateLogger.warn(generateDetail(errorCode));
-            }
-        });
+        if (!delegateLogger.isWarnEnabled()) {
+            return;
+        }
+        String traceInfo = beforeLog(errorCode.getCode());
+        if (errorCode instanceof Throwable) {
+            delegateLogger.warn(generateDetail(errorCode), (Throwable) errorCode);
+        } else {
+            delegateLogger.warn(generateDetail(errorCode));
+        }
+        afterLog(errorCode.getCode(), traceInfo);
     }
 
     @Override
     public void warn(ErrorCode errorCode, Throwable t) {
-        uniformLog(errorCode.getCode(), () -> delegateLogger.warn(generateDetail(errorCode), t));
+        if (!delegateLogger.isWarnEnabled()) {
+            return;
+        }
+        String traceInfo = beforeLog(errorCode.getCode());
+        delegateLogger.warn(generateDetail(errorCode), t);
+        afterLog(errorCode.getCode(), traceInfo);
     }
 
 
     @Override
     public void warnWithErrorCode(String errorCode, String msg) {
-        uniformLog(errorCode, () -> delegateLogger.warn(msg));
+        if (!delegateLogger.isWarnEnabled()) {
+            return;
+        }
+        String traceInfo = beforeLog(errorCode);
+        delegateLogger.warn(msg);
+        afterLog(errorCode, traceInfo);
     }
 
 
     @Override
     public void warnWithErrorCode(String errorCode, String format, Object arg) {
-        uniformLog(errorCode, () -> delegateLogger.warn(format, tryGet(arg)));
+        if (!delegateLogger.isWarnEnabled()) {
+            return;
+        }
+        String traceInfo = beforeLog(errorCode);
+        delegateLogger.warn(format, tryGet(arg));
+        afterLog(errorCode, traceInfo);
     }
 
 
     @Override
     public void warnWithErrorCode(String errorCode, String format, Object... arguments) {
-        uniformLog(errorCode, () -> delegateLogger.warn(format, tryGet(arguments)));
+        if (!delegateLogger.isWarnEnabled()) {
+            return;
+        }
+        String traceInfo = beforeLog(errorCode);
+        delegateLogger.warn(format, tryGet(arguments));
+        afterLog(errorCode, traceInfo);
 
     }
 
 
     @Override
     public void warnWithErrorCode(String errorCode, String format, Object arg1, Object arg2) {
-        uniformLog(errorCode, () -> delegateLogger.warn(format, tryGet(arg1), tryGet(arg2)));
+        if (!delegateLogger.isWarnEnabled()) {
+            return;
+        }
+        String traceInfo = beforeLog(errorCode);
+        delegateLogger.warn(format, tryGet(arg1), tryGet(arg2));
+        afterLog(errorCode, traceInfo);
     }
 
 
     @Override
     public void warnWithErrorCode(String errorCode, String msg, Throwable t) {
-        uniformLog(errorCode, () -> delegateLogger.warn(msg, t));
+        if (!delegateLogger.isWarnEnabled()) {
+            return;
+        }
+        String traceInfo = beforeLog(errorCode);
+        delegateLogger.warn(msg, t);
+        afterLog(errorCode, traceInfo);
     }
 
     // ---------------------------------------- ERROR 级别日志 ---------------------------------------------------
@@ -567,25 +879,45 @@ public class ShoulderLogger implements org.shoulder.core.log.Logger {
 
     @Override
     public void error(String msg) {
-        uniformLog(() -> delegateLogger.error(msg));
+        if (!delegateLogger.isErrorEnabled()) {
+            return;
+        }
+        String traceInfo = beforeLog();
+        delegateLogger.error(msg);
+        afterLog(traceInfo);
     }
 
 
     @Override
     public void error(String format, Object arg) {
-        uniformLog(() -> delegateLogger.error(format, tryGet(arg)));
+        if (!delegateLogger.isErrorEnabled()) {
+            return;
+        }
+        String traceInfo = beforeLog();
+        delegateLogger.error(format, tryGet(arg));
+        afterLog(traceInfo);
     }
 
 
     @Override
     public void error(String format, Object arg1, Object arg2) {
-        uniformLog(() -> delegateLogger.error(format, tryGet(arg1), tryGet(arg2)));
+        if (!delegateLogger.isErrorEnabled()) {
+            return;
+        }
+        String traceInfo = beforeLog();
+        delegateLogger.error(format, tryGet(arg1), tryGet(arg2));
+        afterLog(traceInfo);
     }
 
 
     @Override
     public void error(String format, Object... arguments) {
-        uniformLog(() -> delegateLogger.error(format, tryGet(arguments)));
+        if (!delegateLogger.isErrorEnabled()) {
+            return;
+        }
+        String traceInfo = beforeLog();
+        delegateLogger.error(format, tryGet(arguments));
+        afterLog(traceInfo);
     }
 
 
@@ -595,7 +927,12 @@ public class ShoulderLogger implements org.shoulder.core.log.Logger {
             errorWithErrorCode(((ErrorCode) t).getCode(), generateDetail((ErrorCode) t), t);
             return;
         }
-        uniformLog(() -> delegateLogger.error(msg, t));
+        if (!delegateLogger.isErrorEnabled()) {
+            return;
+        }
+        String traceInfo = beforeLog();
+        delegateLogger.error(msg, t);
+        afterLog(traceInfo);
     }
 
 
@@ -607,78 +944,136 @@ public class ShoulderLogger implements org.shoulder.core.log.Logger {
 
     @Override
     public void error(Marker marker, String msg) {
-        uniformLog(() -> delegateLogger.error(marker, msg));
+        if (!delegateLogger.isErrorEnabled(marker)) {
+            return;
+        }
+        String traceInfo = beforeLog();
+        delegateLogger.error(marker, msg);
+        afterLog(traceInfo);
     }
 
 
     @Override
     public void error(Marker marker, String format, Object arg) {
-        uniformLog(() -> delegateLogger.error(marker, format, tryGet(arg)));
+        if (!delegateLogger.isErrorEnabled(marker)) {
+            return;
+        }
+        String traceInfo = beforeLog();
+        delegateLogger.error(marker, format, tryGet(arg));
+        afterLog(traceInfo);
     }
 
 
     @Override
     public void error(Marker marker, String format, Object arg1, Object arg2) {
-        uniformLog(() -> delegateLogger.error(marker, format, tryGet(arg1), tryGet(arg2)));
+        if (!delegateLogger.isErrorEnabled(marker)) {
+            return;
+        }
+        String traceInfo = beforeLog();
+        delegateLogger.error(marker, format, tryGet(arg1), tryGet(arg2));
+        afterLog(traceInfo);
     }
 
 
     @Override
     public void error(Marker marker, String format, Object... arguments) {
-        uniformLog(() -> delegateLogger.error(marker, format, tryGet(arguments)));
+        if (!delegateLogger.isErrorEnabled(marker)) {
+            return;
+        }
+        String traceInfo = beforeLog();
+        delegateLogger.error(marker, format, tryGet(arguments));
+        afterLog(traceInfo);
     }
 
 
     @Override
     public void error(Marker marker, String msg, Throwable t) {
-        uniformLog(() -> delegateLogger.error(marker, msg, t));
+        if (!delegateLogger.isErrorEnabled(marker)) {
+            return;
+        }
+        String traceInfo = beforeLog();
+        delegateLogger.error(marker, msg, t);
+        afterLog(traceInfo);
     }
 
     // --------- 带错误码的 ERROR ---------
 
     @Override
     public void error(ErrorCode errorCode) {
-        uniformLog(errorCode.getCode(), () -> {
-            if (errorCode instanceof Throwable) {
-                delegateLogger.error(generateDetail(errorCode), (Throwable) errorCode);
-            } else {
-                delegateLogger.error(generateDetail(errorCode));
-            }
-        });
+        if (!delegateLogger.isErrorEnabled()) {
+            return;
+        }
+        String traceInfo = beforeLog(errorCode.getCode());
+        if (errorCode instanceof Throwable) {
+            delegateLogger.error(generateDetail(errorCode), (Throwable) errorCode);
+        } else {
+            delegateLogger.error(generateDetail(errorCode));
+        }
+        afterLog(errorCode.getCode(), traceInfo);
     }
 
     @Override
     public void error(ErrorCode errorCode, Throwable t) {
-        uniformLog(errorCode.getCode(), () -> delegateLogger.error(generateDetail(errorCode), t));
+        if (!delegateLogger.isErrorEnabled()) {
+            return;
+        }
+        String traceInfo = beforeLog(errorCode.getCode());
+        delegateLogger.error(generateDetail(errorCode), t);
+        afterLog(errorCode.getCode(), traceInfo);
     }
 
     @Override
     public void errorWithErrorCode(String errorCode, String msg) {
-        uniformLog(errorCode, () -> delegateLogger.error(msg));
+        if (!delegateLogger.isErrorEnabled()) {
+            return;
+        }
+        String traceInfo = beforeLog(errorCode);
+        delegateLogger.error(msg);
+        afterLog(errorCode, traceInfo);
     }
 
 
     @Override
     public void errorWithErrorCode(String errorCode, String format, Object arg) {
-        uniformLog(errorCode, () -> delegateLogger.error(format, tryGet(arg)));
+        if (!delegateLogger.isErrorEnabled()) {
+            return;
+        }
+        String traceInfo = beforeLog(errorCode);
+        delegateLogger.error(format, tryGet(arg));
+        afterLog(errorCode, traceInfo);
     }
 
 
     @Override
     public void errorWithErrorCode(String errorCode, String format, Object arg1, Object arg2) {
-        uniformLog(errorCode, () -> delegateLogger.error(format, tryGet(arg1), tryGet(arg2)));
+        if (!delegateLogger.isErrorEnabled()) {
+            return;
+        }
+        String traceInfo = beforeLog(errorCode);
+        delegateLogger.error(format, tryGet(arg1), tryGet(arg2));
+        afterLog(errorCode, traceInfo);
     }
 
 
     @Override
     public void errorWithErrorCode(String errorCode, String format, Object... arguments) {
-        uniformLog(errorCode, () -> delegateLogger.error(format, tryGet(arguments)));
+        if (!delegateLogger.isErrorEnabled()) {
+            return;
+        }
+        String traceInfo = beforeLog(errorCode);
+        delegateLogger.error(format, tryGet(arguments));
+        afterLog(errorCode, traceInfo);
     }
 
 
     @Override
     public void errorWithErrorCode(String errorCode, String msg, Throwable t) {
-        uniformLog(errorCode, () -> delegateLogger.error(msg, t));
+        if (!delegateLogger.isErrorEnabled()) {
+            return;
+        }
+        String traceInfo = beforeLog(errorCode);
+        delegateLogger.error(msg, t);
+        afterLog(errorCode, traceInfo);
     }
 
 
@@ -694,37 +1089,55 @@ public class ShoulderLogger implements org.shoulder.core.log.Logger {
     }
 
     /**
-     * 统一格式打印日志
-     * 在 slf4j 基础上封装一点信息，如调用链信息
+     * 统一格式打印日志：打印前在 slf4j 基础上封装一点信息，如调用链信息
+     * 调用前必须已判断日志级别已开启，避免关闭的日志也要生成调用链信息、操作 MDC
      *
-     * @param logger 第三方日志
+     * @return 调用链信息，打印后需传给 afterLog 清理
      */
-    private void uniformLog(GeneralLogger logger) {
+    private String beforeLog() {
         String traceInfo = generateTraceInfo();
         if (traceInfo != null) {
             MDC.put(MDC_TRACE_NAME, traceInfo);
         }
-        logger.log();
+        return traceInfo;
+    }
+
+    /**
+     * 统一格式打印日志：打印后清理
+     *
+     * @param traceInfo beforeLog 返回值
+     */
+    private void afterLog(String traceInfo) {
         if (traceInfo != null) {
             MDC.remove(MDC_TRACE_NAME);
         }
     }
 
     /**
-     * 统一格式打印日志
-     * 在 slf4j 基础上封装一点信息，如调用链信息、错误码
+     * 统一格式打印日志：打印前在 slf4j 基础上封装一点信息，如调用链信息、错误码
      *
-     * @param logger 第三方日志
+     * @param errorCode 错误码
+     * @return 调用链信息，打印后需传给 afterLog 清理
      */
-    private void uniformLog(String errorCode, GeneralLogger logger) {
+    private String beforeLog(String errorCode) {
         // 校验 errorCode
-        if (org.shoulder.core.util.StringUtils.isEmpty(errorCode)) {
-            uniformLog(logger);
-            return;
+        if (StringUtils.isNotEmpty(errorCode)) {
+            addErrorCodeInfo(errorCode);
+        }
+        return beforeLog();
+    }
+
+    /**
+     * 统一格式打印日志：打印后清理
+     *
+     * @param errorCode 错误码
+     * @param traceInfo beforeLog 返回值
+     */
+    private void afterLog(String errorCode, String traceInfo) {
+        afterLog(traceInfo);
+        if (StringUtils.isNotEmpty(errorCode)) {
+            cleanErrorCodeInfo();
         }
-        addErrorCodeInfo(errorCode);
-        uniformLog(logger);
-        cleanErrorCodeInfo();
     }
 
     /**
@@ -770,16 +1183,4 @@ public class ShoulderLogger implements org.shoulder.core.log.Logger {
         MDC.remove(MDC_ERROR_CODE_NAME);
     }
 
-
-    /**
-     * 一般为第三方的日志记录器，如 logback 等
-     */
-    @FunctionalInterface
-    interface GeneralLogger {
-
-        /**
-         * 记录日志
-         */
-        void log();
-    }
 }
@@ -0,0 +1,489 @@
+package org.shoulder.core.log.logback.appender;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.encoder.Encoder;
+import org.shoulder.core.util.PaddedAtomicLong;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 异步文件 appender：业务线程只将日志事件放入预分配的环形数组（多生产者，CAS 领取槽位，无锁），
+ * 由单个写线程批量编码，先攒到堆外 ByteBuffer 中，再通过 FileChannel 一次写入，避免业务线程竞争 appender 锁 / 等待磁盘 IO
+ * <p>
+ * 与 logback 的 AsyncAppender 相比：不使用 ArrayBlockingQueue（入队出队都需要加锁），且编码与写文件合并在同一个写线程中完成。
+ * 环满时按 {@link OverflowPolicy} 处理（丢弃 / 阻塞等待）
+ * <pre>{@code
+ * <appender name="APP-ASYNC-APPENDER" class="org.shoulder.core.log.logback.appender.ShoulderAsyncFileAppender">
+ *     <file>${LOG_PATH}/${APP_ID}/default.log</file>
+ *     <ringBufferSize>8192</ringBufferSize>
+ *     <overflowPolicy>DROP</overflowPolicy>
+ *     <encoder class="org.shoulder.core.log.logback.encoder.ShoulderPatternLayoutEncoder">
+ *         <pattern>${SHOULDER_LOG_PATTERN}</pattern>
+ *     </encoder>
+ * </appender>
+ * }</pre>
+ * 注意：不支持滚动；为了性能默认不采集调用者信息（%C %L 等），需要时设置 includeCallerData=true
+ *
+ * @author lym
+ */
+public class ShoulderAsyncFileAppender extends UnsynchronizedAppenderBase<ILoggingEvent> {
+
+    /**
+     * 默认环大小
+     */
+    public static final int DEFAULT_RING_BUFFER_SIZE = 8192;
+
+    /**
+     * 默认写缓冲大小 256KB
+     */
+    public static final int DEFAULT_WRITE_BUFFER_SIZE = 256 * 1024;
+
+    /**
+     * 默认停止时最多等待多久刷完剩余日志
+     */
+    public static final long DEFAULT_MAX_FLUSH_TIME_MILLIS = 1000;
+
+    /**
+     * 写线程空闲时最长休眠时间，防止极端情况下丢失唤醒
+     */
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    /**
+     * 每个发布标记之间间隔 8 个 long（64 bytes），避免相邻槽位的标记位于同一缓存行，多个生产者相互伪共享
+     */
+    private static final int FLAG_PADDING_SHIFT = 3;
+
+    private static final VarHandle LONG_ARRAY_HANDLE = MethodHandles.arrayElementVarHandle(long[].class);
+
+    // ---------------------- 配置 ----------------------
+
+    private Encoder<ILoggingEvent> encoder;
+
+    private String file;
+
+    private boolean append = true;
+
+    private int ringBufferSize = DEFAULT_RING_BUFFER_SIZE;
+
+    private int writeBufferSize = DEFAULT_WRITE_BUFFER_SIZE;
+
+    private OverflowPolicy overflowPolicy = OverflowPolicy.DROP;
+
+    private boolean includeCallerData = false;
+
+    private long maxFlushTime = DEFAULT_MAX_FLUSH_TIME_MILLIS;
+
+    // ---------------------- 运行时 ----------------------
+
+    private int indexMask;
+
+    /**
+     * 日志事件
+     */
+    private ILoggingEvent[] slots;
+
+    /**
+     * 槽位已发布的序号，下标为 slotIndex << FLAG_PADDING_SHIFT；生产者写完事件后写入序号，写线程读到对应序号才可读取事件
+     */
+    private long[] published;
+
+    /**
+     * 已领取的最大序号（生产者 CAS 竞争），+1 即累计入队数
+     */
+    private final PaddedAtomicLong claimed = new PaddedAtomicLong(-1);
+
+    /**
+     * 已消费的最大序号（仅写线程写）
+     */
+    private final PaddedAtomicLong consumed = new PaddedAtomicLong(-1);
+
+    /**
+     * 写线程是否在休眠，生产者仅在其休眠时唤醒，避免每条日志都 unpark
+     */
+    private final AtomicBoolean writerSleeping = new AtomicBoolean(false);
+
+    /**
+     * 环满丢弃的日志数
+     */
+    private final LongAdder droppedCount = new LongAdder();
+
+    /**
+     * 写文件失败的次数
+     */
+    private final LongAdder writeErrorCount = new LongAdder();
+
+    private volatile boolean running;
+
+    private Thread writer;
+
+    private FileChannel channel;
+
+    private ByteBuffer writeBuffer;
+
+    @Override
+    public void start() {
+        if (isStarted()) {
+            return;
+        }
+        int errors = 0;
+        if (encoder == null) {
+            addError("No encoder set for the appender named [" + name + "].");
+            errors++;
+        }
+        if (file == null || file.isBlank()) {
+            addError("No file set for the appender named [" + name + "].");
+            errors++;
+        }
+        if (ringBufferSize < 2 || ringBufferSize > 1 << 24) {
+            addError("ringBufferSize must in [2, 1 << 24]. ringBufferSize=" + ringBufferSize);
+            errors++;
+        }
+        if (writeBufferSize < 1024) {
+            addError("writeBufferSize must >= 1024. writeBufferSize=" + writeBufferSize);
+            errors++;
+        }
+        if (errors > 0) {
+            return;
+        }
+        try {
+            channel = openChannel();
+        } catch (IOException e) {
+            addError("open file [" + file + "] fail for the appender named [" + name + "].", e);
+            return;
+        }
+        int size = (-1 >>> Integer.numberOfLeadingZeros(ringBufferSize - 1)) + 1;
+        indexMask = size - 1;
+        slots = new ILoggingEvent[size];
+        published = new long[size << FLAG_PADDING_SHIFT];
+        for (int i = 0; i < size; i++) {
+            published[i << FLAG_PADDING_SHIFT] = -1;
+        }
+        writeBuffer = ByteBuffer.allocateDirect(writeBufferSize);
+        writeBytes(encoder.headerBytes());
+        flushBuffer();
+
+        running = true;
+        writer = new Thread(this::writeLoop, "shoulder-async-appender-" + name);
+        writer.setDaemon(true);
+        writer.start();
+        super.start();
+    }
+
+    private FileChannel openChannel() throws IOException {
+        File logFile = new File(file);
+        File parent = logFile.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("create parent dir fail: " + parent);
+        }
+        return append
+                ? FileChannel.open(logFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)
+                : FileChannel.open(logFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        // 先拒绝新日志，再等写线程刷完剩余日志
+        super.stop();
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(maxFlushTime);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            addWarn("Max flush timeout (" + maxFlushTime + " ms) exceeded. " + getQueueSize() + " events may be discarded.");
+        } else {
+            writeBytes(encoder.footerBytes());
+            flushBuffer();
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            addError("close file [" + file + "] fail.", e);
+        }
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        // 在调用线程上固定 MDC、消息格式化结果等，写线程中再取会错乱
+        event.prepareForDeferredProcessing();
+        if (includeCallerData) {
+            event.getCallerData();
+        }
+        long sequence = claim();
+        if (sequence < 0) {
+            droppedCount.increment();
+            return;
+        }
+        int index = (int) sequence & indexMask;
+        slots[index] = event;
+        // volatile 写：与下面读 writerSleeping 不可重排，配合写线程 先置休眠标记再检查 的顺序避免丢失唤醒
+        LONG_ARRAY_HANDLE.setVolatile(published, index << FLAG_PADDING_SHIFT, sequence);
+        if (writerSleeping.get() && writerSleeping.compareAndSet(true, false)) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    /**
+     * 领取一个槽位
+     *
+     * @return 序号，-1 表示环满且策略为丢弃
+     */
+    private long claim() {
+        while (true) {
+            long current = claimed.get();
+            if (current - consumed.get() >= slots.length) {
+                if (overflowPolicy == OverflowPolicy.DROP || !running) {
+                    return -1;
+                }
+                // 阻塞：等待写线程消费
+                if (writerSleeping.compareAndSet(true, false)) {
+                    LockSupport.unpark(writer);
+                }
+                Thread.yield();
+                continue;
+            }
+            if (claimed.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    private void writeLoop() {
+        while (true) {
+            int drained = drain();
+            if (drained > 0) {
+                continue;
+            }
+            if (!running) {
+                // 停止前确保环中已无日志（生产者可能仍在发布最后几条）
+                if (claimed.get() == consumed.get()) {
+                    break;
+                }
+                Thread.onSpinWait();
+                continue;
+            }
+            writerSleeping.set(true);
+            // 再检查一次，避免生产者在设置标记前发布导致的丢失唤醒
+            if (!isNextPublished()) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+            writerSleeping.set(false);
+        }
+        flushBuffer();
+    }
+
+    /**
+     * 消费所有已发布的日志，写入文件
+     *
+     * @return 本次消费条数
+     */
+    private int drain() {
+        long next = consumed.get() + 1;
+        int count = 0;
+        while (true) {
+            int index = (int) next & indexMask;
+            if ((long) LONG_ARRAY_HANDLE.getAcquire(published, index << FLAG_PADDING_SHIFT) != next) {
+                break;
+            }
+            ILoggingEvent event = slots[index];
+            slots[index] = null;
+            try {
+                writeBytes(encoder.encode(event));
+            } catch (Exception e) {
+                writeErrorCount.increment();
+                addError("encode log event fail.", e);
+            }
+            count++;
+            // 每条都释放槽位，BLOCK 策略下生产者可尽早继续
+            consumed.lazySet(next);
+            next++;
+        }
+        // 批量：消费完当前所有已发布的日志后再写入文件
+        if (count > 0) {
+            flushBuffer();
+        }
+        return count;
+    }
+
+    private boolean isNextPublished() {
+        long next = consumed.get() + 1;
+        return (long) LONG_ARRAY_HANDLE.getVolatile(published, ((int) next & indexMask) << FLAG_PADDING_SHIFT) == next;
+    }
+
+    /**
+     * 放入写缓冲，缓冲满时写入文件（仅写线程 / 启停时调用）
+     */
+    private void writeBytes(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return;
+        }
+        if (bytes.length > writeBuffer.remaining()) {
+            flushBuffer();
+            if (bytes.length > writeBuffer.capacity()) {
+                // 超大日志直接写
+                writeFully(ByteBuffer.wrap(bytes));
+                return;
+            }
+        }
+        writeBuffer.put(bytes);
+    }
+
+    private void flushBuffer() {
+        if (writeBuffer.position() == 0) {
+            return;
+        }
+        writeBuffer.flip();
+        writeFully(writeBuffer);
+        writeBuffer.clear();
+    }
+
+    private void writeFully(ByteBuffer buffer) {
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            writeErrorCount.increment();
+            addError("write log file [" + file + "] fail.", e);
+        }
+    }
+
+    // ---------------------- 统计 ----------------------
+
+    /**
+     * 累计入队的日志数
+     */
+    public long getQueuedCount() {
+        return claimed.get() + 1;
+    }
+
+    /**
+     * 环满丢弃的日志数，该值持续增长说明环偏小或磁盘写入速度跟不上
+     */
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    /**
+     * 当前等待写入的日志数
+     */
+    public long getQueueSize() {
+        return Math.max(claimed.get() - consumed.get(), 0);
+    }
+
+    /**
+     * 编码 / 写文件失败的次数
+     */
+    public long getWriteErrorCount() {
+        return writeErrorCount.sum();
+    }
+
+    // ---------------------- 配置 getter / setter ----------------------
+
+    public Encoder<ILoggingEvent> getEncoder() {
+        return encoder;
+    }
+
+    public void setEncoder(Encoder<ILoggingEvent> encoder) {
+        this.encoder = encoder;
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    public void setFile(String file) {
+        this.file = file == null ? null : file.trim();
+    }
+
+    public boolean isAppend() {
+        return append;
+    }
+
+    public void setAppend(boolean append) {
+        this.append = append;
+    }
+
+    public int getRingBufferSize() {
+        return ringBufferSize;
+    }
+
+    /**
+     * 环大小，会向上取 2 的整数次幂，[2, 1 << 24]
+     */
+    public void setRingBufferSize(int ringBufferSize) {
+        this.ringBufferSize = ringBufferSize;
+    }
+
+    public int getWriteBufferSize() {
+        return writeBufferSize;
+    }
+
+    /**
+     * 写缓冲（堆外）大小，单位 byte
+     */
+    public void setWriteBufferSize(int writeBufferSize) {
+        this.writeBufferSize = writeBufferSize;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    public boolean isIncludeCallerData() {
+        return includeCallerData;
+    }
+
+    public void setIncludeCallerData(boolean includeCallerData) {
+        this.includeCallerData = includeCallerData;
+    }
+
+    public long getMaxFlushTime() {
+        return maxFlushTime;
+    }
+
+    /**
+     * 停止时最多等待多少毫秒刷完剩余日志
+     */
+    public void setMaxFlushTime(long maxFlushTime) {
+        this.maxFlushTime = maxFlushTime;
+    }
+
+    /**
+     * 环满时的处理策略
+     */
+    public enum OverflowPolicy {
+
+        /**
+         * 【默认】丢弃，不阻塞业务线程，通过 {@link #getDroppedCount()} 观察
+         */
+        DROP,
+
+        /**
+         * 阻塞等待写线程消费，不丢日志，但磁盘慢时会拖慢业务线程
+         */
+        BLOCK,
+        ;
+    }
+
+}
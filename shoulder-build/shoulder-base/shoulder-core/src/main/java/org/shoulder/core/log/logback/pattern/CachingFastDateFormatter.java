@@ -7,6 +7,8 @@ import java.lang.invoke.MethodHandles;
 import java.lang.invoke.VarHandle;
 import java.text.Format;
 import java.util.Arrays;
+import java.util.Locale;
+import java.util.TimeZone;
 
 /**
  * 带缓存的时间格式化器，去掉了锁。LocalDateTime.ofInstant 替代 new Date
@@ -39,7 +41,22 @@ public class CachingFastDateFormatter {
      * @param cacheSize 缓存时间，通常为绝大多数 ygc 时间，2次幂
      */
     public CachingFastDateFormatter(String pattern, int cacheSize) {
-        dateFormat = FastDateFormat.getInstance(pattern);
+        this(FastDateFormat.getInstance(pattern), cacheSize);
+    }
+
+    /**
+     * 指定时区、语言
+     *
+     * @param pattern  时间格式
+     * @param timeZone 时区
+     * @param locale   语言
+     */
+    public CachingFastDateFormatter(String pattern, TimeZone timeZone, Locale locale) {
+        this(FastDateFormat.getInstance(pattern, timeZone, locale), 32);
+    }
+
+    private CachingFastDateFormatter(Format dateFormat, int cacheSize) {
+        this.dateFormat = dateFormat;
         cache = new TimeFormatCache[cacheSizeFor(cacheSize)];
         Arrays.fill(cache, new TimeFormatCache(-1, null));
     }
@@ -5,14 +5,19 @@ import org.junit.jupiter.api.Test;
 
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * 并发测试
+ * <p>
+ * 注意：这里的性能测试仅为无预热粗略测试，精确测试请使用 JMH。
  */
 public class FastPriorityBlockingQueueTest {
 
@@ -132,6 +137,119 @@ public class FastPriorityBlockingQueueTest {
         Assertions.assertThat(queue.size()).isEqualTo(0);
     }
 
+    @Test
+    public void testWeightedSchedule() {
+        Assertions.assertThat(FastPriorityBlockingQueue.buildWeightedSchedule(new int[]{5, 1, 1}))
+                .containsExactly(0, 0, 1, 0, 2, 0, 0);
+
+        // 8:3:1 各级别都积压时，取出比例与权重一致
+        int[] weights = {8, 3, 1};
+        FastPriorityBlockingQueue<TestRequest> queue = new FastPriorityBlockingQueue<>(LinkedBlockingQueue::new,
+                TestRequest::getPriority, weights);
+        for (int i = 0; i < 1200; i++) {
+            for (int p = 0; p < weights.length; p++) {
+                queue.add(new TestRequest(p));
+            }
+        }
+        int[] taken = new int[weights.length];
+        for (int i = 0; i < 1200; i++) {
+            taken[queue.poll().getPriority()]++;
+        }
+        Assertions.assertThat(taken).containsExactly(800, 300, 100);
+
+        // 各优先级使用情况统计
+        FastPriorityBlockingQueue.LevelStatistics[] statistics = queue.getLevelStatistics();
+        for (int p = 0; p < weights.length; p++) {
+            Assertions.assertThat(statistics[p].getWeight()).isEqualTo(weights[p]);
+            Assertions.assertThat(statistics[p].getEnqueuedCount()).isEqualTo(1200);
+            Assertions.assertThat(statistics[p].getDequeuedCount()).isEqualTo(taken[p]);
+            Assertions.assertThat(statistics[p].getDepth()).isEqualTo(1200 - taken[p]);
+        }
+        queue.clear();
+        Assertions.assertThat(statistics[2].getDepth()).isEqualTo(0);
+        Assertions.assertThat(statistics[2].getCurrentWaitMillis()).isEqualTo(0);
+    }
+
+    @Test
+    public void testBlockingTakeWakeup() throws InterruptedException {
+        FastPriorityBlockingQueue<TestRequest> queue = new FastPriorityBlockingQueue<>(LinkedBlockingQueue::new,
+                TestRequest::getPriority, 3);
+        int consumerNum = 8;
+        CountDownLatch taken = new CountDownLatch(consumerNum);
+        for (int i = 0; i < consumerNum; i++) {
+            new Thread(() -> {
+                try {
+                    queue.take();
+                    taken.countDown();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            }).start();
+        }
+        // 等消费者都阻塞后再放入
+        Thread.sleep(100);
+        for (int i = 0; i < consumerNum; i++) {
+            queue.put(new TestRequest(i % 3));
+        }
+        Assertions.assertThat(taken.await(5, TimeUnit.SECONDS)).isTrue();
+        Assertions.assertThat(queue.isEmpty()).isTrue();
+
+        // 超时返回 null
+        long start = System.nanoTime();
+        Assertions.assertThat(queue.poll(50, TimeUnit.MILLISECONDS)).isNull();
+        Assertions.assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    /**
+     * 【性能】生产者 / 消费者阻塞收发，队列大部分时间为空，对比 PriorityBlockingQueue 与旧实现（线程池并发 take）
+     */
+    @Test
+    public void timer_blockingTake() throws InterruptedException {
+        int priorityCount = 3;
+        int total = 20_0000;
+        BlockingQueue<TestRequest> pbq = new PriorityBlockingQueue<>(11, Comparator.comparingInt(TestRequest::getPriority));
+        System.out.println("TIME-PriorityBlockingQueue TEST: " + total + " cost "
+                + produceAndTake(pbq, priorityCount, total) + " ms");
+        System.out.println("TIME-FastPriorityBlockingQueue(threadPoolTake) TEST: " + total + " cost "
+                + produceAndTake(new ThreadPoolTakePriorityBlockingQueue<>(LinkedBlockingQueue::new,
+                TestRequest::getPriority, priorityCount), priorityCount, total) + " ms");
+        System.out.println("TIME-FastPriorityBlockingQueue(strict) TEST: " + total + " cost "
+                + produceAndTake(new FastPriorityBlockingQueue<>(LinkedBlockingQueue::new,
+                TestRequest::getPriority, priorityCount), priorityCount, total) + " ms");
+        System.out.println("TIME-FastPriorityBlockingQueue(weighted) TEST: " + total + " cost "
+                + produceAndTake(new FastPriorityBlockingQueue<>(LinkedBlockingQueue::new,
+                TestRequest::getPriority, new int[]{8, 3, 1}), priorityCount, total) + " ms");
+    }
+
+    private static long produceAndTake(BlockingQueue<TestRequest> queue, int priorityCount, int total) throws InterruptedException {
+        int producerNum = 4;
+        int consumerNum = 4;
+        CountDownLatch finishLatch = new CountDownLatch(consumerNum);
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < consumerNum; i++) {
+            new Thread(() -> {
+                try {
+                    for (int j = 0; j < total / consumerNum; j++) {
+                        queue.take();
+                    }
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                } finally {
+                    finishLatch.countDown();
+                }
+            }).start();
+        }
+        for (int i = 0; i < producerNum; i++) {
+            new Thread(() -> {
+                for (int j = 0; j < total / producerNum; j++) {
+                    queue.offer(new TestRequest(ThreadLocalRandom.current().nextInt(priorityCount)));
+                }
+            }).start();
+        }
+        Assertions.assertThat(finishLatch.await(60, TimeUnit.SECONDS)).isTrue();
+        return System.currentTimeMillis() - start;
+    }
+
     public static class TestRequest {
         // 0：生产流量
         // 1: 性能回归流量（压测）
@@ -0,0 +1,192 @@
+package org.shoulder.core.concurrent;
+
+import cn.hutool.core.thread.NamedThreadFactory;
+import jakarta.annotation.Nonnull;
+
+import java.util.AbstractQueue;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * FastPriorityBlockingQueue 旧实现（各优先级队列都为空时，借助线程池并发 take），仅用于与新实现进行性能对比
+ * 只保留收发相关逻辑，其余方法由 AbstractQueue 提供
+ *
+ * @author lym
+ */
+@SuppressWarnings("unchecked")
+public class ThreadPoolTakePriorityBlockingQueue<E> extends AbstractQueue<E> implements BlockingQueue<E> {
+
+    final BlockingQueue<E>[] queuesArray;
+
+    final Function<E, Integer> priorityFetcher;
+
+    final ThreadPoolExecutor threadPoolExecutor;
+
+    public ThreadPoolTakePriorityBlockingQueue(Supplier<BlockingQueue<E>> blockingQueueConstruction, Function<E, Integer> priorityFetcher, int priorityCount) {
+        this.queuesArray = new BlockingQueue[priorityCount];
+        for (int i = 0; i < priorityCount; i++) {
+            queuesArray[i] = blockingQueueConstruction.get();
+        }
+        this.priorityFetcher = priorityFetcher;
+        // 由于该线程池只是用于等待，故理论上不会占用什么 CPU 资源，核数调大，避免阻塞
+        this.threadPoolExecutor = new ThreadPoolExecutor(priorityCount * 32, priorityCount * 32,
+                60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                new NamedThreadFactory("FastPriorityBlockingQueue", true));
+    }
+
+    private BlockingQueue<E> getQueue(E e) {
+        return queuesArray[priorityFetcher.apply(e)];
+    }
+
+    @Override
+    public boolean offer(E e) {
+        return getQueue(e).offer(e);
+    }
+
+    @Override
+    public boolean offer(E e, long timeout, @Nonnull TimeUnit unit) throws InterruptedException {
+        return getQueue(e).offer(e, timeout, unit);
+    }
+
+    @Override
+    public void put(E e) throws InterruptedException {
+        getQueue(e).put(e);
+    }
+
+    @Override
+    public E peek() {
+        for (BlockingQueue<E> queue : queuesArray) {
+            E e = queue.peek();
+            if (e != null) {
+                return e;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public E poll() {
+        for (BlockingQueue<E> queue : queuesArray) {
+            E e = queue.poll();
+            if (e != null) {
+                return e;
+            }
+        }
+        return null;
+    }
+
+    @Nonnull
+    @Override
+    public E take() throws InterruptedException {
+        // 先尝试挨个 poll 避免阻塞
+        E result = poll();
+        if (result != null) {
+            return result;
+        }
+        // 都是空的，再阻塞
+        return concurrentTake(queue -> {
+            try {
+                return queue.take();
+            } catch (InterruptedException e) {
+                throw new FastPriorityBlockingQueue.InterruptedExceptionWrapper(null, e);
+            }
+        });
+    }
+
+    @Override
+    public E poll(long timeout, @Nonnull TimeUnit unit) throws InterruptedException {
+        E result = poll();
+        if (result != null) {
+            return result;
+        }
+        return concurrentTake(queue -> {
+            try {
+                return queue.poll(timeout, unit);
+            } catch (InterruptedException e) {
+                throw new FastPriorityBlockingQueue.InterruptedExceptionWrapper(null, e);
+            }
+        });
+    }
+
+    protected E concurrentTake(Function<BlockingQueue<E>, E> takeFunction) throws InterruptedException {
+        // 并行take,拿多了放回去
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicReference<E> finalTake = new AtomicReference<>();
+        for (BlockingQueue<E> queue : queuesArray) {
+            Runnable r = () -> {
+                E taked = null;
+                boolean setted = false;
+                try {
+                    taked = takeFunction.apply(queue);
+                    setted = finalTake.compareAndSet(null, taked);
+                    if (setted) {
+                        latch.countDown();
+                    }
+                } finally {
+                    // 避免拿出来了，还没尝试 set，就cancel了
+                    if (taked != null && !setted) {
+                        // 加回去，改为返回 null，相当于没拿出来
+                        queue.add(taked);
+                    }
+                }
+            };
+            threadPoolExecutor.execute(r);
+        }
+        latch.await();
+        return finalTake.get();
+    }
+
+    @Nonnull
+    @Override
+    public Iterator<E> iterator() {
+        Iterator<E>[] iterators = new Iterator[queuesArray.length];
+        for (int i = 0; i < iterators.length; i++) {
+            iterators[i] = queuesArray[i].iterator();
+        }
+        return new FastPriorityBlockingQueue.MultiIterator<>(iterators);
+    }
+
+    @Override
+    public int size() {
+        long count = 0;
+        for (BlockingQueue<E> queue : queuesArray) {
+            count += queue.size();
+        }
+        return (int) Math.min(count, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int remainingCapacity() {
+        long count = 0;
+        for (BlockingQueue<E> queue : queuesArray) {
+            count += queue.remainingCapacity();
+        }
+        return (int) Math.min(count, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(@Nonnull Collection<? super E> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(@Nonnull Collection<? super E> c, int maxElements) {
+        int drained = 0;
+        for (BlockingQueue<E> queue : queuesArray) {
+            drained += queue.drainTo(c, maxElements - drained);
+            if (drained >= maxElements) {
+                break;
+            }
+        }
+        return drained;
+    }
+
+}
@@ -7,18 +7,23 @@ import org.shoulder.core.dictionary.convert.DictionaryItemConversions;
 import org.shoulder.core.dictionary.convert.DictionaryItemEnumSerialGenericConverter;
 import org.shoulder.core.dictionary.convert.DictionaryItemToStrGenericConverter;
 import org.shoulder.core.dictionary.convert.ToDictionaryEnumGenericConverter;
+import org.shoulder.core.dictionary.model.DictionaryEnumIndex;
 import org.shoulder.core.dictionary.model.DictionaryItem;
 import org.shoulder.core.dictionary.model.DictionaryItemEnum;
 import org.shoulder.core.dictionary.spi.DefaultDictionaryEnumStore;
 import org.shoulder.core.exception.BaseRuntimeException;
 import org.shoulder.core.util.ArrayUtils;
 import org.shoulder.core.util.ConvertUtil;
+import org.springframework.core.GenericTypeResolver;
 import org.springframework.core.convert.TypeDescriptor;
 
 import java.util.HashMap;
+import java.util.List;
 
 /**
  * DictionaryEnumStoreTest 单测
+ * <p>
+ * 注意：这里的性能测试仅为无预热粗略测试，精确测试请使用 JMH。
  *
  * @author lym
  */
@@ -221,4 +226,79 @@ public class DictionaryTest {
     }
 
 
+    @SuppressWarnings("rawtypes")
+    @Test
+    public void testDictionaryEnumIndex() {
+        DictionaryEnumIndex<ColorIntEnum> index = DictionaryEnumIndex.of(ColorIntEnum.class);
+        Assertions.assertSame(index, DictionaryEnumIndex.of(ColorIntEnum.class));
+        Assertions.assertEquals(Integer.class, index.getItemIdClass());
+        Assertions.assertEquals(ColorIntEnum.GRAY, index.getById(128));
+        Assertions.assertNull(index.getById("128"));
+        Assertions.assertEquals(ColorIntEnum.GRAY, index.getByName("GRAY"));
+        Assertions.assertNull(index.getByName("gray"));
+        Assertions.assertEquals(ColorIntEnum.GRAY, index.getByName("gray", true));
+        Assertions.assertEquals(ColorIntEnum.GRAY, index.getByCodingName("Gray", true));
+        Assertions.assertEquals(ColorIntEnum.BLANK, index.getByOrdinal(1));
+        Assertions.assertNull(index.getByOrdinal(3));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> index.getValues().clear());
+
+        Assertions.assertEquals(ColorIntEnum.GRAY, DictionaryItemEnum.fromId(ColorIntEnum.class, 128));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> DictionaryItemEnum.fromId(ColorIntEnum.class, 1));
+        Assertions.assertEquals(ColorIntEnum.WHITE, DictionaryItemEnum.fromId(ColorIntEnum.class, 1, ColorIntEnum.WHITE));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> DictionaryItemEnum.fromOrder(ColorIntEnum.class, 3));
+
+        DefaultDictionaryEnumStore ignoreCaseStore = new DefaultDictionaryEnumStore(true);
+        ignoreCaseStore.register(ColorStrEnum.class);
+        Assertions.assertEquals(ColorStrEnum.RED, ignoreCaseStore.getItemById("colorStrEnum", "RED"));
+        Assertions.assertEquals(ColorStrEnum.RED, ignoreCaseStore.getItemByName("colorStrEnum", "red"));
+        DefaultDictionaryEnumStore caseSensitiveStore = new DefaultDictionaryEnumStore(false);
+        caseSensitiveStore.register(ColorStrEnum.class);
+        Assertions.assertNull(caseSensitiveStore.getItemByName("ColorStrEnum", "red"));
+        Assertions.assertThrows(BaseRuntimeException.class, () -> caseSensitiveStore.getItemById("colorStrEnum", "RED"));
+        // 返回副本，修改不影响索引
+        List<Enum<? extends DictionaryItemEnum>> items = caseSensitiveStore.listAllAsDictionaryEnum("ColorStrEnum");
+        items.clear();
+        Assertions.assertEquals(ColorStrEnum.values().length, caseSensitiveStore.list(ColorStrEnum.class).size());
+        Assertions.assertEquals(ColorStrEnum.values().length, DictionaryEnumIndex.of(ColorStrEnum.class).getValues().size());
+    }
+
+    /**
+     * String -> Enum：逐个比较（原实现） / 索引，枚举项 5、50、500 个，查找最后一个
+     */
+    @Test
+    public void timer_str2Enum() {
+        int loop = 50_000;
+        // 第一轮预热
+        for (int round = 0; round < 2; round++) {
+            for (Class<?> enumClass : new Class<?>[]{ColorStrEnum.class, LargeStrEnums.Size50.class, LargeStrEnums.Size500.class}) {
+                Enum<?>[] values = (Enum<?>[]) enumClass.getEnumConstants();
+                String source = values[values.length - 1].name();
+
+                long start = System.nanoTime();
+                for (int i = 0; i < loop; i++) {
+                    Assertions.assertNotNull(scanStr2Enum(source, enumClass));
+                }
+                long scanCost = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                for (int i = 0; i < loop; i++) {
+                    Assertions.assertNotNull(ToDictionaryEnumGenericConverter.parseStr2Enum(source, enumClass));
+                }
+                long indexCost = System.nanoTime() - start;
+                System.out.println("TIME-str2Enum TEST: " + values.length + " items, scan " + scanCost / loop
+                    + "ns/op, index " + indexCost / loop + "ns/op");
+            }
+        }
+    }
+
+    /**
+     * 原实现：每次反射解析 id 类型、复制枚举数组并逐个比较
+     */
+    @SuppressWarnings("unchecked")
+    private static Enum<?> scanStr2Enum(String source, Class<?> enumClass) {
+        GenericTypeResolver.resolveTypeArguments(enumClass, DictionaryItemEnum.class);
+        return DictionaryItemEnum.decideActualEnum((Enum<? extends DictionaryItemEnum<?, String>>[]) enumClass.getEnumConstants(),
+            source, DictionaryItemEnum.compareWithId(), DictionaryItemEnum::onMissMatch);
+    }
+
 }
@@ -0,0 +1,73 @@
+package org.shoulder.core.dictionary;
+
+import org.shoulder.core.dictionary.model.NameAsIdDictionaryItemEnum;
+
+/**
+ * 性能测试用的大枚举
+ *
+ * @author lym
+ */
+public class LargeStrEnums {
+
+    public enum Size50 implements NameAsIdDictionaryItemEnum<Size50> {
+        ITEM_0, ITEM_1, ITEM_2, ITEM_3, ITEM_4, ITEM_5, ITEM_6, ITEM_7, ITEM_8, ITEM_9,
+        ITEM_10, ITEM_11, ITEM_12, ITEM_13, ITEM_14, ITEM_15, ITEM_16, ITEM_17, ITEM_18, ITEM_19,
+        ITEM_20, ITEM_21, ITEM_22, ITEM_23, ITEM_24, ITEM_25, ITEM_26, ITEM_27, ITEM_28, ITEM_29,
+        ITEM_30, ITEM_31, ITEM_32, ITEM_33, ITEM_34, ITEM_35, ITEM_36, ITEM_37, ITEM_38, ITEM_39,
+        ITEM_40, ITEM_41, ITEM_42, ITEM_43, ITEM_44, ITEM_45, ITEM_46, ITEM_47, ITEM_48, ITEM_49
+    }
+
+    public enum Size500 implements NameAsIdDictionaryItemEnum<Size500> {
+        ITEM_0, ITEM_1, ITEM_2, ITEM_3, ITEM_4, ITEM_5, ITEM_6, ITEM_7, ITEM_8, ITEM_9,
+        ITEM_10, ITEM_11, ITEM_12, ITEM_13, ITEM_14, ITEM_15, ITEM_16, ITEM_17, ITEM_18, ITEM_19,
+        ITEM_20, ITEM_21, ITEM_22, ITEM_23, ITEM_24, ITEM_25, ITEM_26, ITEM_27, ITEM_28, ITEM_29,
+        ITEM_30, ITEM_31, ITEM_32, ITEM_33, ITEM_34, ITEM_35, ITEM_36, ITEM_37, ITEM_38, ITEM_39,
+        ITEM_40, ITEM_41, ITEM_42, ITEM_43, ITEM_44, ITEM_45, ITEM_46, ITEM_47, ITEM_48, ITEM_49,
+        ITEM_50, ITEM_51, ITEM_52, ITEM_53, ITEM_54, ITEM_55, ITEM_56, ITEM_57, ITEM_58, ITEM_59,
+        ITEM_60, ITEM_61, ITEM_62, ITEM_63, ITEM_64, ITEM_65, ITEM_66, ITEM_67, ITEM_68, ITEM_69,
+        ITEM_70, ITEM_71, ITEM_72, ITEM_73, ITEM_74, ITEM_75, ITEM_76, ITEM_77, ITEM_78, ITEM_79,
+        ITEM_80, ITEM_81, ITEM_82, ITEM_83, ITEM_84, ITEM_85, ITEM_86, ITEM_87, ITEM_88, ITEM_89,
+        ITEM_90, ITEM_91, ITEM_92, ITEM_93, ITEM_94, ITEM_95, ITEM_96, ITEM_97, ITEM_98, ITEM_99,
+        ITEM_100, ITEM_101, ITEM_102, ITEM_103, ITEM_104, ITEM_105, ITEM_106, ITEM_107, ITEM_108, ITEM_109,
+        ITEM_110, ITEM_111, ITEM_112, ITEM_113, ITEM_114, ITEM_115, ITEM_116, ITEM_117, ITEM_118, ITEM_119,
+        ITEM_120, ITEM_121, ITEM_122, ITEM_123, ITEM_124, ITEM_125, ITEM_126, ITEM_127, ITEM_128, ITEM_129,
+        ITEM_130, ITEM_131, ITEM_132, ITEM_133, ITEM_134, ITEM_135, ITEM_136, ITEM_137, ITEM_138, ITEM_139,
+        ITEM_140, ITEM_141, ITEM_142, ITEM_143, ITEM_144, ITEM_145, ITEM_146, ITEM_147, ITEM_148, ITEM_149,
+        ITEM_150, ITEM_151, ITEM_152, ITEM_153, ITEM_154, ITEM_155, ITEM_156, ITEM_157, ITEM_158, ITEM_159,
+        ITEM_160, ITEM_161, ITEM_162, ITEM_163, ITEM_164, ITEM_165, ITEM_166, ITEM_167, ITEM_168, ITEM_169,
+        ITEM_170, ITEM_171, ITEM_172, ITEM_173, ITEM_174, ITEM_175, ITEM_176, ITEM_177, ITEM_178, ITEM_179,
+        ITEM_180, ITEM_181, ITEM_182, ITEM_183, ITEM_184, ITEM_185, ITEM_186, ITEM_187, ITEM_188, ITEM_189,
+        ITEM_190, ITEM_191, ITEM_192, ITEM_193, ITEM_194, ITEM_195, ITEM_196, ITEM_197, ITEM_198, ITEM_199,
+        ITEM_200, ITEM_201, ITEM_202, ITEM_203, ITEM_204, ITEM_205, ITEM_206, ITEM_207, ITEM_208, ITEM_209,
+        ITEM_210, ITEM_211, ITEM_212, ITEM_213, ITEM_214, ITEM_215, ITEM_216, ITEM_217, ITEM_218, ITEM_219,
+        ITEM_220, ITEM_221, ITEM_222, ITEM_223, ITEM_224, ITEM_225, ITEM_226, ITEM_227, ITEM_228, ITEM_229,
+        ITEM_230, ITEM_231, ITEM_232, ITEM_233, ITEM_234, ITEM_235, ITEM_236, ITEM_237, ITEM_238, ITEM_239,
+        ITEM_240, ITEM_241, ITEM_242, ITEM_243, ITEM_244, ITEM_245, ITEM_246, ITEM_247, ITEM_248, ITEM_249,
+        ITEM_250, ITEM_251, ITEM_252, ITEM_253, ITEM_254, ITEM_255, ITEM_256, ITEM_257, ITEM_258, ITEM_259,
+        ITEM_260, ITEM_261, ITEM_262, ITEM_263, ITEM_264, ITEM_265, ITEM_266, ITEM_267, ITEM_268, ITEM_269,
+        ITEM_270, ITEM_271, ITEM_272, ITEM_273, ITEM_274, ITEM_275, ITEM_276, ITEM_277, ITEM_278, ITEM_279,
+        ITEM_280, ITEM_281, ITEM_282, ITEM_283, ITEM_284, ITEM_285, ITEM_286, ITEM_287, ITEM_288, ITEM_289,
+        ITEM_290, ITEM_291, ITEM_292, ITEM_293, ITEM_294, ITEM_295, ITEM_296, ITEM_297, ITEM_298, ITEM_299,
+        ITEM_300, ITEM_301, ITEM_302, ITEM_303, ITEM_304, ITEM_305, ITEM_306, ITEM_307, ITEM_308, ITEM_309,
+        ITEM_310, ITEM_311, ITEM_312, ITEM_313, ITEM_314, ITEM_315, ITEM_316, ITEM_317, ITEM_318, ITEM_319,
+        ITEM_320, ITEM_321, ITEM_322, ITEM_323, ITEM_324, ITEM_325, ITEM_326, ITEM_327, ITEM_328, ITEM_329,
+        ITEM_330, ITEM_331, ITEM_332, ITEM_333, ITEM_334, ITEM_335, ITEM_336, ITEM_337, ITEM_338, ITEM_339,
+        ITEM_340, ITEM_341, ITEM_342, ITEM_343, ITEM_344, ITEM_345, ITEM_346, ITEM_347, ITEM_348, ITEM_349,
+        ITEM_350, ITEM_351, ITEM_352, ITEM_353, ITEM_354, ITEM_355, ITEM_356, ITEM_357, ITEM_358, ITEM_359,
+        ITEM_360, ITEM_361, ITEM_362, ITEM_363, ITEM_364, ITEM_365, ITEM_366, ITEM_367, ITEM_368, ITEM_369,
+        ITEM_370, ITEM_371, ITEM_372, ITEM_373, ITEM_374, ITEM_375, ITEM_376, ITEM_377, ITEM_378, ITEM_379,
+        ITEM_380, ITEM_381, ITEM_382, ITEM_383, ITEM_384, ITEM_385, ITEM_386, ITEM_387, ITEM_388, ITEM_389,
+        ITEM_390, ITEM_391, ITEM_392, ITEM_393, ITEM_394, ITEM_395, ITEM_396, ITEM_397, ITEM_398, ITEM_399,
+        ITEM_400, ITEM_401, ITEM_402, ITEM_403, ITEM_404, ITEM_405, ITEM_406, ITEM_407, ITEM_408, ITEM_409,
+        ITEM_410, ITEM_411, ITEM_412, ITEM_413, ITEM_414, ITEM_415, ITEM_416, ITEM_417, ITEM_418, ITEM_419,
+        ITEM_420, ITEM_421, ITEM_422, ITEM_423, ITEM_424, ITEM_425, ITEM_426, ITEM_427, ITEM_428, ITEM_429,
+        ITEM_430, ITEM_431, ITEM_432, ITEM_433, ITEM_434, ITEM_435, ITEM_436, ITEM_437, ITEM_438, ITEM_439,
+        ITEM_440, ITEM_441, ITEM_442, ITEM_443, ITEM_444, ITEM_445, ITEM_446, ITEM_447, ITEM_448, ITEM_449,
+        ITEM_450, ITEM_451, ITEM_452, ITEM_453, ITEM_454, ITEM_455, ITEM_456, ITEM_457, ITEM_458, ITEM_459,
+        ITEM_460, ITEM_461, ITEM_462, ITEM_463, ITEM_464, ITEM_465, ITEM_466, ITEM_467, ITEM_468, ITEM_469,
+        ITEM_470, ITEM_471, ITEM_472, ITEM_473, ITEM_474, ITEM_475, ITEM_476, ITEM_477, ITEM_478, ITEM_479,
+        ITEM_480, ITEM_481, ITEM_482, ITEM_483, ITEM_484, ITEM_485, ITEM_486, ITEM_487, ITEM_488, ITEM_489,
+        ITEM_490, ITEM_491, ITEM_492, ITEM_493, ITEM_494, ITEM_495, ITEM_496, ITEM_497, ITEM_498, ITEM_499
+    }
+
+}
@@ -2,6 +2,8 @@ package org.shoulder.core.guid;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.shoulder.core.guid.impl.CachedLongGuidGenerator;
+import org.shoulder.core.guid.impl.JdkUuidPressed22Generator;
 import org.shoulder.core.guid.impl.ShoulderGuidGenerator;
 import org.shoulder.core.guid.impl.SnowFlakeGenerator;
 import org.shoulder.core.util.JsonUtils;
@@ -13,6 +15,9 @@ import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 /**
  * shoulder 开发的无锁化 Guid 生成器测试
@@ -298,6 +303,148 @@ public class ShoulderGuidTest {
     }
 
 
+    /**
+     * 【无重复】nextIds 非整批获取（跨 node 拼接）时也不会重复
+     */
+    @Test
+    public void noRepeat_nextIds_partial() {
+        BitSet bitSet = new BitSet(GENERATE_NUM);
+        LongGuidGenerator generator = new ShoulderGuidGenerator(
+            41, System.currentTimeMillis(), 10, 0, 12, 1);
+        int generated = 0;
+        while (generated + 3000 <= GENERATE_NUM) {
+            for (long id : generator.nextIds(3000)) {
+                bitSet.set(press(id));
+            }
+            generated += 3000;
+        }
+        Assertions.assertEquals(generated, bitSet.cardinality(), "存在重复id");
+    }
+
+    /**
+     * 【无重复】缓存模式下多线程领取也不会有重复的，环取空时直接生成 / 等待填充均不重复
+     */
+    @Test
+    public void noRepeat_cached_threads() throws InterruptedException {
+        for (CachedLongGuidGenerator.RingEmptyPolicy policy : CachedLongGuidGenerator.RingEmptyPolicy.values()) {
+            BitSet bitSet = new BitSet(GENERATE_NUM);
+            try (CachedLongGuidGenerator generator = new CachedLongGuidGenerator(new ShoulderGuidGenerator(
+                41, System.currentTimeMillis(), 10, 0, 12, 1), 1024, 50, policy)) {
+                runThreads(THREADS, () -> () -> {
+                    for (int i = 0; i < GENERATE_NUM / THREADS; i++) {
+                        int pressedId = press(generator.nextId());
+                        synchronized (bitSet) {
+                            bitSet.set(pressedId);
+                        }
+                    }
+                });
+                System.out.println("NO-REPEAT-cached(" + policy + ") emptyCount: " + generator.getEmptyCount());
+            }
+            Assertions.assertEquals(GENERATE_NUM / THREADS * THREADS, bitSet.cardinality(), "存在重复id");
+        }
+    }
+
+    /**
+     * WAIT 策略：填充持续失败时最多等待 maxWaitTime 后直接生成；关闭后环为空不再等待
+     */
+    @Test
+    public void cached_waitTimeout() {
+        AtomicBoolean fillFail = new AtomicBoolean();
+        AtomicLong sequence = new AtomicLong();
+        LongGuidGenerator delegate = new LongGuidGenerator() {
+            @Override
+            public long nextId() {
+                return sequence.incrementAndGet();
+            }
+
+            @Override
+            public long[] nextIds(int num) {
+                if (fillFail.get()) {
+                    throw new IllegalStateException("mock clock moved backwards");
+                }
+                return LongGuidGenerator.super.nextIds(num);
+            }
+
+            @Override
+            public Map<String, String> decode(long guid) {
+                return Map.of();
+            }
+        };
+        CachedLongGuidGenerator generator = new CachedLongGuidGenerator(delegate, 4, 50,
+            CachedLongGuidGenerator.RingEmptyPolicy.WAIT, Duration.ofMillis(50));
+        fillFail.set(true);
+        for (int i = 1; i <= 4; i++) {
+            Assertions.assertEquals(i, generator.nextId());
+        }
+        long start = System.nanoTime();
+        Assertions.assertEquals(5, generator.nextId());
+        Assertions.assertTrue(System.nanoTime() - start >= Duration.ofMillis(50).toNanos());
+        Assertions.assertEquals(1, generator.getWaitTimeoutCount());
+
+        generator.close();
+        start = System.nanoTime();
+        Assertions.assertThrows(IllegalStateException.class, generator::nextId);
+        Assertions.assertTrue(System.nanoTime() - start < Duration.ofMillis(50).toNanos());
+    }
+
+    /**
+     * 【性能】缓存模式与 nextId、SnowFlakeGenerator、JdkUuidPressed22Generator 在 1-64 线程下对比
+     */
+    @Test
+    public void timer_cached_threads() throws InterruptedException {
+        JdkUuidPressed22Generator uuidGenerator = new JdkUuidPressed22Generator();
+        for (int threads : new int[]{1, 4, 16, 64}) {
+            int perThread = GENERATE_NUM / threads;
+            LongGuidGenerator shoulder = new ShoulderGuidGenerator(41, System.currentTimeMillis(), 10, 0, 12, 1);
+            LongGuidGenerator snowFlake = new SnowFlakeGenerator(1, 1);
+            try (CachedLongGuidGenerator cached = new CachedLongGuidGenerator(new SnowFlakeGenerator(1, 1))) {
+                System.out.println("TIME-threads=" + threads
+                    + " nextId: " + runThreads(threads, () -> () -> {
+                        for (int i = 0; i < perThread; i++) {
+                            shoulder.nextId();
+                        }
+                    }) + " ms, snowFlake: " + runThreads(threads, () -> () -> {
+                        for (int i = 0; i < perThread; i++) {
+                            snowFlake.nextId();
+                        }
+                    }) + " ms, cached: " + runThreads(threads, () -> () -> {
+                        for (int i = 0; i < perThread; i++) {
+                            cached.nextId();
+                        }
+                    }) + " ms, uuid22: " + runThreads(threads, () -> () -> {
+                        for (int i = 0; i < perThread; i++) {
+                            uuidGenerator.nextId();
+                        }
+                    }) + " ms");
+            }
+        }
+    }
+
+    /**
+     * 多线程同时开始执行，返回全部执行完毕耗时（ms）
+     */
+    private static long runThreads(int totalThreadNum, Supplier<Runnable> taskSupplier) throws InterruptedException {
+        CountDownLatch startLatch = new CountDownLatch(1);
+        CountDownLatch finishLatch = new CountDownLatch(totalThreadNum);
+        for (int threadNum = 0; threadNum < totalThreadNum; threadNum++) {
+            Runnable task = taskSupplier.get();
+            new Thread(() -> {
+                try {
+                    startLatch.await();
+                    task.run();
+                } catch (Exception e) {
+                    e.printStackTrace();
+                } finally {
+                    finishLatch.countDown();
+                }
+            }, "worker-" + threadNum).start();
+        }
+        long start = System.currentTimeMillis();
+        startLatch.countDown();
+        finishLatch.await();
+        return System.currentTimeMillis() - start;
+    }
+
     /**
      * 【扩展性】测试自定义id格式
      * （举例：针对单机场景做性能优化）
@@ -0,0 +1,267 @@
+package org.shoulder.core.lock;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.shoulder.core.lock.impl.MemoryLock;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 本地排队、本机交接、看门狗续期
+ * <p>
+ * 注意：这里的性能测试仅为无预热粗略测试，精确测试请使用 JMH。
+ *
+ * @author lym
+ */
+public class ServerLockAcquireProxyTest {
+
+    /**
+     * 多线程竞争同一资源：互斥，且大部分加锁在本机交接，不访问远程锁
+     */
+    @Test
+    public void testLocalCoalescing() throws Exception {
+        CountingLock remoteLock = new CountingLock();
+        ServerLockAcquireProxy proxy = new ServerLockAcquireProxy(remoteLock);
+        int threadNum = 20;
+        int loop = 5;
+        AtomicInteger holding = new AtomicInteger();
+        AtomicInteger maxHolding = new AtomicInteger();
+        AtomicInteger lockedCount = new AtomicInteger();
+        CountDownLatch finished = new CountDownLatch(threadNum);
+        for (int i = 0; i < threadNum; i++) {
+            new Thread(() -> {
+                try {
+                    for (int j = 0; j < loop; j++) {
+                        LockInfo lockInfo = new LockInfo("testLocalCoalescing", "ut", Duration.ofSeconds(30));
+                        Assertions.assertTrue(proxy.tryLock(lockInfo, Duration.ofSeconds(10)));
+                        Assertions.assertTrue(proxy.holdLock(lockInfo));
+                        maxHolding.accumulateAndGet(holding.incrementAndGet(), Math::max);
+                        Thread.sleep(1);
+                        holding.decrementAndGet();
+                        lockedCount.incrementAndGet();
+                        proxy.unlock(lockInfo);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    finished.countDown();
+                }
+            }).start();
+        }
+        finished.await();
+        Assertions.assertEquals(threadNum * loop, lockedCount.get());
+        Assertions.assertEquals(1, maxHolding.get());
+        Assertions.assertEquals(threadNum * loop, proxy.getRemoteAttemptCount() + proxy.getSavedRemoteAttemptCount());
+        Assertions.assertTrue(proxy.getSavedRemoteAttemptCount() > 0);
+        Assertions.assertEquals(proxy.getRemoteAttemptCount(), remoteLock.tryLockCount.get());
+        Assertions.assertEquals(0, proxy.getLocalQueueDepth());
+        // 最后一个持有者释放远程锁
+        Assertions.assertNull(remoteLock.getLockInfo(new LockInfo("testLocalCoalescing", "ut", Duration.ZERO).getResource()));
+        System.out.println("TIME-lockProxy TEST: remote attempts " + proxy.getRemoteAttemptCount()
+            + ", saved " + proxy.getSavedRemoteAttemptCount() + ", renew " + proxy.getLeaseRenewCount());
+    }
+
+    /**
+     * 本地有人持有时不访问远程锁；本地排队超时
+     */
+    @Test
+    public void testTryLockWhenLocalHeld() throws Exception {
+        CountingLock remoteLock = new CountingLock();
+        ServerLockAcquireProxy proxy = new ServerLockAcquireProxy(remoteLock);
+        LockInfo holder = new LockInfo("testTryLockWhenLocalHeld", "ut", Duration.ofSeconds(30));
+        Assertions.assertTrue(proxy.tryLock(holder));
+
+        LockInfo other = new LockInfo("testTryLockWhenLocalHeld", "ut", Duration.ofSeconds(30));
+        Assertions.assertFalse(proxy.tryLock(other));
+        Assertions.assertFalse(proxy.tryLock(other, Duration.ofMillis(50)));
+        Assertions.assertFalse(proxy.holdLock(other));
+        // 非持有者释放无效
+        proxy.unlock(other);
+        Assertions.assertTrue(proxy.holdLock(holder));
+        Assertions.assertEquals(1, remoteLock.tryLockCount.get());
+        Assertions.assertEquals(2, proxy.getSavedRemoteAttemptCount());
+
+        proxy.unlock(holder);
+        Assertions.assertFalse(proxy.holdLock(holder));
+        Assertions.assertTrue(proxy.tryLock(other));
+        proxy.unlock(other);
+    }
+
+    /**
+     * 看门狗：剩余租约不足时续期；不支持续期时只尝试一次
+     */
+    @Test
+    public void testRenewLeases() throws Exception {
+        CountingLock remoteLock = new CountingLock();
+        ServerLockAcquireProxy proxy = new ServerLockAcquireProxy(remoteLock);
+        proxy.setWatchdogPeriod(Duration.ofMillis(10));
+        LockInfo lockInfo = new LockInfo("testRenewLeases", "ut", Duration.ofMillis(300));
+        Assertions.assertTrue(proxy.tryLock(lockInfo));
+
+        // 剩余租约充足，不续期
+        proxy.renewLeases();
+        Assertions.assertEquals(0, proxy.getLeaseRenewCount());
+
+        Thread.sleep(150);
+        LocalDateTime releaseTime = remoteLock.getLockInfo(lockInfo.getResource()).getReleaseTime();
+        proxy.renewLeases();
+        Assertions.assertEquals(1, proxy.getLeaseRenewCount());
+        Assertions.assertTrue(remoteLock.getLockInfo(lockInfo.getResource()).getReleaseTime().isAfter(releaseTime));
+        proxy.unlock(lockInfo);
+
+        ServerLockAcquireProxy notRenewable = new ServerLockAcquireProxy(new NotRenewableLock());
+        lockInfo = new LockInfo("testRenewLeases", "ut", Duration.ofMillis(30));
+        Assertions.assertTrue(notRenewable.tryLock(lockInfo));
+        Thread.sleep(20);
+        notRenewable.renewLeases();
+        notRenewable.renewLeases();
+        Assertions.assertEquals(0, notRenewable.getLeaseRenewCount());
+        Assertions.assertEquals(1, notRenewable.getLeaseRenewFailCount());
+        notRenewable.unlock(lockInfo);
+    }
+
+    /**
+     * 剩余租约不足新持有者申请的时长时，续期后交接；不支持续期则释放后重新竞争远程锁
+     */
+    @Test
+    public void testHandOverWhenLeaseExpiring() throws Exception {
+        CountingLock remoteLock = new CountingLock();
+        ServerLockAcquireProxy proxy = new ServerLockAcquireProxy(remoteLock);
+        handOver(proxy, "testHandOverWhenLeaseExpiring");
+        Assertions.assertEquals(1, remoteLock.tryLockCount.get());
+        Assertions.assertEquals(1, proxy.getLeaseRenewCount());
+        Assertions.assertEquals(1, proxy.getSavedRemoteAttemptCount());
+
+        NotRenewableLock notRenewableLock = new NotRenewableLock();
+        proxy = new ServerLockAcquireProxy(notRenewableLock);
+        handOver(proxy, "testHandOverWhenLeaseExpiring");
+        Assertions.assertEquals(2, notRenewableLock.tryLockCount.get());
+        Assertions.assertEquals(0, proxy.getSavedRemoteAttemptCount());
+    }
+
+    /**
+     * 持有者一直不释放：租约到期后等待者回收本地许可，原持有者之后的释放不影响新持有者
+     */
+    @Test
+    public void testReclaimExpiredLease() throws Exception {
+        CountingLock remoteLock = new CountingLock();
+        ServerLockAcquireProxy proxy = new ServerLockAcquireProxy(remoteLock);
+        LockInfo holder = new LockInfo("testReclaimExpiredLease", "ut", Duration.ofMillis(100));
+        Assertions.assertTrue(proxy.tryLock(holder));
+
+        LockInfo waiter = new LockInfo("testReclaimExpiredLease", "ut", Duration.ofSeconds(30));
+        Assertions.assertFalse(proxy.tryLock(waiter));
+        long start = System.nanoTime();
+        Assertions.assertTrue(proxy.tryLock(waiter, Duration.ofSeconds(5)));
+        Assertions.assertTrue(System.nanoTime() - start < Duration.ofSeconds(1).toNanos());
+        Assertions.assertTrue(proxy.holdLock(waiter));
+        Assertions.assertFalse(proxy.holdLock(holder));
+
+        proxy.unlock(holder);
+        Assertions.assertTrue(proxy.holdLock(waiter));
+        Assertions.assertEquals(waiter.getToken(), remoteLock.getLockInfo(waiter.getResource()).getToken());
+        proxy.unlock(waiter);
+        Assertions.assertNull(remoteLock.getLockInfo(waiter.getResource()));
+
+        // 不阻塞的加锁同样回收
+        LockInfo expired = new LockInfo("testReclaimExpiredLease", "ut", Duration.ofMillis(20));
+        Assertions.assertTrue(proxy.tryLock(expired));
+        Thread.sleep(30);
+        Assertions.assertTrue(proxy.tryLock(waiter));
+        proxy.unlock(waiter);
+        Assertions.assertEquals(0, proxy.getLocalQueueDepth());
+        Assertions.assertNull(remoteLock.getLockInfo(waiter.getResource()));
+    }
+
+    /**
+     * 加锁信息在本地排队前创建：租约按 LockInfo 的 releaseTime 计算，不包含排队时间，到期后不再交接
+     */
+    @Test
+    public void testLeaseFromLockInfoReleaseTime() throws Exception {
+        String resource = "testLeaseFromLockInfoReleaseTime";
+        ServerLockAcquireProxy proxy = new ServerLockAcquireProxy(new NotRenewableLock());
+        LockInfo holder = new LockInfo(resource, "ut", Duration.ofMillis(250));
+        Assertions.assertTrue(proxy.tryLock(holder));
+
+        LockInfo waiter = new LockInfo(resource, "ut", Duration.ofMillis(300));
+        Thread releaser = new Thread(() -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            proxy.unlock(holder);
+        });
+        releaser.start();
+        // 排队约 200ms，剩余租约不足且不能续期，以 waiter 重新竞争远程锁，远程锁约 100ms 后到期
+        Assertions.assertTrue(proxy.tryLock(waiter, Duration.ofSeconds(5)));
+        releaser.join();
+        Assertions.assertEquals(waiter.getToken(), proxy.getDelegate().getLockInfo(waiter.getResource()).getToken());
+
+        Thread.sleep(150);
+        LockInfo next = new LockInfo(resource, "ut", Duration.ofSeconds(30));
+        Assertions.assertTrue(proxy.tryLock(next));
+        Assertions.assertFalse(proxy.holdLock(waiter));
+        Assertions.assertEquals(next.getToken(), proxy.getDelegate().getLockInfo(waiter.getResource()).getToken());
+        proxy.unlock(next);
+        Assertions.assertNull(proxy.getDelegate().getLockInfo(waiter.getResource()));
+    }
+
+    /**
+     * 持有者持有时另一线程开始等待，之后持有者释放
+     */
+    private static void handOver(ServerLockAcquireProxy proxy, String resource) throws Exception {
+        LockInfo holder = new LockInfo(resource, "ut", Duration.ofMillis(100));
+        Assertions.assertTrue(proxy.tryLock(holder));
+
+        List<Boolean> result = new ArrayList<>();
+        Thread waiter = new Thread(() -> {
+            LockInfo lockInfo = new LockInfo(resource, "ut", Duration.ofSeconds(30));
+            try {
+                result.add(proxy.tryLock(lockInfo, Duration.ofSeconds(5)));
+                result.add(proxy.holdLock(lockInfo));
+                proxy.unlock(lockInfo);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        waiter.start();
+        Thread.sleep(50);
+        Assertions.assertEquals(1, proxy.getLocalQueueDepth());
+        proxy.unlock(holder);
+        waiter.join();
+        Assertions.assertEquals(List.of(true, true), result);
+        Assertions.assertNull(proxy.getDelegate().getLockInfo(holder.getResource()));
+    }
+
+    private static class CountingLock extends MemoryLock {
+
+        protected final AtomicInteger tryLockCount = new AtomicInteger();
+
+        @Override
+        public boolean tryLock(LockInfo lockInfo) {
+            tryLockCount.incrementAndGet();
+            return super.tryLock(lockInfo);
+        }
+
+        @Override
+        public boolean tryLock(LockInfo lockInfo, Duration exceptMaxBlockTime) throws InterruptedException {
+            tryLockCount.incrementAndGet();
+            return super.tryLock(lockInfo, exceptMaxBlockTime);
+        }
+    }
+
+    private static class NotRenewableLock extends CountingLock {
+
+        @Override
+        public boolean renew(String resource, String token, Duration holdTime) {
+            return false;
+        }
+    }
+
+}
@@ -0,0 +1,153 @@
+package org.shoulder.core.log;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.FileAppender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.shoulder.core.log.logback.appender.ShoulderAsyncFileAppender;
+import org.shoulder.core.log.logback.encoder.ShoulderPatternLayoutEncoder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ShoulderAsyncFileAppender 测试
+ * <p>
+ * 注意：这里的性能测试仅为无预热粗略测试，精确测试请使用 JMH。
+ *
+ * @author lym
+ */
+public class ShoulderAsyncFileAppenderTest {
+
+    private static final String PATTERN = "%d %-5p [%t] %m%n";
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * 多线程写入，BLOCK 策略不丢日志，且每行完整
+     */
+    @Test
+    public void testMultiThreadNoLoss() throws Exception {
+        Path file = tempDir.resolve("block.log");
+        ShoulderAsyncFileAppender appender = newAsyncAppender(file, 64, ShoulderAsyncFileAppender.OverflowPolicy.BLOCK);
+        ch.qos.logback.classic.Logger logger = newLogger("shoulder.test.async.block", appender);
+
+        int threadNum = 8;
+        int perThread = 10_000;
+        runThreads(threadNum, perThread, logger);
+        appender.stop();
+
+        List<String> lines = Files.readAllLines(file);
+        Assertions.assertEquals(threadNum * perThread, lines.size());
+        Assertions.assertTrue(lines.stream().allMatch(line -> line.endsWith("msg-end")));
+        Assertions.assertEquals(threadNum * perThread, appender.getQueuedCount());
+        Assertions.assertEquals(0, appender.getDroppedCount());
+        Assertions.assertEquals(0, appender.getQueueSize());
+    }
+
+    /**
+     * DROP 策略下环满时丢弃，入队数 + 丢弃数 = 总数，且入队的都写入了文件
+     */
+    @Test
+    public void testDropCount() throws Exception {
+        Path file = tempDir.resolve("drop.log");
+        ShoulderAsyncFileAppender appender = newAsyncAppender(file, 2, ShoulderAsyncFileAppender.OverflowPolicy.DROP);
+        ch.qos.logback.classic.Logger logger = newLogger("shoulder.test.async.drop", appender);
+
+        int threadNum = 4;
+        int perThread = 20_000;
+        runThreads(threadNum, perThread, logger);
+        appender.stop();
+
+        long queued = appender.getQueuedCount();
+        Assertions.assertEquals(threadNum * perThread, queued + appender.getDroppedCount());
+        Assertions.assertEquals(queued, Files.readAllLines(file).size());
+    }
+
+    /**
+     * 【性能】与 logback 同步 FileAppender 对比业务线程耗时
+     */
+    @Test
+    public void timer_compareWithFileAppender() throws Exception {
+        int threadNum = 16;
+        int perThread = 20_000;
+        for (int round = 0; round < 2; round++) {
+            // 第一轮预热
+            FileAppender<ILoggingEvent> fileAppender = new FileAppender<>();
+            fileAppender.setContext(context());
+            fileAppender.setName("sync");
+            fileAppender.setFile(tempDir.resolve("sync" + round + ".log").toString());
+            fileAppender.setEncoder(newEncoder());
+            fileAppender.start();
+            long cost = runThreads(threadNum, perThread, newLogger("shoulder.test.timer.sync" + round, fileAppender));
+            fileAppender.stop();
+            System.out.println("TIME-FileAppender TEST: cost " + cost + " ms");
+
+            ShoulderAsyncFileAppender asyncAppender = newAsyncAppender(tempDir.resolve("async" + round + ".log"),
+                    ShoulderAsyncFileAppender.DEFAULT_RING_BUFFER_SIZE, ShoulderAsyncFileAppender.OverflowPolicy.BLOCK);
+            cost = runThreads(threadNum, perThread, newLogger("shoulder.test.timer.async" + round, asyncAppender));
+            asyncAppender.stop();
+            System.out.println("TIME-ShoulderAsyncFileAppender TEST: cost " + cost + " ms, dropped " + asyncAppender.getDroppedCount());
+        }
+    }
+
+    private static long runThreads(int threadNum, int perThread, ch.qos.logback.classic.Logger logger) throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(threadNum);
+        AtomicInteger index = new AtomicInteger();
+        long start = System.currentTimeMillis();
+        for (int t = 0; t < threadNum; t++) {
+            new Thread(() -> {
+                int threadIndex = index.getAndIncrement();
+                for (int i = 0; i < perThread; i++) {
+                    logger.info("thread={} i={} msg-end", threadIndex, i);
+                }
+                latch.countDown();
+            }).start();
+        }
+        latch.await();
+        return System.currentTimeMillis() - start;
+    }
+
+    private static ShoulderAsyncFileAppender newAsyncAppender(Path file, int ringBufferSize,
+                                                              ShoulderAsyncFileAppender.OverflowPolicy policy) {
+        ShoulderAsyncFileAppender appender = new ShoulderAsyncFileAppender();
+        appender.setContext(context());
+        appender.setName("async");
+        appender.setFile(file.toString());
+        appender.setRingBufferSize(ringBufferSize);
+        appender.setOverflowPolicy(policy);
+        appender.setEncoder(newEncoder());
+        appender.start();
+        Assertions.assertTrue(appender.isStarted());
+        return appender;
+    }
+
+    private static ShoulderPatternLayoutEncoder newEncoder() {
+        ShoulderPatternLayoutEncoder encoder = new ShoulderPatternLayoutEncoder();
+        encoder.setContext(context());
+        encoder.setPattern(PATTERN);
+        encoder.start();
+        return encoder;
+    }
+
+    private static ch.qos.logback.classic.Logger newLogger(String name, UnsynchronizedAppenderBase<ILoggingEvent> appender) {
+        ch.qos.logback.classic.Logger logger = context().getLogger(name);
+        logger.setLevel(Level.INFO);
+        logger.setAdditive(false);
+        logger.addAppender(appender);
+        return logger;
+    }
+
+    private static LoggerContext context() {
+        return (LoggerContext) org.slf4j.LoggerFactory.getILoggerFactory();
+    }
+
+}
@@ -0,0 +1,91 @@
+package org.shoulder.core.log;
+
+import ch.qos.logback.classic.Level;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * ShoulderLogger 级别判断快速路径测试
+ * <p>
+ * 注意：这里的性能测试仅为无预热粗略测试，精确测试请使用 JMH。
+ *
+ * @author lym
+ */
+public class ShoulderLoggerTest {
+
+    /**
+     * 调用次数
+     */
+    private static final int INVOKE_NUM = 10_000_000;
+
+    /**
+     * 级别未开启时不会解析 Supplier 参数，开启时只解析一次
+     */
+    @Test
+    public void testSupplierOnlyResolvedWhenEnabled() {
+        ShoulderLogger logger = newSilentLogger("shoulder.test.supplier", Level.INFO);
+        AtomicInteger resolved = new AtomicInteger();
+        Supplier<String> supplier = () -> String.valueOf(resolved.incrementAndGet());
+
+        logger.debug("{}", supplier);
+        logger.debug("{} {}", supplier, supplier);
+        logger.debug("{} {} {}", supplier, supplier, supplier);
+        logger.debugWithErrorCode("0x00000001", "{}", supplier);
+        Assertions.assertEquals(0, resolved.get());
+
+        Object[] args = {supplier, "plain", supplier};
+        logger.info("{} {} {}", args);
+        Assertions.assertEquals(2, resolved.get());
+        // 不修改调用方传入的数组
+        Assertions.assertSame(supplier, args[0]);
+    }
+
+    /**
+     * 【性能】级别关闭 / 开启（无 appender）时每次调用耗时与内存分配
+     */
+    @Test
+    public void timer_disabledAndEnabled() {
+        ShoulderLogger logger = newSilentLogger("shoulder.test.timer", Level.INFO);
+        Object arg = "arg";
+        Supplier<String> supplier = () -> "supplied";
+        for (int round = 0; round < 2; round++) {
+            // 第一轮预热
+            report("debug-disabled", () -> {
+                for (int i = 0; i < INVOKE_NUM; i++) {
+                    logger.debug("disabled {} {} {}", arg, supplier, arg);
+                }
+            });
+            report("info-enabled", () -> {
+                for (int i = 0; i < INVOKE_NUM / 10; i++) {
+                    logger.info("enabled {} {} {}", arg, supplier, arg);
+                }
+            });
+        }
+    }
+
+    private static void report(String name, Runnable task) {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        long start = System.currentTimeMillis();
+        task.run();
+        long cost = System.currentTimeMillis() - start;
+        long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        System.out.println("TIME-" + name + " TEST: cost " + cost + " ms, allocated " + allocated + " bytes");
+    }
+
+    /**
+     * 创建一个没有 appender 的 logger，级别开启时也只走完 logback 的过滤与事件构建，不产生输出
+     */
+    private static ShoulderLogger newSilentLogger(String name, Level level) {
+        ch.qos.logback.classic.Logger logbackLogger = (ch.qos.logback.classic.Logger) org.slf4j.LoggerFactory.getLogger(name);
+        logbackLogger.setLevel(level);
+        logbackLogger.setAdditive(false);
+        return new ShoulderLogger(name);
+    }
+
+}
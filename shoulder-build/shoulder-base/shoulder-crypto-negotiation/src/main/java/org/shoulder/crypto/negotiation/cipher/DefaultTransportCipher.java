@@ -109,6 +109,18 @@ public class DefaultTransportCipher implements TransportTextCipher {
         public String doCipher(String input) {
             return super.encrypt(input);
         }
+
+        /**
+         * 批量加密
+         */
+        @Override
+        public String[] doCipher(String[] inputs) {
+            try {
+                return TransportCryptoUtil.encrypt(super.negotiationResult, super.dk, inputs);
+            } catch (SymmetricCryptoException e) {
+                throw CryptoErrorCodeEnum.ENCRYPT_FAIL.toException(e);
+            }
+        }
     }
 
 
@@ -127,12 +139,24 @@ public class DefaultTransportCipher implements TransportTextCipher {
         }
 
         /**
-         * 加密
+         * 解密
          */
         @Override
         public String doCipher(String input) {
             return super.decrypt(input);
         }
+
+        /**
+         * 批量解密
+         */
+        @Override
+        public String[] doCipher(String[] inputs) {
+            try {
+                return TransportCryptoUtil.decrypt(super.negotiationResult, super.dk, inputs);
+            } catch (SymmetricCryptoException e) {
+                throw CryptoErrorCodeEnum.DECRYPT_FAIL.toException(e);
+            }
+        }
     }
 
 
@@ -41,4 +41,18 @@ public interface TransportTextCipher extends TextCipher {
      */
     String doCipher(String input);
 
+    /**
+     * 批量加密或解密，用于一次处理同一报文中的多个敏感字段，实现类可复用已初始化的加解密器
+     *
+     * @param inputs inputs，元素不能为 null
+     * @return 加/解密处理结果，与 inputs 一一对应
+     */
+    default String[] doCipher(String[] inputs) {
+        String[] outputs = new String[inputs.length];
+        for (int i = 0; i < inputs.length; i++) {
+            outputs[i] = doCipher(inputs[i]);
+        }
+        return outputs;
+    }
+
 }
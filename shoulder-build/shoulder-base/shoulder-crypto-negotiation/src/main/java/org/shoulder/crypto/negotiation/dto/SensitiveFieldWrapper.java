@@ -1,10 +1,19 @@
 package org.shoulder.crypto.negotiation.dto;
 
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 import org.apache.commons.collections4.CollectionUtils;
+import org.shoulder.core.exception.BaseRuntimeException;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.VarHandle;
 import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedList;
@@ -12,6 +21,8 @@ import java.util.List;
 
 /**
  * 敏感字段包装器（为了支持字段嵌套与泛型）
+ * <p>
+ * 创建时通过 VarHandle 生成该字段的读写 MethodHandle，处理报文时不再反射
  *
  * @author lym
  */
@@ -19,14 +30,48 @@ import java.util.List;
 @NoArgsConstructor
 public class SensitiveFieldWrapper {
 
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
     private Field field;
 
+    /**
+     * true：字段（或容器元素）为 String，直接加解密；false：需要处理 internalFields
+     */
     private boolean sensitive = true;
 
+    /**
+     * 字段类型，为容器时 sensitive、internalFields 描述的是容器中的元素
+     */
+    private ContainerType containerType = ContainerType.NONE;
+
     private List<SensitiveFieldWrapper> internalFields = new LinkedList<>();
 
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private MethodHandle getter;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private MethodHandle setter;
+
     public SensitiveFieldWrapper(Field field) {
         this.field = field;
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(field.getDeclaringClass(), MethodHandles.lookup());
+            VarHandle varHandle = lookup.unreflectVarHandle(field);
+            this.getter = varHandle.toMethodHandle(VarHandle.AccessMode.GET).asType(GETTER_TYPE);
+            if (Modifier.isFinal(field.getModifiers())) {
+                // VarHandle 不支持写 final 字段，与原先 field.set 保持一致
+                field.setAccessible(true);
+                this.setter = lookup.unreflectSetter(field).asType(SETTER_TYPE);
+            } else {
+                this.setter = varHandle.toMethodHandle(VarHandle.AccessMode.SET).asType(SETTER_TYPE);
+            }
+        } catch (IllegalAccessException e) {
+            throw new BaseRuntimeException("create accessor fail: " + field, e);
+        }
     }
 
     public void addInternalFields(SensitiveFieldWrapper field) {
@@ -39,6 +84,34 @@ public class SensitiveFieldWrapper {
         sensitive = false;
     }
 
+    /**
+     * 读取字段值
+     *
+     * @param object 字段所属对象
+     * @return 字段值
+     */
+    public Object getValue(Object object) {
+        try {
+            return (Object) getter.invokeExact(object);
+        } catch (Throwable e) {
+            throw new BaseRuntimeException("get field fail: " + field, e);
+        }
+    }
+
+    /**
+     * 设置字段值
+     *
+     * @param object 字段所属对象
+     * @param value  字段值
+     */
+    public void setValue(Object object, Object value) {
+        try {
+            setter.invokeExact(object, value);
+        } catch (Throwable e) {
+            throw new BaseRuntimeException("set field fail: " + field, e);
+        }
+    }
+
     /**
      * 整理，检查值，内存压缩
      */
@@ -51,4 +124,30 @@ public class SensitiveFieldWrapper {
             internalFields = new ArrayList<>(internalFields);
         }
     }
+
+    /**
+     * 字段类型
+     */
+    public enum ContainerType {
+
+        /**
+         * 普通字段
+         */
+        NONE,
+
+        /**
+         * 数组
+         */
+        ARRAY,
+
+        /**
+         * Collection，如 List、Set
+         */
+        COLLECTION,
+
+        /**
+         * Map，处理 value
+         */
+        MAP,
+    }
 }
@@ -2,47 +2,66 @@ package org.shoulder.crypto.negotiation.util;
 
 import cn.hutool.core.util.ReflectUtil;
 import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
 import org.shoulder.core.exception.BaseRuntimeException;
+import org.shoulder.core.log.Logger;
+import org.shoulder.core.log.ShoulderLoggers;
 import org.shoulder.crypto.negotiation.cipher.TransportTextCipher;
 import org.shoulder.crypto.negotiation.dto.SensitiveFieldWrapper;
 import org.shoulder.crypto.negotiation.support.Sensitive;
 
 import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
 
 /**
  * 敏感字段信息緩存
+ * <p>
+ * 每个类只解析一次敏感字段并生成读写器；支持嵌套对象，以及元素为 String 或 DTO 的数组、Collection、Map（value）。
+ * 处理报文时先收集所有敏感文本，再调用一次 {@link TransportTextCipher#doCipher(String[])} 批量加解密
  *
  * @author lym
  */
 public class SensitiveFieldCache {
 
+    private static final Logger log = ShoulderLoggers.SHOULDER_DEFAULT;
+
     private static final ConcurrentMap<Class<?>, List<SensitiveFieldWrapper>> REQUEST_FIELD_CACHE = new ConcurrentHashMap<>();
 
     private static final ConcurrentMap<Class<?>, List<SensitiveFieldWrapper>> RESPONSE_FIELD_CACHE = new ConcurrentHashMap<>();
 
     public static List<SensitiveFieldWrapper> findSensitiveRequestFieldInfo(@Nonnull Class<?> clazz) {
         return REQUEST_FIELD_CACHE.computeIfAbsent(clazz,
-            clz -> findSensitiveFields(clz, true)
+            clz -> findSensitiveFields(clz, true, new HashMap<>())
         );
     }
 
     public static List<SensitiveFieldWrapper> findSensitiveResponseFieldInfo(@Nonnull Class<?> clazz) {
         return RESPONSE_FIELD_CACHE.computeIfAbsent(clazz,
-            clz -> findSensitiveFields(clz, false)
+            clz -> findSensitiveFields(clz, false, new HashMap<>())
         );
     }
 
     /**
      * 反射找该类的所有敏感字段，包括父类，注意 getFields getDeclaredFields 都不行，需要递归父类
+     *
+     * @param resolving 正在解析的类 -> 其敏感字段（解析中），用于自引用类型（如树形 DTO 的 List&lt;Node&gt; children）
      */
-    private static List<SensitiveFieldWrapper> findSensitiveFields(@Nonnull Class<?> aimClazz, boolean requestOrResponse) {
+    private static List<SensitiveFieldWrapper> findSensitiveFields(@Nonnull Class<?> aimClazz, boolean requestOrResponse,
+                                                                   Map<Class<?>, List<SensitiveFieldWrapper>> resolving) {
 
-        List<SensitiveFieldWrapper> allSensitiveField = new LinkedList<>();
+        List<SensitiveFieldWrapper> allSensitiveField = new ArrayList<>();
+        resolving.put(aimClazz, allSensitiveField);
         Field[] fields = ReflectUtil.getFieldsDirectly(aimClazz, true);
         SensitiveFieldWrapper wrapper;
         for (Field field : fields) {
@@ -61,22 +80,79 @@ public class SensitiveFieldCache {
                 continue;
             }
             wrapper = new SensitiveFieldWrapper(field);
-            Class<?> fieldClass;
-            if (!String.class.isAssignableFrom(fieldClass = field.getType())) {
+            // 数组、集合、Map 处理其中的元素（Map 处理 value），元素为 String 时直接加解密，否则递归
+            Class<?> fieldClass = field.getType();
+            Class<?> valueClass;
+            if (fieldClass.isArray()) {
+                wrapper.setContainerType(SensitiveFieldWrapper.ContainerType.ARRAY);
+                valueClass = fieldClass.getComponentType();
+            } else if (Collection.class.isAssignableFrom(fieldClass)) {
+                wrapper.setContainerType(SensitiveFieldWrapper.ContainerType.COLLECTION);
+                valueClass = resolveTypeArgument(field, 0);
+            } else if (Map.class.isAssignableFrom(fieldClass)) {
+                wrapper.setContainerType(SensitiveFieldWrapper.ContainerType.MAP);
+                valueClass = resolveTypeArgument(field, 1);
+            } else {
+                valueClass = fieldClass;
+            }
+            if (valueClass == null) {
+                // 泛型无法确定（原始类型、通配符、类型变量），无法处理
+                log.warn("ignored @Sensitive field {}.{}: can't resolve element type.", aimClazz.getName(), field.getName());
+                continue;
+            }
+            List<SensitiveFieldWrapper> resolvingFields = resolving.get(valueClass);
+            if (resolvingFields != null) {
+                // 引用了正在解析的类：共用其字段列表（解析完成后即完整），不再递归，避免栈溢出
+                wrapper.setInternalFields(resolvingFields);
+                wrapper.setSensitive(false);
+                allSensitiveField.add(wrapper);
+                continue;
+            }
+            if (!String.class.isAssignableFrom(valueClass)) {
                 // 如果是复杂变量还需要递归，可以通过加类注解减少递归复杂度，否则报错/警告，用法错误
-                // todo 【使用范围】 list？map？等集合暂不支持
-                wrapper.addInternalFields(findSensitiveFields(fieldClass, requestOrResponse));
+                List<SensitiveFieldWrapper> internalFields = findSensitiveFields(valueClass, requestOrResponse, resolving);
+                if (internalFields.isEmpty()) {
+                    // 内部没有敏感字段，无需处理
+                    continue;
+                }
+                wrapper.addInternalFields(internalFields);
             }
             allSensitiveField.add(wrapper);
             // 压缩内存、校准状态
             wrapper.clearedUp();
         }
-        // 压缩内存
-        return new ArrayList<>(allSensitiveField);
+        resolving.remove(aimClazz);
+        // 自引用字段共用该列表，不能复制
+        return allSensitiveField;
+    }
+
+    /**
+     * 获取字段声明的泛型参数，如 List&lt;String&gt; 中的 String
+     *
+     * @return 无法确定时返回 null
+     */
+    @Nullable
+    private static Class<?> resolveTypeArgument(Field field, int index) {
+        if (!(field.getGenericType() instanceof ParameterizedType parameterizedType)) {
+            return null;
+        }
+        Type[] typeArguments = parameterizedType.getActualTypeArguments();
+        if (typeArguments.length <= index) {
+            return null;
+        }
+        Type typeArgument = typeArguments[index];
+        if (typeArgument instanceof Class<?> clazz) {
+            return clazz;
+        }
+        if (typeArgument instanceof ParameterizedType p && p.getRawType() instanceof Class<?> rawClass) {
+            // 如 List<Map<String, String>>，只支持一层容器，按普通对象处理
+            return rawClass;
+        }
+        return null;
     }
 
     /**
-     * 处理敏感字段
+     * 处理敏感字段：先遍历对象收集所有需要处理的文本，再一次性批量加解密后写回
      *
      * @param object          obj
      * @param sensitiveFields 所有需要处理的敏感字段信息
@@ -85,25 +161,135 @@ public class SensitiveFieldCache {
     public static void handleSensitiveData(@Nonnull Object object, @Nonnull List<SensitiveFieldWrapper> sensitiveFields,
                                            @Nonnull TransportTextCipher cipher) {
         try {
-            for (SensitiveFieldWrapper filedWrapper : sensitiveFields) {
-                Field field = filedWrapper.getField();
-                field.setAccessible(true);
-                Object fieldValue = field.get(object);
-                if (fieldValue == null) {
-                    // 跳过 null
-                    continue;
+            CipherBatch batch = new CipherBatch();
+            collectSensitiveData(object, sensitiveFields, batch);
+            batch.doCipher(cipher);
+        } catch (Exception e) {
+            throw new BaseRuntimeException("doCipher fail!", e);
+        }
+    }
+
+    /**
+     * 收集待处理文本及其写回方式
+     */
+    @SuppressWarnings("unchecked")
+    private static void collectSensitiveData(@Nonnull Object object, @Nonnull List<SensitiveFieldWrapper> sensitiveFields,
+                                             @Nonnull CipherBatch batch) {
+        for (SensitiveFieldWrapper filedWrapper : sensitiveFields) {
+            Object fieldValue = filedWrapper.getValue(object);
+            if (fieldValue == null) {
+                // 跳过 null
+                continue;
+            }
+            boolean sensitive = filedWrapper.isSensitive();
+            List<SensitiveFieldWrapper> internalFields = filedWrapper.getInternalFields();
+            switch (filedWrapper.getContainerType()) {
+                case ARRAY -> {
+                    Object[] array = (Object[]) fieldValue;
+                    for (int i = 0; i < array.length; i++) {
+                        collectElement(array, i, sensitive, internalFields, batch);
+                    }
                 }
-                if (filedWrapper.isSensitive()) {
-                    // 意味着一定是 String 类型
-                    String handled = cipher.doCipher((String) fieldValue);
-                    field.set(object, handled);
-                } else {
-                    handleSensitiveData(fieldValue, filedWrapper.getInternalFields(), cipher);
+                case COLLECTION -> {
+                    Collection<Object> collection = (Collection<Object>) fieldValue;
+                    if (!sensitive) {
+                        for (Object element : collection) {
+                            if (element != null) {
+                                collectSensitiveData(element, internalFields, batch);
+                            }
+                        }
+                        continue;
+                    }
+                    // 元素为 String：先复制出来，处理完再整体写回（兼容 Set 及非随机访问的 List）
+                    Object[] elements = collection.toArray();
+                    for (int i = 0; i < elements.length; i++) {
+                        collectElement(elements, i, true, internalFields, batch);
+                    }
+                    batch.addFinisher(() -> writeBack(collection, elements));
                 }
+                case MAP -> {
+                    for (Map.Entry<Object, Object> entry : ((Map<Object, Object>) fieldValue).entrySet()) {
+                        Object value = entry.getValue();
+                        if (value == null) {
+                            continue;
+                        }
+                        if (sensitive) {
+                            batch.add((String) value, entry::setValue);
+                        } else {
+                            collectSensitiveData(value, internalFields, batch);
+                        }
+                    }
+                }
+                default -> {
+                    if (sensitive) {
+                        // 意味着一定是 String 类型
+                        batch.add((String) fieldValue, handled -> filedWrapper.setValue(object, handled));
+                    } else {
+                        collectSensitiveData(fieldValue, internalFields, batch);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void collectElement(Object[] array, int index, boolean sensitive,
+                                       List<SensitiveFieldWrapper> internalFields, CipherBatch batch) {
+        Object element = array[index];
+        if (element == null) {
+            return;
+        }
+        if (sensitive) {
+            batch.add((String) element, handled -> array[index] = handled);
+        } else {
+            collectSensitiveData(element, internalFields, batch);
+        }
+    }
 
+    private static void writeBack(Collection<Object> collection, Object[] elements) {
+        if (collection instanceof List<Object> list) {
+            ListIterator<Object> it = list.listIterator();
+            for (Object element : elements) {
+                it.next();
+                it.set(element);
             }
-        } catch (Exception e) {
-            throw new BaseRuntimeException("doCipher fail!", e);
+        } else {
+            collection.clear();
+            Collections.addAll(collection, elements);
+        }
+    }
+
+    /**
+     * 一个报文中所有待处理的文本，统一调用一次批量加解密
+     */
+    private static class CipherBatch {
+
+        private final List<String> values = new ArrayList<>();
+
+        private final List<Consumer<String>> writers = new ArrayList<>();
+
+        private List<Runnable> finishers = Collections.emptyList();
+
+        void add(String value, Consumer<String> writer) {
+            values.add(value);
+            writers.add(writer);
+        }
+
+        void addFinisher(Runnable finisher) {
+            if (finishers.isEmpty()) {
+                finishers = new ArrayList<>(2);
+            }
+            finishers.add(finisher);
+        }
+
+        void doCipher(TransportTextCipher cipher) {
+            if (values.isEmpty()) {
+                return;
+            }
+            String[] handled = cipher.doCipher(values.toArray(new String[0]));
+            for (int i = 0; i < handled.length; i++) {
+                writers.get(i).accept(handled[i]);
+            }
+            finishers.forEach(Runnable::run);
         }
     }
 
@@ -11,7 +11,9 @@ import org.shoulder.crypto.negotiation.dto.NegotiationResult;
 import org.shoulder.crypto.negotiation.exception.NegotiationException;
 import org.shoulder.crypto.negotiation.support.dto.NegotiationRequest;
 import org.shoulder.crypto.negotiation.support.dto.NegotiationResponse;
+import org.shoulder.crypto.symmetric.SymmetricCipher;
 import org.shoulder.crypto.symmetric.exception.SymmetricCryptoException;
+import org.shoulder.crypto.symmetric.impl.DefaultSymmetricCipher;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 
@@ -85,6 +87,42 @@ public class TransportCryptoUtil {
         return new String(TransportCryptoByteUtil.decrypt(negotiationResult, dataKey, ByteSpecification.decodeToBytes(cipherText)), ByteSpecification.STD_CHAR_SET);
     }
 
+    /**
+     * 批量加密数据，同一密钥的多段数据只获取、初始化一次 Cipher，每段仍单独生成密文
+     *
+     * @param negotiationResult 密钥协商结果
+     * @param dataKey           数据密钥明文
+     * @param texts             数据明文
+     * @return 数据密文，与 texts 一一对应
+     */
+    public static String[] encrypt(NegotiationResult negotiationResult, byte[] dataKey, String[] texts) throws SymmetricCryptoException {
+        SymmetricCipher cipher = DefaultSymmetricCipher.getFlyweight(negotiationResult.getEncryptionScheme());
+        byte[] iv = negotiationResult.getLocalIv();
+        String[] cipherTexts = new String[texts.length];
+        for (int i = 0; i < texts.length; i++) {
+            cipherTexts[i] = ByteSpecification.encodeToString(cipher.encrypt(dataKey, iv, texts[i].getBytes(ByteSpecification.STD_CHAR_SET)));
+        }
+        return cipherTexts;
+    }
+
+    /**
+     * 批量解密数据
+     *
+     * @param negotiationResult 密钥协商结果
+     * @param dataKey           数据密钥明文
+     * @param cipherTexts       数据密文
+     * @return 数据明文，与 cipherTexts 一一对应
+     */
+    public static String[] decrypt(NegotiationResult negotiationResult, byte[] dataKey, String[] cipherTexts) throws SymmetricCryptoException {
+        SymmetricCipher cipher = DefaultSymmetricCipher.getFlyweight(negotiationResult.getEncryptionScheme());
+        byte[] iv = negotiationResult.getLocalIv();
+        String[] texts = new String[cipherTexts.length];
+        for (int i = 0; i < cipherTexts.length; i++) {
+            texts[i] = new String(cipher.decrypt(dataKey, iv, ByteSpecification.decodeToBytes(cipherTexts[i])), ByteSpecification.STD_CHAR_SET);
+        }
+        return texts;
+    }
+
     /**
      * 创建一个协商请求（客户端调用）
      *
@@ -74,6 +74,9 @@ public class NegotiationTest {
         DefaultTransportCipher requestDecryptCipherInServer = DefaultTransportCipher.buildDecryptCipher(serverNegotiationResult, requestDkInServer);
         String textInServer = requestDecryptCipherInServer.decrypt(transportCipherTextByClientReq);
         Assertions.assertEquals(originTextInClient, textInServer);
+        // 批量加解密
+        String[] batchTexts = {originTextInClient, "hello shoulder batch"};
+        Assertions.assertArrayEquals(batchTexts, requestDecryptCipherInServer.doCipher(requestEncryptCipher.doCipher(batchTexts)));
 
         // server 响应密文
 
@@ -0,0 +1,228 @@
+package org.shoulder.crypto.negotiation;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.shoulder.crypto.negotiation.cipher.TransportTextCipher;
+import org.shoulder.crypto.negotiation.dto.SensitiveFieldWrapper;
+import org.shoulder.crypto.negotiation.support.Sensitive;
+import org.shoulder.crypto.negotiation.util.SensitiveFieldCache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class SensitiveFieldCacheTest {
+
+    /**
+     * 嵌套对象、数组、集合、Map 中的敏感字段都被处理，且只调用一次批量加密
+     */
+    @Test
+    public void testHandleSensitiveData() {
+        Parent parent = new Parent();
+        List<SensitiveFieldWrapper> fields = SensitiveFieldCache.findSensitiveRequestFieldInfo(Parent.class);
+        Assertions.assertSame(fields, SensitiveFieldCache.findSensitiveRequestFieldInfo(Parent.class));
+
+        CountingCipher cipher = new CountingCipher();
+        SensitiveFieldCache.handleSensitiveData(parent, fields, cipher);
+
+        Assertions.assertEquals(1, cipher.batchCount);
+        Assertions.assertEquals("enc:secret", parent.secret);
+        Assertions.assertEquals("enc:finalSecret", parent.finalSecret);
+        Assertions.assertEquals("plain", parent.plain);
+        Assertions.assertEquals("responseOnly", parent.responseOnly);
+        Assertions.assertNull(parent.nullSecret);
+        Assertions.assertEquals("enc:childSecret", parent.child.secret);
+        Assertions.assertEquals("childPlain", parent.child.plain);
+        Assertions.assertArrayEquals(new String[]{"enc:a1", null, "enc:a2"}, parent.array);
+        Assertions.assertEquals(List.of("enc:l1", "enc:l2"), parent.list);
+        Assertions.assertEquals(List.of("enc:ll1", "enc:ll2"), parent.linkedList);
+        Assertions.assertEquals(Set.of("enc:s1", "enc:s2"), parent.set);
+        Assertions.assertEquals(Map.of("k", "enc:v"), parent.map);
+        Assertions.assertEquals("enc:c1", parent.children.get(0).secret);
+        Assertions.assertEquals("enc:c2", parent.children.get(1).secret);
+        Assertions.assertEquals("enc:m1", parent.childMap.get("m").secret);
+        Assertions.assertEquals(List.of("noSensitive"), parent.noSensitiveChildren.stream().map(c -> c.value).toList());
+    }
+
+    /**
+     * 请求、响应分别缓存
+     */
+    @Test
+    public void testRequestOrResponse() {
+        Parent parent = new Parent();
+        CountingCipher cipher = new CountingCipher();
+        SensitiveFieldCache.handleSensitiveData(parent, SensitiveFieldCache.findSensitiveResponseFieldInfo(Parent.class), cipher);
+        Assertions.assertEquals("enc:responseOnly", parent.responseOnly);
+        Assertions.assertEquals("enc:secret", parent.secret);
+    }
+
+    /**
+     * 没有需要处理的字段时不调用加密
+     */
+    @Test
+    public void testNothingToCipher() {
+        Parent parent = new Parent(null);
+        parent.secret = null;
+        parent.child = null;
+        parent.array = null;
+        parent.list = new ArrayList<>();
+        parent.linkedList = null;
+        parent.set = null;
+        parent.map = null;
+        parent.children = null;
+        parent.childMap = null;
+        CountingCipher cipher = new CountingCipher();
+        SensitiveFieldCache.handleSensitiveData(parent, SensitiveFieldCache.findSensitiveRequestFieldInfo(Parent.class), cipher);
+        Assertions.assertEquals(0, cipher.batchCount);
+    }
+
+    /**
+     * 自引用类型（树形 DTO）：解析不栈溢出，且每层的敏感字段都被处理
+     */
+    @Test
+    public void testSelfReferenceType() {
+        TreeNode root = new TreeNode("root", List.of(
+            new TreeNode("n1", List.of(new TreeNode("n11", null))),
+            new TreeNode("n2", new ArrayList<>())));
+        root.parent = new TreeNode("parent", null);
+        List<SensitiveFieldWrapper> fields = SensitiveFieldCache.findSensitiveRequestFieldInfo(TreeNode.class);
+        Assertions.assertEquals(3, fields.size());
+
+        CountingCipher cipher = new CountingCipher();
+        SensitiveFieldCache.handleSensitiveData(root, fields, cipher);
+        Assertions.assertEquals(1, cipher.batchCount);
+        Assertions.assertEquals("enc:root", root.secret);
+        Assertions.assertEquals("enc:parent", root.parent.secret);
+        Assertions.assertEquals("enc:n1", root.children.get(0).secret);
+        Assertions.assertEquals("enc:n11", root.children.get(0).children.get(0).secret);
+        Assertions.assertEquals("enc:n2", root.children.get(1).secret);
+    }
+
+    private static class CountingCipher implements TransportTextCipher {
+
+        private int batchCount;
+
+        @Override
+        public String encrypt(String text) {
+            return "enc:" + text;
+        }
+
+        @Override
+        public String decrypt(String cipherText) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String doCipher(String input) {
+            throw new UnsupportedOperationException("should use batch");
+        }
+
+        @Override
+        public String[] doCipher(String[] inputs) {
+            batchCount++;
+            String[] outputs = new String[inputs.length];
+            for (int i = 0; i < inputs.length; i++) {
+                outputs[i] = encrypt(inputs[i]);
+            }
+            return outputs;
+        }
+    }
+
+    private static class Base {
+
+        @Sensitive
+        protected String secret = "secret";
+    }
+
+    private static class Parent extends Base {
+
+        @Sensitive
+        private final String finalSecret;
+
+        private String plain = "plain";
+
+        @Sensitive(sensitiveRequest = false)
+        private String responseOnly = "responseOnly";
+
+        @Sensitive
+        private String nullSecret;
+
+        @Sensitive
+        private Child child = new Child("childSecret");
+
+        @Sensitive
+        private String[] array = {"a1", null, "a2"};
+
+        @Sensitive
+        private List<String> list = new ArrayList<>(List.of("l1", "l2"));
+
+        @Sensitive
+        private List<String> linkedList = new LinkedList<>(List.of("ll1", "ll2"));
+
+        @Sensitive
+        private Set<String> set = new LinkedHashSet<>(List.of("s1", "s2"));
+
+        @Sensitive
+        private Map<String, String> map = new HashMap<>(Map.of("k", "v"));
+
+        @Sensitive
+        private List<Child> children = List.of(new Child("c1"), new Child("c2"));
+
+        @Sensitive
+        private Map<String, Child> childMap = Map.of("m", new Child("m1"));
+
+        @Sensitive
+        private List<NoSensitive> noSensitiveChildren = List.of(new NoSensitive());
+
+        private Parent() {
+            // 在构造器中赋值，避免被当作编译期常量内联
+            this.finalSecret = "finalSecret";
+        }
+
+        private Parent(String finalSecret) {
+            this.finalSecret = finalSecret;
+        }
+    }
+
+    private static class Child {
+
+        @Sensitive
+        private String secret;
+
+        private String plain = "childPlain";
+
+        private Child(String secret) {
+            this.secret = secret;
+        }
+    }
+
+    private static class TreeNode {
+
+        /**
+         * 自引用字段在敏感文本字段之前声明
+         */
+        @Sensitive
+        private List<TreeNode> children;
+
+        @Sensitive
+        private TreeNode parent;
+
+        @Sensitive
+        private String secret;
+
+        private TreeNode(String secret, List<TreeNode> children) {
+            this.secret = secret;
+            this.children = children;
+        }
+    }
+
+    private static class NoSensitive {
+
+        private String value = "noSensitive";
+    }
+
+}
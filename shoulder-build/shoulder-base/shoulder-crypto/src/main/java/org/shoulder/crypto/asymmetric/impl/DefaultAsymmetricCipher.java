@@ -12,22 +12,18 @@ import org.shoulder.crypto.asymmetric.store.KeyPairCache;
 import org.shoulder.crypto.log.ShoulderCryptoLoggers;
 import org.slf4j.Logger;
 
-import java.security.InvalidKeyException;
+import java.security.GeneralSecurityException;
+import java.security.Key;
 import java.security.KeyPair;
 import java.security.NoSuchAlgorithmException;
-import java.security.NoSuchProviderException;
 import java.security.PrivateKey;
 import java.security.PublicKey;
 import java.security.Signature;
-import java.security.SignatureException;
 import java.time.Duration;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
-import javax.crypto.BadPaddingException;
 import javax.crypto.Cipher;
-import javax.crypto.IllegalBlockSizeException;
-import javax.crypto.NoSuchPaddingException;
 
 /**
  * 非对称加解密工具实现
@@ -64,6 +60,11 @@ public class DefaultAsymmetricCipher implements AsymmetricCipher, ByteSpecificat
 
     protected Lock lock = new ReentrantLock();
 
+    /**
+     * 每个线程复用 Cipher / Signature，避免每次 getInstance（按 provider 查找实现，开销较大）
+     */
+    private final ThreadLocal<CryptoHolder> cryptoHolder = ThreadLocal.withInitial(CryptoHolder::new);
+
     public DefaultAsymmetricCipher(String algorithm, int keyLength, String transformation, String signatureAlgorithm,
                                    String provider, KeyPairCache keyPairCache) {
         this.provider = provider;
@@ -152,10 +153,8 @@ public class DefaultAsymmetricCipher implements AsymmetricCipher, ByteSpecificat
     @Override
     public byte[] decrypt(String id, byte[] content) throws AsymmetricCryptoException {
         try {
-            Cipher cipher = Cipher.getInstance(transformation, provider);
-            cipher.init(Cipher.DECRYPT_MODE, keyPairFactory.generatePrivateKey(getKeyPair(id).getPrivate().getEncoded()));
-            return cipher.doFinal(content);
-        } catch (NoSuchAlgorithmException | NoSuchPaddingException | InvalidKeyException | IllegalBlockSizeException | BadPaddingException | KeyPairException | NoSuchProviderException e) {
+            return doCipher(Cipher.DECRYPT_MODE, getKeyPair(id).getPrivate(), content);
+        } catch (GeneralSecurityException | KeyPairException e) {
             throw new AsymmetricCryptoException("decrypt fail.", e);
         }
     }
@@ -164,10 +163,8 @@ public class DefaultAsymmetricCipher implements AsymmetricCipher, ByteSpecificat
     public byte[] encrypt(String id, byte[] content) throws AsymmetricCryptoException {
         try {
             // 对数据加密
-            Cipher cipher = Cipher.getInstance(transformation, provider);
-            cipher.init(Cipher.ENCRYPT_MODE, keyPairFactory.generatePublicKey(getKeyPair(id).getPublic().getEncoded()));
-            return cipher.doFinal(content);
-        } catch (NoSuchAlgorithmException | NoSuchPaddingException | InvalidKeyException | IllegalBlockSizeException | BadPaddingException | KeyPairException | NoSuchProviderException e) {
+            return doCipher(Cipher.ENCRYPT_MODE, getKeyPair(id).getPublic(), content);
+        } catch (GeneralSecurityException | KeyPairException e) {
             throw new AsymmetricCryptoException("encrypt fail.", e);
         }
     }
@@ -176,10 +173,8 @@ public class DefaultAsymmetricCipher implements AsymmetricCipher, ByteSpecificat
     public byte[] encrypt(byte[] publicKey, byte[] content) throws AsymmetricCryptoException {
         try {
             // 对数据加密
-            Cipher cipher = Cipher.getInstance(transformation, provider);
-            cipher.init(Cipher.ENCRYPT_MODE, keyPairFactory.generatePublicKey(publicKey));
-            return cipher.doFinal(content);
-        } catch (NoSuchAlgorithmException | NoSuchPaddingException | InvalidKeyException | IllegalBlockSizeException | BadPaddingException | KeyPairException | NoSuchProviderException e) {
+            return doCipher(Cipher.ENCRYPT_MODE, keyPairFactory.generatePublicKey(publicKey), content);
+        } catch (GeneralSecurityException | KeyPairException e) {
             throw new AsymmetricCryptoException("encrypt fail.", e);
         }
     }
@@ -187,11 +182,8 @@ public class DefaultAsymmetricCipher implements AsymmetricCipher, ByteSpecificat
     @Override
     public byte[] sign(String id, byte[] content) throws AsymmetricCryptoException {
         try {
-            Signature signature = Signature.getInstance(signatureAlgorithm);
-            signature.initSign(keyPairFactory.generatePrivateKey(getKeyPair(id).getPrivate().getEncoded()));
-            signature.update(content);
-            return signature.sign();
-        } catch (InvalidKeyException | NoSuchAlgorithmException | SignatureException | KeyPairException e) {
+            return doSign(getKeyPair(id).getPrivate(), content);
+        } catch (GeneralSecurityException | KeyPairException e) {
             throw new AsymmetricCryptoException("sign fail.", e);
         }
     }
@@ -199,8 +191,8 @@ public class DefaultAsymmetricCipher implements AsymmetricCipher, ByteSpecificat
     @Override
     public boolean verify(String id, byte[] content, byte[] signature) throws AsymmetricCryptoException {
         try {
-            return this.verify(getKeyPair(id).getPublic().getEncoded(), content, signature);
-        } catch (NoSuchKeyPairException e) {
+            return doVerify(getKeyPair(id).getPublic(), content, signature);
+        } catch (GeneralSecurityException | KeyPairException e) {
             throw new AsymmetricCryptoException("verify fail.", e);
         }
     }
@@ -208,15 +200,76 @@ public class DefaultAsymmetricCipher implements AsymmetricCipher, ByteSpecificat
     @Override
     public boolean verify(byte[] publicKey, byte[] content, byte[] signature) throws AsymmetricCryptoException {
         try {
-            Signature sign = Signature.getInstance(signatureAlgorithm);
-            sign.initVerify(keyPairFactory.generatePublicKey(publicKey));
-            sign.update(content);
-            return sign.verify(signature);
-        } catch (InvalidKeyException | NoSuchAlgorithmException | SignatureException | KeyPairException e) {
+            return doVerify(keyPairFactory.generatePublicKey(publicKey), content, signature);
+        } catch (GeneralSecurityException | KeyPairException e) {
             throw new AsymmetricCryptoException("verify fail.", e);
         }
     }
 
+    /**
+     * 使用当前线程缓存的 Cipher 加解密，模式与密钥（同一对象）均未变化时跳过 init
+     * 出错后丢弃该实例，避免状态异常影响后续调用
+     */
+    private byte[] doCipher(int mode, Key key, byte[] content) throws GeneralSecurityException {
+        CryptoHolder holder = cryptoHolder.get();
+        if (holder.cipher == null) {
+            holder.cipher = Cipher.getInstance(transformation, provider);
+        }
+        try {
+            if (holder.cipherMode != mode || holder.cipherKey != key) {
+                holder.cipherKey = null;
+                holder.cipher.init(mode, key);
+                holder.cipherMode = mode;
+                holder.cipherKey = key;
+            }
+            return holder.cipher.doFinal(content);
+        } catch (GeneralSecurityException | RuntimeException e) {
+            holder.cipher = null;
+            holder.cipherKey = null;
+            throw e;
+        }
+    }
+
+    /**
+     * 签名后 Signature 会回到 initSign 后的状态，同一私钥可直接复用
+     */
+    private byte[] doSign(PrivateKey privateKey, byte[] content) throws GeneralSecurityException {
+        CryptoHolder holder = cryptoHolder.get();
+        Signature signature = holder.signature(signatureAlgorithm);
+        try {
+            if (!holder.signMode || holder.signatureKey != privateKey) {
+                holder.signatureKey = null;
+                signature.initSign(privateKey);
+                holder.signMode = true;
+                holder.signatureKey = privateKey;
+            }
+            signature.update(content);
+            return signature.sign();
+        } catch (GeneralSecurityException | RuntimeException e) {
+            holder.signature = null;
+            holder.signatureKey = null;
+            throw e;
+        }
+    }
+
+    private boolean doVerify(PublicKey publicKey, byte[] content, byte[] sign) throws GeneralSecurityException {
+        CryptoHolder holder = cryptoHolder.get();
+        Signature signature = holder.signature(signatureAlgorithm);
+        try {
+            if (holder.signMode || holder.signatureKey != publicKey) {
+                holder.signatureKey = null;
+                signature.initVerify(publicKey);
+                holder.signMode = false;
+                holder.signatureKey = publicKey;
+            }
+            signature.update(content);
+            return signature.verify(sign);
+        } catch (GeneralSecurityException | RuntimeException e) {
+            holder.signature = null;
+            holder.signatureKey = null;
+            throw e;
+        }
+    }
 
     @Override
     public KeyPair getKeyPair(String id) throws KeyPairException {
@@ -239,4 +292,30 @@ public class DefaultAsymmetricCipher implements AsymmetricCipher, ByteSpecificat
         return getKeyPair(id).getPrivate();
     }
 
+    /**
+     * 线程内复用的 Cipher / Signature 及其最近一次 init 的参数
+     * 密钥对象由 KeyPairCache 中的 KeyPairDto 持有并复用，因此按引用比较即可判断是否需要重新 init
+     */
+    private static class CryptoHolder {
+
+        private Cipher cipher;
+
+        private int cipherMode;
+
+        private Key cipherKey;
+
+        private Signature signature;
+
+        private boolean signMode;
+
+        private Key signatureKey;
+
+        private Signature signature(String signatureAlgorithm) throws NoSuchAlgorithmException {
+            if (signature == null) {
+                signature = Signature.getInstance(signatureAlgorithm);
+            }
+            return signature;
+        }
+    }
+
 }
@@ -0,0 +1,247 @@
+package org.shoulder.crypto.asymmetric.store.impl;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import jakarta.annotation.PreDestroy;
+import org.shoulder.crypto.asymmetric.dto.KeyPairDto;
+import org.shoulder.crypto.asymmetric.exception.NoSuchKeyPairException;
+import org.shoulder.crypto.asymmetric.store.KeyPairCache;
+import org.shoulder.crypto.log.ShoulderCryptoLoggers;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 密钥对存储-二级缓存，本地缓存 + 远程存储（通常为 {@link RedisKeyPairCache}），适合集群部署且频繁使用密钥对的场景
+ * <p>
+ * 本地缓存 {@link KeyPairDto} 对象本身，使用者（如 DefaultAsymmetricCipher）首次解析后会将 PrivateKey / PublicKey 保存在 dto 中，
+ * 因此命中本地缓存时既无网络开销，也无 json 解析、KeyFactory 解码开销。
+ * 本地过期时间取 localTtl 与密钥对过期时间的较小值；本地条数有上限，满时优先清理过期项，否则随机淘汰。
+ * <p>
+ * 集群失效：写入时通过 redis pub/sub 广播 id，其他节点收到后删除本地缓存。
+ * 需要将本类注册到 RedisMessageListenerContainer 监听 {@link #getChannel()}；未注册时依赖 localTtl 兜底。
+ * 失效时递增该 id 的失效版本号，从远程加载前后版本号不同则不放入本地，避免加载期间的失效被旧值覆盖
+ *
+ * @author lym
+ */
+public class NearKeyPairCache implements KeyPairCache, MessageListener {
+
+    public static final String DEFAULT_CHANNEL = "crypto:asymmetric:invalidate";
+
+    public static final int DEFAULT_MAX_SIZE = 1024;
+
+    public static final Duration DEFAULT_LOCAL_TTL = Duration.ofMinutes(10);
+
+    /**
+     * 失效版本号槽位数，需为 2 的幂
+     */
+    private static final int INVALIDATE_VERSION_SLOTS = 64;
+
+    /**
+     * 远程存储
+     */
+    private final KeyPairCache delegate;
+
+    /**
+     * 用于广播失效消息，null 则不广播（单机）
+     */
+    @Nullable
+    private final StringRedisTemplate redisTemplate;
+
+    /**
+     * 失效消息通道，注意维护应用隔离
+     */
+    private final String channel;
+
+    /**
+     * 本地最多缓存多少个密钥对
+     */
+    private final int maxSize;
+
+    /**
+     * 本地缓存时间
+     */
+    private final long localTtlMillis;
+
+    private final Map<String, LocalEntry> localCache = new ConcurrentHashMap<>();
+
+    /**
+     * 失效版本号，按 id hash 分槽（不随 id 数量增长），hash 冲突只会导致少放入本地一次
+     */
+    private final AtomicLongArray invalidateVersions = new AtomicLongArray(INVALIDATE_VERSION_SLOTS);
+
+    private final AtomicLong hitCount = new AtomicLong(0);
+
+    private final AtomicLong missCount = new AtomicLong(0);
+
+    public NearKeyPairCache(KeyPairCache delegate) {
+        this(delegate, null, DEFAULT_CHANNEL, DEFAULT_MAX_SIZE, DEFAULT_LOCAL_TTL);
+    }
+
+    /**
+     * 构造器
+     *
+     * @param delegate      远程存储
+     * @param redisTemplate 用于广播失效消息，null 则不广播
+     * @param channel       失效消息通道
+     * @param maxSize       本地最多缓存多少个密钥对
+     * @param localTtl      本地缓存时间
+     */
+    public NearKeyPairCache(KeyPairCache delegate, @Nullable StringRedisTemplate redisTemplate, String channel,
+                            int maxSize, Duration localTtl) {
+        if (maxSize <= 0 || localTtl.isNegative() || localTtl.isZero()) {
+            throw new IllegalArgumentException("maxSize and localTtl must > 0. maxSize=" + maxSize + ", localTtl=" + localTtl);
+        }
+        this.delegate = delegate;
+        this.redisTemplate = redisTemplate;
+        this.channel = channel;
+        this.maxSize = maxSize;
+        this.localTtlMillis = localTtl.toMillis();
+    }
+
+    @Override
+    public void put(String id, @Nonnull KeyPairDto keyPairDto) {
+        delegate.put(id, keyPairDto);
+        // 不直接放入本地：delegate 可能修改 dto（如加密私钥），下次读取时再加载
+        invalidate(id);
+        publishInvalidate(id);
+    }
+
+    @Override
+    public boolean putIfAbsent(String id, @Nonnull KeyPairDto keyPairDto) {
+        boolean success = delegate.putIfAbsent(id, keyPairDto);
+        if (success) {
+            invalidate(id);
+            publishInvalidate(id);
+        }
+        return success;
+    }
+
+    @Nonnull
+    @Override
+    public KeyPairDto get(String id) throws NoSuchKeyPairException {
+        long now = System.currentTimeMillis();
+        LocalEntry entry = localCache.get(id);
+        if (entry != null) {
+            if (entry.expireAt > now) {
+                hitCount.incrementAndGet();
+                return entry.keyPairDto;
+            }
+            localCache.remove(id, entry);
+        }
+        missCount.incrementAndGet();
+        int versionSlot = versionSlot(id);
+        long version = invalidateVersions.get(versionSlot);
+        KeyPairDto keyPairDto = delegate.get(id);
+        long expireAt = now + localTtlMillis;
+        Instant keyPairExpireTime = keyPairDto.getExpireTime();
+        if (keyPairExpireTime != null) {
+            expireAt = Math.min(expireAt, keyPairExpireTime.toEpochMilli());
+        }
+        if (expireAt > now) {
+            if (localCache.size() >= maxSize) {
+                evict(now);
+            }
+            if (invalidateVersions.get(versionSlot) == version) {
+                LocalEntry newEntry = new LocalEntry(keyPairDto, expireAt);
+                localCache.put(id, newEntry);
+                // 放入前后恰好失效：invalidate 先递增版本再删除，这里放入后再检查一次，保证不残留旧值
+                if (invalidateVersions.get(versionSlot) != version) {
+                    localCache.remove(id, newEntry);
+                }
+            }
+        }
+        return keyPairDto;
+    }
+
+    /**
+     * 满时先清理过期项，仍然满则随机淘汰一个
+     */
+    private void evict(long now) {
+        localCache.values().removeIf(e -> e.expireAt <= now);
+        Iterator<String> it = localCache.keySet().iterator();
+        while (localCache.size() >= maxSize && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    /**
+     * 删除本节点的本地缓存
+     */
+    public void invalidate(String id) {
+        invalidateVersions.incrementAndGet(versionSlot(id));
+        localCache.remove(id);
+    }
+
+    private static int versionSlot(String id) {
+        int h = id.hashCode();
+        return (h ^ (h >>> 16)) & (INVALIDATE_VERSION_SLOTS - 1);
+    }
+
+    private void publishInvalidate(String id) {
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            redisTemplate.convertAndSend(channel, id);
+        } catch (Exception e) {
+            // 广播失败不影响写入，其他节点依赖 localTtl 兜底
+            ShoulderCryptoLoggers.DEFAULT.warn("publish keyPair invalidate message fail, id=" + id, e);
+        }
+    }
+
+    /**
+     * 收到其他节点（包括自己）的失效消息
+     */
+    @Override
+    public void onMessage(@Nonnull Message message, @Nullable byte[] pattern) {
+        invalidate(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    public int getLocalSize() {
+        return localCache.size();
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * 销毁，Bean 注销时将本地密钥对清空
+     */
+    @PreDestroy
+    public void destroy() {
+        localCache.clear();
+    }
+
+    private static class LocalEntry {
+
+        private final KeyPairDto keyPairDto;
+
+        private final long expireAt;
+
+        private LocalEntry(KeyPairDto keyPairDto, long expireAt) {
+            this.keyPairDto = keyPairDto;
+            this.expireAt = expireAt;
+        }
+    }
+
+}
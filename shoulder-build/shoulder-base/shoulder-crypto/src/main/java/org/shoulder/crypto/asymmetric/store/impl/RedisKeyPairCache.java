@@ -15,7 +15,7 @@ import java.util.concurrent.TimeUnit;
 
 /**
  * RSA 密钥对存储-Redis 存储，适合应用支持集群部署的场景
- * 如果不使用过期时间等redis特有操作，可以通过双层缓存优化访问速度
+ * 频繁使用时可以在外层包装 {@link NearKeyPairCache}（双层缓存）优化访问速度
  *
  * @author lym
  */
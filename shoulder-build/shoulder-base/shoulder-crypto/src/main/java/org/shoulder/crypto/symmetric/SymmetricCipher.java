@@ -2,9 +2,15 @@ package org.shoulder.crypto.symmetric;
 
 import org.shoulder.crypto.symmetric.exception.SymmetricCryptoException;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
 /**
  * 执行对称算法的处理工具。
  * 该接口负责 byte[] 类型加解密，对于 String 的加解密，可以查看 {@link SymmetricTextCipher}
+ * 文件等大数据量可使用流式方法
  *
  * @author lym
  */
@@ -31,4 +37,51 @@ public interface SymmetricCipher {
      * @throws SymmetricCryptoException 解密失败
      */
     byte[] decrypt(byte[] key, byte[] iv, byte[] cipherText) throws SymmetricCryptoException;
+
+    // ------------------ 流式加解密：大数据量时内存占用与数据长度无关 ------------------
+
+    /**
+     * 加密输出流：写入明文，加密后写入 out，必须 close 才能输出最后的数据
+     *
+     * @param key 密钥
+     * @param iv  向量
+     * @param out 密文输出
+     * @return 明文写入流
+     * @throws SymmetricCryptoException 初始化失败
+     */
+    OutputStream encrypt(byte[] key, byte[] iv, OutputStream out) throws SymmetricCryptoException;
+
+    /**
+     * 解密输入流：从 in 读取密文，返回明文
+     *
+     * @param key 密钥
+     * @param iv  向量
+     * @param in  密文输入
+     * @return 明文读取流，读取时密文被篡改 / 截断会抛出 IOException
+     * @throws SymmetricCryptoException 初始化失败
+     */
+    InputStream decrypt(byte[] key, byte[] iv, InputStream in) throws SymmetricCryptoException;
+
+    /**
+     * 加密 channel：写入明文，加密后写入 channel，必须 close 才能输出最后的数据
+     *
+     * @param key     密钥
+     * @param iv      向量
+     * @param channel 密文输出
+     * @return 明文写入 channel
+     * @throws SymmetricCryptoException 初始化失败
+     */
+    WritableByteChannel encrypt(byte[] key, byte[] iv, WritableByteChannel channel) throws SymmetricCryptoException;
+
+    /**
+     * 解密 channel：从 channel 读取密文，返回明文
+     *
+     * @param key     密钥
+     * @param iv      向量
+     * @param channel 密文输入
+     * @return 明文读取 channel，读取时密文被篡改 / 截断会抛出 IOException
+     * @throws SymmetricCryptoException 初始化失败
+     */
+    ReadableByteChannel decrypt(byte[] key, byte[] iv, ReadableByteChannel channel) throws SymmetricCryptoException;
+
 }
@@ -7,13 +7,27 @@ import org.shoulder.core.util.StringUtils;
 import org.shoulder.crypto.symmetric.SymmetricAlgorithmEnum;
 import org.shoulder.crypto.symmetric.SymmetricCipher;
 import org.shoulder.crypto.symmetric.exception.SymmetricCryptoException;
+import org.shoulder.crypto.symmetric.stream.CipherStreamProcessor;
+import org.shoulder.crypto.symmetric.stream.SymmetricCipherInputStream;
+import org.shoulder.crypto.symmetric.stream.SymmetricCipherOutputStream;
+import org.shoulder.crypto.symmetric.stream.SymmetricCipherReadableChannel;
+import org.shoulder.crypto.symmetric.stream.SymmetricCipherWritableChannel;
 import org.springframework.util.Assert;
 
 import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.IvParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.security.GeneralSecurityException;
+import java.security.InvalidAlgorithmParameterException;
 import java.security.Security;
+import java.security.spec.AlgorithmParameterSpec;
 import java.util.Arrays;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -37,12 +51,26 @@ public class DefaultSymmetricCipher implements SymmetricCipher, ByteSpecificatio
         }
     }
 
+    /**
+     * 与 BC 实现结果一致，且 JDK 自带实现（SunJCE，可使用 AES-NI 指令）性能更好的算法，默认构造器中优先使用 JDK 实现
+     */
+    private static final Set<String> JDK_EQUIVALENT_TRANSFORMATIONS = Set.of(
+            "AES/CBC/PKCS5Padding", "AES/CBC/NoPadding",
+            "AES/ECB/PKCS5Padding", "AES/ECB/NoPadding",
+            "AES/GCM/NoPadding"
+    );
+
+    /**
+     * GCM 认证标签长度（bit），与 BC 使用 IvParameterSpec 时的默认值一致
+     */
+    private static final int GCM_TAG_LENGTH = 128;
+
     /**
      * 算法名称，用于生成密钥
      */
     private final String algorithm;
     /**
-     * 指定算法实现提供商
+     * 指定算法实现提供商，null 表示按 JDK 默认优先级选择
      */
     private final String provider;
     /**
@@ -57,6 +85,15 @@ public class DefaultSymmetricCipher implements SymmetricCipher, ByteSpecificatio
      * 需要初始化向量，固定长度 16*8=128，todo 【优化-校验】OCB 必须小于 128，解密必须传 iv，可以为空 byte[]
      */
     private final boolean needIv;
+    /**
+     * 是否为 GCM 模式：使用 GCMParameterSpec；加密时同一 Cipher 对象不允许重复使用相同 key + iv
+     */
+    private final boolean gcm;
+
+    /**
+     * 每个线程缓存一个已创建的 Cipher 及上次初始化参数，避免每次加解密查找 provider、创建 Cipher
+     */
+    private final ThreadLocal<CipherHolder> cipherHolder = new ThreadLocal<>();
 
     public DefaultSymmetricCipher(String algorithm, int[] keyLengthSupports, String transformation,
                                   String provider, boolean needIv) {
@@ -65,6 +102,7 @@ public class DefaultSymmetricCipher implements SymmetricCipher, ByteSpecificatio
         this.keyLengthSupports = keyLengthSupports;
         this.transformation = transformation;
         this.needIv = needIv;
+        this.gcm = StringUtils.containsIgnoreCase(transformation, "/GCM/");
     }
 
     // ------------------ 提供两个推荐使用的安全加密方案 ------------------
@@ -72,7 +110,8 @@ public class DefaultSymmetricCipher implements SymmetricCipher, ByteSpecificatio
     public DefaultSymmetricCipher(String transformation) {
         this(transformation.substring(0, transformation.indexOf("/")),
                 // 128 192 256
-                new int[]{16, 24, 32}, transformation, "BC",
+                new int[]{16, 24, 32}, transformation,
+                JDK_EQUIVALENT_TRANSFORMATIONS.contains(transformation) ? null : "BC",
                 StringUtils.containsAny(transformation, "/CBC/", "/CFB/", "/GCM/"));
     }
 
@@ -107,6 +146,52 @@ public class DefaultSymmetricCipher implements SymmetricCipher, ByteSpecificatio
         return doCipher(Cipher.DECRYPT_MODE, key, iv, cipherText);
     }
 
+    @Override
+    public OutputStream encrypt(byte[] key, byte[] iv, OutputStream out) throws SymmetricCryptoException {
+        return new SymmetricCipherOutputStream(out, createStreamProcessor(Cipher.ENCRYPT_MODE, key, iv,
+                CipherStreamProcessor.DEFAULT_CHUNK_SIZE, false));
+    }
+
+    @Override
+    public InputStream decrypt(byte[] key, byte[] iv, InputStream in) throws SymmetricCryptoException {
+        return new SymmetricCipherInputStream(in, createStreamProcessor(Cipher.DECRYPT_MODE, key, iv,
+                CipherStreamProcessor.DEFAULT_CHUNK_SIZE, false));
+    }
+
+    @Override
+    public WritableByteChannel encrypt(byte[] key, byte[] iv, WritableByteChannel channel) throws SymmetricCryptoException {
+        return new SymmetricCipherWritableChannel(channel, createStreamProcessor(Cipher.ENCRYPT_MODE, key, iv,
+                CipherStreamProcessor.DEFAULT_CHUNK_SIZE, true));
+    }
+
+    @Override
+    public ReadableByteChannel decrypt(byte[] key, byte[] iv, ReadableByteChannel channel) throws SymmetricCryptoException {
+        return new SymmetricCipherReadableChannel(channel, createStreamProcessor(Cipher.DECRYPT_MODE, key, iv,
+                CipherStreamProcessor.DEFAULT_CHUNK_SIZE, true));
+    }
+
+    /**
+     * 创建流式处理器，可用于自定义分块大小，或反向使用（如读取明文流得到密文）
+     *
+     * @param mode         加密/解密
+     * @param key          密钥
+     * @param iv           向量
+     * @param chunkSize    每次处理的最大长度，GCM 为分块大小，加解密两端需一致
+     * @param directBuffer 是否使用堆外缓冲
+     * @return 处理器，每个流独占一个
+     * @throws SymmetricCryptoException 初始化失败
+     */
+    public CipherStreamProcessor createStreamProcessor(int mode, byte[] key, byte[] iv, int chunkSize, boolean directBuffer)
+            throws SymmetricCryptoException {
+        try {
+            validParam(key, iv);
+            return CipherStreamProcessor.create(newCipher(), new SecretKeySpec(key, algorithm), needIv ? iv : null, gcm,
+                    mode, chunkSize, directBuffer);
+        } catch (Exception e) {
+            throw new SymmetricCryptoException("symmetricCryptoException createStreamProcessor(mode=" + mode + ") Exception!", e);
+        }
+    }
+
     /**
      * 加密或解密
      *
@@ -117,22 +202,62 @@ public class DefaultSymmetricCipher implements SymmetricCipher, ByteSpecificatio
      * @return 明文
      */
     public byte[] doCipher(int decryptMode, byte[] key, byte[] iv, byte[] content) throws SymmetricCryptoException {
+        CipherHolder holder = null;
         try {
             validParam(key, iv);
-            SecretKeySpec secretKey = new SecretKeySpec(key, algorithm);
-            Cipher cipher = Cipher.getInstance(transformation, provider);
-            if (needIv) {
-                IvParameterSpec ivParameter = new IvParameterSpec(iv);
-                cipher.init(decryptMode, secretKey, ivParameter);
-            } else {
-                cipher.init(decryptMode, secretKey);
-            }
-            return cipher.doFinal(content);
+            holder = getInitializedCipher(decryptMode, key, iv);
+            return holder.cipher.doFinal(content);
         } catch (Exception e) {
+            if (holder != null) {
+                // 状态未知，下次重新初始化
+                holder.invalidate();
+            }
             throw new SymmetricCryptoException("symmetricCryptoException doCipher(mode=" + decryptMode + ") Exception!", e);
         }
     }
 
+    /**
+     * 获取当前线程的 Cipher，key、iv、mode 均与上次相同时无需重新 init（doFinal 后 Cipher 会恢复到 init 后的状态），
+     * 但 GCM 加密不允许重复使用相同 key + iv，需要重新创建
+     */
+    private CipherHolder getInitializedCipher(int decryptMode, byte[] key, byte[] iv) throws GeneralSecurityException {
+        CipherHolder holder = cipherHolder.get();
+        if (holder == null) {
+            holder = new CipherHolder(newCipher());
+            cipherHolder.set(holder);
+        }
+        boolean gcmEncrypt = gcm && decryptMode == Cipher.ENCRYPT_MODE;
+        if (!gcmEncrypt && holder.initializedWith(decryptMode, key, iv, needIv)) {
+            return holder;
+        }
+        if (!Arrays.equals(holder.key, key)) {
+            holder.key = key.clone();
+            holder.secretKey = new SecretKeySpec(key, algorithm);
+        }
+        if (needIv) {
+            AlgorithmParameterSpec parameterSpec = gcm ? new GCMParameterSpec(GCM_TAG_LENGTH, iv) : new IvParameterSpec(iv);
+            try {
+                holder.cipher.init(decryptMode, holder.secretKey, parameterSpec);
+            } catch (InvalidAlgorithmParameterException | IllegalArgumentException e) {
+                if (!gcmEncrypt) {
+                    throw e;
+                }
+                // 该 Cipher 上次加密使用了相同 key + iv，换一个新的
+                holder.cipher = newCipher();
+                holder.cipher.init(decryptMode, holder.secretKey, parameterSpec);
+            }
+            holder.iv = iv.clone();
+        } else {
+            holder.cipher.init(decryptMode, holder.secretKey);
+        }
+        holder.mode = decryptMode;
+        return holder;
+    }
+
+    private Cipher newCipher() throws GeneralSecurityException {
+        return provider == null ? Cipher.getInstance(transformation) : Cipher.getInstance(transformation, provider);
+    }
+
     /**
      * 参数校验 （只检查key长度）
      *
@@ -155,4 +280,36 @@ public class DefaultSymmetricCipher implements SymmetricCipher, ByteSpecificatio
             Assert.isTrue(iv.length == 16, "the parameter 'iv' must be 128 bit(16 byte)");
         }
     }
+
+    /**
+     * 线程内缓存的 Cipher 及其上次初始化参数
+     */
+    private static class CipherHolder {
+
+        private Cipher cipher;
+
+        /**
+         * 上次初始化的模式，-1 表示未初始化或状态未知
+         */
+        private int mode = -1;
+
+        private byte[] key;
+
+        private SecretKeySpec secretKey;
+
+        private byte[] iv;
+
+        private CipherHolder(Cipher cipher) {
+            this.cipher = cipher;
+        }
+
+        private boolean initializedWith(int mode, byte[] key, byte[] iv, boolean needIv) {
+            return this.mode == mode && Arrays.equals(this.key, key) && (!needIv || Arrays.equals(this.iv, iv));
+        }
+
+        private void invalidate() {
+            this.mode = -1;
+        }
+    }
+
 }
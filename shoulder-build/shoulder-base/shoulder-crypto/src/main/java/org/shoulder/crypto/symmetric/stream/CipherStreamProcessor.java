@@ -0,0 +1,378 @@
+package org.shoulder.crypto.symmetric.stream;
+
+import jakarta.annotation.Nullable;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.IvParameterSpec;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+
+/**
+ * 流式加解密处理器：分多次输入任意长度数据，处理结果交给 {@link Sink}，内存占用与数据总长度无关
+ * <p>
+ * 普通模式（CBC、CTR 等）：直接使用 Cipher.update，结束时 doFinal，密文与整体加密结果一致；
+ * GCM 模式：JDK 解密时会缓存全部密文直到校验 tag，无法常量内存，因此分块加密，每块独立认证，格式：
+ * [4 字节块头][块密文 + 16 字节 tag]...，块头最高位表示是否最后一块，其余位为块密文长度，块头作为 AAD 参与认证；
+ * 每块 nonce = iv 的后 8 字节异或块序号，可防止块被重排、替换；读到结束仍未出现最后一块视为被截断。
+ * 注意：GCM 分块格式与整体加密 {@link org.shoulder.crypto.symmetric.SymmetricCipher#encrypt} 的结果不同，需使用对应的流式方法解密
+ * <p>
+ * 非线程安全，一个流使用一个实例
+ *
+ * @author lym
+ */
+public abstract class CipherStreamProcessor {
+
+    /**
+     * 默认每块明文大小
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+    /**
+     * GCM tag 长度（字节）
+     */
+    static final int GCM_TAG_BYTES = 16;
+
+    /**
+     * GCM 块头长度（字节）
+     */
+    static final int CHUNK_HEADER_BYTES = 4;
+
+    /**
+     * 块头中最后一块标记
+     */
+    static final int FINAL_CHUNK_FLAG = 0x80000000;
+
+    /**
+     * 输出缓冲多预留的长度，容纳 padding / 未处理完的块
+     */
+    private static final int OUTPUT_RESERVED_BYTES = 64;
+
+    protected final Cipher cipher;
+
+    protected final int chunkSize;
+
+    protected final boolean directBuffer;
+
+    protected CipherStreamProcessor(Cipher cipher, int chunkSize, boolean directBuffer) {
+        this.cipher = cipher;
+        this.chunkSize = chunkSize;
+        this.directBuffer = directBuffer;
+    }
+
+    /**
+     * 创建处理器
+     *
+     * @param cipher       未初始化 / 可重新初始化的 Cipher，由处理器独占
+     * @param key          密钥
+     * @param iv           向量，不需要时为 null
+     * @param gcm          是否为 GCM 模式
+     * @param mode         Cipher.ENCRYPT_MODE / Cipher.DECRYPT_MODE
+     * @param chunkSize    每次处理的最大明文长度；GCM 为分块大小，加解密两端需一致
+     * @param directBuffer 是否使用堆外缓冲（用于 channel，可避免 JDK 内部拷贝）
+     * @return 处理器
+     * @throws GeneralSecurityException 初始化失败
+     */
+    public static CipherStreamProcessor create(Cipher cipher, Key key, @Nullable byte[] iv, boolean gcm, int mode,
+                                               int chunkSize, boolean directBuffer) throws GeneralSecurityException {
+        if (chunkSize <= 0 || chunkSize > (~FINAL_CHUNK_FLAG) - GCM_TAG_BYTES) {
+            throw new IllegalArgumentException("illegal chunkSize: " + chunkSize);
+        }
+        if (mode != Cipher.ENCRYPT_MODE && mode != Cipher.DECRYPT_MODE) {
+            throw new IllegalArgumentException("only support ENCRYPT_MODE / DECRYPT_MODE, mode=" + mode);
+        }
+        if (gcm) {
+            if (iv == null) {
+                throw new IllegalArgumentException("iv is required for GCM");
+            }
+            return mode == Cipher.ENCRYPT_MODE ? new GcmChunkEncryptProcessor(cipher, key, iv, chunkSize, directBuffer)
+                    : new GcmChunkDecryptProcessor(cipher, key, iv, chunkSize, directBuffer);
+        }
+        if (iv == null) {
+            cipher.init(mode, key);
+        } else {
+            cipher.init(mode, key, new IvParameterSpec(iv));
+        }
+        return new ContinuousProcessor(cipher, chunkSize, directBuffer);
+    }
+
+    /**
+     * 处理 input 中全部剩余数据
+     *
+     * @param input 输入，处理后 position 移到 limit
+     * @param sink  输出
+     * @throws IOException 加解密失败 / 输出失败
+     */
+    public abstract void update(ByteBuffer input, Sink sink) throws IOException;
+
+    /**
+     * 输入结束，输出剩余数据
+     *
+     * @param sink 输出
+     * @throws IOException 加解密失败（如密文被篡改、截断）/ 输出失败
+     */
+    public abstract void finish(Sink sink) throws IOException;
+
+    protected ByteBuffer allocate(int capacity) {
+        return directBuffer ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
+
+    protected static IOException cryptoException(String action, Exception e) {
+        return new IOException("stream " + action + " fail", e);
+    }
+
+    /**
+     * 处理结果输出
+     */
+    @FunctionalInterface
+    public interface Sink {
+
+        /**
+         * 输出 buffer 中 position 到 limit 的全部数据，返回时 buffer 需已读完
+         *
+         * @param buffer 数据
+         * @throws IOException 输出失败
+         */
+        void write(ByteBuffer buffer) throws IOException;
+    }
+
+    /**
+     * 普通模式：Cipher.update 流式处理
+     */
+    private static class ContinuousProcessor extends CipherStreamProcessor {
+
+        private ByteBuffer output;
+
+        private ContinuousProcessor(Cipher cipher, int chunkSize, boolean directBuffer) {
+            super(cipher, chunkSize, directBuffer);
+            this.output = allocate(chunkSize + OUTPUT_RESERVED_BYTES);
+        }
+
+        @Override
+        public void update(ByteBuffer input, Sink sink) throws IOException {
+            try {
+                while (input.hasRemaining()) {
+                    int length = Math.min(input.remaining(), chunkSize);
+                    ByteBuffer slice = input.slice(input.position(), length);
+                    ensureOutput(cipher.getOutputSize(length));
+                    cipher.update(slice, output);
+                    input.position(input.position() + length);
+                    drain(sink);
+                }
+            } catch (GeneralSecurityException e) {
+                throw cryptoException("update", e);
+            }
+        }
+
+        @Override
+        public void finish(Sink sink) throws IOException {
+            try {
+                ensureOutput(cipher.getOutputSize(0));
+                cipher.doFinal(ByteBuffer.allocate(0), output);
+                drain(sink);
+            } catch (GeneralSecurityException e) {
+                throw cryptoException("finish", e);
+            }
+        }
+
+        private void ensureOutput(int size) {
+            if (output.capacity() < size) {
+                output = allocate(size);
+            }
+        }
+
+        private void drain(Sink sink) throws IOException {
+            output.flip();
+            if (output.hasRemaining()) {
+                sink.write(output);
+            }
+            output.clear();
+        }
+    }
+
+    /**
+     * GCM 分块处理器公共部分
+     */
+    private abstract static class AbstractGcmChunkProcessor extends CipherStreamProcessor {
+
+        private final Key key;
+
+        private final byte[] iv;
+
+        private final byte[] header = new byte[CHUNK_HEADER_BYTES];
+
+        /**
+         * 块序号
+         */
+        private long chunkIndex;
+
+        private AbstractGcmChunkProcessor(Cipher cipher, Key key, byte[] iv, int chunkSize, boolean directBuffer) {
+            super(cipher, chunkSize, directBuffer);
+            this.key = key;
+            this.iv = iv.clone();
+        }
+
+        /**
+         * 以当前块序号初始化 cipher，并将块头作为 AAD
+         */
+        protected void initChunk(int mode, int chunkHeader) throws GeneralSecurityException {
+            byte[] nonce = iv.clone();
+            long index = chunkIndex++;
+            for (int i = 0; i < Long.BYTES; i++) {
+                nonce[nonce.length - 1 - i] ^= (byte) (index >>> (i * 8));
+            }
+            cipher.init(mode, key, new GCMParameterSpec(GCM_TAG_BYTES * 8, nonce));
+            header[0] = (byte) (chunkHeader >>> 24);
+            header[1] = (byte) (chunkHeader >>> 16);
+            header[2] = (byte) (chunkHeader >>> 8);
+            header[3] = (byte) chunkHeader;
+            cipher.updateAAD(header);
+        }
+    }
+
+    /**
+     * GCM 分块加密
+     */
+    private static class GcmChunkEncryptProcessor extends AbstractGcmChunkProcessor {
+
+        private final ByteBuffer plain;
+
+        private final ByteBuffer output;
+
+        private GcmChunkEncryptProcessor(Cipher cipher, Key key, byte[] iv, int chunkSize, boolean directBuffer) {
+            super(cipher, key, iv, chunkSize, directBuffer);
+            this.plain = allocate(chunkSize);
+            this.output = allocate(CHUNK_HEADER_BYTES + chunkSize + GCM_TAG_BYTES);
+        }
+
+        @Override
+        public void update(ByteBuffer input, Sink sink) throws IOException {
+            while (input.hasRemaining()) {
+                if (!plain.hasRemaining()) {
+                    // 还有后续数据，当前块不是最后一块
+                    sealChunk(false, sink);
+                }
+                int length = Math.min(input.remaining(), plain.remaining());
+                plain.put(input.slice(input.position(), length));
+                input.position(input.position() + length);
+            }
+        }
+
+        @Override
+        public void finish(Sink sink) throws IOException {
+            sealChunk(true, sink);
+        }
+
+        private void sealChunk(boolean lastChunk, Sink sink) throws IOException {
+            plain.flip();
+            int chunkHeader = (plain.remaining() + GCM_TAG_BYTES) | (lastChunk ? FINAL_CHUNK_FLAG : 0);
+            try {
+                initChunk(Cipher.ENCRYPT_MODE, chunkHeader);
+                output.clear();
+                output.putInt(chunkHeader);
+                cipher.doFinal(plain, output);
+            } catch (GeneralSecurityException e) {
+                throw cryptoException("encrypt", e);
+            }
+            output.flip();
+            sink.write(output);
+            plain.clear();
+        }
+    }
+
+    /**
+     * GCM 分块解密
+     */
+    private static class GcmChunkDecryptProcessor extends AbstractGcmChunkProcessor {
+
+        private final ByteBuffer headerBuffer = ByteBuffer.allocate(CHUNK_HEADER_BYTES);
+
+        private final ByteBuffer encrypted;
+
+        private final ByteBuffer output;
+
+        /**
+         * 当前块头
+         */
+        private int chunkHeader;
+
+        /**
+         * 正在读块头 / 块密文
+         */
+        private boolean readingHeader = true;
+
+        private boolean finished;
+
+        private GcmChunkDecryptProcessor(Cipher cipher, Key key, byte[] iv, int chunkSize, boolean directBuffer) {
+            super(cipher, key, iv, chunkSize, directBuffer);
+            this.encrypted = allocate(chunkSize + GCM_TAG_BYTES);
+            this.output = allocate(chunkSize + GCM_TAG_BYTES);
+        }
+
+        @Override
+        public void update(ByteBuffer input, Sink sink) throws IOException {
+            while (input.hasRemaining()) {
+                if (finished) {
+                    throw new IOException("stream decrypt fail: unexpected data after the last chunk");
+                }
+                if (readingHeader) {
+                    transfer(input, headerBuffer);
+                    if (!headerBuffer.hasRemaining()) {
+                        startChunk();
+                    }
+                } else {
+                    transfer(input, encrypted);
+                }
+                if (!readingHeader && !encrypted.hasRemaining()) {
+                    openChunk(sink);
+                }
+            }
+        }
+
+        @Override
+        public void finish(Sink sink) throws IOException {
+            if (!finished) {
+                throw new IOException("stream decrypt fail: truncated, the last chunk is missing");
+            }
+        }
+
+        private void startChunk() throws IOException {
+            headerBuffer.flip();
+            chunkHeader = headerBuffer.getInt();
+            headerBuffer.clear();
+            int length = chunkHeader & ~FINAL_CHUNK_FLAG;
+            if (length < GCM_TAG_BYTES || length > encrypted.capacity()) {
+                throw new IOException("stream decrypt fail: illegal chunk length " + length + ", chunkSize=" + chunkSize);
+            }
+            encrypted.clear();
+            encrypted.limit(length);
+            readingHeader = false;
+        }
+
+        private void openChunk(Sink sink) throws IOException {
+            encrypted.flip();
+            output.clear();
+            try {
+                initChunk(Cipher.DECRYPT_MODE, chunkHeader);
+                cipher.doFinal(encrypted, output);
+            } catch (GeneralSecurityException e) {
+                throw cryptoException("decrypt", e);
+            }
+            output.flip();
+            if (output.hasRemaining()) {
+                sink.write(output);
+            }
+            readingHeader = true;
+            finished = (chunkHeader & FINAL_CHUNK_FLAG) != 0;
+        }
+
+        private static void transfer(ByteBuffer from, ByteBuffer to) {
+            int length = Math.min(from.remaining(), to.remaining());
+            to.put(from.slice(from.position(), length));
+            from.position(from.position() + length);
+        }
+    }
+
+}
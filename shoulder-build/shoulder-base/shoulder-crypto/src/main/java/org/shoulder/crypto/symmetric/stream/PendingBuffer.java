@@ -0,0 +1,61 @@
+package org.shoulder.crypto.symmetric.stream;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 读取方向的待读取数据缓冲：处理器输出写入这里，读取方从这里取；始终处于读模式
+ *
+ * @author lym
+ */
+class PendingBuffer implements CipherStreamProcessor.Sink {
+
+    private final boolean direct;
+
+    private ByteBuffer buffer;
+
+    PendingBuffer(int initialCapacity, boolean direct) {
+        this.direct = direct;
+        this.buffer = allocate(initialCapacity);
+        this.buffer.flip();
+    }
+
+    @Override
+    public void write(ByteBuffer data) {
+        if (buffer.capacity() - buffer.remaining() < data.remaining()) {
+            // 一次输出超过剩余空间（如分块小于读取缓冲），扩容
+            ByteBuffer larger = allocate(buffer.remaining() + data.remaining());
+            larger.put(buffer);
+            buffer = larger;
+        } else {
+            buffer.compact();
+        }
+        buffer.put(data);
+        buffer.flip();
+    }
+
+    boolean hasRemaining() {
+        return buffer.hasRemaining();
+    }
+
+    int remaining() {
+        return buffer.remaining();
+    }
+
+    int read(byte[] b, int off, int len) {
+        int length = Math.min(len, buffer.remaining());
+        buffer.get(b, off, length);
+        return length;
+    }
+
+    int read(ByteBuffer dst) {
+        int length = Math.min(dst.remaining(), buffer.remaining());
+        dst.put(buffer.slice(buffer.position(), length));
+        buffer.position(buffer.position() + length);
+        return length;
+    }
+
+    private ByteBuffer allocate(int capacity) {
+        return direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
+
+}
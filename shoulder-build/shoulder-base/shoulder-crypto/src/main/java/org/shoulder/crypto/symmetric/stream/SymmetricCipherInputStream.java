@@ -0,0 +1,114 @@
+package org.shoulder.crypto.symmetric.stream;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * 边读边加密 / 解密的输入流，从上游流读取数据处理后返回，内存占用与数据总长度无关
+ * <p>
+ * 解密时，读到上游结束才会校验完整性（GCM 每块读完即校验该块），读取中途抛出 IOException 说明数据被篡改或截断
+ *
+ * @author lym
+ */
+public class SymmetricCipherInputStream extends FilterInputStream {
+
+    private static final int READ_BUFFER_SIZE = 8192;
+
+    private final CipherStreamProcessor processor;
+
+    private final byte[] readBuffer = new byte[READ_BUFFER_SIZE];
+
+    private final PendingBuffer pending;
+
+    private final byte[] single = new byte[1];
+
+    private boolean eof;
+
+    private boolean closed;
+
+    public SymmetricCipherInputStream(InputStream in, CipherStreamProcessor processor) {
+        super(in);
+        this.processor = processor;
+        this.pending = new PendingBuffer(READ_BUFFER_SIZE * 2, false);
+    }
+
+    @Override
+    public int read() throws IOException {
+        int n = read(single, 0, 1);
+        return n < 0 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        if (len == 0) {
+            return 0;
+        }
+        while (!pending.hasRemaining()) {
+            if (eof) {
+                return -1;
+            }
+            int n = in.read(readBuffer);
+            if (n < 0) {
+                eof = true;
+                processor.finish(pending);
+            } else if (n > 0) {
+                processor.update(ByteBuffer.wrap(readBuffer, 0, n), pending);
+            }
+        }
+        return pending.read(b, off, len);
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        // 必须经过处理器，不能直接跳过上游数据
+        long skipped = 0;
+        byte[] skipBuffer = new byte[(int) Math.min(READ_BUFFER_SIZE, Math.max(n, 0))];
+        while (skipped < n) {
+            int read = read(skipBuffer, 0, (int) Math.min(skipBuffer.length, n - skipped));
+            if (read < 0) {
+                break;
+            }
+            skipped += read;
+        }
+        return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+        ensureOpen();
+        return pending.remaining();
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public synchronized void mark(int readLimit) {
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        throw new IOException("mark/reset not supported");
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        in.close();
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+}
@@ -0,0 +1,74 @@
+package org.shoulder.crypto.symmetric.stream;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * 边写边加密 / 解密的输出流，写入的数据经处理后写入下游流，内存占用与数据总长度无关
+ * <p>
+ * 注意：flush 只能输出已处理完的部分（分组 / 分块未满的数据在 close 时输出），必须 close 才能得到完整结果
+ *
+ * @author lym
+ */
+public class SymmetricCipherOutputStream extends FilterOutputStream {
+
+    private final CipherStreamProcessor processor;
+
+    private final CipherStreamProcessor.Sink sink = this::writeToOut;
+
+    private final byte[] single = new byte[1];
+
+    private boolean closed;
+
+    public SymmetricCipherOutputStream(OutputStream out, CipherStreamProcessor processor) {
+        super(out);
+        this.processor = processor;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        single[0] = (byte) b;
+        write(single, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        processor.update(ByteBuffer.wrap(b, off, len), sink);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            processor.finish(sink);
+            out.flush();
+        } finally {
+            out.close();
+        }
+    }
+
+    private void writeToOut(ByteBuffer buffer) throws IOException {
+        // 流方向使用堆内缓冲
+        out.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        buffer.position(buffer.limit());
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+}
@@ -0,0 +1,77 @@
+package org.shoulder.crypto.symmetric.stream;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * 边读边加密 / 解密的 channel，从上游 channel 读取数据处理后返回，使用复用的堆外缓冲
+ *
+ * @author lym
+ */
+public class SymmetricCipherReadableChannel implements ReadableByteChannel {
+
+    private static final int READ_BUFFER_SIZE = 8192;
+
+    private final ReadableByteChannel channel;
+
+    private final CipherStreamProcessor processor;
+
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+
+    private final PendingBuffer pending;
+
+    private boolean eof;
+
+    private boolean open = true;
+
+    public SymmetricCipherReadableChannel(ReadableByteChannel channel, CipherStreamProcessor processor) {
+        this.channel = channel;
+        this.processor = processor;
+        this.pending = new PendingBuffer(READ_BUFFER_SIZE * 2, true);
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+        if (!dst.hasRemaining()) {
+            return 0;
+        }
+        while (!pending.hasRemaining()) {
+            if (eof) {
+                return -1;
+            }
+            readBuffer.clear();
+            int n = channel.read(readBuffer);
+            if (n < 0) {
+                eof = true;
+                processor.finish(pending);
+            } else if (n == 0) {
+                // 非阻塞 channel 暂无数据
+                return 0;
+            } else {
+                readBuffer.flip();
+                processor.update(readBuffer, pending);
+            }
+        }
+        return pending.read(dst);
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!open) {
+            return;
+        }
+        open = false;
+        channel.close();
+    }
+
+}
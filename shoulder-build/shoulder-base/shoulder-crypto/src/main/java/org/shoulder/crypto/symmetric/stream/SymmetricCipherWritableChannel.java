@@ -0,0 +1,64 @@
+package org.shoulder.crypto.symmetric.stream;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * 边写边加密 / 解密的 channel，处理后写入下游 channel，使用复用的堆外缓冲
+ * <p>
+ * 注意：必须 close 才能输出最后的分组 / 分块；下游需为阻塞 channel
+ *
+ * @author lym
+ */
+public class SymmetricCipherWritableChannel implements WritableByteChannel {
+
+    private final WritableByteChannel channel;
+
+    private final CipherStreamProcessor processor;
+
+    private final CipherStreamProcessor.Sink sink = this::writeToChannel;
+
+    private boolean open = true;
+
+    public SymmetricCipherWritableChannel(WritableByteChannel channel, CipherStreamProcessor processor) {
+        this.channel = channel;
+        this.processor = processor;
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+        int length = src.remaining();
+        processor.update(src, sink);
+        return length;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!open) {
+            return;
+        }
+        open = false;
+        try {
+            processor.finish(sink);
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void writeToChannel(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+}
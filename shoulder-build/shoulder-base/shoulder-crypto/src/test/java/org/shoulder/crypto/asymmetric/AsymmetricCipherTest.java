@@ -3,12 +3,21 @@ package org.shoulder.crypto.asymmetric;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.shoulder.core.util.StringUtils;
+import org.shoulder.crypto.asymmetric.dto.KeyPairDto;
 import org.shoulder.crypto.asymmetric.exception.AsymmetricCryptoException;
+import org.shoulder.crypto.asymmetric.exception.NoSuchKeyPairException;
 import org.shoulder.crypto.asymmetric.impl.DefaultAsymmetricCipher;
+import org.shoulder.crypto.asymmetric.store.KeyPairCache;
 import org.shoulder.crypto.asymmetric.store.impl.MemoryKeyPairCache;
+import org.shoulder.crypto.asymmetric.store.impl.NearKeyPairCache;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * 非对称加密测试-框架基础封装
+ * <p>
+ * 注意：这里的性能测试仅为无预热粗略测试，精确测试请使用 JMH。
  *
  * @author lym
  */
@@ -37,12 +46,95 @@ public class AsymmetricCipherTest {
         testSign(rsa2048);
     }
 
+    /**
+     * 二级缓存：命中本地时不访问远程存储；写入、失效后重新加载
+     */
+    @Test
+    public void testNearKeyPairCache() throws Exception {
+        CountingKeyPairCache remote = new CountingKeyPairCache();
+        NearKeyPairCache nearCache = new NearKeyPairCache(remote, null, NearKeyPairCache.DEFAULT_CHANNEL, 2, Duration.ofMinutes(1));
+        AsymmetricCipher cipher = DefaultAsymmetricCipher.rsa2048(nearCache);
+        cipher.buildKeyPair("a");
+        // 首次读取加载到本地
+        cipher.getPublicKey("a");
+        int afterBuild = remote.getCount.get();
+        testCrypt(cipher, "a");
+        testSign(cipher, "a");
+        Assertions.assertThat(remote.getCount.get()).isEqualTo(afterBuild);
+
+        // 其他节点修改后收到失效消息
+        nearCache.invalidate("a");
+        cipher.getPrivateKey("a");
+        Assertions.assertThat(remote.getCount.get()).isEqualTo(afterBuild + 1);
+
+        // 超过本地上限
+        cipher.buildKeyPair("b");
+        cipher.buildKeyPair("c");
+        Assertions.assertThat(nearCache.getLocalSize()).isLessThanOrEqualTo(2);
+
+        // 本地缓存时间不超过密钥对过期时间
+        cipher.buildKeyPair("expired", Duration.ofMillis(1));
+        Thread.sleep(5);
+        Assertions.assertThatThrownBy(() -> nearCache.get("expired")).isInstanceOf(NoSuchKeyPairException.class);
+    }
+
+    /**
+     * 二级缓存：从远程加载期间收到失效消息，加载到的旧值不放入本地
+     */
+    @Test
+    public void testNearKeyPairCacheInvalidateDuringLoad() throws Exception {
+        CountingKeyPairCache remote = new CountingKeyPairCache();
+        NearKeyPairCache nearCache = new NearKeyPairCache(remote, null, NearKeyPairCache.DEFAULT_CHANNEL, 16, Duration.ofMinutes(1));
+        DefaultAsymmetricCipher.rsa2048(nearCache).buildKeyPair("a");
+        remote.onGet = () -> nearCache.invalidate("a");
+        nearCache.get("a");
+        Assertions.assertThat(nearCache.getLocalSize()).isEqualTo(0);
+
+        // 没有并发失效时正常放入本地
+        remote.onGet = null;
+        int count = remote.getCount.get();
+        nearCache.get("a");
+        nearCache.get("a");
+        Assertions.assertThat(nearCache.getLocalSize()).isEqualTo(1);
+        Assertions.assertThat(remote.getCount.get()).isEqualTo(count + 1);
+    }
+
+    /**
+     * 【性能】使用密钥对 id 解密、签名
+     */
+    @Test
+    public void timer_decryptAndSign() throws Exception {
+        for (AsymmetricCipher cipher : new AsymmetricCipher[]{rsa2048, ecc256}) {
+            String id = StringUtils.uuid32();
+            cipher.buildKeyPair(id);
+            byte[] text = "hello, shoulder".getBytes();
+            byte[] encrypted = cipher.encrypt(id, text);
+            int n = 200;
+            for (int round = 0; round < 2; round++) {
+                // 第一轮预热
+                long start = System.currentTimeMillis();
+                for (int i = 0; i < n; i++) {
+                    cipher.decrypt(id, encrypted);
+                    cipher.sign(id, text);
+                }
+                long cost = System.currentTimeMillis() - start;
+                System.out.println("TIME-" + (cipher == rsa2048 ? "RSA2048" : "ECC256") + " decrypt+sign TEST: cost "
+                    + cost + " ms, " + cost * 1000 / n + " us/op");
+            }
+        }
+    }
+
     private void testCrypt(AsymmetricCipher processor) throws AsymmetricCryptoException {
         String keyPairIndex = StringUtils.uuid32();
         processor.buildKeyPair(keyPairIndex);
+        testCrypt(processor, keyPairIndex);
+    }
 
+    private void testCrypt(AsymmetricCipher processor, String keyPairIndex) throws AsymmetricCryptoException {
         byte[] text = "hello, shoulder".getBytes();
         byte[] encrypted = processor.encrypt(keyPairIndex, text);
+        // 线程内复用 Cipher 后再次加解密
+        Assertions.assertThat(processor.decrypt(keyPairIndex, processor.encrypt(keyPairIndex, text))).isEqualTo(text);
 
         byte[] decrypted = processor.decrypt(keyPairIndex, encrypted);
 
@@ -53,11 +145,54 @@ public class AsymmetricCipherTest {
     private void testSign(AsymmetricCipher processor) throws AsymmetricCryptoException {
         String keyPairIndex = StringUtils.uuid32();
         processor.buildKeyPair(keyPairIndex);
+        testSign(processor, keyPairIndex);
+    }
 
+    private void testSign(AsymmetricCipher processor, String keyPairIndex) throws AsymmetricCryptoException {
         byte[] text = "hello, shoulder".getBytes();
         byte[] sign = processor.sign(keyPairIndex, text);
 
         Assertions.assertThat(processor.verify(keyPairIndex, text, sign)).isTrue();
     }
 
+    /**
+     * 模拟远程存储：每次读取都返回新的 dto（需重新解析密钥），并统计读取次数
+     */
+    private static class CountingKeyPairCache implements KeyPairCache {
+
+        private final MemoryKeyPairCache store = new MemoryKeyPairCache();
+
+        private final AtomicInteger getCount = new AtomicInteger();
+
+        /**
+         * 读取远程存储后、返回前执行，模拟加载期间其他线程的操作
+         */
+        private volatile Runnable onGet;
+
+        @Override
+        public void put(String id, KeyPairDto keyPairDto) {
+            store.put(id, copy(keyPairDto));
+        }
+
+        @Override
+        public boolean putIfAbsent(String id, KeyPairDto keyPairDto) {
+            return store.putIfAbsent(id, copy(keyPairDto));
+        }
+
+        @Override
+        public KeyPairDto get(String id) throws NoSuchKeyPairException {
+            getCount.incrementAndGet();
+            KeyPairDto keyPairDto = copy(store.get(id));
+            Runnable action = onGet;
+            if (action != null) {
+                action.run();
+            }
+            return keyPairDto;
+        }
+
+        private static KeyPairDto copy(KeyPairDto dto) {
+            return new KeyPairDto(dto.getPk(), dto.getVk()).setExpireTime(dto.getExpireTime());
+        }
+    }
+
 }
@@ -0,0 +1,152 @@
+package org.shoulder.crypto.symmetric;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.shoulder.core.util.ByteUtils;
+import org.shoulder.crypto.symmetric.impl.DefaultSymmetricCipher;
+import org.shoulder.crypto.symmetric.stream.CipherStreamProcessor;
+import org.shoulder.crypto.symmetric.stream.SymmetricCipherInputStream;
+import org.shoulder.crypto.symmetric.stream.SymmetricCipherOutputStream;
+
+import javax.crypto.Cipher;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+/**
+ * 对称加密流式接口测试
+ *
+ * @author lym
+ */
+public class SymmetricCipherStreamTest {
+
+    /**
+     * 测试使用较小的分块，覆盖跨块边界
+     */
+    private static final int CHUNK = 1024;
+
+    private static final int[] SIZES = {0, 1, CHUNK - 1, CHUNK, CHUNK + 1, CHUNK * 5 + 7};
+
+    private final DefaultSymmetricCipher cbc = DefaultSymmetricCipher.getFlyweight(SymmetricAlgorithmEnum.AES_CBC_PKCS5Padding.getAlgorithmName());
+
+    private final DefaultSymmetricCipher gcm = DefaultSymmetricCipher.getFlyweight(SymmetricAlgorithmEnum.AES_GCM.getAlgorithmName());
+
+    private final byte[] key = ByteUtils.randomBytes(32);
+
+    private final byte[] iv = ByteUtils.randomBytes(16);
+
+    /**
+     * 流 / 通道加解密往返
+     */
+    @Test
+    public void testRoundTrip() throws Exception {
+        for (DefaultSymmetricCipher cipher : new DefaultSymmetricCipher[]{cbc, gcm}) {
+            for (int size : SIZES) {
+                byte[] text = ByteUtils.randomBytes(size);
+                // 流，小分块
+                byte[] encrypted = encryptByStream(cipher, text, CHUNK);
+                Assertions.assertArrayEquals(text, decryptByStream(cipher, encrypted, CHUNK));
+
+                // 通道，默认分块
+                ByteArrayOutputStream bos = new ByteArrayOutputStream();
+                try (WritableByteChannel channel = cipher.encrypt(key, iv, Channels.newChannel(bos))) {
+                    writeFully(channel, text);
+                }
+                ReadableByteChannel readable = cipher.decrypt(key, iv, Channels.newChannel(new ByteArrayInputStream(bos.toByteArray())));
+                Assertions.assertArrayEquals(text, readFully(readable));
+
+                // 接口默认方法（流）
+                bos = new ByteArrayOutputStream();
+                try (OutputStream out = cipher.encrypt(key, iv, bos)) {
+                    out.write(text);
+                }
+                try (InputStream in = cipher.decrypt(key, iv, new ByteArrayInputStream(bos.toByteArray()))) {
+                    Assertions.assertArrayEquals(text, in.readAllBytes());
+                }
+            }
+        }
+    }
+
+    /**
+     * CBC 流式结果与整体加密一致，可互相解密
+     */
+    @Test
+    public void testCbcSameAsWholeMessage() throws Exception {
+        for (int size : SIZES) {
+            byte[] text = ByteUtils.randomBytes(size);
+            byte[] encrypted = encryptByStream(cbc, text, CHUNK);
+            Assertions.assertArrayEquals(cbc.encrypt(key, iv, text), encrypted);
+            Assertions.assertArrayEquals(text, cbc.decrypt(key, iv, encrypted));
+        }
+    }
+
+    /**
+     * GCM 分块被篡改、截断、追加数据时解密失败
+     */
+    @Test
+    public void testGcmTamperAndTruncate() throws Exception {
+        byte[] text = ByteUtils.randomBytes(CHUNK * 3 + 5);
+        byte[] encrypted = encryptByStream(gcm, text, CHUNK);
+
+        byte[] tampered = encrypted.clone();
+        tampered[CHUNK + 10] ^= 1;
+        Assertions.assertThrows(IOException.class, () -> decryptByStream(gcm, tampered, CHUNK));
+
+        // 在块边界截断（去掉最后一块）
+        byte[] truncated = Arrays.copyOf(encrypted, encrypted.length - (4 + 5 + 16));
+        Assertions.assertThrows(IOException.class, () -> decryptByStream(gcm, truncated, CHUNK));
+
+        byte[] halfChunk = Arrays.copyOf(encrypted, encrypted.length - 3);
+        Assertions.assertThrows(IOException.class, () -> decryptByStream(gcm, halfChunk, CHUNK));
+
+        byte[] appended = Arrays.copyOf(encrypted, encrypted.length + 1);
+        Assertions.assertThrows(IOException.class, () -> decryptByStream(gcm, appended, CHUNK));
+    }
+
+    private byte[] encryptByStream(DefaultSymmetricCipher cipher, byte[] text, int chunkSize) throws Exception {
+        CipherStreamProcessor processor = cipher.createStreamProcessor(Cipher.ENCRYPT_MODE, key, iv, chunkSize, false);
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (OutputStream out = new SymmetricCipherOutputStream(bos, processor)) {
+            // 不按分块大小写入
+            for (int from = 0; from < text.length; from += 333) {
+                out.write(text, from, Math.min(333, text.length - from));
+            }
+        }
+        return bos.toByteArray();
+    }
+
+    private byte[] decryptByStream(DefaultSymmetricCipher cipher, byte[] encrypted, int chunkSize) throws Exception {
+        CipherStreamProcessor processor = cipher.createStreamProcessor(Cipher.DECRYPT_MODE, key, iv, chunkSize, false);
+        try (InputStream in = new SymmetricCipherInputStream(new ByteArrayInputStream(encrypted), processor)) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static void writeFully(WritableByteChannel channel, byte[] data) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static byte[] readFully(ReadableByteChannel channel) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ByteBuffer buffer = ByteBuffer.allocate(700);
+        try (channel) {
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                bos.write(buffer.array(), 0, buffer.limit());
+                buffer.clear();
+            }
+        }
+        return bos.toByteArray();
+    }
+
+}
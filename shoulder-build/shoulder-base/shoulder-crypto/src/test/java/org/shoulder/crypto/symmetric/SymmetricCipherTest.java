@@ -7,8 +7,14 @@ import org.shoulder.crypto.symmetric.exception.SymmetricCryptoException;
 import org.shoulder.crypto.symmetric.impl.DefaultSymmetricCipher;
 import org.shoulder.crypto.symmetric.impl.DefaultSymmetricTextCipher;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+
 /**
  * 非对称加密测试-框架基础封装
+ * <p>
+ * 注意：这里的性能测试仅为无预热粗略测试，精确测试请使用 JMH。
  *
  * @author lym
  */
@@ -33,6 +39,96 @@ public class SymmetricCipherTest {
         testTextCrypt(sm4T);
     }
 
+    /**
+     * 同一线程重复使用相同 key、iv 加密（如本地存储加密固定 iv），结果一致且可解密
+     */
+    @Test
+    public void testRepeatSameKeyAndIv() throws Exception {
+        byte[] key = ByteUtils.randomBytes(32);
+        byte[] iv = ByteUtils.randomBytes(16);
+        byte[] text = "hello, shoulder".getBytes();
+        for (SymmetricCipher cipher : new SymmetricCipher[]{aes, sm4}) {
+            byte[] encrypted = cipher.encrypt(key, iv, text);
+            for (int i = 0; i < 3; i++) {
+                Assertions.assertArrayEquals(encrypted, cipher.encrypt(key, iv, text));
+                Assertions.assertArrayEquals(text, cipher.decrypt(key, iv, encrypted));
+            }
+        }
+    }
+
+    /**
+     * 与 BouncyCastle 实现加密结果一致（默认构造器在等价时使用 JDK 实现）
+     */
+    @Test
+    public void testSameAsBouncyCastle() throws Exception {
+        byte[] key = ByteUtils.randomBytes(32);
+        byte[] iv = ByteUtils.randomBytes(16);
+        byte[] text = ByteUtils.randomBytes(1000);
+        for (SymmetricAlgorithmEnum algorithm : new SymmetricAlgorithmEnum[]{SymmetricAlgorithmEnum.AES_CBC_PKCS5Padding,
+                SymmetricAlgorithmEnum.AES_GCM}) {
+            String transformation = algorithm.getAlgorithmName();
+            SymmetricCipher bc = new DefaultSymmetricCipher("AES", new int[]{16, 24, 32}, transformation, "BC", true);
+            SymmetricCipher defaultCipher = DefaultSymmetricCipher.getFlyweight(transformation);
+            byte[] encrypted = defaultCipher.encrypt(key, iv, text);
+            Assertions.assertArrayEquals(bc.encrypt(key, iv, text), encrypted);
+            Assertions.assertArrayEquals(text, bc.decrypt(key, iv, encrypted));
+        }
+    }
+
+    /**
+     * 【性能】GCM / CBC 在不同报文长度、线程数下的加解密耗时
+     */
+    @Test
+    public void timer_cipher() throws Exception {
+        int[] payloadSizes = {16, 1024, 64 * 1024};
+        int[] threadNums = {1, 8};
+        SymmetricAlgorithmEnum[] algorithms = {SymmetricAlgorithmEnum.AES_CBC_PKCS5Padding, SymmetricAlgorithmEnum.AES_GCM};
+        for (int round = 0; round < 2; round++) {
+            // 第一轮预热
+            for (SymmetricAlgorithmEnum algorithm : algorithms) {
+                SymmetricCipher cipher = DefaultSymmetricCipher.getFlyweight(algorithm.getAlgorithmName());
+                for (int payloadSize : payloadSizes) {
+                    for (int threadNum : threadNums) {
+                        // 总处理数据量大致相同
+                        int perThread = Math.max(100, Math.min(50_000, 4_000_000 / payloadSize) / threadNum);
+                        long cost = runCrypt(cipher, payloadSize, threadNum, perThread);
+                        System.out.println("TIME-" + algorithm + " payload=" + payloadSize + " threads=" + threadNum
+                                + " TEST: cost " + cost + " ms, " + cost * 1_000_000 / ((long) perThread * threadNum) + " ns/op");
+                    }
+                }
+            }
+        }
+    }
+
+    private static long runCrypt(SymmetricCipher cipher, int payloadSize, int threadNum, int perThread) throws Exception {
+        byte[] key = ByteUtils.randomBytes(32);
+        byte[] text = ByteUtils.randomBytes(payloadSize);
+        CountDownLatch latch = new CountDownLatch(threadNum);
+        AtomicReference<Exception> error = new AtomicReference<>();
+        long start = System.currentTimeMillis();
+        for (int t = 0; t < threadNum; t++) {
+            new Thread(() -> {
+                try {
+                    for (int i = 0; i < perThread; i++) {
+                        // 每次加密使用新的 iv（这里只为测试，不使用 SecureRandom）
+                        byte[] iv = new byte[16];
+                        ThreadLocalRandom.current().nextBytes(iv);
+                        cipher.decrypt(key, iv, cipher.encrypt(key, iv, text));
+                    }
+                } catch (Exception e) {
+                    error.set(e);
+                } finally {
+                    latch.countDown();
+                }
+            }).start();
+        }
+        latch.await();
+        if (error.get() != null) {
+            throw error.get();
+        }
+        return System.currentTimeMillis() - start;
+    }
+
     private void testByteCrypt(SymmetricCipher cipher) throws SymmetricCryptoException {
         byte[] key = ByteUtils.randomBytes(16);
         byte[] iv = ByteUtils.randomBytes(16);
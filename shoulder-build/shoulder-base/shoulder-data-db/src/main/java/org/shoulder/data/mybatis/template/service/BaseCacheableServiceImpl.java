@@ -7,22 +7,25 @@ import com.baomidou.mybatisplus.core.metadata.TableInfo;
 import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
 import com.baomidou.mybatisplus.core.toolkit.*;
 import com.baomidou.mybatisplus.extension.toolkit.SqlHelper;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import org.apache.ibatis.binding.MapperMethod;
 import org.apache.ibatis.session.SqlSession;
 import org.shoulder.core.cache.Cache;
-import org.shoulder.core.cache.CacheDecorate;
 import org.shoulder.core.context.AppInfo;
 import org.shoulder.data.mybatis.template.dao.BaseMapper;
 import org.shoulder.data.mybatis.template.entity.BaseEntity;
 import org.springframework.boot.context.event.ApplicationStartedEvent;
-import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.Cache.ValueWrapper;
 import org.springframework.context.ApplicationListener;
 import org.springframework.lang.NonNull;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.ClassUtils;
 
 import java.io.Serializable;
+import java.time.Duration;
 import java.util.*;
 import java.util.function.BiConsumer;
 import java.util.function.BiPredicate;
@@ -46,15 +49,85 @@ public abstract class BaseCacheableServiceImpl<MAPPER extends BaseMapper<ENTITY>
 
     protected Cache cache;
 
+    /**
+     * 本地缓存默认最多缓存多少条
+     */
+    protected static final long DEFAULT_LOCAL_CACHE_MAX_SIZE = 10_000;
+
+    /**
+     * 本地缓存默认过期时间
+     */
+    protected static final Duration DEFAULT_LOCAL_CACHE_EXPIRE = Duration.ofMinutes(30);
+
+    /**
+     * 本地缓存默认写入多久后，再次被访问时异步刷新
+     */
+    protected static final Duration DEFAULT_LOCAL_CACHE_REFRESH = Duration.ofMinutes(5);
+
+    private static final boolean MICROMETER_PRESENT = ClassUtils.isPresent("io.micrometer.core.instrument.MeterRegistry",
+            BaseCacheableServiceImpl.class.getClassLoader());
+
     @Override
     public void onApplicationEvent(ApplicationStartedEvent event) {
-        // 获取cache 入股没有 cache则降级缓存
+        // 获取cache 如果没有 cache则降级为本地缓存
         try {
             cache = event.getApplicationContext().getBean(Cache.class);
         } catch (Exception e) {
-            cache = new CacheDecorate(new ConcurrentMapCache("cacheService_" + getClass().getName()));
+            cache = createLocalCache();
             logger.warn("No cache bean, fail back to memory: " + getClass().getName());
         }
+        if (MICROMETER_PRESENT && cache instanceof CaffeineEntityCache localCache) {
+            // 本地缓存命中率等统计
+            CaffeineEntityCacheMetrics.bindTo(event.getApplicationContext(), localCache);
+        }
+    }
+
+    /**
+     * 创建本地缓存（没有 Cache bean 时使用）
+     * 有容量上限与过期时间；被访问的缓存写入超过一定时间后异步从 db 刷新（refresh-ahead），刷新期间仍返回旧值
+     *
+     * @return 本地缓存
+     */
+    protected Cache createLocalCache() {
+        CacheLoader<Object, Object> loader = new CacheLoader<>() {
+            @Override
+            public Object load(@NonNull Object key) {
+                // 未命中时由 getByIdFromCache 等方法自行加载
+                return null;
+            }
+
+            @Override
+            public Object reload(@NonNull Object key, @NonNull Object oldValue) {
+                return reloadLocalCache(oldValue);
+            }
+        };
+        return new CaffeineEntityCache("cacheService_" + getClass().getName(), localCacheBuilder().recordStats().build(loader));
+    }
+
+    /**
+     * 本地缓存配置，子类可覆盖以调整容量 / 权重（maximumWeight + weigher）/ 过期 / 刷新时间
+     *
+     * @return Caffeine 构建器
+     */
+    protected Caffeine<Object, Object> localCacheBuilder() {
+        return Caffeine.newBuilder()
+                .maximumSize(DEFAULT_LOCAL_CACHE_MAX_SIZE)
+                .expireAfterWrite(DEFAULT_LOCAL_CACHE_EXPIRE)
+                .refreshAfterWrite(DEFAULT_LOCAL_CACHE_REFRESH);
+    }
+
+    /**
+     * 本地缓存异步刷新：实体按 id 从 db 重新加载（已删除则返回 null 移除缓存），其他值（如 getByCacheKey 缓存的 id）保持不变
+     *
+     * @param oldValue 旧值
+     * @return 新值
+     */
+    protected Object reloadLocalCache(Object oldValue) {
+        if (getEntityClass().isInstance(oldValue)) {
+            Serializable id = (Serializable) fetchIdFromEntity(getEntityClass().cast(oldValue));
+            return id == null ? oldValue : getBaseMapper().selectById(id);
+        }
+        return oldValue;
     }
 
     /**
@@ -103,6 +176,7 @@ public abstract class BaseCacheableServiceImpl<MAPPER extends BaseMapper<ENTITY>
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     @Transactional(readOnly = true)
     public List<ENTITY> loadByIds(@NonNull Collection<? extends Serializable> ids, Function<Collection<? extends Serializable>, Collection<ENTITY>> loader) {
         if (ids.isEmpty()) {
@@ -111,8 +185,8 @@ public abstract class BaseCacheableServiceImpl<MAPPER extends BaseMapper<ENTITY>
         // 拼接keys
         List<? extends Serializable> keys = ids.stream().map(this::generateCacheKey).collect(Collectors.toList());
 
-        // 返回的是缓存中存在的数据
-        List<ENTITY> valueList = cache.getMulti(keys);
+        // 返回的是缓存中存在的数据，null 为未命中
+        List<ValueWrapper> valueList = cache.getMultiWrapper(keys);
 
         // 所有的key
         List<Serializable> keysList = Lists.newArrayList(ids);
@@ -121,12 +195,12 @@ public abstract class BaseCacheableServiceImpl<MAPPER extends BaseMapper<ENTITY>
 
         List<ENTITY> allList = new ArrayList<>();
         for (int i = 0; i < valueList.size(); i++) {
-            ENTITY v = valueList.get(i);
+            ValueWrapper v = valueList.get(i);
             Serializable k = keysList.get(i);
             if (v == null) {
                 missedKeys.add(k);
-            } else {
-                allList.add(v);
+            } else if (v.get() != null) {
+                allList.add((ENTITY) v.get());
             }
         }
         // 加载miss 的数据，并设置到缓存
@@ -310,7 +384,8 @@ public abstract class BaseCacheableServiceImpl<MAPPER extends BaseMapper<ENTITY>
     protected void evictCache(ENTITY model) {
         Object id = fetchIdFromEntity(model);
         if (id != null) {
-            Object key = generateCacheKey(id);
+            // 转为 Serializable，与按 id 查询时的 key 一致（否则匹配到 Object... 重载）
+            Object key = generateCacheKey((Serializable) id);
             cache.evict(key);
         }
     }
@@ -318,7 +393,7 @@ public abstract class BaseCacheableServiceImpl<MAPPER extends BaseMapper<ENTITY>
     protected void buildCache(ENTITY model) {
         Object id = fetchIdFromEntity(model);
         if (id != null) {
-            Object key = generateCacheKey(id);
+            Object key = generateCacheKey((Serializable) id);
             cache.put(key, model);
         }
     }
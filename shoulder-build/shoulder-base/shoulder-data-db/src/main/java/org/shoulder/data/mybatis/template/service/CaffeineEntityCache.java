@@ -0,0 +1,157 @@
+package org.shoulder.data.mybatis.template.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.annotation.Nonnull;
+import org.apache.commons.collections4.CollectionUtils;
+import org.shoulder.core.cache.Cache;
+import org.springframework.cache.support.NullValue;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.lang.NonNull;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * 基于 Caffeine 的本地缓存，有容量上限 / 过期时间，可提前异步刷新（refreshAfterWrite），记录命中、未命中、淘汰次数
+ * <p>
+ * 用于 {@link BaseCacheableServiceImpl} 在没有 Cache bean 时的降级，替代无上限、永不过期的 ConcurrentMapCache；
+ * 批量删除直接使用 Caffeine 的批量接口；缓存空值（NullValue），批量查询时可通过 getMultiWrapper 区分未命中与空值
+ *
+ * @author lym
+ */
+public class CaffeineEntityCache implements Cache {
+
+    private final String name;
+
+    private final LoadingCache<Object, Object> cache;
+
+    /**
+     * @param name  缓存名
+     * @param cache 原生缓存，refreshAfterWrite 需要 LoadingCache，未命中时由 loader 返回 null 表示不加载（通过 get(key, valueLoader) 加载）
+     */
+    public CaffeineEntityCache(String name, LoadingCache<Object, Object> cache) {
+        this.name = name;
+        this.cache = cache;
+    }
+
+    @Nonnull
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Nonnull
+    @Override
+    public LoadingCache<Object, Object> getNativeCache() {
+        return cache;
+    }
+
+    @Override
+    public ValueWrapper get(@Nonnull Object key) {
+        // getIfPresent 同样会触发 refreshAfterWrite
+        Object value = cache.getIfPresent(key);
+        return value == null ? null : new SimpleValueWrapper(fromStoreValue(value));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(@Nonnull Object key, Class<T> type) {
+        Object value = fromStoreValue(cache.getIfPresent(key));
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(@Nonnull Object key, @Nonnull Callable<T> valueLoader) {
+        return (T) fromStoreValue(cache.get(key, k -> {
+            try {
+                return toStoreValue(valueLoader.call());
+            } catch (Exception e) {
+                throw new ValueRetrievalException(k, valueLoader, e);
+            }
+        }));
+    }
+
+    @Override
+    public void put(@Nonnull Object key, Object value) {
+        cache.put(key, toStoreValue(value));
+    }
+
+    @Override
+    public void evict(@Nonnull Object key) {
+        cache.invalidate(key);
+    }
+
+    @Override
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * 逐个 getIfPresent 而不是 getAllPresent：后者不会触发 refreshAfterWrite
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> List<T> getMulti(@NonNull List<? extends Serializable> keys) {
+        if (CollectionUtils.isEmpty(keys)) {
+            return Collections.emptyList();
+        }
+        List<T> result = new ArrayList<>(keys.size());
+        for (Serializable key : keys) {
+            result.add((T) fromStoreValue(cache.getIfPresent(key)));
+        }
+        return result;
+    }
+
+    @Override
+    public List<ValueWrapper> getMultiWrapper(@NonNull List<? extends Serializable> keys) {
+        if (CollectionUtils.isEmpty(keys)) {
+            return Collections.emptyList();
+        }
+        List<ValueWrapper> result = new ArrayList<>(keys.size());
+        for (Serializable key : keys) {
+            Object value = cache.getIfPresent(key);
+            result.add(value == null ? null : new SimpleValueWrapper(fromStoreValue(value)));
+        }
+        return result;
+    }
+
+    @Override
+    public void evictMulti(@NonNull Collection<? extends Serializable> keys) {
+        if (CollectionUtils.isNotEmpty(keys)) {
+            cache.invalidateAll(keys);
+        }
+    }
+
+    /**
+     * 命中 / 未命中 / 淘汰 / 加载耗时等统计，需要构建时开启 {@link Caffeine#recordStats()}
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * 当前缓存条数（近似值）
+     */
+    public long estimatedSize() {
+        return cache.estimatedSize();
+    }
+
+    private static Object toStoreValue(Object value) {
+        return value == null ? NullValue.INSTANCE : value;
+    }
+
+    private static Object fromStoreValue(Object value) {
+        return value == NullValue.INSTANCE ? null : value;
+    }
+
+}
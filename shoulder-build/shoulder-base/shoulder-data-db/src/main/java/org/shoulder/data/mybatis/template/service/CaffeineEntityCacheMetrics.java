@@ -0,0 +1,30 @@
+package org.shoulder.data.mybatis.template.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.context.ApplicationContext;
+
+/**
+ * 将 {@link CaffeineEntityCache} 的命中、未命中、淘汰、加载统计绑定到 Micrometer（cache.gets、cache.evictions 等，tag cache=缓存名）
+ * <p>
+ * micrometer-core 为可选依赖，单独成类，未引入时不会加载
+ *
+ * @author lym
+ */
+final class CaffeineEntityCacheMetrics {
+
+    private CaffeineEntityCacheMetrics() {
+    }
+
+    /**
+     * 存在唯一的 MeterRegistry 时绑定
+     *
+     * @param context 应用上下文
+     * @param cache   本地缓存，需构建时开启 recordStats
+     */
+    static void bindTo(ApplicationContext context, CaffeineEntityCache cache) {
+        context.getBeanProvider(MeterRegistry.class)
+                .ifUnique(registry -> CaffeineCacheMetrics.monitor(registry, cache.getNativeCache(), cache.getName()));
+    }
+
+}
@@ -1,5 +1,6 @@
 package org.shoulder.data.sequence.dao;
 
+import cn.hutool.core.thread.NamedThreadFactory;
 import lombok.Getter;
 import lombok.Setter;
 import org.shoulder.core.exception.CommonErrorCodeEnum;
@@ -10,6 +11,7 @@ import org.shoulder.data.sequence.exceptions.SequenceException;
 import org.shoulder.data.sequence.model.DoubleSequenceRange;
 import org.shoulder.data.sequence.model.SequenceRange;
 import org.shoulder.data.sequence.model.SequenceRangeCache;
+import org.shoulder.data.sequence.monitor.SequenceBufferMetrics;
 import org.shoulder.data.sequence.monitor.SequenceMonitorThreadBuilder;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.InitializingBean;
@@ -26,15 +28,24 @@ import java.util.Date;
 import java.util.List;
 import java.util.StringJoiner;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 import javax.sql.DataSource;
 
 /**
  * 额外增加了 重试、锁、指标记录、双buffer cache
+ * <p>
+ * 分段预取模式（prefetchEnabled=true）：当前段剩余比例低于 prefetchWatermark 时，异步从 DB 预取下一段放入双 buffer，
+ * 当前段用完时直接切换，调用方无需在段边界等待 DB；开启 adaptiveStep 时根据每段的消耗时间自动调整 step，热点序列单次取更大的段
  *
  * @author lym
  */
@@ -76,6 +87,49 @@ public abstract class AbstractCacheAndRetryableSequenceDao implements SequenceDa
     @Setter
     private long cacheExpireSeconds = SequenceRangeCache.DEFAULT_CACHE_EXPIRE_SECONDS;
 
+    /**
+     * 刷新 / 初始化时获取锁的超时时间
+     */
+    @Getter
+    @Setter
+    private long lockTimeoutMillis = 500;
+
+    /**
+     * 是否开启分段预取
+     */
+    @Getter
+    @Setter
+    private boolean prefetchEnabled = false;
+
+    /**
+     * 当前段剩余比例低于该值时异步预取下一段，(0, 1)
+     */
+    @Getter
+    @Setter
+    private double prefetchWatermark = 0.2;
+
+    /**
+     * 分段预取模式下，是否根据消耗速度自动调整 step
+     */
+    @Getter
+    @Setter
+    private boolean adaptiveStep = true;
+
+    /**
+     * 期望的取段间隔（即每段的消耗时间）：两次取段间隔小于该值时 step 翻倍，大于其 2 倍时 step 减半（不小于配置的 step）
+     * 取段间隔稳定在 [segmentExpectedMillis, 2 * segmentExpectedMillis) 时 step 不变
+     */
+    @Getter
+    @Setter
+    private long segmentExpectedMillis = 60 * 1000L;
+
+    /**
+     * 自动调整时 step 最多为配置 step 的多少倍
+     */
+    @Getter
+    @Setter
+    private int maxStepMultiple = 10;
+
     /**
      * cache
      */
@@ -103,21 +157,32 @@ public abstract class AbstractCacheAndRetryableSequenceDao implements SequenceDa
 
     private final AtomicBoolean sequenceMonitorInitialized = new AtomicBoolean(false);
 
+    /**
+     * key: sequenceSourceId
+     * value: 分段分配状态与统计
+     */
+    private final ConcurrentHashMap<String, SegmentState> segmentStateMap = new ConcurrentHashMap<>();
+
+    /**
+     * 预取线程，仅分段预取模式下创建
+     */
+    private ExecutorService prefetchExecutor;
+
 
     /**
      * 创建序列
      */
-    abstract void insertSequenceRange(SequenceRange sequenceRange);
+    protected abstract void insertSequenceRange(SequenceRange sequenceRange);
 
     /**
      * 更新序列
      */
-    abstract int updateSequenceRange(SequenceRange remoteSequenceRange);
+    protected abstract int updateSequenceRange(SequenceRange remoteSequenceRange);
 
     /**
      * 查找序列
      */
-    abstract SequenceRange selectSequenceRange(SequenceRange localSequenceRange);
+    protected abstract SequenceRange selectSequenceRange(SequenceRange localSequenceRange);
 
     @Override
     public void afterPropertiesSet() throws Exception {
@@ -130,6 +195,13 @@ public abstract class AbstractCacheAndRetryableSequenceDao implements SequenceDa
     @Override
     public void initialize() throws Exception {
         this.sequenceRangeCache = new SequenceRangeCache(cacheSize, cacheExpireSeconds);
+        if (prefetchEnabled && prefetchExecutor == null) {
+            AssertUtils.isTrue(prefetchWatermark > 0 && prefetchWatermark < 1, CommonErrorCodeEnum.ILLEGAL_PARAM,
+                "prefetchWatermark must in (0, 1)");
+            // 同一序列同一时刻最多一个预取任务，单线程即可
+            prefetchExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(1024),
+                new NamedThreadFactory("shoulder-sequence-prefetch", true));
+        }
         if (sequenceMonitorInitialized.compareAndSet(false, true)) {
             SequenceMonitorThreadBuilder.build(sequenceRangeCache, sequenceSemaphoreMap, this).start();
         }
@@ -161,25 +233,87 @@ public abstract class AbstractCacheAndRetryableSequenceDao implements SequenceDa
             }
         } else {
             // Keeping using current
+            if (prefetchEnabled) {
+                tryPrefetch(sequenceSourceId, latestSequenceRange, currentSequenceRange, semaphore);
+            }
             return currentSequenceRange;
         }
         throw new SequenceException("Sequence Error: Fail to use or create sequence: " + sequenceName);
     }
 
+    /**
+     * 当前段剩余低于水位且下一段未就绪时，异步预取下一段
+     */
+    private void tryPrefetch(String sequenceSourceId, DoubleSequenceRange latestSequenceRange,
+                             SequenceRange currentSequenceRange, Semaphore semaphore) {
+        long remaining = currentSequenceRange.getValue() + currentSequenceRange.getStep() - currentSequenceRange.currentValue();
+        if (remaining > currentSequenceRange.getStep() * prefetchWatermark || isReady(latestSequenceRange.getNext())) {
+            return;
+        }
+        SegmentState state = getSegmentState(sequenceSourceId);
+        if (!state.prefetching.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            prefetchExecutor.execute(() -> {
+                try {
+                    prefetch(sequenceSourceId, semaphore);
+                } catch (Exception e) {
+                    monitorLogger.error("Fail to prefetch sequence(" + sequenceSourceId + ")", e);
+                } finally {
+                    state.prefetching.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            state.prefetching.set(false);
+            monitorLogger.warn("prefetch sequence(" + sequenceSourceId + ") rejected.");
+        }
+    }
+
+    private void prefetch(String sequenceSourceId, Semaphore semaphore) throws InterruptedException {
+        // 持有锁期间到达段边界的调用方会等待本次预取完成，而不是重复去 DB 取
+        if (!semaphore.tryAcquire(lockTimeoutMillis, TimeUnit.MILLISECONDS)) {
+            return;
+        }
+        try {
+            DoubleSequenceRange latestSequenceRange = sequenceRangeCache.get(sequenceSourceId);
+            if (latestSequenceRange == null || latestSequenceRange.getCurrent() == null || isReady(latestSequenceRange.getNext())) {
+                return;
+            }
+            SequenceRange nextSequenceRange = loadNextSequenceFromDbViaNewTransaction(sequenceSourceId, latestSequenceRange.getCurrent());
+            AssertUtils.notNull(nextSequenceRange, CommonErrorCodeEnum.CODING);
+            latestSequenceRange.setNext(nextSequenceRange);
+            sequenceRangeCache.put(sequenceSourceId, latestSequenceRange);
+            getSegmentState(sequenceSourceId).prefetchCount.increment();
+        } finally {
+            semaphore.release();
+        }
+    }
+
+    private static boolean isReady(SequenceRange sequenceRange) {
+        return sequenceRange != null && !sequenceRange.needRefresh();
+    }
+
     /**
      * 当前内存缓存用完了，去数据库取一段放内存缓存
      */
     private SequenceRange refreshNextSequenceRange(DoubleSequenceRange latestSequenceRange,
                                                    String sequenceSourceId,
                                                    Semaphore semaphore) throws Exception {
-        try {
-            if (!semaphore.tryAcquire(500, TimeUnit.MILLISECONDS)) {
+        SegmentState state = getSegmentState(sequenceSourceId);
+        boolean waited = !semaphore.tryAcquire();
+        if (waited) {
+            // 其他线程正在刷新 / 预取，需要等待
+            state.waitCount.increment();
+            if (!semaphore.tryAcquire(lockTimeoutMillis, TimeUnit.MILLISECONDS)) {
                 String errorMsg = "Sequence Error: Fail to refreshNextSequenceRange(try lock TimeOut): " + latestSequenceRange;
                 monitorLogger.error(errorMsg);
 
-                // 先返回当前的，可能已经刷新好了
+                // 先返回当前的，可能已经刷新好了；未获取到锁，不能 release
                 return latestSequenceRange.getCurrent();
             }
+        }
+        try {
             latestSequenceRange = sequenceRangeCache.get(sequenceSourceId);
             if (latestSequenceRange != null && latestSequenceRange.getCurrent() != null && !latestSequenceRange.getCurrent().needRefresh()) {
                 // 当前缓存未耗尽（其他线程加载好了），仍然可用
@@ -192,6 +326,10 @@ public abstract class AbstractCacheAndRetryableSequenceDao implements SequenceDa
 
             if (nextSequenceRange == null || nextSequenceRange.needRefresh()) {
                 // 双 buffer 另一个为空，或者需要刷新，这里提前刷新
+                if (!waited) {
+                    // 调用线程同步等待 DB
+                    state.waitCount.increment();
+                }
                 SequenceRange newSequenceRange = loadNextSequenceFromDbViaNewTransaction(sequenceSourceId, currentSequenceRange);
                 latestSequenceRange.setAndSwitchNext(newSequenceRange);
 
@@ -219,12 +357,12 @@ public abstract class AbstractCacheAndRetryableSequenceDao implements SequenceDa
                                                               DoubleSequenceRange latestSequenceRange,
                                                               String sequenceSourceId,
                                                               Semaphore semaphore) throws Exception {
+        if (!semaphore.tryAcquire(lockTimeoutMillis, TimeUnit.MILLISECONDS)) {
+            String errorMsg = "Sequence Error: Fail to initializeSequenceRange(try lock TimeOut): " + sequenceName;
+            monitorLogger.error(errorMsg);
+            throw new SequenceException(errorMsg);
+        }
         try {
-            if (!semaphore.tryAcquire(500, TimeUnit.MILLISECONDS)) {
-                String errorMsg = "Sequence Error: Fail to initializeSequenceRange(try lock TimeOut): " + sequenceName;
-                monitorLogger.error(errorMsg);
-                throw new SequenceException(errorMsg);
-            }
             latestSequenceRange = sequenceRangeCache.get(sequenceSourceId);
             boolean alreadyInit = latestSequenceRange != null && latestSequenceRange.getCurrent() != null;
             if (alreadyInit) {
@@ -284,7 +422,8 @@ public abstract class AbstractCacheAndRetryableSequenceDao implements SequenceDa
     @Override
     public SequenceRange loadNextSequenceFromDbViaNewTransaction(final String sequenceSourceId,
                                                                  final SequenceRange localSequenceRange) {
-        return (SequenceRange) transactionTemplate.execute((TransactionCallback) status -> {
+        long start = System.nanoTime();
+        SequenceRange sequenceRange = (SequenceRange) transactionTemplate.execute((TransactionCallback) status -> {
             try {
                 return doLoadNextSequenceFromDb(sequenceSourceId, localSequenceRange);
             } catch (Exception e) {
@@ -293,6 +432,8 @@ public abstract class AbstractCacheAndRetryableSequenceDao implements SequenceDa
                 // clean context
             }
         });
+        getSegmentState(sequenceSourceId).onRefill(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return sequenceRange;
     }
 
     /**
@@ -303,6 +444,8 @@ public abstract class AbstractCacheAndRetryableSequenceDao implements SequenceDa
                                                      SequenceRange localSequenceRange)
         throws SequenceException {
         SequenceRange remoteSequenceRange;
+        // 每次取段只计算一次，乐观锁冲突重试时使用同一倍数，避免热点序列的 step 被重复放大
+        int stepMultiple = prefetchEnabled && adaptiveStep ? computeAdaptiveStepMultiple(sequenceSourceId) : 1;
         try {
             // setSqlRouterInfo(localSequenceRange);
             for (int i = 1; i <= maxRetryTimes; i++) {
@@ -310,6 +453,9 @@ public abstract class AbstractCacheAndRetryableSequenceDao implements SequenceDa
                 remoteSequenceRange = selectSequenceRange(localSequenceRange);
 
                 // 更新下一段值（当前value + step）
+                if (stepMultiple > 1) {
+                    remoteSequenceRange.setStep(remoteSequenceRange.getStep() * stepMultiple);
+                }
                 long stepValue = remoteSequenceRange.getStep();
                 adjustValue(null, remoteSequenceRange);
                 // 在数据库执行更新
@@ -326,6 +472,9 @@ public abstract class AbstractCacheAndRetryableSequenceDao implements SequenceDa
                 remoteSequenceRange.cloneContextValue(localSequenceRange);
                 remoteSequenceRange.setSequenceSourceId(sequenceSourceId);
                 remoteSequenceRange.setFetchDate(new Date());
+                if (prefetchEnabled && adaptiveStep) {
+                    getSegmentState(sequenceSourceId).currentStep = stepValue;
+                }
 
                 printUpdateLogWhenUpdateDb(true, remoteSequenceRange, stepValue);
                 return remoteSequenceRange;
@@ -380,6 +529,31 @@ public abstract class AbstractCacheAndRetryableSequenceDao implements SequenceDa
         return stepValue;
     }
 
+    /**
+     * 根据两次取段的间隔调整 step 倍数：间隔过短翻倍，过长减半，范围 [1, maxStepMultiple]
+     * 每次取段调用一次，本次使用的 step = DB 中配置的 step * 倍数
+     *
+     * @param sequenceSourceId 序列
+     * @return 本次使用的 step 倍数
+     */
+    protected int computeAdaptiveStepMultiple(String sequenceSourceId) {
+        SegmentState state = getSegmentState(sequenceSourceId);
+        long now = System.currentTimeMillis();
+        long lastFetchTime = state.lastFetchTime;
+        int multiple = Math.max(state.stepMultiple, 1);
+        if (lastFetchTime > 0) {
+            long duration = now - lastFetchTime;
+            if (duration < segmentExpectedMillis) {
+                multiple = Math.min(multiple * 2, maxStepMultiple);
+            } else if (duration >= segmentExpectedMillis * 2) {
+                multiple = Math.max(multiple / 2, 1);
+            }
+        }
+        state.lastFetchTime = now;
+        state.stepMultiple = multiple;
+        return multiple;
+    }
+
     protected long randomUpStep(long step) {
         // 每次获取时候各实例布长一定随机性，避免同时 sequence 用尽争抢db锁
         return Math.round(step * (1F + ThreadLocalRandom.current().nextFloat(0.3f)));
@@ -436,6 +610,57 @@ public abstract class AbstractCacheAndRetryableSequenceDao implements SequenceDa
         throw new SequenceException("Failed to init sequenceInDb(retry " + this.maxRetryTimes + " times): " + sequenceRange);
     }
 
+    private SegmentState getSegmentState(String sequenceSourceId) {
+        return segmentStateMap.computeIfAbsent(sequenceSourceId, id -> new SegmentState());
+    }
+
+    /**
+     * 获取序列缓冲状态及分段分配统计
+     *
+     * @param sequenceName 序列名
+     * @return 指标，序列未使用过返回 null
+     */
+    public SequenceBufferMetrics getSequenceBufferMetrics(String sequenceName) {
+        String sequenceSourceId = computeSequenceLockId(sequenceName);
+        DoubleSequenceRange doubleSequenceRange = sequenceRangeCache.get(sequenceSourceId);
+        SegmentState state = segmentStateMap.get(sequenceSourceId);
+        if (doubleSequenceRange == null && state == null) {
+            return null;
+        }
+        SequenceBufferMetrics metrics = new SequenceBufferMetrics();
+        metrics.setSequenceName(sequenceName);
+        if (doubleSequenceRange != null) {
+            int positionId = doubleSequenceRange.getIndex();
+            SequenceRange current = doubleSequenceRange.getCurrent();
+            SequenceRange next = doubleSequenceRange.getNext();
+            SequenceRange range0 = positionId == 0 ? current : next;
+            SequenceRange range1 = positionId == 0 ? next : current;
+            if (range0 != null) {
+                metrics.setValue0(range0.currentValue());
+                metrics.setStep0((int) range0.getStep());
+                metrics.setMax0(range0.getValue() + range0.getStep());
+            }
+            if (range1 != null) {
+                metrics.setValue1(range1.currentValue());
+                metrics.setStep1((int) range1.getStep());
+                metrics.setMax1(range1.getValue() + range1.getStep());
+            }
+            metrics.setPositionId(positionId);
+            metrics.setNextReady(isReady(next));
+            metrics.setInitialized(current != null);
+        }
+        if (state != null) {
+            metrics.setAdaptiveStep(state.currentStep);
+            metrics.setRefillCount(state.refillCount.sum());
+            metrics.setRefillTotalMillis(state.refillTotalMillis.sum());
+            metrics.setLastRefillMillis(state.lastRefillMillis);
+            metrics.setMaxRefillMillis(state.maxRefillMillis.get());
+            metrics.setPrefetchCount(state.prefetchCount.sum());
+            metrics.setWaitCount(state.waitCount.sum());
+        }
+        return metrics;
+    }
+
     private String computeSequenceLockId(String sequenceName) {
         // todo P2 loadtest mirror
         // return sequenceName + "_" + "01" + "_" + "01";
@@ -507,6 +732,62 @@ public abstract class AbstractCacheAndRetryableSequenceDao implements SequenceDa
         return StringUtils.replace(templateSql, SequenceSqlDialect.PLACEHOLDER_DYNAMIC_COLUMN_VALUES, strBuilder.toString());
     }
 
+    /**
+     * 单个序列的分段分配状态与统计
+     */
+    protected static class SegmentState {
+
+        /**
+         * 是否有预取任务在执行
+         */
+        final AtomicBoolean prefetching = new AtomicBoolean(false);
+
+        /**
+         * 自动调整后的 step，0 表示未调整
+         */
+        volatile long currentStep;
+
+        /**
+         * 自动调整的 step 倍数，0 表示未调整
+         */
+        volatile int stepMultiple;
+
+        /**
+         * 上次从 DB 取段的时间
+         */
+        volatile long lastFetchTime;
+
+        /**
+         * 从 DB 取段次数与耗时
+         */
+        final LongAdder refillCount = new LongAdder();
+
+        final LongAdder refillTotalMillis = new LongAdder();
+
+        volatile long lastRefillMillis;
+
+        final AtomicLong maxRefillMillis = new AtomicLong();
+
+        /**
+         * 预取成功次数
+         */
+        final LongAdder prefetchCount = new LongAdder();
+
+        /**
+         * 调用方在段边界等待（锁 / DB）的次数
+         */
+        final LongAdder waitCount = new LongAdder();
+
+        void onRefill(long costMillis) {
+            refillCount.increment();
+            refillTotalMillis.add(costMillis);
+            lastRefillMillis = costMillis;
+            if (costMillis > maxRefillMillis.get()) {
+                maxRefillMillis.accumulateAndGet(costMillis, Math::max);
+            }
+        }
+    }
+
     public void setSequenceShardingColumnNames(String sequenceShardingColumnNameStr) {
         if (StringUtils.isEmpty(sequenceShardingColumnNameStr)) {
             return;
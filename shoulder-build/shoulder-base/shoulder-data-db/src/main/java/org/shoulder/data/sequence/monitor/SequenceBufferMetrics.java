@@ -20,4 +20,19 @@ public class SequenceBufferMetrics {
     // 是否已从 DB 获取了一批序列
     private boolean initialized;
 
+    // 自动调整后的 step，0 表示未调整
+    private long adaptiveStep;
+    // 从 DB 取段次数
+    private long refillCount;
+    // 从 DB 取段总耗时
+    private long refillTotalMillis;
+    // 最近一次从 DB 取段耗时
+    private long lastRefillMillis;
+    // 从 DB 取段最大耗时
+    private long maxRefillMillis;
+    // 异步预取成功次数
+    private long prefetchCount;
+    // 调用方在段边界等待（锁 / DB）的次数
+    private long waitCount;
+
 }
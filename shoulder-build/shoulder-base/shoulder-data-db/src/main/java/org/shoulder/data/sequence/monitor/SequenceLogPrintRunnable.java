@@ -1,6 +1,7 @@
 package org.shoulder.data.sequence.monitor;
 
 import org.shoulder.data.log.ShoulderDBLoggers;
+import org.shoulder.data.sequence.dao.AbstractCacheAndRetryableSequenceDao;
 import org.shoulder.data.sequence.model.DoubleSequenceRange;
 import org.shoulder.data.sequence.model.SequenceRange;
 import org.slf4j.Logger;
@@ -56,6 +57,15 @@ public class SequenceLogPrintRunnable implements Runnable {
                                 current.getLatestValue(), current.getMin(), current.getMax(),
                                 current.getStep(), entry.getValue().getIndex());
                     }
+                    if (LOGGER.isInfoEnabled() && builder.sequenceDao instanceof AbstractCacheAndRetryableSequenceDao dao) {
+                        SequenceBufferMetrics metrics = dao.getSequenceBufferMetrics(sequenceId);
+                        if (metrics != null) {
+                            LOGGER.info("name:{},nextReady:{},adaptiveStep:{},refillCount:{},lastRefillMs:{},maxRefillMs:{},prefetchCount:{},waitCount:{}",
+                                sequenceId, metrics.isNextReady(), metrics.getAdaptiveStep(), metrics.getRefillCount(),
+                                metrics.getLastRefillMillis(), metrics.getMaxRefillMillis(), metrics.getPrefetchCount(),
+                                metrics.getWaitCount());
+                        }
+                    }
                 }
             } catch (Throwable e) {
                 LOGGER.error("Fail to log sequence status.", e);
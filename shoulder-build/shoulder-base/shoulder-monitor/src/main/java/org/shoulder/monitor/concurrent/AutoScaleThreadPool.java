@@ -1,7 +1,10 @@
 package org.shoulder.monitor.concurrent;
 
+import org.shoulder.core.concurrent.BaseDecorateableBlockingQueue;
+import org.shoulder.core.concurrent.ResizableCapacityBlockingQueue;
 import org.shoulder.core.log.Logger;
 import org.shoulder.core.log.ShoulderLoggers;
+import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 
 import java.time.Duration;
@@ -12,6 +15,7 @@ import java.util.concurrent.RejectedExecutionHandler;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 可自动扩容、缩容核心线程数的线程池，（可更合理的利用线程资源、应对突发事件处理）适合平时节能模式处理，突然紧急情况下提前加速处理的场景
@@ -23,7 +27,11 @@ import java.util.concurrent.TimeUnit;
  * - 执行前，若队列中任务数大于 75% 队列容量 且 threadSize 小于 maxSize，将线程数加一，默认冷却时间 5s
  * - 执行后，若队列中任务数小于25% 队列容量 且 threadSize 小于 originCoreSize，将 core 线程数减少一，默认冷却时间 5s
  * <p>
- * 动态设置参数实现： 对接配置中心
+ * 预测模式（{@link ScaleRule#predictive}）：不再等队列堆积，而是按到达速率与执行耗时（利特尔法则）提前计算核心线程数，
+ * 见 {@link PredictiveScaleController}；在提交任务、任务执行完毕时按 evaluateInterval 周期计算，空闲时不计算
+ * <p>
+ * 动态设置参数实现： {@link #resize} 运行时修改线程数与队列容量（队列需为 {@link ResizableCapacityBlockingQueue}），
+ * 可通过 actuator 端点 threadpools 调用，或对接配置中心
  * 监控、告警实现： 对接 prometheus，过载告警
  * 操作记录与审计： 对接日志中心，变更通知
  * https://tech.meituan.com/2020/04/02/java-pooling-pratice-in-meituan.html
@@ -37,20 +45,25 @@ public class AutoScaleThreadPool extends ThreadPoolExecutor {
      */
     private static final Logger log = ShoulderLoggers.SHOULDER_THREADS;
 
+    /**
+     * 扩缩容规则
+     */
+    private final ScaleRule scaleRule;
+
     /**
      * 是否支持扩容缩容，corePoolSize < maximumPoolSize
      */
-    private final boolean supportScale;
+    private volatile boolean supportScale;
 
     /**
      * 扩容触发条件：队列中的任务数
      */
-    private final int expansionOnTaskCount;
+    private volatile int expansionOnTaskCount;
 
     /**
      * 缩容触发条件：队列中的任务数
      */
-    private final int shrinkageOnTaskCount;
+    private volatile int shrinkageOnTaskCount;
 
     /**
      * 最小扩容时间间隔，需要 > 0
@@ -65,12 +78,38 @@ public class AutoScaleThreadPool extends ThreadPoolExecutor {
     /**
      * 每次扩容增加的线程数
      */
-    private final int expansionThreadOneTime;
+    private volatile int expansionThreadOneTime;
 
     /**
      * 每次缩容增加的线程数
      */
-    private final int shrinkageThreadOneTime;
+    private volatile int shrinkageThreadOneTime;
+
+    /**
+     * 预测模式下核心线程数的下限，即创建 / resize 时指定的核心线程数
+     */
+    private volatile int minCorePoolSize;
+
+    /**
+     * 预测模式控制器，非预测模式为 null
+     */
+    @Nullable
+    private final PredictiveScaleController predictiveController;
+
+    /**
+     * 预测模式下计算间隔（纳秒）
+     */
+    private final long evaluateIntervalNanos;
+
+    /**
+     * 预测模式下次计算时间点（System.nanoTime）
+     */
+    private final AtomicLong nextEvaluateNanos = new AtomicLong(System.nanoTime());
+
+    /**
+     * 当前任务开始执行时间，用于统计执行耗时
+     */
+    private final ThreadLocal<long[]> workerStartNanos = ThreadLocal.withInitial(() -> new long[1]);
 
     /**
      * 下次扩容最早时间点
@@ -150,19 +189,141 @@ public class AutoScaleThreadPool extends ThreadPoolExecutor {
                                BlockingQueue<Runnable> workQueue, ThreadFactory threadFactory,
                                RejectedExecutionHandler handler, ScaleRule scaleRule) {
         super(corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue, threadFactory, handler);
-        scaleRule.adjust(corePoolSize, maximumPoolSize, workQueue.remainingCapacity());
+        this.scaleRule = scaleRule;
+        this.expansionDuration = scaleRule.getExpansionDuration();
+        this.shrinkageDuration = scaleRule.getShrinkageDuration();
+        this.minCorePoolSize = corePoolSize;
+        applyScaleRule(corePoolSize, maximumPoolSize, workQueue.remainingCapacity());
+        if (scaleRule.isPredictive()) {
+            this.predictiveController = new PredictiveScaleController(scaleRule.getTargetUtilization(),
+                scaleRule.getTargetQueueDelay(), shrinkageDuration, System.nanoTime());
+            this.evaluateIntervalNanos = scaleRule.getEvaluateInterval().toNanos();
+        } else {
+            this.predictiveController = null;
+            this.evaluateIntervalNanos = 0;
+        }
+    }
+
+    private void applyScaleRule(int corePoolSize, int maximumPoolSize, int queueCapacity) {
+        scaleRule.adjust(corePoolSize, maximumPoolSize, queueCapacity);
         this.supportScale = scaleRule.isSupportScale();
         this.expansionOnTaskCount = scaleRule.getExpansionOnTaskCount();
-        this.expansionDuration = scaleRule.getExpansionDuration();
-        this.expansionThreadOneTime = scaleRule.getExpansionThreadOneTime();
         this.shrinkageOnTaskCount = scaleRule.getShrinkageOnTaskCount();
-        this.shrinkageDuration = scaleRule.getShrinkageDuration();
-        this.shrinkageThreadOneTime = scaleRule.getShrinkageThreadOneTime();
+        // 每次按规则中配置的步长重新计算，不回写规则，缩小后再扩大仍能恢复
+        int difference = maximumPoolSize - corePoolSize;
+        this.expansionThreadOneTime = Math.min(scaleRule.getExpansionThreadOneTime(), difference);
+        this.shrinkageThreadOneTime = Math.min(scaleRule.getShrinkageThreadOneTime(), difference);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (predictiveController != null) {
+            predictiveController.recordArrival();
+            evaluateIfNecessary();
+        }
+        super.execute(command);
+    }
+
+    /**
+     * 运行时调整线程数与队列容量，无需重启
+     *
+     * @param corePoolSize    核心线程数，预测模式下作为核心线程数下限
+     * @param maximumPoolSize 最大线程数
+     * @param queueCapacity   队列容量，null 表示不修改；需要队列为 {@link ResizableCapacityBlockingQueue}
+     */
+    public synchronized void resize(int corePoolSize, int maximumPoolSize, @Nullable Integer queueCapacity) {
+        Assert.isTrue(corePoolSize >= 0 && corePoolSize <= maximumPoolSize && maximumPoolSize > 0,
+            "illegal pool size, core=" + corePoolSize + ", max=" + maximumPoolSize);
+        if (queueCapacity != null) {
+            ResizableCapacityBlockingQueue<Runnable> resizableQueue = getResizableQueue();
+            Assert.notNull(resizableQueue, "workQueue must be ResizableCapacityBlockingQueue when resize queueCapacity");
+            resizableQueue.setCapacity(queueCapacity);
+        }
+        // 保证任意时刻 core <= max
+        if (maximumPoolSize >= getCorePoolSize()) {
+            setMaximumPoolSize(maximumPoolSize);
+            setCorePoolSize(corePoolSize);
+        } else {
+            setCorePoolSize(corePoolSize);
+            setMaximumPoolSize(maximumPoolSize);
+        }
+        this.minCorePoolSize = corePoolSize;
+        applyScaleRule(corePoolSize, maximumPoolSize, getQueueCapacity());
+        log.info("threadPool resized: core={}, max={}, queueCapacity={}", corePoolSize, maximumPoolSize, getQueueCapacity());
+    }
+
+    /**
+     * @return 队列容量，无界队列为 Integer.MAX_VALUE
+     */
+    public int getQueueCapacity() {
+        ResizableCapacityBlockingQueue<Runnable> resizableQueue = getResizableQueue();
+        if (resizableQueue != null) {
+            return resizableQueue.getCapacity();
+        }
+        BlockingQueue<Runnable> queue = getQueue();
+        return (int) Math.min(Integer.MAX_VALUE, (long) queue.size() + queue.remainingCapacity());
+    }
+
+    /**
+     * @return 当前每次扩容增加的线程数
+     */
+    public int getExpansionThreadOneTime() {
+        return expansionThreadOneTime;
+    }
+
+    /**
+     * @return 当前每次缩容减少的线程数
+     */
+    public int getShrinkageThreadOneTime() {
+        return shrinkageThreadOneTime;
+    }
+
+    /**
+     * @return 预测模式控制器，非预测模式为 null
+     */
+    @Nullable
+    public PredictiveScaleController getPredictiveController() {
+        return predictiveController;
+    }
+
+    @Nullable
+    @SuppressWarnings("unchecked")
+    private ResizableCapacityBlockingQueue<Runnable> getResizableQueue() {
+        BlockingQueue<Runnable> queue = getQueue();
+        while (!(queue instanceof ResizableCapacityBlockingQueue) && queue instanceof BaseDecorateableBlockingQueue) {
+            queue = ((BaseDecorateableBlockingQueue<Runnable>) queue).getQueue();
+        }
+        return queue instanceof ResizableCapacityBlockingQueue ? (ResizableCapacityBlockingQueue<Runnable>) queue : null;
+    }
+
+    /**
+     * 预测模式：到达计算周期时由一个线程计算并调整核心线程数
+     */
+    private void evaluateIfNecessary() {
+        long now = System.nanoTime();
+        long next = nextEvaluateNanos.get();
+        if (now - next < 0 || !nextEvaluateNanos.compareAndSet(next, now + evaluateIntervalNanos)) {
+            return;
+        }
+        synchronized (this) {
+            int currentCoreSize = getCorePoolSize();
+            int desired = predictiveController.evaluate(now, getQueue().size(), currentCoreSize,
+                minCorePoolSize, getMaximumPoolSize());
+            if (desired != currentCoreSize) {
+                setCorePoolSize(desired);
+                log.debug("threadPool scale core {} -> {}, arrivalRate={}/s, serviceTime={}ms", currentCoreSize, desired,
+                    (long) predictiveController.getArrivalRatePerSecond(), predictiveController.getServiceMillis());
+            }
+        }
     }
 
     @Override
     protected void beforeExecute(Thread t, Runnable r) {
         super.beforeExecute(t, r);
+        if (predictiveController != null) {
+            workerStartNanos.get()[0] = System.nanoTime();
+            return;
+        }
 
         final Instant oldInstant = expansionInstant;
         final Instant now;
@@ -189,6 +350,11 @@ public class AutoScaleThreadPool extends ThreadPoolExecutor {
     @Override
     protected void afterExecute(Runnable r, Throwable t) {
         super.afterExecute(r, t);
+        if (predictiveController != null) {
+            predictiveController.recordService(System.nanoTime() - workerStartNanos.get()[0]);
+            evaluateIfNecessary();
+            return;
+        }
 
         final Instant oldInstant = shrinkageInstant;
         final Instant now;
@@ -253,6 +419,28 @@ public class AutoScaleThreadPool extends ThreadPoolExecutor {
          */
         private int shrinkageThreadOneTime = 1;
 
+        // ============= 预测模式，开启后不再使用上面的负载因子、每次扩缩容线程数 ================
+
+        /**
+         * 是否开启预测模式
+         */
+        private boolean predictive = false;
+
+        /**
+         * 预测模式：目标线程利用率 (0, 1]，越小预留的线程越多
+         */
+        private float targetUtilization = 0.8f;
+
+        /**
+         * 预测模式：期望排队时长，用于计算消化已堆积任务所需的线程数
+         */
+        private Duration targetQueueDelay = Duration.ofMillis(100);
+
+        /**
+         * 预测模式：计算间隔，需要 > 0
+         */
+        private Duration evaluateInterval = Duration.ofMillis(100);
+
         // ----
 
         /**
@@ -329,6 +517,48 @@ public class AutoScaleThreadPool extends ThreadPoolExecutor {
             return this;
         }
 
+        public ScaleRule predictive(boolean predictive) {
+            this.predictive = predictive;
+            return this;
+        }
+
+        public ScaleRule targetUtilization(float targetUtilization) {
+            Assert.isTrue(targetUtilization > 0 && targetUtilization <= 1,
+                "targetUtilization must in range(0,1]");
+            this.targetUtilization = targetUtilization;
+            return this;
+        }
+
+        public ScaleRule targetQueueDelay(Duration targetQueueDelay) {
+            Assert.isTrue(!targetQueueDelay.isZero() && !targetQueueDelay.isNegative(),
+                "targetQueueDelay must > 0");
+            this.targetQueueDelay = targetQueueDelay;
+            return this;
+        }
+
+        public ScaleRule evaluateInterval(Duration evaluateInterval) {
+            Assert.isTrue(!evaluateInterval.isZero() && !evaluateInterval.isNegative(),
+                "evaluateInterval must > 0");
+            this.evaluateInterval = evaluateInterval;
+            return this;
+        }
+
+        public boolean isPredictive() {
+            return predictive;
+        }
+
+        public float getTargetUtilization() {
+            return targetUtilization;
+        }
+
+        public Duration getTargetQueueDelay() {
+            return targetQueueDelay;
+        }
+
+        public Duration getEvaluateInterval() {
+            return evaluateInterval;
+        }
+
         public Duration getExpansionDuration() {
             return expansionDuration;
         }
@@ -362,7 +592,7 @@ public class AutoScaleThreadPool extends ThreadPoolExecutor {
         }
 
         /**
-         * 根据线程池参数调整
+         * 根据线程池参数计算扩缩容触发条件，不修改配置的每次扩缩容线程数
          *
          * @param coreSize core
          * @param maxSize  max
@@ -370,9 +600,6 @@ public class AutoScaleThreadPool extends ThreadPoolExecutor {
          */
         public void adjust(int coreSize, int maxSize, int queueNum) {
             check();
-            int difference = maxSize - coreSize;
-            expansionThreadOneTime = Math.min(expansionThreadOneTime, difference);
-            shrinkageThreadOneTime = Math.min(shrinkageThreadOneTime, difference);
             expansionOnTaskCount = (int) (queueNum * expansionLoadFactor);
             shrinkageOnTaskCount = (int) (queueNum * shrinkageLoadFactor);
             supportScale = coreSize < maxSize && expansionOnTaskCount > shrinkageOnTaskCount;
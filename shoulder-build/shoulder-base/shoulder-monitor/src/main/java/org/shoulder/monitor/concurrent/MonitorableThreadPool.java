@@ -1,6 +1,7 @@
 package org.shoulder.monitor.concurrent;
 
 import jakarta.annotation.Nonnull;
+import org.shoulder.core.concurrent.FastPriorityBlockingQueue;
 import org.shoulder.core.concurrent.enhance.EnhancedRunnable;
 import org.shoulder.core.log.Logger;
 import org.shoulder.core.log.ShoulderLoggers;
@@ -15,6 +16,8 @@ import java.util.concurrent.TimeUnit;
 
 /**
  * 带指标可监控的线程池，推荐需要稳定执行、重要的业务使用，以更好的掌握系统运行状态
+ * <p>
+ * 低开销：线程池状态（活跃线程数、任务数等）由指标采集时读取，执行任务前后只记录耗时（按任务名缓存 Timer），不获取线程池的 mainLock
  *
  * @author lym
  * @see MonitorableRunnable 任务（Runnable）可以有标签（任务名/类名）
@@ -33,9 +36,9 @@ public class MonitorableThreadPool extends ThreadPoolExecutor {
     private final String poolName;
 
     /**
-     * 执行计时器
+     * 执行计时器，每个工作线程一个，避免装箱与 remove
      */
-    private ThreadLocal<Long> workerStartTimeStamp = new ThreadLocal<>();
+    private final ThreadLocal<long[]> workerStartNanos = ThreadLocal.withInitial(() -> new long[1]);
 
     /**
      * 当前参数，供监控访问，而非每次都访问线程池的属性
@@ -111,15 +114,18 @@ public class MonitorableThreadPool extends ThreadPoolExecutor {
         // 初始化指标
         this.poolName = poolName;
         initMetrics();
+        if (workQueue instanceof FastPriorityBlockingQueue<?> priorityQueue) {
+            // 优先级队列额外统计各优先级的使用情况
+            metrics.registerPriorityQueueMetrics(priorityQueue);
+        }
         setRejectedExecutionHandler(new MonitorableRejectHandler(handler, metrics));
     }
 
     private void initMetrics() {
-        metrics = new ThreadPoolMetrics(poolName);
+        // 活跃线程数、任务数等由指标采集时读取线程池
+        metrics = new ThreadPoolMetrics(poolName, this);
         this.metrics.corePoolSize().set(getCorePoolSize());
-        this.metrics.activeCount().set(getActiveCount());
         this.metrics.maximumPoolSize().set(getMaximumPoolSize());
-        this.metrics.largestPoolSize().set(0);
         this.metrics.queueCapacity().set(getQueue().remainingCapacity());
         //this.getKeepAliveTime(TimeUnit.MILLISECONDS)
 
@@ -137,49 +143,28 @@ public class MonitorableThreadPool extends ThreadPoolExecutor {
     @Override
     protected void beforeExecute(Thread t, Runnable r) {
         super.beforeExecute(t, r);
-
-        //metrics.corePoolSize().set(getCorePoolSize());
-        //metrics.maximumPoolSize().set(getMaximumPoolSize());
-
-        metrics.activeCount().set(getActiveCount());
-        metrics.poolSize().set(getPoolSize());
-        metrics.largestPoolSize().set(getLargestPoolSize());
-
-        metrics.queueSize().set(getQueue().size());
-
-        workerStartTimeStamp.set(System.currentTimeMillis());
-
+        workerStartNanos.get()[0] = System.nanoTime();
     }
 
     @Override
     protected void afterExecute(Runnable r, Throwable t) {
         // 执行耗时
-        long finishStamp = System.currentTimeMillis();
-        long consuming = finishStamp - workerStartTimeStamp.get();
-        workerStartTimeStamp.remove();
-        // 默认使用 ms 记录执行时间
-        this.metrics.taskExecuteTime(r).record(consuming, TimeUnit.MILLISECONDS);
+        long consuming = System.nanoTime() - workerStartNanos.get()[0];
+        MonitorableRunnable monitorableRunnable = EnhancedRunnable.asOptional(r, MonitorableRunnable.class).orElse(null);
+        String taskName = monitorableRunnable == null ? null : monitorableRunnable.getTaskName();
+        this.metrics.taskExecuteTime(taskName).record(consuming, TimeUnit.NANOSECONDS);
 
         // 队列等待耗时 MonitorableRunnable 才会记录
-        EnhancedRunnable.asOptional(r, MonitorableRunnable.class).ifPresent(metrics::queuingTime);
+        if (monitorableRunnable != null) {
+            metrics.queuingTime(monitorableRunnable);
+        }
 
         super.afterExecute(r, t);
 
-        if (t == null) {
-            // 正常执行完毕
-        } else {
+        if (t != null) {
             // 异常执行完毕
-            metrics.exceptionCount(r).increment();
+            metrics.exceptionCount(taskName).increment();
         }
-
-        // 自身线程还没释放，去掉 active
-        this.metrics.activeCount().set(getActiveCount() - 1);
-        // 可通过完成数 + 队列数计算，不精确，但可以避免锁竞争
-        this.metrics.taskCount().set(getTaskCount());
-        // 完成任务 + 自身，因为自身线程还没释放
-        this.metrics.completedTaskCount().set(getCompletedTaskCount() + 1);
-        // 看看队列里还有多少
-        this.metrics.queueSize().set(getQueue().size());
     }
 
     /**
@@ -193,9 +178,6 @@ public class MonitorableThreadPool extends ThreadPoolExecutor {
         // 统计已执行任务、正在执行任务、未执行任务数量
         log.info("{} Going to immediately shutdown. Executed tasks: {}, Running tasks: {}, Pending tasks: {}",
             this.poolName, this.getCompletedTaskCount(), this.getActiveCount(), this.getQueue().size());
-        metrics.completedTaskCount().set(getCompletedTaskCount());
-        metrics.activeCount().set(getActiveCount());
-        metrics.queueSize().set(getQueue().size());
         return super.shutdownNow();
     }
 
@@ -207,9 +189,6 @@ public class MonitorableThreadPool extends ThreadPoolExecutor {
         // 统计已执行任务、正在执行任务、未执行任务数量
         log.info("{} Going to shutdown. Executed tasks: {}, Running tasks: {}, Pending tasks: {}",
             this.poolName, this.getCompletedTaskCount(), this.getActiveCount(), this.getQueue().size());
-        metrics.completedTaskCount().set(getCompletedTaskCount());
-        metrics.activeCount().set(getActiveCount());
-        metrics.queueSize().set(getQueue().size());
         super.shutdown();
     }
 
@@ -0,0 +1,167 @@
+package org.shoulder.monitor.concurrent;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 预测式线程数控制器：根据任务到达速率与平均执行耗时，按利特尔法则（L = λW）计算所需线程数，在队列堆积前扩容
+ * <p>
+ * 所需线程数 = λ * S / 目标利用率 + 当前队列任务数 * S / 期望排队时长
+ * - λ：到达速率，取本周期速率与 EWMA 的较大值，突增时立即跟上，回落时缓慢下降
+ * - S：单个任务执行耗时的 EWMA
+ * 扩容立即生效；缩容需要计算结果持续低于当前核心线程数 shrinkageDuration 后才生效，避免抖动
+ * <p>
+ * 记录方法只做 LongAdder 累加，计算在 {@link #evaluate} 中按周期进行；不依赖时钟，便于回放模拟
+ *
+ * @author lym
+ */
+public class PredictiveScaleController {
+
+    /**
+     * EWMA 平滑系数，越大越看重最近一个周期
+     */
+    private static final double EWMA_ALPHA = 0.3;
+
+    /**
+     * 目标线程利用率 (0, 1]
+     */
+    private final double targetUtilization;
+
+    /**
+     * 期望排队时长（纳秒），用于计算消化当前堆积任务所需的线程数
+     */
+    private final long targetQueueDelayNanos;
+
+    /**
+     * 缩容前计算结果需要持续低于当前值的时长（纳秒）
+     */
+    private final long shrinkDelayNanos;
+
+    private final LongAdder arrivalCount = new LongAdder();
+
+    private final LongAdder serviceCount = new LongAdder();
+
+    private final LongAdder serviceNanos = new LongAdder();
+
+    // 以下字段仅在 evaluate 中修改，调用方保证不会并发执行
+
+    private long lastEvaluateNanos;
+
+    private long lastArrivalCount;
+
+    private long lastServiceCount;
+
+    private long lastServiceNanos;
+
+    /**
+     * 到达速率 EWMA（个 / 纳秒）
+     */
+    private volatile double arrivalRateEwma;
+
+    /**
+     * 执行耗时 EWMA（纳秒）
+     */
+    private volatile double serviceNanosEwma;
+
+    /**
+     * 计算结果开始低于当前核心线程数的时间，0 表示未低于
+     */
+    private long belowSinceNanos;
+
+    public PredictiveScaleController(double targetUtilization, Duration targetQueueDelay, Duration shrinkDelay,
+                                     long startNanos) {
+        this.targetUtilization = targetUtilization;
+        this.targetQueueDelayNanos = targetQueueDelay.toNanos();
+        this.shrinkDelayNanos = shrinkDelay.toNanos();
+        this.lastEvaluateNanos = startNanos;
+    }
+
+    /**
+     * 任务到达
+     */
+    public void recordArrival() {
+        arrivalCount.increment();
+    }
+
+    /**
+     * 任务执行完毕
+     *
+     * @param nanos 执行耗时
+     */
+    public void recordService(long nanos) {
+        serviceCount.increment();
+        serviceNanos.add(nanos);
+    }
+
+    /**
+     * 计算期望的核心线程数
+     *
+     * @param nowNanos        当前时间
+     * @param queueSize       当前队列中的任务数
+     * @param currentCoreSize 当前核心线程数
+     * @param minCoreSize     最小核心线程数
+     * @param maxCoreSize     最大核心线程数
+     * @return 期望的核心线程数，[minCoreSize, maxCoreSize]
+     */
+    public int evaluate(long nowNanos, int queueSize, int currentCoreSize, int minCoreSize, int maxCoreSize) {
+        long elapsed = nowNanos - lastEvaluateNanos;
+        if (elapsed <= 0) {
+            return currentCoreSize;
+        }
+        long arrivals = arrivalCount.sum();
+        long services = serviceCount.sum();
+        long serviceTotalNanos = serviceNanos.sum();
+
+        double arrivalRate = (double) (arrivals - lastArrivalCount) / elapsed;
+        arrivalRateEwma = arrivalRateEwma == 0 ? arrivalRate : EWMA_ALPHA * arrivalRate + (1 - EWMA_ALPHA) * arrivalRateEwma;
+        long periodServices = services - lastServiceCount;
+        if (periodServices > 0) {
+            double serviceTime = (double) (serviceTotalNanos - lastServiceNanos) / periodServices;
+            serviceNanosEwma = serviceNanosEwma == 0 ? serviceTime : EWMA_ALPHA * serviceTime + (1 - EWMA_ALPHA) * serviceNanosEwma;
+        }
+        lastEvaluateNanos = nowNanos;
+        lastArrivalCount = arrivals;
+        lastServiceCount = services;
+        lastServiceNanos = serviceTotalNanos;
+
+        if (serviceNanosEwma == 0) {
+            // 还没有任务执行完，无法估计
+            return currentCoreSize;
+        }
+        // 利特尔法则：平均忙碌线程数 = 到达速率 * 执行耗时
+        double busyThreads = Math.max(arrivalRate, arrivalRateEwma) * serviceNanosEwma;
+        double backlogThreads = queueSize * serviceNanosEwma / targetQueueDelayNanos;
+        int desired = (int) Math.ceil(busyThreads / targetUtilization + backlogThreads);
+        desired = Math.max(minCoreSize, Math.min(maxCoreSize, desired));
+
+        if (desired >= currentCoreSize) {
+            belowSinceNanos = 0;
+            return desired;
+        }
+        if (belowSinceNanos == 0) {
+            belowSinceNanos = nowNanos;
+            return currentCoreSize;
+        }
+        if (nowNanos - belowSinceNanos < shrinkDelayNanos) {
+            return currentCoreSize;
+        }
+        // 每次缩容后重新计时
+        belowSinceNanos = 0;
+        return desired;
+    }
+
+    /**
+     * @return 到达速率 EWMA（个 / 秒）
+     */
+    public double getArrivalRatePerSecond() {
+        return arrivalRateEwma * 1_000_000_000L;
+    }
+
+    /**
+     * @return 执行耗时 EWMA（毫秒）
+     */
+    public double getServiceMillis() {
+        return serviceNanosEwma / 1_000_000;
+    }
+
+}
@@ -3,17 +3,29 @@ package org.shoulder.monitor.concurrent;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.ImmutableTag;
 import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tag;
 import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.Nullable;
+import org.shoulder.core.concurrent.FastPriorityBlockingQueue;
 import org.shoulder.core.concurrent.enhance.EnhancedRunnable;
 import org.shoulder.core.util.StringUtils;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 线程池监控指标
+ * <p>
+ * 构造时传入线程池，则 活跃线程数、当前线程数、最大出现过的线程数、任务总数、完成数、队列任务数 在指标采集时才读取线程池
+ * （这些方法需要获取线程池的 mainLock，若每个任务执行前后都读取，会让工作线程在锁上串行），此时对应的 Atomic 字段不再更新；
+ * 每个任务名对应的 Timer、Counter 首次使用时注册并缓存，执行任务时不再查找注册中心
  *
  * @author lym
  */
@@ -36,6 +48,11 @@ public class ThreadPoolMetrics {
      */
     private static final String TAG_TASK = "task";
 
+    /**
+     * 优先级队列的优先级（下标）
+     */
+    private static final String TAG_PRIORITY = "priority";
+
     /**
      * 指标名称前缀（应用对于线程池监控名称的定义），一般格式为 <aapId>_<moduleId>
      * 如库存服务，同步业务的线程池监控指标前缀命名 storage_sync_threads_
@@ -94,6 +111,34 @@ public class ThreadPoolMetrics {
      */
     private final AtomicInteger largestPoolSize = new AtomicInteger();
 
+    /**
+     * 线程池，不为 null 时线程池状态指标在采集时读取
+     */
+    @Nullable
+    private final ThreadPoolExecutor threadPool;
+
+    /**
+     * 任务名 -> 执行耗时
+     */
+    private final Map<String, Timer> taskExecuteTimers = new ConcurrentHashMap<>();
+
+    private final Map<String, Timer> queuingTimers = new ConcurrentHashMap<>();
+
+    private final Map<String, Counter> exceptionCounters = new ConcurrentHashMap<>();
+
+    private final Map<String, Counter> rejectCounters = new ConcurrentHashMap<>();
+
+    /**
+     * 无任务名时使用的指标
+     */
+    private final Timer taskExecuteTimer;
+
+    private final Timer queuingTimer;
+
+    private final Counter exceptionCounter;
+
+    private final Counter rejectCounter;
+
     public static String getDefaultMetricsNamePrefix() {
         return DEFAULT_METRICS_NAME_PREFIX;
     }
@@ -111,7 +156,30 @@ public class ThreadPoolMetrics {
      * @param moduleName 线程池属于哪个模块，为了对比多个模块，shoulder 默认把模块名放在标签上。（若不比较，也推荐放在指标名中）
      */
     public ThreadPoolMetrics(String moduleName) {
+        this(moduleName, null);
+    }
+
+    /**
+     * 构造器
+     *
+     * @param moduleName 线程池属于哪个模块，为了对比多个模块，shoulder 默认把模块名放在标签上。（若不比较，也推荐放在指标名中）
+     * @param threadPool 线程池，不为 null 时线程池状态指标在采集时读取
+     */
+    public ThreadPoolMetrics(String moduleName, @Nullable ThreadPoolExecutor threadPool) {
         this.moduleName = moduleName;
+        this.threadPool = threadPool;
+        this.taskExecuteTimer = Metrics.timer(metricsNamePrefix + "timer",
+            TAG_MODULE, moduleName,
+            TAG_NAME, "execute");
+        this.queuingTimer = Metrics.timer(metricsNamePrefix + "timer",
+            TAG_MODULE, moduleName,
+            TAG_NAME, "queuing");
+        this.exceptionCounter = Metrics.counter(metricsNamePrefix + "exceptions",
+            TAG_MODULE, moduleName,
+            TAG_NAME, "exception");
+        this.rejectCounter = Metrics.counter(metricsNamePrefix + "reject_nums",
+            TAG_MODULE, moduleName,
+            TAG_NAME, "rejectCount");
         registerMetrics();
     }
 
@@ -120,23 +188,14 @@ public class ThreadPoolMetrics {
         // 任务数（执行数）
         String taskMetricsName = metricsNamePrefix + "tasks";
 
-        Metrics.gauge(taskMetricsName, List.of(
-            new ImmutableTag(TAG_MODULE, moduleName),
-            new ImmutableTag(TAG_NAME, "total")
-        ), taskCount);
+        registerPoolGauge(taskMetricsName, "total", taskCount, ThreadPoolExecutor::getTaskCount);
 
-        Metrics.gauge(taskMetricsName, List.of(
-            new ImmutableTag(TAG_MODULE, moduleName),
-            new ImmutableTag(TAG_NAME, "completed")
-        ), completedTaskCount);
+        registerPoolGauge(taskMetricsName, "completed", completedTaskCount, ThreadPoolExecutor::getCompletedTaskCount);
 
         // 队列中的任务数
         String queueSizeMetricsName = metricsNamePrefix + "queue_tasks";
 
-        Metrics.gauge(queueSizeMetricsName, List.of(
-            new ImmutableTag(TAG_MODULE, moduleName),
-            new ImmutableTag(TAG_NAME, "num")
-        ), queueSize);
+        registerPoolGauge(queueSizeMetricsName, "num", queueSize, pool -> pool.getQueue().size());
 
         Metrics.gauge(queueSizeMetricsName, List.of(
             new ImmutableTag(TAG_MODULE, moduleName),
@@ -146,15 +205,9 @@ public class ThreadPoolMetrics {
         // 线程池中线程数
         String threadMetricsName = metricsNamePrefix + "threads";
 
-        Metrics.gauge(threadMetricsName, List.of(
-            new ImmutableTag(TAG_MODULE, moduleName),
-            new ImmutableTag(TAG_NAME, "active")
-        ), activeCount);
+        registerPoolGauge(threadMetricsName, "active", activeCount, ThreadPoolExecutor::getActiveCount);
 
-        Metrics.gauge(threadMetricsName, List.of(
-            new ImmutableTag(TAG_MODULE, moduleName),
-            new ImmutableTag(TAG_NAME, "current")
-        ), poolSize);
+        registerPoolGauge(threadMetricsName, "current", poolSize, ThreadPoolExecutor::getPoolSize);
 
         Metrics.gauge(threadMetricsName, List.of(
             new ImmutableTag(TAG_MODULE, moduleName),
@@ -166,11 +219,50 @@ public class ThreadPoolMetrics {
             new ImmutableTag(TAG_NAME, "max")
         ), maximumPoolSize);
 
-        Metrics.gauge(threadMetricsName, List.of(
+        registerPoolGauge(threadMetricsName, "largest", largestPoolSize, ThreadPoolExecutor::getLargestPoolSize);
+
+    }
+
+    /**
+     * 有线程池时采集时读取线程池，否则读取对应的 Atomic 字段
+     */
+    private void registerPoolGauge(String metricsName, String name, Number value,
+                                   Function<ThreadPoolExecutor, Number> poolValueFunction) {
+        List<Tag> tags = List.of(
             new ImmutableTag(TAG_MODULE, moduleName),
-            new ImmutableTag(TAG_NAME, "largest")
-        ), largestPoolSize);
+            new ImmutableTag(TAG_NAME, name)
+        );
+        if (threadPool == null) {
+            Metrics.gauge(metricsName, tags, value);
+        } else {
+            Metrics.gauge(metricsName, tags, threadPool, pool -> poolValueFunction.apply(pool).doubleValue());
+        }
+    }
+
+    /**
+     * 工作队列为 FastPriorityBlockingQueue 时，按优先级注册 入队数、出队数、积压数、当前等待时长、最长等待时长 指标，
+     * 用于观察饱和时低优先级是否被饿死
+     *
+     * @param priorityQueue 优先级队列
+     */
+    public void registerPriorityQueueMetrics(FastPriorityBlockingQueue<?> priorityQueue) {
+        String priorityQueueMetricsName = metricsNamePrefix + "priority_queue";
+        for (FastPriorityBlockingQueue.LevelStatistics statistics : priorityQueue.getLevelStatistics()) {
+            registerLevelGauge(priorityQueueMetricsName, "enqueued", statistics, FastPriorityBlockingQueue.LevelStatistics::getEnqueuedCount);
+            registerLevelGauge(priorityQueueMetricsName, "dequeued", statistics, FastPriorityBlockingQueue.LevelStatistics::getDequeuedCount);
+            registerLevelGauge(priorityQueueMetricsName, "depth", statistics, FastPriorityBlockingQueue.LevelStatistics::getDepth);
+            registerLevelGauge(priorityQueueMetricsName, "wait_ms", statistics, FastPriorityBlockingQueue.LevelStatistics::getCurrentWaitMillis);
+            registerLevelGauge(priorityQueueMetricsName, "max_wait_ms", statistics, FastPriorityBlockingQueue.LevelStatistics::getMaxWaitMillis);
+        }
+    }
 
+    private void registerLevelGauge(String metricsName, String name, FastPriorityBlockingQueue.LevelStatistics statistics,
+                                    ToDoubleFunction<FastPriorityBlockingQueue.LevelStatistics> valueFunction) {
+        Metrics.gauge(metricsName, List.of(
+            new ImmutableTag(TAG_MODULE, moduleName),
+            new ImmutableTag(TAG_NAME, name),
+            new ImmutableTag(TAG_PRIORITY, String.valueOf(statistics.getLevel()))
+        ), statistics, valueFunction);
     }
 
     public AtomicInteger corePoolSize() {
@@ -217,96 +309,86 @@ public class ThreadPoolMetrics {
      * 可根据此值，统计最大、平均、90% 95% 99%、慢任务报警
      */
     public Timer taskExecuteTime() {
-        return Metrics.timer(metricsNamePrefix + "timer",
-            TAG_MODULE, moduleName,
-            TAG_NAME, "execute");
+        return taskExecuteTimer;
     }
 
     public Timer taskExecuteTime(String taskName) {
         if (StringUtils.isEmpty(taskName)) {
             return taskExecuteTime();
         }
-        return Metrics.timer(metricsNamePrefix + "timer",
+        return taskExecuteTimers.computeIfAbsent(taskName, name -> Metrics.timer(metricsNamePrefix + "timer",
             TAG_MODULE, moduleName,
             TAG_NAME, "execute",
-            TAG_TASK, moduleName);
+            TAG_TASK, name));
     }
 
     public Timer taskExecuteTime(Runnable runnable) {
-        String taskName = EnhancedRunnable.asOptional(runnable, MonitorableRunnable.class)
-                .map(MonitorableRunnable::getTaskName)
-                .orElse(null);
-        return taskExecuteTime(taskName);
+        return taskExecuteTime(getTaskName(runnable));
     }
 
     /**
      * 可根据此值，统计最大、平均、90% 95% 99%、慢任务报警
      */
     public Timer queuingTime() {
-        return Metrics.timer(metricsNamePrefix + "timer",
-            TAG_MODULE, moduleName,
-            TAG_NAME, "queuing");
+        return queuingTimer;
     }
 
     public Timer queuingTime(String taskName) {
         if (StringUtils.isEmpty(taskName)) {
-            return taskExecuteTime();
+            return queuingTime();
         }
-        return Metrics.timer(metricsNamePrefix + "timer",
+        return queuingTimers.computeIfAbsent(taskName, name -> Metrics.timer(metricsNamePrefix + "timer",
             TAG_MODULE, moduleName,
             TAG_NAME, "queuing",
-            TAG_TASK, moduleName);
+            TAG_TASK, name));
     }
 
     public void queuingTime(MonitorableRunnable runnable) {
         Timer t = queuingTime(runnable.getTaskName());
-        t.record(runnable.getEnqueueTime(), TimeUnit.MILLISECONDS);
+        t.record(runnable.getWaitInQueueDuration(), TimeUnit.MILLISECONDS);
     }
 
     public Counter exceptionCount() {
-        return Metrics.counter(metricsNamePrefix + "exceptions",
-            TAG_MODULE, moduleName,
-            TAG_NAME, "exception");
+        return exceptionCounter;
     }
 
     public Counter exceptionCount(String taskName) {
         if (StringUtils.isEmpty(taskName)) {
             return exceptionCount();
         }
-        return Metrics.counter(metricsNamePrefix + "exceptions",
+        return exceptionCounters.computeIfAbsent(taskName, name -> Metrics.counter(metricsNamePrefix + "exceptions",
             TAG_MODULE, moduleName,
             TAG_NAME, "exception",
-            TAG_TASK, moduleName);
+            TAG_TASK, name));
     }
 
     public Counter exceptionCount(Runnable runnable) {
-        String taskName = EnhancedRunnable.asOptional(runnable, MonitorableRunnable.class)
-            .map(MonitorableRunnable::getTaskName)
-            .orElse(null);
-        return exceptionCount(taskName);
+        return exceptionCount(getTaskName(runnable));
     }
 
     public Counter rejectCount() {
-        return Metrics.counter(metricsNamePrefix + "reject_nums",
-            TAG_MODULE, moduleName,
-            TAG_NAME, "rejectCount");
+        return rejectCounter;
     }
 
     public Counter rejectCount(String taskName) {
         if (StringUtils.isEmpty(taskName)) {
             return rejectCount();
         }
-        return Metrics.counter(metricsNamePrefix + "reject_nums",
+        return rejectCounters.computeIfAbsent(taskName, name -> Metrics.counter(metricsNamePrefix + "reject_nums",
             TAG_MODULE, moduleName,
             TAG_NAME, "rejectCount",
-            TAG_TASK, moduleName);
+            TAG_TASK, name));
     }
 
     public Counter rejectCount(Runnable runnable) {
-        String taskName = EnhancedRunnable.asOptional(runnable, MonitorableRunnable.class)
+        return rejectCount(getTaskName(runnable));
+    }
+
+    @Nullable
+    private static String getTaskName(Runnable runnable) {
+        return EnhancedRunnable.asOptional(runnable, MonitorableRunnable.class)
             .map(MonitorableRunnable::getTaskName)
             .orElse(null);
-        return rejectCount(taskName);
     }
 
 }
@@ -5,20 +5,31 @@ import org.apache.commons.collections4.MapUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.shoulder.core.context.AppInfo;
 import org.shoulder.core.exception.BaseRuntimeException;
+import org.shoulder.core.log.logback.pattern.CachingFastDateFormatter;
 import org.shoulder.log.operation.enums.TerminalType;
 import org.shoulder.log.operation.format.OperationLogFormatter;
 import org.shoulder.log.operation.model.OpLogParam;
 import org.shoulder.log.operation.model.OperationLogDTO;
 
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
-import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.*;
-import java.util.stream.Collectors;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 
 /**
  * 默认日志格式化（逗号分隔的键值对）
  * key1:"v1",k2:"v2"
+ * <p>
+ * 文本字段在类加载时解析一次，通过 LambdaMetafactory 绑定 getter，格式化时无反射；
+ * 直接拼接到线程复用的 StringBuilder 中；时间使用带缓存的格式化器
  *
  * @author lym
  * @implNote 该类是 shoulder 规范中推荐的格式，可能并不是所有系统都希望的
@@ -26,23 +37,68 @@ import java.util.stream.Collectors;
 public class ShoulderOpLogFormatter implements OperationLogFormatter {
 
     /**
-     * 日期格式化:高性能线程安全
+     * 复用的 StringBuilder 超过该容量时不再复用，避免偶发的大日志长期占用内存
      */
-    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern(AppInfo.dateTimeFormat(), AppInfo.defaultLocale());
+    private static final int MAX_REUSE_BUILDER_CAPACITY = 8 * 1024;
+
+    private static final ThreadLocal<StringBuilder> BUILDER_HOLDER = ThreadLocal.withInitial(() -> new StringBuilder(512));
 
     /**
      * {@link OperationLogDTO} 类中所有 String 类型的字段
      */
-    private static final List<Field> opLogStrFields;
+    private static final List<StrFieldAccessor> opLogStrFields;
 
     static {
-        // 反射获取所有文本字段并设置可访问
-        opLogStrFields = Arrays.stream(OperationLogDTO.class.getDeclaredFields())
+        // 反射获取所有文本字段并绑定 getter（包含 String、枚举、List、Map、OpLogParam，只取 String）
+        List<StrFieldAccessor> accessors = new ArrayList<>();
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        for (Field field : OperationLogDTO.class.getDeclaredFields()) {
             // CharSequence
-            .filter(field -> CharSequence.class.isAssignableFrom(field.getType()))
-            .peek(field -> field.setAccessible(true))
-            .collect(Collectors.toList());
-        // 包含 String、枚举、List、Map、OpLogParam
+            if (CharSequence.class.isAssignableFrom(field.getType())) {
+                accessors.add(new StrFieldAccessor(field.getName(), bindGetter(lookup, field)));
+            }
+        }
+        opLogStrFields = List.copyOf(accessors);
+    }
+
+    /**
+     * 日期格式化:高性能线程安全，带缓存
+     */
+    private final CachingFastDateFormatter dateFormatter;
+
+    public ShoulderOpLogFormatter() {
+        this.dateFormatter = new CachingFastDateFormatter(AppInfo.dateTimeFormat(), AppInfo.timeZone(), AppInfo.defaultLocale());
+    }
+
+    /**
+     * 优先绑定 public getter，没有 getter 时退化为字段 MethodHandle
+     */
+    @SuppressWarnings("unchecked")
+    private static Function<OperationLogDTO, CharSequence> bindGetter(MethodHandles.Lookup lookup, Field field) {
+        String getterName = "get" + StringUtils.capitalize(field.getName());
+        try {
+            MethodHandle getter = lookup.findVirtual(OperationLogDTO.class, getterName, MethodType.methodType(field.getType()));
+            CallSite callSite = LambdaMetafactory.metafactory(lookup, "apply",
+                MethodType.methodType(Function.class), MethodType.methodType(Object.class, Object.class),
+                getter, MethodType.methodType(field.getType(), OperationLogDTO.class));
+            return (Function<OperationLogDTO, CharSequence>) callSite.getTarget().invoke();
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            try {
+                field.setAccessible(true);
+                MethodHandle fieldGetter = lookup.unreflectGetter(field);
+                return opLog -> {
+                    try {
+                        return (CharSequence) fieldGetter.invoke(opLog);
+                    } catch (Throwable t) {
+                        throw new BaseRuntimeException("format opLog fail", t);
+                    }
+                };
+            } catch (IllegalAccessException ex) {
+                throw new BaseRuntimeException("bind opLog field fail: " + field.getName(), ex);
+            }
+        } catch (Throwable t) {
+            throw new BaseRuntimeException("bind opLog field fail: " + field.getName(), t);
+        }
     }
 
     /**
@@ -50,71 +106,122 @@ public class ShoulderOpLogFormatter implements OperationLogFormatter {
      * @param param     参数
      */
     public static String formatParam(String operation, OpLogParam param) {
-        if (CollectionUtils.isEmpty(param.getValue())) {
+        StringBuilder sb = new StringBuilder();
+        appendParam(sb, operation, param);
+        return sb.toString();
+    }
+
+    private static void appendParam(StringBuilder sb, String operation, OpLogParam param) {
+        List<String> values = param.getValue();
+        if (CollectionUtils.isEmpty(values)) {
             throw new IllegalStateException("operationParam.values is empty!");
         }
 
-        String name = operation + "." + param.getName();
+        String paramName = param.getName();
+        sb.append("{\"name\"=\"").append(operation).append('.').append(paramName).append("\", \"value\"=\"");
         // 一般 value 只有一个，出现多个直接使用 json / 逗号分隔
-        StringJoiner valueJoiner = new StringJoiner(",");
-        param.getValue().stream()
-            .filter(StringUtils::isEmpty)
-            .map(v -> name + v)
-            .forEach(valueJoiner::add);
-
-        return "{\"name\"=\"" + name + '\"' + ", \"value\"=\"" + valueJoiner + "\"}";
+        boolean first = true;
+        for (String v : values) {
+            if (!StringUtils.isEmpty(v)) {
+                continue;
+            }
+            if (!first) {
+                sb.append(',');
+            }
+            first = false;
+            sb.append(operation).append('.').append(paramName).append(v);
+        }
+        sb.append("\"}");
     }
 
     @Override
     public String format(OperationLogDTO opLog) {
+        StringBuilder sb = BUILDER_HOLDER.get();
+        if (sb.capacity() > MAX_REUSE_BUILDER_CAPACITY) {
+            sb = new StringBuilder(512);
+            BUILDER_HOLDER.set(sb);
+        }
+        sb.setLength(0);
 
-        KeyValueContextBuilder builder = new KeyValueContextBuilder();
-        // 反射拼接所有 String 类型
-        opLogStrFields.forEach(field -> {
-            try {
-                Object value = field.get(opLog);
-                if (value == null) {
-                    return;
-                }
-                builder.add(field.getName(), (String) value);
-            } catch (IllegalAccessException e) {
-                throw new BaseRuntimeException("format opLog fail", e);
+        // 拼接所有 String 类型
+        for (StrFieldAccessor accessor : opLogStrFields) {
+            CharSequence value = accessor.getter.apply(opLog);
+            if (value != null) {
+                appendKey(sb, accessor.name).append(value).append("\",");
             }
-        });
+        }
 
         // 拼接特殊类型
-        builder
-                .add("terminalType", String.valueOf(Optional.ofNullable(opLog.getTerminalType()).orElse(TerminalType.UNKNOWN).getItemId()))
-                .add("result", String.valueOf(opLog.getResult().getItemId()))
-                .add("operationTime", DATE_TIME_FORMATTER.format(ZonedDateTime.ofInstant(opLog.getOperationTime(), AppInfo.timeZone().toZoneId())));
+        TerminalType terminalType = opLog.getTerminalType() == null ? TerminalType.UNKNOWN : opLog.getTerminalType();
+        appendKey(sb, "terminalType").append(terminalType.getItemId()).append("\",");
+        appendKey(sb, "result").append(opLog.getResult().getItemId()).append("\",");
+        appendKey(sb, "operationTime").append(formatTime(opLog.getOperationTime())).append("\",");
         if (opLog.getEndTime() != null) {
-            builder.add("endTime", DATE_TIME_FORMATTER.format(ZonedDateTime.ofInstant(opLog.getEndTime(), AppInfo.timeZone().toZoneId())));
+            appendKey(sb, "endTime").append(formatTime(opLog.getEndTime())).append("\",");
         }
 
         // 拼接 List 类型（json格式）
         if (CollectionUtils.isNotEmpty(opLog.getDetailI18nItems())) {
-            StringJoiner detailsStr = new StringJoiner(",", "[", "]");
-            opLog.getDetailI18nItems()
-                .stream().
-                filter(Objects::nonNull)
-                .forEach(detailsStr::add);
-            builder.add("detailItems", detailsStr.toString());
+            appendKey(sb, "detailItems").append('[');
+            boolean first = true;
+            for (String item : opLog.getDetailI18nItems()) {
+                if (item == null) {
+                    continue;
+                }
+                if (!first) {
+                    sb.append(',');
+                }
+                first = false;
+                sb.append(item);
+            }
+            sb.append("]\",");
         }
         if (CollectionUtils.isNotEmpty(opLog.getParams())) {
-            StringJoiner sj = new StringJoiner(",", "[", "]");
-            opLog.getParams().stream()
-                .map(param -> formatParam(opLog.getOperation(), param))
-                .forEach(sj::add);
-            builder.add("params", sj.toString());
+            appendKey(sb, "params").append('[');
+            boolean first = true;
+            for (OpLogParam param : opLog.getParams()) {
+                if (!first) {
+                    sb.append(',');
+                }
+                first = false;
+                appendParam(sb, opLog.getOperation(), param);
+            }
+            sb.append("]\",");
         }
 
         // 拼接扩展字段
         if (MapUtils.isNotEmpty(opLog.getExtFields())) {
-            opLog.getExtFields().forEach(builder::add);
+            for (Map.Entry<String, Object> entry : opLog.getExtFields().entrySet()) {
+                appendKey(sb, entry.getKey()).append(entry.getValue()).append("\",");
+            }
         }
 
-        return builder.formatResult();
+        // 去掉最后一个分隔符
+        sb.setLength(sb.length() - 1);
+        return sb.toString();
+    }
 
+    private static StringBuilder appendKey(StringBuilder sb, String key) {
+        return sb.append(key).append(":\"");
+    }
+
+    private String formatTime(Instant instant) {
+        return dateFormatter.format(Objects.requireNonNull(instant).toEpochMilli());
+    }
+
+    /**
+     * 文本字段名与绑定的 getter
+     */
+    private static class StrFieldAccessor {
+
+        private final String name;
+
+        private final Function<OperationLogDTO, CharSequence> getter;
+
+        private StrFieldAccessor(String name, Function<OperationLogDTO, CharSequence> getter) {
+            this.name = name;
+            this.getter = getter;
+        }
     }
 
 }
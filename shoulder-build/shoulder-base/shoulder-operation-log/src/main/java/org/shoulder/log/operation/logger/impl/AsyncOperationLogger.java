@@ -1,22 +1,40 @@
 package org.shoulder.log.operation.logger.impl;
 
 import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
 import jakarta.annotation.PreDestroy;
 import org.shoulder.core.log.Logger;
 import org.shoulder.core.log.ShoulderLoggers;
 import org.shoulder.core.model.Operable;
+import org.shoulder.core.util.JsonUtils;
+import org.shoulder.log.operation.context.OperationLogFactory;
 import org.shoulder.log.operation.logger.OperationLogger;
 import org.shoulder.log.operation.logger.OperationLoggerInterceptor;
 import org.shoulder.log.operation.model.OperationLogDTO;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 异步操作日志记录器
- * 仅仅把任务放入线程池
+ * 日志放入有界队列，由 workerNum 个常驻 worker（运行在 executorService 中）批量取出，
+ * 连续的单条日志合并为一次 delegate.log(Collection) 调用，减少 delegate（如 jdbc）写入次数
+ * <p>
+ * 队列满时按 {@link OverflowPolicy} 处理，不会无限堆积拖垮业务线程；提供队列深度、延迟、丢弃数等统计
  *
  * @author lym
  */
@@ -30,16 +48,73 @@ public class AsyncOperationLogger implements OperationLogger {
     private OperationLogger delegate;
 
     /**
-     * 线程池
+     * 线程池，用于运行 worker，线程数需不小于 workerNum
      */
     private ExecutorService executorService;
 
+    /**
+     * worker 数
+     */
+    private int workerNum = 1;
+
+    /**
+     * 队列容量
+     */
+    private int queueCapacity = 10000;
+
+    /**
+     * 每次合并的最大条数
+     */
+    private int maxBatchSize = 100;
+
+    /**
+     * 队列满时处理策略
+     */
+    private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+
+    /**
+     * BLOCK 策略最长等待时间，超时后丢弃
+     */
+    private Duration offerTimeout = Duration.ofMillis(100);
+
+    /**
+     * SPILL_TO_FILE 策略写入的文件，未设置时丢弃
+     */
+    @Nullable
+    private Path spillFile;
+
+    private BlockingQueue<QueuedLog> queue;
+
+    private volatile boolean started;
+
+    private volatile boolean running;
+
+    private final Object lifecycleLock = new Object();
+
+    private final Object spillLock = new Object();
+
+    private BufferedWriter spillWriter;
+
+    // ---------------------- 统计 ----------------------
+
+    private final AtomicLong droppedCount = new AtomicLong(0);
+
+    private final AtomicLong spilledCount = new AtomicLong(0);
+
+    private final AtomicLong loggedCount = new AtomicLong(0);
+
+    private final AtomicLong delegateCallCount = new AtomicLong(0);
+
+    private volatile long lastLagMillis;
+
+    private volatile long maxLagMillis;
+
     /**
      * 记录一条操作日志
      */
     @Override
     public void log(@Nonnull OperationLogDTO opLog) {
-        executorService.execute(() -> delegate.log(opLog));
+        enqueue(new QueuedLog(opLog, null, null));
     }
 
     /**
@@ -47,12 +122,12 @@ public class AsyncOperationLogger implements OperationLogger {
      */
     @Override
     public void log(@Nonnull Collection<? extends OperationLogDTO> opLogList) {
-        executorService.execute(() -> delegate.log(opLogList));
+        enqueue(new QueuedLog(null, opLogList, null));
     }
 
     @Override
     public void log(@Nonnull OperationLogDTO opLog, List<? extends Operable> operableList) {
-        executorService.execute(() -> delegate.log(opLog, operableList));
+        enqueue(new QueuedLog(opLog, null, operableList));
     }
 
     @Override
@@ -60,6 +135,173 @@ public class AsyncOperationLogger implements OperationLogger {
         this.delegate.addInterceptor(logInterceptor);
     }
 
+    private void enqueue(QueuedLog queuedLog) {
+        if (!started) {
+            start();
+        }
+        if (queue.offer(queuedLog)) {
+            return;
+        }
+        switch (overflowPolicy) {
+            case DISCARD_OLDEST -> {
+                while (!queue.offer(queuedLog)) {
+                    if (queue.poll() != null) {
+                        onDropped();
+                    }
+                }
+            }
+            case SPILL_TO_FILE -> spill(queuedLog);
+            // 反压：由业务线程直接记录
+            case CALLER_RUNS -> handleBatch(List.of(queuedLog));
+            default -> {
+                try {
+                    if (!queue.offer(queuedLog, offerTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                        onDropped();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    onDropped();
+                }
+            }
+        }
+    }
+
+    private void onDropped() {
+        long dropped = droppedCount.incrementAndGet();
+        if ((dropped & 1023) == 1) {
+            log.warn("operation log queue full(capacity={}, policy={}), discard logs. dropped={}",
+                    queueCapacity, overflowPolicy, dropped);
+        }
+    }
+
+    /**
+     * 溢出的日志以 json 行形式追加到本地文件，可事后补录；注意：补录时需自行处理拦截器逻辑
+     */
+    private void spill(QueuedLog queuedLog) {
+        if (spillFile == null) {
+            onDropped();
+            return;
+        }
+        List<? extends OperationLogDTO> opLogs = queuedLog.toLogList();
+        synchronized (spillLock) {
+            try {
+                if (spillWriter == null) {
+                    spillWriter = Files.newBufferedWriter(spillFile, StandardCharsets.UTF_8,
+                            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                }
+                for (OperationLogDTO opLog : opLogs) {
+                    spillWriter.write(JsonUtils.toJson(opLog));
+                    spillWriter.newLine();
+                }
+                spillWriter.flush();
+                spilledCount.addAndGet(opLogs.size());
+            } catch (IOException e) {
+                log.warn("spill operation log to file FAIL! file=" + spillFile, e);
+                onDropped();
+            }
+        }
+    }
+
+    /**
+     * 启动 worker，未调用时首次记录日志会自动调用
+     */
+    public AsyncOperationLogger start() {
+        synchronized (lifecycleLock) {
+            if (started) {
+                return this;
+            }
+            if (delegate == null || executorService == null) {
+                throw new IllegalStateException("delegate and executorService must be set before start.");
+            }
+            queue = new ArrayBlockingQueue<>(queueCapacity);
+            running = true;
+            for (int i = 0; i < workerNum; i++) {
+                executorService.execute(this::consume);
+            }
+            started = true;
+        }
+        return this;
+    }
+
+    /**
+     * worker：取出一批，连续的单条日志合并为一次批量记录，其他按原顺序记录
+     */
+    private void consume() {
+        List<QueuedLog> drained = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            QueuedLog first;
+            try {
+                first = queue.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                // 关闭中，处理完剩余的再退出
+                running = false;
+                continue;
+            }
+            if (first == null) {
+                continue;
+            }
+            drained.add(first);
+            queue.drainTo(drained, maxBatchSize - 1);
+            recordLag(first.enqueueTime);
+            handleBatch(drained);
+            drained.clear();
+        }
+    }
+
+    private void handleBatch(List<QueuedLog> drained) {
+        List<OperationLogDTO> singles = new ArrayList<>(drained.size());
+        for (QueuedLog queuedLog : drained) {
+            if (queuedLog.isSingle()) {
+                singles.add(queuedLog.opLog);
+                continue;
+            }
+            // 保证顺序：先记录之前合并的单条
+            singles = flushSingles(singles);
+            try {
+                if (queuedLog.opLogList != null) {
+                    delegate.log(queuedLog.opLogList);
+                    loggedCount.addAndGet(queuedLog.opLogList.size());
+                } else {
+                    delegate.log(queuedLog.opLog, queuedLog.operableList);
+                    loggedCount.addAndGet(queuedLog.operableList == null ? 1 : queuedLog.operableList.size());
+                }
+                delegateCallCount.incrementAndGet();
+            } catch (Throwable t) {
+                log.error("async log operation log FAIL!", t);
+            }
+        }
+        flushSingles(singles);
+    }
+
+    /**
+     * @return 可继续使用的 list（delegate 可能持有传入的 list，已传出的不复用）
+     */
+    private List<OperationLogDTO> flushSingles(List<OperationLogDTO> singles) {
+        if (singles.isEmpty()) {
+            return singles;
+        }
+        try {
+            if (singles.size() == 1) {
+                delegate.log(singles.get(0));
+            } else {
+                delegate.log(singles);
+            }
+            delegateCallCount.incrementAndGet();
+            loggedCount.addAndGet(singles.size());
+        } catch (Throwable t) {
+            log.error("async log operation log FAIL!", t);
+        }
+        return new ArrayList<>();
+    }
+
+    private void recordLag(long enqueueTime) {
+        long lag = System.currentTimeMillis() - enqueueTime;
+        lastLagMillis = lag;
+        if (lag > maxLagMillis) {
+            maxLagMillis = lag;
+        }
+    }
+
     public AsyncOperationLogger setLogger(@Nonnull OperationLogger delegate) {
         this.delegate = delegate;
         return this;
@@ -78,11 +320,102 @@ public class AsyncOperationLogger implements OperationLogger {
         return this;
     }
 
+    public AsyncOperationLogger setWorkerNum(int workerNum) {
+        if (workerNum <= 0) {
+            throw new IllegalArgumentException("workerNum must > 0. workerNum=" + workerNum);
+        }
+        this.workerNum = workerNum;
+        return this;
+    }
+
+    public AsyncOperationLogger setQueueCapacity(int queueCapacity) {
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("queueCapacity must > 0. queueCapacity=" + queueCapacity);
+        }
+        this.queueCapacity = queueCapacity;
+        return this;
+    }
+
+    public AsyncOperationLogger setMaxBatchSize(int maxBatchSize) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("maxBatchSize must > 0. maxBatchSize=" + maxBatchSize);
+        }
+        this.maxBatchSize = maxBatchSize;
+        return this;
+    }
+
+    public AsyncOperationLogger setOverflowPolicy(@Nonnull OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+        return this;
+    }
+
+    public AsyncOperationLogger setOfferTimeout(@Nonnull Duration offerTimeout) {
+        this.offerTimeout = offerTimeout;
+        return this;
+    }
+
+    public AsyncOperationLogger setSpillFile(@Nullable Path spillFile) {
+        this.spillFile = spillFile;
+        return this;
+    }
+
+    // ---------------------- 统计 ----------------------
+
+    /**
+     * 队列中待记录数（条目数，批量记录算一条）
+     */
+    public int getQueueSize() {
+        return queue == null ? 0 : queue.size();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    public long getSpilledCount() {
+        return spilledCount.get();
+    }
+
+    /**
+     * 已交给 delegate 的日志条数
+     */
+    public long getLoggedCount() {
+        return loggedCount.get();
+    }
+
+    /**
+     * 调用 delegate 次数，与 loggedCount 对比可得合并效果
+     */
+    public long getDelegateCallCount() {
+        return delegateCallCount.get();
+    }
+
+    /**
+     * 最近一批日志从入队到开始记录的延迟（ms）
+     */
+    public long getLastLagMillis() {
+        return lastLagMillis;
+    }
+
+    public long getMaxLagMillis() {
+        return maxLagMillis;
+    }
+
     @PreDestroy
     public void preDestroy(){
         try {
             log.info("{} clean start...", getClass().getSimpleName());
+            // worker 处理完队列中剩余日志后退出
+            running = false;
             executorService.shutdown();
+            if (!executorService.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("{} clean timeout, remain={}", getClass().getSimpleName(), getQueueSize());
+            }
+            synchronized (spillLock) {
+                if (spillWriter != null) {
+                    spillWriter.close();
+                }
+            }
             log.info("{} clean finished.", getClass().getSimpleName());
         } catch (Exception e) {
             // on shutDown 钩子可能抛异常
@@ -90,4 +423,63 @@ public class AsyncOperationLogger implements OperationLogger {
         }
     }
 
+    /**
+     * 队列中的一项：单条 / 多条 / 模板 + 被操作对象
+     */
+    private static class QueuedLog {
+
+        private final OperationLogDTO opLog;
+
+        private final Collection<? extends OperationLogDTO> opLogList;
+
+        private final List<? extends Operable> operableList;
+
+        private final long enqueueTime = System.currentTimeMillis();
+
+        private QueuedLog(OperationLogDTO opLog, Collection<? extends OperationLogDTO> opLogList,
+                          List<? extends Operable> operableList) {
+            this.opLog = opLog;
+            this.opLogList = opLogList;
+            this.operableList = operableList;
+        }
+
+        private boolean isSingle() {
+            return opLogList == null && operableList == null;
+        }
+
+        private List<? extends OperationLogDTO> toLogList() {
+            if (opLogList != null) {
+                return new ArrayList<>(opLogList);
+            }
+            return OperationLogFactory.createFromTemplate(opLog, operableList);
+        }
+    }
+
+    /**
+     * 队列满时处理策略
+     */
+    public enum OverflowPolicy {
+
+        /**
+         * 阻塞等待 offerTimeout，超时丢弃
+         */
+        BLOCK,
+
+        /**
+         * 丢弃最早的
+         */
+        DISCARD_OLDEST,
+
+        /**
+         * 写入本地文件 spillFile
+         */
+        SPILL_TO_FILE,
+
+        /**
+         * 由业务线程直接调用 delegate 记录，反压调用方
+         */
+        CALLER_RUNS,
+        ;
+    }
+
 }
@@ -3,28 +3,38 @@ package org.shoulder.log.operation.logger.impl;
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.PreDestroy;
 import org.apache.commons.collections4.CollectionUtils;
+import org.shoulder.core.log.Logger;
+import org.shoulder.core.log.ShoulderLoggers;
 import org.shoulder.core.model.Operable;
 import org.shoulder.log.operation.logger.OperationLogger;
 import org.shoulder.log.operation.logger.OperationLoggerInterceptor;
 import org.shoulder.log.operation.model.OperationLogDTO;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Queue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 带缓冲的操作日志记录器（针对频繁记录单条操作日志做优化，批量操作不优化）
  * 将日志放入 buffer 中，当 buffer 中日志达到一定数量 / 每隔一定时间，执行一次批量保存
+ * <p>
+ * 批量保存只在 scheduledExecutorService 的线程（刷盘线程）中执行，业务线程只负责入队与唤醒，不会直接执行 delegate 的批量写入；
+ * buffer 深度使用原子计数维护，不调用 ConcurrentLinkedQueue#size（O(n)）；
+ * buffer 有容量上限，满时按 {@link OverflowPolicy} 处理
  *
  * @author lym
  */
 public class BufferedOperationLogger implements OperationLogger {
 
+    private static final Logger log = ShoulderLoggers.SHOULDER_DEFAULT;
+
     /**
      * 需要批量记录的日志都会仍在这里
      */
@@ -51,6 +61,20 @@ public class BufferedOperationLogger implements OperationLogger {
      */
     private final int perFlushMax;
 
+    /**
+     * buffer 容量上限
+     */
+    private final int capacity;
+
+    /**
+     * buffer 满时的处理策略
+     */
+    private final OverflowPolicy overflowPolicy;
+
+    /**
+     * buffer 中日志数（近似值，入队后加，写入成功后减，包含正在写入与写入失败待重试的）
+     */
+    private final AtomicInteger bufferSize = new AtomicInteger(0);
 
     /**
      * 上次记录日志时间
@@ -62,30 +86,132 @@ public class BufferedOperationLogger implements OperationLogger {
      */
     private final AtomicBoolean flushing = new AtomicBoolean(false);
 
+    /**
+     * 已提交一次达到阈值的刷日志任务且未开始执行，避免重复提交
+     */
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
 
     /**
-     * 记录一条操作日志
+     * 上次写入失败的一批，下次刷日志时优先重试，计入 bufferSize；只在持有 flushing 时访问
      */
-    @Override
-    public void log(@Nonnull OperationLogDTO opLog) {
-        logBuffer.add(opLog);
-        int current = logBuffer.size();
-        if (current >= flushThreshold) {
-            // 达到提前刷的积累数量，尝试触发刷日志
-            consumerLog();
-        }
-    }
+    private List<OperationLogDTO> failedBatch;
+
+    // ---------------------- 统计 ----------------------
+
+    private final AtomicLong droppedCount = new AtomicLong(0);
+
+    private final AtomicLong flushCount = new AtomicLong(0);
+
+    private final AtomicLong flushTotalMillis = new AtomicLong(0);
+
+    private volatile long lastFlushMillis;
+
+    private volatile long maxFlushMillis;
 
     public BufferedOperationLogger(Queue<OperationLogDTO> logBuffer, OperationLogger delegate, ScheduledExecutorService scheduledExecutorService,
                                    long flushInterval, int flushThreshold, int perFlushMax) {
+        this(logBuffer, delegate, scheduledExecutorService, flushInterval, flushThreshold, perFlushMax,
+                Integer.MAX_VALUE, OverflowPolicy.DISCARD_NEWEST);
+    }
+
+    /**
+     * 构造器
+     *
+     * @param logBuffer                缓冲队列，需线程安全，推荐 ConcurrentLinkedQueue
+     * @param delegate                 实际记录日志的记录器
+     * @param scheduledExecutorService 刷盘线程，推荐单线程
+     * @param flushInterval            固定刷日志间隔（ms）
+     * @param flushThreshold           buffer 中日志达到该数量时提前唤醒刷盘线程
+     * @param perFlushMax              每批最多条数
+     * @param capacity                 buffer 容量上限
+     * @param overflowPolicy           buffer 满时的处理策略
+     */
+    public BufferedOperationLogger(Queue<OperationLogDTO> logBuffer, OperationLogger delegate, ScheduledExecutorService scheduledExecutorService,
+                                   long flushInterval, int flushThreshold, int perFlushMax,
+                                   int capacity, OverflowPolicy overflowPolicy) {
+        if (perFlushMax <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("perFlushMax and capacity must > 0. perFlushMax=" + perFlushMax
+                    + ", capacity=" + capacity);
+        }
         this.logBuffer = logBuffer;
         this.delegate = delegate;
         this.scheduledExecutorService = scheduledExecutorService;
         this.flushThreshold = flushThreshold;
         this.perFlushMax = perFlushMax;
+        this.capacity = capacity;
+        this.overflowPolicy = overflowPolicy;
 
         // 启动异步刷任务
-        scheduledExecutorService.scheduleAtFixedRate(this::consumerLog, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+        scheduledExecutorService.scheduleAtFixedRate(this::flushQuietly, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 记录一条操作日志
+     */
+    @Override
+    public void log(@Nonnull OperationLogDTO opLog) {
+        int current = bufferSize.incrementAndGet();
+        if (current > capacity) {
+            bufferSize.decrementAndGet();
+            if (!handleOverflow(opLog)) {
+                return;
+            }
+            current = capacity;
+        } else {
+            logBuffer.add(opLog);
+        }
+        if (current >= flushThreshold) {
+            // 达到提前刷的积累数量，唤醒刷盘线程，业务线程不做批量写入
+            triggerFlush();
+        }
+    }
+
+    /**
+     * buffer 满时处理
+     *
+     * @return 是否放入了 buffer
+     */
+    private boolean handleOverflow(OperationLogDTO opLog) {
+        switch (overflowPolicy) {
+            case DISCARD_OLDEST -> {
+                OperationLogDTO oldest = logBuffer.poll();
+                if (oldest == null) {
+                    // 已全部被刷盘线程取出但还未写入成功（写入中 / 待重试），丢弃新日志
+                    droppedCount.incrementAndGet();
+                    return false;
+                }
+                droppedCount.incrementAndGet();
+                logBuffer.add(opLog);
+                return true;
+            }
+            case CALLER_RUNS -> {
+                // 反压：由业务线程直接记录
+                delegate.log(opLog);
+                return false;
+            }
+            default -> {
+                long dropped = droppedCount.incrementAndGet();
+                if ((dropped & 1023) == 1) {
+                    log.warn("operation log buffer full(capacity={}), discard new logs. dropped={}", capacity, dropped);
+                }
+                return false;
+            }
+        }
+    }
+
+    private void triggerFlush() {
+        if (!flushScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            scheduledExecutorService.execute(() -> {
+                flushScheduled.set(false);
+                flushQuietly();
+            });
+        } catch (RejectedExecutionException e) {
+            // 已关闭，由 preDestroy / 定时任务兜底
+            flushScheduled.set(false);
+        }
     }
 
     /**
@@ -110,6 +236,16 @@ public class BufferedOperationLogger implements OperationLogger {
         return delegate;
     }
 
+    /**
+     * 定时任务中抛出异常会导致后续不再调度，这里吞掉异常
+     */
+    private void flushQuietly() {
+        try {
+            consumerLog();
+        } catch (Throwable t) {
+            log.error("flush operation log buffer FAIL!", t);
+        }
+    }
 
     public void consumerLog() {
         if (!flushing.compareAndSet(false, true)) {
@@ -117,21 +253,51 @@ public class BufferedOperationLogger implements OperationLogger {
             return;
         }
         // 只有一个线程可以运行到这
-        OperationLogDTO temp;
-        List<OperationLogDTO> opLogList = new LinkedList<>();
-        while ((temp = logBuffer.poll()) != null) {
-            opLogList.add(temp);
-            if (opLogList.size() == perFlushMax) {
-                delegate.log(opLogList);
-                lastLogTime.set(System.currentTimeMillis());
-                opLogList = new LinkedList<>();
+        try {
+            if (failedBatch != null) {
+                List<OperationLogDTO> retryBatch = failedBatch;
+                failedBatch = null;
+                flushBatch(retryBatch);
+            }
+            OperationLogDTO temp;
+            // delegate 可能异步持有该 list，每批使用新的 list
+            List<OperationLogDTO> opLogList = new ArrayList<>(perFlushMax);
+            while ((temp = logBuffer.poll()) != null) {
+                opLogList.add(temp);
+                if (opLogList.size() == perFlushMax) {
+                    flushBatch(opLogList);
+                    opLogList = new ArrayList<>(perFlushMax);
+                }
             }
+            if (CollectionUtils.isNotEmpty(opLogList)) {
+                flushBatch(opLogList);
+            }
+        } finally {
+            flushing.set(false);
         }
-        if (CollectionUtils.isNotEmpty(opLogList)) {
+    }
+
+    /**
+     * 写入一批，成功后才从 bufferSize 中扣除；失败时保留该批，下次刷日志时重试，避免丢失
+     */
+    private void flushBatch(List<OperationLogDTO> opLogList) {
+        long start = System.currentTimeMillis();
+        try {
             delegate.log(opLogList);
-            lastLogTime.set(System.currentTimeMillis());
+        } catch (Throwable t) {
+            failedBatch = opLogList;
+            throw t;
+        }
+        bufferSize.addAndGet(-opLogList.size());
+        long end = System.currentTimeMillis();
+        long cost = end - start;
+        lastLogTime.set(end);
+        lastFlushMillis = cost;
+        if (cost > maxFlushMillis) {
+            maxFlushMillis = cost;
         }
-        flushing.set(false);
+        flushTotalMillis.addAndGet(cost);
+        flushCount.incrementAndGet();
     }
 
     @PreDestroy
@@ -140,4 +306,75 @@ public class BufferedOperationLogger implements OperationLogger {
         consumerLog();
     }
 
+    // ---------------------- 统计 ----------------------
+
+    /**
+     * buffer 中待刷日志数
+     */
+    public int getBufferSize() {
+        return bufferSize.get();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * buffer 满被丢弃的日志数
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * 批量写入次数
+     */
+    public long getFlushCount() {
+        return flushCount.get();
+    }
+
+    /**
+     * 批量写入总耗时（ms），除以 flushCount 即平均耗时
+     */
+    public long getFlushTotalMillis() {
+        return flushTotalMillis.get();
+    }
+
+    public long getLastFlushMillis() {
+        return lastFlushMillis;
+    }
+
+    public long getMaxFlushMillis() {
+        return maxFlushMillis;
+    }
+
+    /**
+     * 上次批量写入完成时间
+     */
+    public long getLastLogTime() {
+        return lastLogTime.get();
+    }
+
+    /**
+     * buffer 满时的处理策略
+     */
+    public enum OverflowPolicy {
+
+        /**
+         * 丢弃新日志
+         */
+        DISCARD_NEWEST,
+
+        /**
+         * 丢弃最早的日志，放入新日志
+         */
+        DISCARD_OLDEST,
+
+        /**
+         * 由业务线程直接调用 delegate 记录，反压调用方
+         */
+        CALLER_RUNS,
+        ;
+    }
+
 }
@@ -12,6 +12,7 @@ import org.shoulder.core.log.LoggerFactory;
 import org.shoulder.core.util.ServletUtil;
 
 import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 生产环境接口入参默认，以 Json 形式记录接口出入参数
@@ -41,7 +42,7 @@ public abstract class BaseRestControllerLogAspect {
     }
 
     /**
-     * 记录出入参
+     * 记录出入参、统计耗时
      *
      * @param jp 日志记录切点
      */
@@ -56,30 +57,65 @@ public abstract class BaseRestControllerLogAspect {
         Method method = methodSignature.getMethod();
         // 根据配置项选择 logger
         Logger log = useControllerLogger ? LoggerFactory.getLogger(method.getDeclaringClass()) : AppLoggers.APP_SERVICE;
-        if (!log.isDebugEnabled()) {
+        boolean logPayload = needLog(log);
+        boolean recordMetrics = needRecordMetrics();
+        if (!logPayload && !recordMetrics) {
             // 直接执行什么都不做
             return jp.proceed();
         }
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         // 前置
-        before(jp, log);
+        if (logPayload) {
+            before(jp, log);
+        }
 
         // 执行目标方法
         Object returnObject = null;
+        boolean success = false;
         try {
             returnObject = jp.proceed();
+            success = true;
             return returnObject;
-        } catch (Exception ignore) {
-            //AppContext.setError("xxx");
-            throw ignore;
-        }finally {
-            long cost = System.currentTimeMillis() - start;
-            // 全局异常处理器会记录详细异常，这里不需要详细记录异常相关
-            after(jp, log, returnObject, cost);
+        } finally {
+            long costNanos = System.nanoTime() - start;
+            if (recordMetrics) {
+                recordMetrics(method, costNanos, success);
+            }
+            if (logPayload) {
+                // 全局异常处理器会记录详细异常，这里不需要详细记录异常相关
+                after(jp, log, returnObject, TimeUnit.NANOSECONDS.toMillis(costNanos));
+            }
         }
 
     }
 
+    /**
+     * 本次请求是否记录出入参
+     *
+     * @param log logger
+     * @return 默认 debug 级别时记录
+     */
+    protected boolean needLog(Logger log) {
+        return log.isDebugEnabled();
+    }
+
+    /**
+     * 是否统计接口耗时、失败次数，默认不统计
+     */
+    protected boolean needRecordMetrics() {
+        return false;
+    }
+
+    /**
+     * 统计接口耗时、失败次数
+     *
+     * @param method    Controller 方法
+     * @param costNanos 耗时（纳秒）
+     * @param success   是否未抛异常
+     */
+    protected void recordMetrics(Method method, long costNanos, boolean success) {
+    }
+
     /**
      * 前置
      *
@@ -94,7 +130,7 @@ public abstract class BaseRestControllerLogAspect {
      * @param jp           连接点
      * @param log          logger
      * @param returnObject 返回值
-     * @param cost
+     * @param cost         耗时（毫秒）
      */
     protected abstract void after(ProceedingJoinPoint jp, Logger log, Object returnObject, long cost);
 
@@ -0,0 +1,221 @@
+package org.shoulder.web.advice;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.shoulder.core.concurrent.PeriodicTask;
+import org.shoulder.core.concurrent.Threads;
+import org.shoulder.core.log.AppLoggers;
+import org.shoulder.core.log.Logger;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 接口耗时统计：每个 Controller 方法一个 Timer（含 p50、p99）和一个失败计数器，标签在首次调用时计算并缓存
+ * <p>
+ * 相比每次请求打印一行摘要日志，记录一次耗时只是几次原子操作；另外定期在 APP-SERVICE-DIGEST 中汇总打印每个接口一行
+ * （周期内调用次数、失败次数、p50、p99、max），周期内未被调用的接口不打印
+ *
+ * @author lym
+ */
+public class EndpointMetricsRecorder {
+
+    public static final String DEFAULT_METRICS_NAME = "web_api";
+
+    public static final Duration DEFAULT_DIGEST_PERIOD = Duration.ofMinutes(1);
+
+    /**
+     * 接口标签名
+     */
+    private static final String TAG_API = "api";
+
+    private static final double[] PERCENTILES = {0.5, 0.99};
+
+    private final Logger digestLogger = AppLoggers.APP_SERVICE_DIGEST;
+
+    private final MeterRegistry registry;
+
+    private final String metricsName;
+
+    /**
+     * 汇总周期，同时也是 p50、p99、max 的统计窗口
+     */
+    private final Duration digestPeriod;
+
+    private final Map<Method, EndpointMetrics> endpointMetricsMap = new ConcurrentHashMap<>();
+
+    private volatile ScheduledFuture<?> digestFuture;
+
+    public EndpointMetricsRecorder(MeterRegistry registry) {
+        this(registry, DEFAULT_METRICS_NAME, DEFAULT_DIGEST_PERIOD);
+    }
+
+    public EndpointMetricsRecorder(MeterRegistry registry, String metricsName, Duration digestPeriod) {
+        this.registry = registry;
+        this.metricsName = metricsName;
+        this.digestPeriod = digestPeriod;
+    }
+
+    /**
+     * 记录一次调用
+     *
+     * @param method    Controller 方法
+     * @param costNanos 耗时（纳秒）
+     * @param success   是否成功
+     */
+    public void record(Method method, long costNanos, boolean success) {
+        EndpointMetrics endpointMetrics = endpointMetricsMap.get(method);
+        if (endpointMetrics == null) {
+            endpointMetrics = endpointMetricsMap.computeIfAbsent(method, this::createEndpointMetrics);
+        }
+        endpointMetrics.timer.record(costNanos, TimeUnit.NANOSECONDS);
+        if (!success) {
+            endpointMetrics.errorCounter.increment();
+        }
+    }
+
+    private EndpointMetrics createEndpointMetrics(Method method) {
+        String api = toApiTag(method);
+        Timer timer = Timer.builder(metricsName)
+            .tag(TAG_API, api)
+            .publishPercentiles(PERCENTILES)
+            .distributionStatisticExpiry(digestPeriod)
+            .register(registry);
+        Counter errorCounter = Counter.builder(metricsName + "_error")
+            .tag(TAG_API, api)
+            .register(registry);
+        return new EndpointMetrics(api, timer, errorCounter);
+    }
+
+    /**
+     * 接口标签：全类名#方法名(参数类型)，避免重载方法、不同包下同名 Controller 共用一个 Timer
+     */
+    protected String toApiTag(Method method) {
+        StringJoiner parameterTypes = new StringJoiner(",", "(", ")");
+        for (Class<?> parameterType : method.getParameterTypes()) {
+            parameterTypes.add(parameterType.getSimpleName());
+        }
+        return method.getDeclaringClass().getName() + "#" + method.getName() + parameterTypes;
+    }
+
+    /**
+     * 汇总上次汇总以来的调用情况
+     *
+     * @return 周期内有调用的接口
+     */
+    public List<EndpointDigest> digest() {
+        List<EndpointDigest> digests = new ArrayList<>();
+        for (EndpointMetrics endpointMetrics : endpointMetricsMap.values()) {
+            EndpointDigest digest = endpointMetrics.digest();
+            if (digest != null) {
+                digests.add(digest);
+            }
+        }
+        return digests;
+    }
+
+    /**
+     * 打印汇总日志，每个接口一行
+     */
+    public void logDigest() {
+        if (!digestLogger.isInfoEnabled()) {
+            return;
+        }
+        for (EndpointDigest digest : digest()) {
+            digestLogger.info("api={}, count={}, error={}, p50={}ms, p99={}ms, max={}ms",
+                digest.api(), digest.count(), digest.errorCount(), digest.p50Millis(), digest.p99Millis(), digest.maxMillis());
+        }
+    }
+
+    /**
+     * 开始定期打印汇总日志
+     */
+    public synchronized void startDigest() {
+        if (digestFuture != null) {
+            return;
+        }
+        digestFuture = Threads.schedule(PeriodicTask.create("webApiDigest", this::logDigest, Instant.now().plus(digestPeriod),
+            (now, runCount) -> now.plus(digestPeriod)));
+    }
+
+    /**
+     * 停止定期打印，Bean 销毁时调用
+     */
+    public synchronized void shutdown() {
+        if (digestFuture != null) {
+            digestFuture.cancel(false);
+            digestFuture = null;
+        }
+    }
+
+    /**
+     * 接口汇总
+     *
+     * @param api        接口标签
+     * @param count      周期内调用次数
+     * @param errorCount 周期内失败次数
+     * @param p50Millis  p50 耗时
+     * @param p99Millis  p99 耗时
+     * @param maxMillis  最大耗时
+     */
+    public record EndpointDigest(String api, long count, long errorCount, double p50Millis, double p99Millis,
+                                 double maxMillis) {
+    }
+
+    private static class EndpointMetrics {
+
+        private final String api;
+
+        private final Timer timer;
+
+        private final Counter errorCounter;
+
+        /**
+         * 上次汇总时的累计值，仅汇总线程访问
+         */
+        private long lastCount;
+
+        private long lastErrorCount;
+
+        private EndpointMetrics(String api, Timer timer, Counter errorCounter) {
+            this.api = api;
+            this.timer = timer;
+            this.errorCounter = errorCounter;
+        }
+
+        private synchronized EndpointDigest digest() {
+            HistogramSnapshot snapshot = timer.takeSnapshot();
+            long count = snapshot.count();
+            long errorCount = (long) errorCounter.count();
+            long periodCount = count - lastCount;
+            long periodErrorCount = errorCount - lastErrorCount;
+            lastCount = count;
+            lastErrorCount = errorCount;
+            if (periodCount <= 0) {
+                return null;
+            }
+            double p50 = 0;
+            double p99 = 0;
+            for (ValueAtPercentile valueAtPercentile : snapshot.percentileValues()) {
+                if (valueAtPercentile.percentile() == PERCENTILES[0]) {
+                    p50 = valueAtPercentile.value(TimeUnit.MILLISECONDS);
+                } else if (valueAtPercentile.percentile() == PERCENTILES[1]) {
+                    p99 = valueAtPercentile.value(TimeUnit.MILLISECONDS);
+                }
+            }
+            return new EndpointDigest(api, periodCount, periodErrorCount, p50, p99, snapshot.max(TimeUnit.MILLISECONDS));
+        }
+    }
+
+}
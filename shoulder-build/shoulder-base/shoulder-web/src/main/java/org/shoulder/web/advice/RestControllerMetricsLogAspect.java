@@ -0,0 +1,51 @@
+package org.shoulder.web.advice;
+
+import org.aspectj.lang.annotation.Aspect;
+import org.shoulder.core.log.Logger;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 生产环境推荐：始终统计每个接口的耗时、失败次数，并定期汇总打印（见 {@link EndpointMetricsRecorder}），不再每次请求打印一行日志
+ * <p>
+ * 出入参仍可按比例抽样以 Json 形式记录；debug 级别时全部记录
+ *
+ * @author lym
+ */
+@Aspect
+public class RestControllerMetricsLogAspect extends RestControllerJsonLogAspect {
+
+    private final EndpointMetricsRecorder metricsRecorder;
+
+    /**
+     * 出入参抽样比例 [0, 1]，0 为不抽样
+     */
+    private final double payloadSampleRate;
+
+    public RestControllerMetricsLogAspect(boolean useControllerLogger, EndpointMetricsRecorder metricsRecorder,
+                                          double payloadSampleRate) {
+        super(useControllerLogger);
+        this.metricsRecorder = metricsRecorder;
+        this.payloadSampleRate = payloadSampleRate;
+    }
+
+    @Override
+    protected boolean needLog(Logger log) {
+        if (super.needLog(log)) {
+            return true;
+        }
+        return payloadSampleRate > 0 && ThreadLocalRandom.current().nextDouble() < payloadSampleRate && log.isInfoEnabled();
+    }
+
+    @Override
+    protected boolean needRecordMetrics() {
+        return true;
+    }
+
+    @Override
+    protected void recordMetrics(Method method, long costNanos, boolean success) {
+        metricsRecorder.record(method, costNanos, success);
+    }
+
+}
@@ -37,7 +37,7 @@ public abstract class BasePathFilter implements Filter {
     public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse, FilterChain filterChain) throws IOException, ServletException {
         HttpServletRequest httpServletRequest = (HttpServletRequest) servletRequest;
         HttpServletResponse httpServletResponse = (HttpServletResponse) servletResponse;
-        if (pathFilterhelper.needFilter(httpServletRequest.getRequestURI())) {
+        if (pathFilterhelper.needFilter(httpServletRequest)) {
             doPathFilter(httpServletRequest, httpServletResponse, filterChain);
         } else {
             filterChain.doFilter(servletRequest, servletResponse);
@@ -0,0 +1,378 @@
+package org.shoulder.web.filter;
+
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * 预编译的路径匹配器，匹配结果与 {@link AntPathMatcher} 一致
+ * <p>
+ * 创建时将所有需要过滤、排除的路径按 / 拆分为段，编译为一棵段前缀树：普通段使用 HashMap 查找，
+ * 含 * ? {var} 的段预编译为正则，** 作为可停留的节点。匹配时只遍历一次请求路径，
+ * 同时得到"是否在过滤路径中"与"是否在排除路径中"，耗时与路径长度相关，而不是 路径数 × 路径长度。
+ * <p>
+ * 不以 / 开头、或段内带自定义正则（{name:regex}）的路径不编译，仍使用 AntPathMatcher 逐个匹配
+ *
+ * @author lym
+ */
+public class CompiledPathMatcher {
+
+    /**
+     * 在过滤路径中
+     */
+    public static final int INCLUDED = 1;
+
+    /**
+     * 在排除路径中
+     */
+    public static final int EXCLUDED = 2;
+
+    private static final String SEPARATOR = "/";
+
+    private static final String DOUBLE_WILDCARD = "**";
+
+    private final Node root = new Node();
+
+    /**
+     * 未编译的路径
+     */
+    private final List<String> fallbackIncludes = new ArrayList<>(0);
+
+    private final List<String> fallbackExcludes = new ArrayList<>(0);
+
+    /**
+     * 所有路径，请求路径不以 / 开头时使用
+     */
+    private final List<String> allIncludes;
+
+    private final List<String> allExcludes;
+
+    private final PathMatcher antPathMatcher = new AntPathMatcher();
+
+    public CompiledPathMatcher(Collection<String> includePatterns, Collection<String> excludePatterns) {
+        this.allIncludes = new ArrayList<>(includePatterns);
+        this.allExcludes = new ArrayList<>(excludePatterns);
+        for (String pattern : includePatterns) {
+            if (!compile(pattern, INCLUDED)) {
+                fallbackIncludes.add(pattern);
+            }
+        }
+        for (String pattern : excludePatterns) {
+            if (!compile(pattern, EXCLUDED)) {
+                fallbackExcludes.add(pattern);
+            }
+        }
+    }
+
+    /**
+     * 是否需要过滤：在过滤路径中，且不在排除路径中
+     */
+    public boolean needFilter(String path) {
+        return needFilter(path, splitPath(path));
+    }
+
+    /**
+     * 是否需要过滤
+     *
+     * @param path     请求路径
+     * @param segments 已拆分好的路径段，见 {@link #splitPath}
+     */
+    public boolean needFilter(String path, String[] segments) {
+        int result = match(path, segments);
+        return (result & INCLUDED) != 0 && (result & EXCLUDED) == 0;
+    }
+
+    /**
+     * 匹配
+     *
+     * @return {@link #INCLUDED} {@link #EXCLUDED} 的组合
+     */
+    public int match(String path, String[] segments) {
+        if (!path.startsWith(SEPARATOR)) {
+            return matchByAnt(path, allIncludes, allExcludes);
+        }
+        int result = matchByTrie(segments, path.endsWith(SEPARATOR));
+        if (!fallbackIncludes.isEmpty() || !fallbackExcludes.isEmpty()) {
+            result |= matchByAnt(path, fallbackIncludes, fallbackExcludes);
+        }
+        return result;
+    }
+
+    private int matchByAnt(String path, List<String> includes, List<String> excludes) {
+        int result = 0;
+        for (String pattern : includes) {
+            if (antPathMatcher.match(pattern, path)) {
+                result |= INCLUDED;
+                break;
+            }
+        }
+        for (String pattern : excludes) {
+            if (antPathMatcher.match(pattern, path)) {
+                result |= EXCLUDED;
+                break;
+            }
+        }
+        return result;
+    }
+
+    private int matchByTrie(String[] segments, boolean endsWithSeparator) {
+        List<Node> active = new ArrayList<>(4);
+        List<Node> next = new ArrayList<>(4);
+        addWithClosure(active, root);
+        for (String segment : segments) {
+            next.clear();
+            for (Node node : active) {
+                if (node.doubleWildcard) {
+                    // ** 可以匹配任意多段，停留在当前节点
+                    addWithClosure(next, node);
+                }
+                if (node.literalChildren != null) {
+                    Node child = node.literalChildren.get(segment);
+                    if (child != null) {
+                        addWithClosure(next, child);
+                    }
+                }
+                if (node.patternChildren != null) {
+                    for (Node child : node.patternChildren) {
+                        if (child.segmentPattern == null || child.segmentPattern.matcher(segment).matches()) {
+                            addWithClosure(next, child);
+                        }
+                    }
+                }
+            }
+            if (next.isEmpty()) {
+                return 0;
+            }
+            List<Node> temp = active;
+            active = next;
+            next = temp;
+        }
+        int result = 0;
+        for (Node node : active) {
+            result |= node.terminalAny | (endsWithSeparator ? node.terminalWithSeparator : node.terminal);
+            if (endsWithSeparator && node.patternChildren != null) {
+                // 与 AntPathMatcher 一致：/a/* 可以匹配 /a/
+                for (Node child : node.patternChildren) {
+                    if (child.singleWildcard) {
+                        result |= child.terminalMatchEmpty;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 加入节点，并加入其 ** 子节点（** 可以匹配 0 段）
+     */
+    private static void addWithClosure(List<Node> nodes, Node node) {
+        if (nodes.contains(node)) {
+            return;
+        }
+        nodes.add(node);
+        if (node.doubleWildcardChild != null) {
+            addWithClosure(nodes, node.doubleWildcardChild);
+        }
+    }
+
+    /**
+     * 编译路径
+     *
+     * @return 是否支持编译
+     */
+    private boolean compile(String pattern, int flag) {
+        if (!pattern.startsWith(SEPARATOR)) {
+            return false;
+        }
+        String[] segments = splitPath(pattern);
+        if (segments.length == 0) {
+            return false;
+        }
+        boolean hasDoubleWildcard = false;
+        Node node = root;
+        for (String segment : segments) {
+            if (DOUBLE_WILDCARD.equals(segment)) {
+                hasDoubleWildcard = true;
+                if (node.doubleWildcardChild == null) {
+                    node.doubleWildcardChild = new Node();
+                    node.doubleWildcardChild.doubleWildcard = true;
+                }
+                node = node.doubleWildcardChild;
+            } else if (isLiteral(segment)) {
+                if (node.literalChildren == null) {
+                    node.literalChildren = new HashMap<>(4);
+                }
+                node = node.literalChildren.computeIfAbsent(segment, k -> new Node());
+            } else {
+                if (segment.contains(":")) {
+                    // {name:regex} 交给 AntPathMatcher
+                    return false;
+                }
+                node = patternChild(node, segment);
+            }
+        }
+        // 与 AntPathMatcher 一致：以 ** 结尾时不要求结尾 / 一致，否则要求一致
+        String lastSegment = segments[segments.length - 1];
+        if (!hasDoubleWildcard && "*".equals(lastSegment)) {
+            node.terminalMatchEmpty |= flag;
+        }
+        if (DOUBLE_WILDCARD.equals(lastSegment)) {
+            node.terminalAny |= flag;
+        } else if (pattern.endsWith(SEPARATOR)) {
+            node.terminalWithSeparator |= flag;
+        } else {
+            node.terminal |= flag;
+        }
+        return true;
+    }
+
+    private static Node patternChild(Node node, String segment) {
+        if (node.patternChildren == null) {
+            node.patternChildren = new ArrayList<>(2);
+        }
+        for (Node child : node.patternChildren) {
+            if (segment.equals(child.segment)) {
+                return child;
+            }
+        }
+        Node child = new Node();
+        child.segment = segment;
+        child.singleWildcard = "*".equals(segment);
+        // 单个 * 或 {var} 可匹配任意段，无需正则
+        boolean matchAny = child.singleWildcard || (segment.startsWith("{") && segment.endsWith("}")
+            && segment.indexOf('}') == segment.length() - 1);
+        child.segmentPattern = matchAny ? null : toRegex(segment);
+        node.patternChildren.add(child);
+        return child;
+    }
+
+    private static boolean isLiteral(String segment) {
+        for (int i = 0; i < segment.length(); i++) {
+            char c = segment.charAt(i);
+            if (c == '*' || c == '?' || c == '{') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 段内通配转正则：* 任意个字符，? 一个字符，{var} 任意个字符
+     */
+    private static Pattern toRegex(String segment) {
+        StringBuilder regex = new StringBuilder();
+        int literalStart = 0;
+        for (int i = 0; i < segment.length(); i++) {
+            char c = segment.charAt(i);
+            if (c != '*' && c != '?' && c != '{') {
+                continue;
+            }
+            if (i > literalStart) {
+                regex.append(Pattern.quote(segment.substring(literalStart, i)));
+            }
+            if (c == '*') {
+                regex.append(".*");
+            } else if (c == '?') {
+                regex.append('.');
+            } else {
+                int end = segment.indexOf('}', i);
+                if (end < 0) {
+                    regex.append(Pattern.quote(segment.substring(i)));
+                    i = segment.length();
+                    literalStart = i;
+                    continue;
+                }
+                regex.append(".*");
+                i = end;
+            }
+            literalStart = i + 1;
+        }
+        if (literalStart < segment.length()) {
+            regex.append(Pattern.quote(segment.substring(literalStart)));
+        }
+        return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+
+    /**
+     * 按 / 拆分路径，忽略空段（与 AntPathMatcher 一致）
+     */
+    public static String[] splitPath(String path) {
+        List<String> segments = new ArrayList<>(8);
+        int start = 0;
+        int length = path.length();
+        for (int i = 0; i <= length; i++) {
+            if (i == length || path.charAt(i) == '/') {
+                if (i > start) {
+                    segments.add(path.substring(start, i));
+                }
+                start = i + 1;
+            }
+        }
+        return segments.toArray(new String[0]);
+    }
+
+    private static class Node {
+
+        /**
+         * 普通段子节点
+         */
+        private Map<String, Node> literalChildren;
+
+        /**
+         * 含通配的段子节点
+         */
+        private List<Node> patternChildren;
+
+        /**
+         * ** 子节点
+         */
+        private Node doubleWildcardChild;
+
+        /**
+         * 本节点是否为 **
+         */
+        private boolean doubleWildcard;
+
+        /**
+         * 本节点对应的段（仅通配段）
+         */
+        private String segment;
+
+        /**
+         * 本节点是否为单个 *
+         */
+        private boolean singleWildcard;
+
+        /**
+         * 段匹配正则，null 表示匹配任意段
+         */
+        private Pattern segmentPattern;
+
+        /**
+         * 以本节点结束的路径（结尾无 /）
+         */
+        private int terminal;
+
+        /**
+         * 以本节点结束的路径（结尾有 /）
+         */
+        private int terminalWithSeparator;
+
+        /**
+         * 以本节点（**）结束的路径，不要求结尾 / 一致
+         */
+        private int terminalAny;
+
+        /**
+         * 以本节点（*）结束且不含 ** 的路径，可以匹配以 / 结尾的上一级路径
+         */
+        private int terminalMatchEmpty;
+    }
+
+}
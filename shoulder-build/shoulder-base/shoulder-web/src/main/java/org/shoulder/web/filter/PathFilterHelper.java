@@ -1,24 +1,44 @@
 package org.shoulder.web.filter;
 
+import jakarta.annotation.Nullable;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.util.AntPathMatcher;
 import org.springframework.util.PathMatcher;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 
 
 /**
  * 路径过滤器，代理模式工具类
+ * <p>
+ * 过滤、排除路径在首次使用时编译为 {@link CompiledPathMatcher}，一次遍历请求路径得出结果；
+ * 同一请求内多个过滤器共享拆分后的路径（保存在 request attribute 中）；最近的判断结果按 uri 缓存
  *
  * @author lym
  */
 public class PathFilterHelper {
 
     /**
-     * 支持 ant 匹配
-     * 如果不用类似 |**|health 这种后缀匹配, PathPatternParser 性能会高一些
+     * 拆分后的请求路径，同一请求内多个过滤器共享
      */
-    protected PathMatcher pathMatcher = new AntPathMatcher();
+    public static final String REQUEST_PATH_SEGMENTS_ATTRIBUTE = PathFilterHelper.class.getName() + ".PATH_SEGMENTS";
+
+    /**
+     * 判断结果缓存槽位数，需为 2 的幂
+     */
+    private static final int DECISION_CACHE_SIZE = 256;
+
+    /**
+     * 默认的 ant 匹配，仅作为是否自定义 pathMatcher 的判断依据，实际由 {@link CompiledPathMatcher} 匹配（结果一致）
+     */
+    private final PathMatcher defaultPathMatcher = new AntPathMatcher();
+
+    /**
+     * 支持 ant 匹配，默认使用预编译的 {@link CompiledPathMatcher}
+     * 子类替换为其他 PathMatcher 实例（如 PathPatternParser 适配、大小写不敏感的 AntPathMatcher）时，使用该实例逐个匹配，不缓存判断结果
+     */
+    protected PathMatcher pathMatcher = defaultPathMatcher;
 
     /**
      * 需要过滤的路径
@@ -35,9 +55,19 @@ public class PathFilterHelper {
      */
     private boolean enable = true;
 
+    /**
+     * 编译后的匹配器，路径变化后置空，下次使用时重新编译
+     */
+    private volatile CompiledPathMatcher compiledPathMatcher;
+
+    /**
+     * 最近的判断结果：按 uri hash 直接映射的定长数组，冲突时覆盖（近似 LRU，避免 uri 中含变量时无限增长）
+     */
+    private volatile Decision[] decisionCache = new Decision[DECISION_CACHE_SIZE];
+
     public PathFilterHelper(PathFilterProperties properties) {
-        this.filterPaths = new LinkedList<>();
-        this.excludePaths = new LinkedList<>();
+        this.filterPaths = new ArrayList<>();
+        this.excludePaths = new ArrayList<>();
         if (properties != null) {
             addFilterPathPattern(properties.getPathPatterns());
             addExcludePathPattern(properties.getExcludePathPatterns());
@@ -57,17 +87,30 @@ public class PathFilterHelper {
     /**
      * 通过该方法添加需要过滤的路径
      */
-    protected void addFilterPathPattern(List<String> filterPathPattern) {
+    protected synchronized void addFilterPathPattern(List<String> filterPathPattern) {
         this.filterPaths.addAll(filterPathPattern);
+        reset();
     }
 
     /**
      * 通过该方法添加不需要过滤的路径
      */
-    protected void addExcludePathPattern(List<String> excludePathPattern) {
+    protected synchronized void addExcludePathPattern(List<String> excludePathPattern) {
         this.excludePaths.addAll(excludePathPattern);
+        reset();
     }
 
+    private void reset() {
+        this.compiledPathMatcher = null;
+        this.decisionCache = new Decision[DECISION_CACHE_SIZE];
+    }
+
+    /**
+     * 判断请求是否需要进行过滤，同 {@link #needFilter(String)}，同一请求内复用拆分后的路径
+     */
+    public boolean needFilter(HttpServletRequest request) {
+        return needFilter(request.getRequestURI(), request);
+    }
 
     /**
      * 判断 url 是否需要进行过滤，需要同时满足三个条件
@@ -76,14 +119,37 @@ public class PathFilterHelper {
      * 不在排除路径中
      */
     public boolean needFilter(String uri) {
+        return needFilter(uri, null);
+    }
+
+    private boolean needFilter(String uri, @Nullable HttpServletRequest request) {
         if (!this.enable) {
             return false;
         }
+        PathMatcher customPathMatcher = pathMatcher;
+        if (customPathMatcher != defaultPathMatcher) {
+            return matchByPathMatcher(uri, customPathMatcher);
+        }
+        Decision[] cache = decisionCache;
+        int index = uri.hashCode() & (DECISION_CACHE_SIZE - 1);
+        Decision decision = cache[index];
+        if (decision != null && decision.uri().equals(uri)) {
+            return decision.needFilter();
+        }
+        boolean needFilter = getCompiledPathMatcher().needFilter(uri, getPathSegments(uri, request));
+        cache[index] = new Decision(uri, needFilter);
+        return needFilter;
+    }
+
+    /**
+     * 使用自定义的 pathMatcher 逐个匹配
+     */
+    private boolean matchByPathMatcher(String uri, PathMatcher customPathMatcher) {
         for (String filterPath : filterPaths) {
-            if (pathMatcher.match(filterPath, uri)) {
+            if (customPathMatcher.match(filterPath, uri)) {
                 // 满足需要校验路径的条件
                 for (String excludePath : excludePaths) {
-                    if (pathMatcher.match(excludePath, uri)) {
+                    if (customPathMatcher.match(excludePath, uri)) {
                         // 需要排除/跳过/忽略
                         return false;
                     }
@@ -94,4 +160,43 @@ public class PathFilterHelper {
         return false;
     }
 
+    private static String[] getPathSegments(String uri, @Nullable HttpServletRequest request) {
+        if (request == null) {
+            return CompiledPathMatcher.splitPath(uri);
+        }
+        if (request.getAttribute(REQUEST_PATH_SEGMENTS_ATTRIBUTE) instanceof RequestPathSegments requestPath
+            && requestPath.uri().equals(uri)) {
+            return requestPath.segments();
+        }
+        String[] segments = CompiledPathMatcher.splitPath(uri);
+        request.setAttribute(REQUEST_PATH_SEGMENTS_ATTRIBUTE, new RequestPathSegments(uri, segments));
+        return segments;
+    }
+
+    private CompiledPathMatcher getCompiledPathMatcher() {
+        CompiledPathMatcher matcher = compiledPathMatcher;
+        if (matcher == null) {
+            synchronized (this) {
+                matcher = compiledPathMatcher;
+                if (matcher == null) {
+                    matcher = new CompiledPathMatcher(filterPaths, excludePaths);
+                    compiledPathMatcher = matcher;
+                }
+            }
+        }
+        return matcher;
+    }
+
+    /**
+     * 拆分后的请求路径
+     */
+    private record RequestPathSegments(String uri, String[] segments) {
+    }
+
+    /**
+     * uri 与判断结果
+     */
+    private record Decision(String uri, boolean needFilter) {
+    }
+
 }
@@ -7,63 +7,35 @@ import org.shoulder.core.util.StringUtils;
 
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.regex.Pattern;
 
 /**
  * xss 安全保护
  * 建议 xss 去除还是放在入参检查，因为有些框架会有根据 header / 请求参数解析等，如果开启容易异常
+ * <p>
+ * 清理规则见 {@link XssSanitizer}；参数在首次读取时统一清理并缓存，同一请求内多次读取（Spring 参数绑定会多次调用 getParameterMap）不重复计算
  *
  * @author lym
  */
 public class XssRequestWrapper extends HttpServletRequestWrapper {
 
-    /**
-     * xss脚本正则
-     */
-    private static final Pattern[] XSS_SCRIPT_PATTERNS = new Pattern[]{
-        // Avoid anything between script tags
-        Pattern.compile("<(no)?script>(.*?)</(no)?script>", Pattern.CASE_INSENSITIVE),
-        // Avoid anything in a src='...' type of expression
-        Pattern.compile("src[\\s]*=[\\s]*'(.*?)'", Pattern.CASE_INSENSITIVE | Pattern.MULTILINE | Pattern.DOTALL),
-        Pattern.compile("src[\\s]*=[\\s]*\"(.*?)\"", Pattern.CASE_INSENSITIVE | Pattern.MULTILINE | Pattern.DOTALL),
-        // Remove any lonesome </script> tag
-        Pattern.compile("</script>", Pattern.CASE_INSENSITIVE),
-        // Remove any lonesome <script ...> tag
-        Pattern.compile("<script(.*?)>", Pattern.CASE_INSENSITIVE | Pattern.MULTILINE | Pattern.DOTALL),
-        // Avoid eval(...) expressions
-        Pattern.compile("eval\\((.*?)\\)", Pattern.CASE_INSENSITIVE | Pattern.MULTILINE | Pattern.DOTALL),
-        // Avoid expression(...) expressions
-        Pattern.compile("expression\\((.*?)\\)", Pattern.CASE_INSENSITIVE | Pattern.MULTILINE | Pattern.DOTALL),
-        // Avoid javascript:vbscript:view-source:xxx expressions
-        Pattern.compile("(javascript:|vbscript:|view-source:)*", Pattern.CASE_INSENSITIVE),
-        // Avoid onload= expressions
-        Pattern.compile("onload(.*?)=", Pattern.CASE_INSENSITIVE | Pattern.MULTILINE | Pattern.DOTALL),
-        Pattern.compile("<(\"[^\"]*\"|'[^']*'|[^'\">])*>", Pattern.CASE_INSENSITIVE | Pattern.MULTILINE | Pattern.DOTALL),
-        Pattern.compile("(window\\.location|window\\.|\\.location|document\\.cookie|document\\.|alert\\(.*?\\)|window\\.open\\()*", Pattern.CASE_INSENSITIVE | Pattern.MULTILINE | Pattern.DOTALL),
-        Pattern.compile("<+\\s*\\w*\\s*(oncontrolselect|oncopy|oncut|ondataavailable|ondatasetchanged|ondatasetcomplete|ondblclick|ondeactivate|ondrag|ondragend|ondragenter|ondragleave|ondragover|ondragstart|ondrop|onerror=|onerroupdate|onfilterchange|onfinish|onfocus|onfocusin|onfocusout|onhelp|onkeydown|onkeypress|onkeyup|onlayoutcomplete|onload|onlosecapture|onmousedown|onmouseenter|onmouseleave|onmousemove|onmousout|onmouseover|onmouseup|onmousewheel|onmove|onmoveend|onmovestart|onabort|onactivate|onafterprint|onafterupdate|onbefore|onbeforeactivate|onbeforecopy|onbeforecut|onbeforedeactivate|onbeforeeditocus|onbeforepaste|onbeforeprint|onbeforeunload|onbeforeupdate|onblur|onbounce|oncellchange|onchange|onclick|oncontextmenu|onpaste|onpropertychange|onreadystatuschange|onreset|onresize|onresizend|onresizestart|onrowenter|onrowexit|onrowsdelete|onrowsinserted|onscroll|onselect|onselectionchange|onselectstart|onstart|onstop|onsubmit|onunload)+\\s*=+", Pattern.CASE_INSENSITIVE | Pattern.MULTILINE | Pattern.DOTALL)
-    };
+    private final String charset;
 
     /**
-     * html 转义符
+     * 清理后的参数，首次读取时初始化
      */
-    private static final Map<String, String> HTML_ESCAPE_CHARACTER_MAP = new HashMap<>();
-    private static String charset;
+    private Map<String, String[]> sanitizedParameterMap;
 
-    static {
-        HTML_ESCAPE_CHARACTER_MAP.put("<", "&lt;");
-        HTML_ESCAPE_CHARACTER_MAP.put(">", "&gt;");
-        HTML_ESCAPE_CHARACTER_MAP.put("\\(", "&#x28;");
-        HTML_ESCAPE_CHARACTER_MAP.put("\\)", "&#x29;");
-        HTML_ESCAPE_CHARACTER_MAP.put("'", "&#x27;");
-        HTML_ESCAPE_CHARACTER_MAP.put("\"", "&quot;");
-        HTML_ESCAPE_CHARACTER_MAP.put("/", "&#x2f;");
-    }
+    private String sanitizedQueryString;
+
+    private boolean queryStringSanitized;
 
     public XssRequestWrapper(HttpServletRequest servletRequest) {
         super(servletRequest);
-        charset = super.getCharacterEncoding();
+        String requestCharset = super.getCharacterEncoding();
+        this.charset = requestCharset != null ? requestCharset : AppInfo.charset().name();
     }
 
     /**
@@ -71,16 +43,8 @@ public class XssRequestWrapper extends HttpServletRequestWrapper {
      */
     @Override
     public String[] getParameterValues(String name) {
-        String[] values = super.getParameterValues(name);
-        if (values == null) {
-            return null;
-        }
-        int count = values.length;
-        String[] encodedValues = new String[count];
-        for (int i = 0; i < count; i++) {
-            encodedValues[i] = securityContext(values[i]);
-        }
-        return encodedValues;
+        String[] values = getParameterMap().get(name);
+        return values == null ? null : values.clone();
     }
 
     /**
@@ -88,26 +52,10 @@ public class XssRequestWrapper extends HttpServletRequestWrapper {
      */
     @Override
     public String getParameter(String name) {
-        String value = super.getParameter(name);
-        if (StringUtils.isEmpty(value)) {
-            return value;
-        }
-        return securityContext(value);
+        String[] values = getParameterMap().get(name);
+        return values == null || values.length == 0 ? null : values[0];
     }
 
-    /**
-     * 获取attribute,特殊字符过滤
-     */
-    @Override
-    public Object getAttribute(String name) {
-        Object value = super.getAttribute(name);
-        if (value instanceof String) {
-            securityContext((String) value);
-        }
-        return value;
-    }
-
-
     /**
      * 去除请求头中的脚本
      */
@@ -119,73 +67,53 @@ public class XssRequestWrapper extends HttpServletRequestWrapper {
 
     @Override
     public String getQueryString() {
-        return securityContext(super.getQueryString());
+        if (!queryStringSanitized) {
+            sanitizedQueryString = securityContext(super.getQueryString());
+            queryStringSanitized = true;
+        }
+        return sanitizedQueryString;
     }
 
     @Override
     public Map<String, String[]> getParameterMap() {
-        Map<String, String[]> map = super.getParameterMap();
-        Map<String, String[]> newMap = new HashMap<>();
-        for (String key : map.keySet()) {
-            String[] values = map.get(key);
-            if (values != null && values.length > 0) {
-                String[] newValues = new String[values.length];
-                for (int i = 0; i < values.length; i++) {
-                    newValues[i] = securityContext(values[i]);
+        if (sanitizedParameterMap == null) {
+            Map<String, String[]> map = super.getParameterMap();
+            Map<String, String[]> newMap = new LinkedHashMap<>(map.size() * 4 / 3 + 1);
+            for (Map.Entry<String, String[]> entry : map.entrySet()) {
+                String[] values = entry.getValue();
+                if (values != null && values.length > 0) {
+                    String[] newValues = new String[values.length];
+                    for (int i = 0; i < values.length; i++) {
+                        newValues[i] = securityContext(values[i]);
+                    }
+                    newMap.put(entry.getKey(), newValues);
+                } else {
+                    newMap.put(entry.getKey(), values);
                 }
-                newMap.put(key, newValues);
-            } else {
-                newMap.put(key, values);
             }
+            sanitizedParameterMap = Collections.unmodifiableMap(newMap);
         }
-        return newMap;
+        return sanitizedParameterMap;
     }
 
     /**
      * 过滤脚本攻击，将html字符转义
      */
     private String securityContext(String context) {
-        return stripXss(context);
-    }
-
-    /**
-     * 去掉 script 脚本关键字
-     */
-    private String stripXss(String context) {
         if (StringUtils.isEmpty(context)) {
             return context;
         }
-        try {
-            if (charset == null) {
-                // 支持修改?
-                charset = AppInfo.charset().name();
-            }
-            context = URLDecoder.decode(context, charset);
-        } catch (UnsupportedEncodingException e) {
-            return context;
-        }
-        // 开始替换
-        context = context.replaceAll("\0", "");
-
-        // 去除脚本正则
-        for (Pattern scriptPattern : XSS_SCRIPT_PATTERNS) {
-            context = scriptPattern.matcher(context).replaceAll("");
-        }
-        return filterHtmlEscape(context);
+        return XssSanitizer.sanitize(urlDecode(context));
     }
 
     /**
-     * 对 html 进行转换
+     * url 解码，格式不合法（如单独的 %）时使用原值
      */
-    private String filterHtmlEscape(String context) {
-        if(StringUtils.isEmpty(context)) {
+    private String urlDecode(String context) {
+        try {
+            return URLDecoder.decode(context, charset);
+        } catch (IllegalArgumentException | UnsupportedEncodingException e) {
             return context;
         }
-        for (Map.Entry<String, String> entry : HTML_ESCAPE_CHARACTER_MAP.entrySet()) {
-            String escapeChar = entry.getKey();
-            String convertChar = entry.getValue();
-            context = context.replace(escapeChar, convertChar);
-        }
-        return context;
     }
 }
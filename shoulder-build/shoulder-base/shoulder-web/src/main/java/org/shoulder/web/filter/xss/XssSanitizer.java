@@ -0,0 +1,360 @@
+package org.shoulder.web.filter.xss;
+
+/**
+ * xss 清理：单次扫描完成脚本去除与 html 转义
+ * <p>
+ * 关键字编译为前缀树（字母表为 a-z 及 . : - (，数组跳转，忽略大小写），逐字符扫描原字符串，命中后按规则删除；
+ * 未发现任何需要处理的内容时直接返回原字符串，不分配内存。
+ * 删除内容后可能拼出新的关键字（如 javajavascript:script:、sr&lt;b&gt;c="x"），此时对结果再扫描，直到不再删除；
+ * 删除阶段不转义（否则拼出的 src="..." 中的引号已被转义，无法识别），删除完成后再扫描一次转义。
+ * <p>
+ * 规则：
+ * <ul>
+ *     <li>完整标签 &lt;...&gt;（引号内的 &gt; 不算结束）删除；script / noscript 标签连同内容一起删除</li>
+ *     <li>javascript: vbscript: view-source: window. document. .location 等关键字删除</li>
+ *     <li>eval( expression( alert( 删除至下一个 )</li>
+ *     <li>src='...' src="..." 删除；onload 删除至下一个 =；onclick= 等事件属性（单词开头）删除</li>
+ *     <li>\0 删除；其余 &lt; &gt; ' " / 转义。括号不转义</li>
+ * </ul>
+ *
+ * @author lym
+ */
+public final class XssSanitizer {
+
+    /**
+     * 删除后最多再扫描几次
+     */
+    private static final int MAX_ROUNDS = 8;
+
+    /**
+     * 删除匹配到的关键字
+     */
+    private static final int REMOVE = 1;
+
+    /**
+     * 删除至下一个 )，没有则只删除关键字
+     */
+    private static final int REMOVE_TO_PAREN = 2;
+
+    /**
+     * 删除至下一个 =，没有则不删除
+     */
+    private static final int REMOVE_TO_EQUALS = 3;
+
+    /**
+     * 事件属性：单词开头，后接 [空白]=
+     */
+    private static final int EVENT_HANDLER = 4;
+
+    /**
+     * src[空白]=[空白]引号...引号
+     */
+    private static final int SRC = 5;
+
+    /**
+     * 扫描模式：只删除
+     */
+    private static final int MODE_REMOVE = 1;
+
+    /**
+     * 扫描模式：只转义
+     */
+    private static final int MODE_ESCAPE = 2;
+
+    private static final String[] ESCAPES = new String[128];
+
+    /**
+     * 前缀树字母表大小：a-z . : - (
+     */
+    private static final int ALPHABET_SIZE = 30;
+
+    private static final Node ROOT = new Node();
+
+    private static final String[] EVENT_HANDLERS = {
+        "oncontrolselect", "oncopy", "oncut", "ondataavailable", "ondatasetchanged", "ondatasetcomplete", "ondblclick",
+        "ondeactivate", "ondrag", "ondragend", "ondragenter", "ondragleave", "ondragover", "ondragstart", "ondrop", "onerror",
+        "onerroupdate", "onfilterchange", "onfinish", "onfocus", "onfocusin", "onfocusout", "onhelp", "onkeydown",
+        "onkeypress", "onkeyup", "onlayoutcomplete", "onlosecapture", "onmousedown", "onmouseenter", "onmouseleave",
+        "onmousemove", "onmousout", "onmouseover", "onmouseup", "onmousewheel", "onmove", "onmoveend", "onmovestart",
+        "onabort", "onactivate", "onafterprint", "onafterupdate", "onbefore", "onbeforeactivate", "onbeforecopy",
+        "onbeforecut", "onbeforedeactivate", "onbeforeeditocus", "onbeforepaste", "onbeforeprint", "onbeforeunload",
+        "onbeforeupdate", "onblur", "onbounce", "oncellchange", "onchange", "onclick", "oncontextmenu", "onpaste",
+        "onpropertychange", "onreadystatuschange", "onreset", "onresize", "onresizend", "onresizestart", "onrowenter",
+        "onrowexit", "onrowsdelete", "onrowsinserted", "onscroll", "onselect", "onselectionchange", "onselectstart",
+        "onstart", "onstop", "onsubmit", "onunload"
+    };
+
+    static {
+        ESCAPES['<'] = "&lt;";
+        ESCAPES['>'] = "&gt;";
+        ESCAPES['\''] = "&#x27;";
+        ESCAPES['"'] = "&quot;";
+        ESCAPES['/'] = "&#x2f;";
+
+        for (String keyword : new String[]{"javascript:", "vbscript:", "view-source:", "window.location", "window.",
+            ".location", "document.cookie", "document."}) {
+            addKeyword(keyword, REMOVE);
+        }
+        for (String keyword : new String[]{"eval(", "expression(", "alert("}) {
+            addKeyword(keyword, REMOVE_TO_PAREN);
+        }
+        addKeyword("onload", REMOVE_TO_EQUALS);
+        addKeyword("src", SRC);
+        for (String eventHandler : EVENT_HANDLERS) {
+            addKeyword(eventHandler, EVENT_HANDLER);
+        }
+    }
+
+    private XssSanitizer() {
+    }
+
+    private static void addKeyword(String keyword, int action) {
+        Node node = ROOT;
+        for (int i = 0; i < keyword.length(); i++) {
+            int index = index(keyword.charAt(i));
+            if (node.next[index] == null) {
+                node.next[index] = new Node();
+            }
+            node = node.next[index];
+        }
+        node.action = action;
+    }
+
+    /**
+     * 清理 xss 脚本并转义 html 字符
+     *
+     * @param value 原始值
+     * @return 清理后的值，无需处理时返回原对象
+     */
+    public static String sanitize(String value) {
+        if (value == null || value.isEmpty()) {
+            return value;
+        }
+        boolean[] removed = new boolean[1];
+        String current = value;
+        for (int round = 0; round < MAX_ROUNDS; round++) {
+            removed[0] = false;
+            current = scan(current, removed, MODE_REMOVE);
+            if (!removed[0]) {
+                break;
+            }
+        }
+        return scan(current, removed, MODE_ESCAPE);
+    }
+
+    private static String scan(String value, boolean[] removed, int mode) {
+        final boolean remove = mode == MODE_REMOVE;
+        final int len = value.length();
+        StringBuilder out = null;
+        int i = 0;
+        while (i < len) {
+            char c = value.charAt(i);
+            int next = -1;
+            String replacement = null;
+            if (c < 128) {
+                if (!remove) {
+                    if (ESCAPES[c] != null) {
+                        next = i + 1;
+                        replacement = ESCAPES[c];
+                    }
+                } else if (c == '<') {
+                    int tagEnd = matchTag(value, i);
+                    if (tagEnd > 0) {
+                        next = skipScriptBody(value, i, tagEnd);
+                        removed[0] = true;
+                    }
+                } else if (c == '\0') {
+                    next = i + 1;
+                    removed[0] = true;
+                } else if (index(c) >= 0 && ROOT.next[index(c)] != null) {
+                    next = matchKeyword(value, i);
+                    if (next > 0) {
+                        removed[0] = true;
+                    }
+                }
+            }
+            if (next < 0) {
+                if (out != null) {
+                    out.append(c);
+                }
+                i++;
+                continue;
+            }
+            if (out == null) {
+                out = new StringBuilder(len + 16);
+                out.append(value, 0, i);
+            }
+            if (replacement != null) {
+                out.append(replacement);
+            }
+            i = next;
+        }
+        return out == null ? value : out.toString();
+    }
+
+    /**
+     * 匹配完整标签
+     *
+     * @return &gt; 之后的下标，不是完整标签返回 -1
+     */
+    private static int matchTag(String value, int start) {
+        final int len = value.length();
+        for (int i = start + 1; i < len; i++) {
+            char c = value.charAt(i);
+            if (c == '>') {
+                return i + 1;
+            }
+            if (c == '"' || c == '\'') {
+                i = value.indexOf(c, i + 1);
+                if (i < 0) {
+                    return -1;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * script / noscript 开始标签，跳过至对应的结束标签之后；其他标签或没有结束标签时只跳过标签本身
+     */
+    private static int skipScriptBody(String value, int tagStart, int tagEnd) {
+        String closeTag;
+        if (startsWithTagName(value, tagStart + 1, tagEnd, "script")) {
+            closeTag = "</script";
+        } else if (startsWithTagName(value, tagStart + 1, tagEnd, "noscript")) {
+            closeTag = "</noscript";
+        } else {
+            return tagEnd;
+        }
+        for (int i = value.indexOf('<', tagEnd); i >= 0; i = value.indexOf('<', i + 1)) {
+            if (value.regionMatches(true, i, closeTag, 0, closeTag.length())) {
+                int closeEnd = matchTag(value, i);
+                return closeEnd > 0 ? closeEnd : tagEnd;
+            }
+        }
+        return tagEnd;
+    }
+
+    private static boolean startsWithTagName(String value, int from, int tagEnd, String tagName) {
+        int end = from + tagName.length();
+        if (end >= tagEnd || !value.regionMatches(true, from, tagName, 0, tagName.length())) {
+            return false;
+        }
+        char c = value.charAt(end);
+        return c == '>' || c == '/' || Character.isWhitespace(c);
+    }
+
+    /**
+     * 从 start 开始匹配关键字，多个关键字互为前缀时优先尝试最长的
+     *
+     * @return 需要删除到的下标（不含），未匹配返回 -1
+     */
+    private static int matchKeyword(String value, int start) {
+        final int len = value.length();
+        // 同一路径上的关键字不超过 3 个（如 onbefore / onbeforeunload）
+        Node[] matched = null;
+        int[] matchedEnd = null;
+        int matchedCount = 0;
+        Node node = ROOT;
+        for (int i = start; i < len; i++) {
+            int index = index(value.charAt(i));
+            if (index < 0 || (node = node.next[index]) == null) {
+                break;
+            }
+            if (node.action != 0) {
+                if (matched == null) {
+                    matched = new Node[4];
+                    matchedEnd = new int[4];
+                }
+                if (matchedCount < matched.length) {
+                    matched[matchedCount] = node;
+                    matchedEnd[matchedCount++] = i + 1;
+                }
+            }
+        }
+        for (int m = matchedCount - 1; m >= 0; m--) {
+            int end = applyAction(value, start, matchedEnd[m], matched[m].action);
+            if (end > 0) {
+                return end;
+            }
+        }
+        return -1;
+    }
+
+    private static int applyAction(String value, int start, int keywordEnd, int action) {
+        switch (action) {
+            case REMOVE:
+                return keywordEnd;
+            case REMOVE_TO_PAREN: {
+                int paren = value.indexOf(')', keywordEnd);
+                return paren < 0 ? keywordEnd : paren + 1;
+            }
+            case REMOVE_TO_EQUALS: {
+                int equals = value.indexOf('=', keywordEnd);
+                return equals < 0 ? -1 : equals + 1;
+            }
+            case EVENT_HANDLER: {
+                if (start > 0 && Character.isLetterOrDigit(value.charAt(start - 1))) {
+                    return -1;
+                }
+                int i = skipWhitespace(value, keywordEnd);
+                if (i >= value.length() || value.charAt(i) != '=') {
+                    return -1;
+                }
+                while (i < value.length() && value.charAt(i) == '=') {
+                    i++;
+                }
+                return i;
+            }
+            case SRC: {
+                int i = skipWhitespace(value, keywordEnd);
+                if (i >= value.length() || value.charAt(i) != '=') {
+                    return -1;
+                }
+                i = skipWhitespace(value, i + 1);
+                if (i >= value.length() || (value.charAt(i) != '\'' && value.charAt(i) != '"')) {
+                    return -1;
+                }
+                int quoteEnd = value.indexOf(value.charAt(i), i + 1);
+                return quoteEnd < 0 ? -1 : quoteEnd + 1;
+            }
+            default:
+                return -1;
+        }
+    }
+
+    private static int skipWhitespace(String value, int from) {
+        int i = from;
+        while (i < value.length() && Character.isWhitespace(value.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * 字符在前缀树字母表中的下标，忽略大小写，不在字母表中返回 -1
+     */
+    private static int index(char c) {
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a';
+        }
+        if (c >= 'A' && c <= 'Z') {
+            return c - 'A';
+        }
+        return switch (c) {
+            case '.' -> 26;
+            case ':' -> 27;
+            case '-' -> 28;
+            case '(' -> 29;
+            default -> -1;
+        };
+    }
+
+    private static class Node {
+
+        private final Node[] next = new Node[ALPHABET_SIZE];
+
+        private int action;
+    }
+
+}
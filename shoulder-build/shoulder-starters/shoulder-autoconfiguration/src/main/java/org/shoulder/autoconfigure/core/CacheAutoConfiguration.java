@@ -1,14 +1,27 @@
 package org.shoulder.autoconfigure.core;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.shoulder.autoconfigure.condition.ConditionalOnCluster;
+import org.shoulder.autoconfigure.redis.ShoulderRedisProperties;
+import org.shoulder.cluster.cache.redis.ShoulderRedisCache;
 import org.shoulder.core.cache.Cache;
 import org.shoulder.core.cache.CacheDecorate;
+import org.shoulder.core.exception.CommonErrorCodeEnum;
+import org.shoulder.core.util.AssertUtils;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.caffeine.CaffeineCache;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.util.ClassUtils;
 
-@AutoConfiguration
+@AutoConfiguration(afterName = "org.shoulder.autoconfigure.redis.RedisAutoConfiguration")
 @ConditionalOnClass({org.springframework.cache.Cache.class, Cache.class})
 public class CacheAutoConfiguration {
 
@@ -18,4 +31,44 @@ public class CacheAutoConfiguration {
     public Cache shoulderWarpperCache(org.springframework.cache.Cache realCache) {
         return new CacheDecorate(realCache);
     }
+
+    /**
+     * 集群模式下使用 redis 作为 shoulder Cache，批量操作使用 MGET / pipeline，需 shoulder.redis.cache.enable=true
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnCluster
+    @ConditionalOnClass({RedisTemplate.class, ShoulderRedisCache.class})
+    @ConditionalOnProperty(name = ShoulderRedisProperties.PREFIX + ".cache.enable", havingValue = "true")
+    @EnableConfigurationProperties(ShoulderRedisProperties.class)
+    public static class ShoulderRedisCacheConfiguration {
+
+        @Bean
+        @ConditionalOnBean(name = "redisTemplate")
+        @ConditionalOnMissingBean(Cache.class)
+        public Cache shoulderRedisCache(@Qualifier("redisTemplate") RedisTemplate<String, Object> redisTemplate,
+                                        ShoulderRedisProperties shoulderRedisProperties) {
+            ShoulderRedisProperties.RedisCacheProperties cacheProperties = shoulderRedisProperties.getCache();
+            Cache nearCache = null;
+            if (cacheProperties.getNearCacheMaxSize() != null) {
+                AssertUtils.isTrue(ClassUtils.isPresent("com.github.benmanes.caffeine.cache.Caffeine", null),
+                    CommonErrorCodeEnum.CODING, "shoulder.redis.cache.nearCacheMaxSize requires caffeine in classpath");
+                nearCache = NearCacheFactory.create(cacheProperties);
+            }
+            return new ShoulderRedisCache(cacheProperties.getName(), redisTemplate, cacheProperties.getTtl(),
+                cacheProperties.getBatchSize(), nearCache);
+        }
+    }
+
+    /**
+     * 单独的类引用 caffeine，未启用二级缓存时不要求 caffeine 存在
+     */
+    private static class NearCacheFactory {
+
+        static Cache create(ShoulderRedisProperties.RedisCacheProperties cacheProperties) {
+            return new CacheDecorate(new CaffeineCache(cacheProperties.getName() + ":near", Caffeine.newBuilder()
+                .maximumSize(cacheProperties.getNearCacheMaxSize())
+                .expireAfterWrite(cacheProperties.getNearCacheTtl())
+                .build()));
+        }
+    }
 }
@@ -2,6 +2,7 @@ package org.shoulder.autoconfigure.crypto;
 
 import org.shoulder.autoconfigure.condition.ConditionalOnCluster;
 import org.shoulder.cluster.redis.annotation.AppExclusive;
+import org.shoulder.core.context.AppInfo;
 import org.shoulder.core.exception.BaseRuntimeException;
 import org.shoulder.core.exception.CommonErrorCodeEnum;
 import org.shoulder.core.log.ShoulderLoggers;
@@ -12,10 +13,12 @@ import org.shoulder.crypto.asymmetric.impl.DefaultAsymmetricTextCipher;
 import org.shoulder.crypto.asymmetric.store.KeyPairCache;
 import org.shoulder.crypto.asymmetric.store.impl.CryptoDelegateKeyPairCache;
 import org.shoulder.crypto.asymmetric.store.impl.MemoryKeyPairCache;
+import org.shoulder.crypto.asymmetric.store.impl.NearKeyPairCache;
 import org.shoulder.crypto.asymmetric.store.impl.RedisKeyPairCache;
 import org.shoulder.crypto.endpoint.CryptoEndpoint;
 import org.shoulder.crypto.local.LocalTextCipher;
 import org.shoulder.crypto.local.repository.LocalCryptoInfoRepository;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
@@ -24,6 +27,9 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.lang.Nullable;
 import org.springframework.web.bind.annotation.RestController;
 
 /**
@@ -100,10 +106,41 @@ public class AsymmetricCryptoAutoConfiguration {
     @ConditionalOnMissingBean(KeyPairCache.class)
     public static class AsymmetricKeyClusterPairCacheConfig {
 
+        /**
+         * 不使用本地缓存时直接使用 redis
+         */
         @Bean("keyPairCache")
+        @ConditionalOnProperty(value = "shoulder.crypto.key-pair-cache.near-cache-enable", havingValue = "false")
         public KeyPairCache redisKeyPairCache(@AppExclusive StringRedisTemplate redisTemplate,
                                               LocalTextCipher localTextCipher, CryptoProperties cryptoProperties
                 , @Autowired(required = false) LocalCryptoInfoRepository localCryptoInfoRepository) {
+            return createRedisKeyPairCache(redisTemplate, localTextCipher, cryptoProperties, localCryptoInfoRepository);
+        }
+
+        /**
+         * 本地缓存解析后的密钥对，避免每次使用都访问 redis、解析 json 和密钥
+         * 在共用的订阅容器上监听其他节点的密钥对失效消息，没有唯一的订阅容器时依赖 nearCacheTtl 兜底
+         */
+        @Bean("keyPairCache")
+        @ConditionalOnProperty(value = "shoulder.crypto.key-pair-cache.near-cache-enable", havingValue = "true", matchIfMissing = true)
+        public NearKeyPairCache nearKeyPairCache(@AppExclusive StringRedisTemplate redisTemplate,
+                                                 LocalTextCipher localTextCipher, CryptoProperties cryptoProperties
+                , @Autowired(required = false) LocalCryptoInfoRepository localCryptoInfoRepository
+                , ObjectProvider<RedisMessageListenerContainer> listenerContainer) {
+            KeyPairCache cryptoKeyPairCache = createRedisKeyPairCache(redisTemplate, localTextCipher, cryptoProperties,
+                    localCryptoInfoRepository);
+            CryptoProperties.KeyPairCacheProperties cacheProperties = cryptoProperties.getKeyPairCache();
+            // pub/sub 通道不经过 key 序列化，手动加应用前缀
+            String channel = AppInfo.appId() + AppInfo.cacheKeySplit() + NearKeyPairCache.DEFAULT_CHANNEL;
+            NearKeyPairCache nearKeyPairCache = new NearKeyPairCache(cryptoKeyPairCache, redisTemplate, channel,
+                    cacheProperties.getNearCacheMaxSize(), cacheProperties.getNearCacheTtl());
+            listenerContainer.ifUnique(container -> container.addMessageListener(nearKeyPairCache, new ChannelTopic(channel)));
+            return nearKeyPairCache;
+        }
+
+        private static KeyPairCache createRedisKeyPairCache(StringRedisTemplate redisTemplate, LocalTextCipher localTextCipher,
+                                                            CryptoProperties cryptoProperties,
+                                                            @Nullable LocalCryptoInfoRepository localCryptoInfoRepository) {
             if (localCryptoInfoRepository != null && !localCryptoInfoRepository.supportCluster()) {
                 // localCrypto 必须也支持集群，否则肯定会报错的
                 throw new BaseRuntimeException(CommonErrorCodeEnum.CODING,
@@ -115,7 +152,6 @@ public class AsymmetricCryptoAutoConfiguration {
             KeyPairCache keyPairCache = new RedisKeyPairCache(redisTemplate);
             keyPairCache.put(cryptoProperties.getKeyPair());
             ShoulderLoggers.SHOULDER_CONFIG.info("redisKeyPairCache provide RedisKeyPairCache.");
-
             return new CryptoDelegateKeyPairCache(keyPairCache, localTextCipher);
         }
 
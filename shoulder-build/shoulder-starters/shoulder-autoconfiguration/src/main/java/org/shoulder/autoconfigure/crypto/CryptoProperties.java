@@ -5,11 +5,13 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.shoulder.autoconfigure.core.BaseAppProperties;
 import org.shoulder.crypto.asymmetric.dto.KeyPairDto;
+import org.shoulder.crypto.asymmetric.store.impl.NearKeyPairCache;
 import org.shoulder.crypto.negotiation.constant.NegotiationConstants;
 import org.shoulder.crypto.negotiation.util.TransportCryptoByteUtil;
 import org.shoulder.crypto.symmetric.SymmetricAlgorithmEnum;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -31,6 +33,11 @@ public class CryptoProperties {
      */
     private Map<String, KeyPairDto> keyPair;
 
+    /**
+     * 集群部署时，非对称密钥对存储相关配置
+     */
+    private KeyPairCacheProperties keyPairCache = new KeyPairCacheProperties();
+
     /**
      * 对称加密相关配置
      */
@@ -61,6 +68,26 @@ public class CryptoProperties {
 
     }
 
+    @Data
+    public static class KeyPairCacheProperties {
+
+        /**
+         * 是否在 redis 前使用本地缓存（缓存解析后的密钥对），集群间通过 redis pub/sub 失效
+         */
+        private Boolean nearCacheEnable = true;
+
+        /**
+         * 本地最多缓存多少个密钥对
+         */
+        private int nearCacheMaxSize = NearKeyPairCache.DEFAULT_MAX_SIZE;
+
+        /**
+         * 本地缓存时间，不会超过密钥对本身的过期时间
+         */
+        private Duration nearCacheTtl = NearKeyPairCache.DEFAULT_LOCAL_TTL;
+
+    }
+
     @Data
     public static class AsymmetricCryptoProperties {
         /**
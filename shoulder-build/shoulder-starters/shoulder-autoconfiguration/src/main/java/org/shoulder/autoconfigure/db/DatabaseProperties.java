@@ -148,6 +148,21 @@ public class DatabaseProperties {
          * 关闭时需要自定义 SequenceGenerator 或 EntityIdGenerator、EntityIdGenerator
          */
         private String tableName = "tb_sequence";
+
+        /**
+         * 是否开启分段预取：当前段剩余比例低于 prefetchWatermark 时异步从 DB 预取下一段，避免调用方在段边界等待 DB
+         */
+        private Boolean prefetch = false;
+
+        /**
+         * 预取水位，当前段剩余比例低于该值时预取下一段
+         */
+        private Double prefetchWatermark = 0.2;
+
+        /**
+         * 预取模式下是否根据消耗速度自动调整 step
+         */
+        private Boolean adaptiveStep = true;
     }
 
     /**
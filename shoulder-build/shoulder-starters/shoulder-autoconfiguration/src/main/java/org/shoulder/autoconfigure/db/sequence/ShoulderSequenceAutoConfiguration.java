@@ -32,6 +32,9 @@ public class ShoulderSequenceAutoConfiguration {
         JdbcSequenceDAO sequenceDAO = new JdbcSequenceDAO();
         sequenceDAO.setDataSource(dataSource);
         sequenceDAO.setSequenceTableName(databaseProperties.getSequence().getTableName());
+        sequenceDAO.setPrefetchEnabled(Boolean.TRUE.equals(databaseProperties.getSequence().getPrefetch()));
+        sequenceDAO.setPrefetchWatermark(databaseProperties.getSequence().getPrefetchWatermark());
+        sequenceDAO.setAdaptiveStep(Boolean.TRUE.equals(databaseProperties.getSequence().getAdaptiveStep()));
         return sequenceDAO;
     }
 
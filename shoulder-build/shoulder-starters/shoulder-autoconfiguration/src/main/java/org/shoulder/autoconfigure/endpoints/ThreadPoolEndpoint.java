@@ -0,0 +1,98 @@
+package org.shoulder.autoconfigure.endpoints;
+
+import org.shoulder.monitor.concurrent.AutoScaleThreadPool;
+import org.shoulder.monitor.concurrent.PredictiveScaleController;
+import org.shoulder.web.annotation.SkipResponseWrap;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.context.ApplicationContext;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * 可伸缩线程池 endpoint：查看状态、不重启调整线程数与队列容量
+ * <p>
+ * GET /actuator/threadpools
+ * POST /actuator/threadpools/{beanName} {"corePoolSize": 8, "maximumPoolSize": 32, "queueCapacity": 2000}
+ *
+ * @author lym
+ */
+@AutoConfiguration
+@ConditionalOnClass({Endpoint.class, AutoScaleThreadPool.class})
+@Endpoint(id = "threadpools")
+public class ThreadPoolEndpoint {
+
+    private final ApplicationContext applicationContext;
+
+    public ThreadPoolEndpoint(ApplicationContext applicationContext) {
+        this.applicationContext = applicationContext;
+    }
+
+    //management.endpoints.web.exposure.include=threadpools
+
+    @ReadOperation
+    @SkipResponseWrap
+    public Map<String, Object> threadPools() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        getAutoScaleThreadPools().forEach((name, pool) -> result.put(name, describe(pool)));
+        return result;
+    }
+
+    @ReadOperation
+    @SkipResponseWrap
+    public Map<String, Object> threadPool(@Selector String name) {
+        return describe(getAutoScaleThreadPool(name));
+    }
+
+    @WriteOperation
+    @SkipResponseWrap
+    public Map<String, Object> resize(@Selector String name, @Nullable Integer corePoolSize,
+                                      @Nullable Integer maximumPoolSize, @Nullable Integer queueCapacity) {
+        AutoScaleThreadPool pool = getAutoScaleThreadPool(name);
+        pool.resize(corePoolSize == null ? pool.getCorePoolSize() : corePoolSize,
+            maximumPoolSize == null ? pool.getMaximumPoolSize() : maximumPoolSize, queueCapacity);
+        return describe(pool);
+    }
+
+    private Map<String, AutoScaleThreadPool> getAutoScaleThreadPools() {
+        Map<String, AutoScaleThreadPool> pools = new LinkedHashMap<>();
+        applicationContext.getBeansOfType(ExecutorService.class).forEach((name, executor) -> {
+            if (executor instanceof AutoScaleThreadPool) {
+                pools.put(name, (AutoScaleThreadPool) executor);
+            }
+        });
+        return pools;
+    }
+
+    private AutoScaleThreadPool getAutoScaleThreadPool(String name) {
+        AutoScaleThreadPool pool = getAutoScaleThreadPools().get(name);
+        Assert.notNull(pool, "AutoScaleThreadPool not found: " + name);
+        return pool;
+    }
+
+    private static Map<String, Object> describe(AutoScaleThreadPool pool) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("corePoolSize", pool.getCorePoolSize());
+        map.put("maximumPoolSize", pool.getMaximumPoolSize());
+        map.put("poolSize", pool.getPoolSize());
+        map.put("activeCount", pool.getActiveCount());
+        map.put("queueSize", pool.getQueue().size());
+        map.put("queueCapacity", pool.getQueueCapacity());
+        map.put("completedTaskCount", pool.getCompletedTaskCount());
+        PredictiveScaleController controller = pool.getPredictiveController();
+        if (controller != null) {
+            map.put("arrivalRatePerSecond", controller.getArrivalRatePerSecond());
+            map.put("serviceMillis", controller.getServiceMillis());
+        }
+        return map;
+    }
+
+}
@@ -3,6 +3,7 @@ package org.shoulder.autoconfigure.guid;
 import org.shoulder.core.guid.InstanceIdProvider;
 import org.shoulder.core.guid.LongGuidGenerator;
 import org.shoulder.core.guid.StringGuidGenerator;
+import org.shoulder.core.guid.impl.CachedLongGuidGenerator;
 import org.shoulder.core.guid.impl.CompressedUUIDGenerator;
 import org.shoulder.core.guid.impl.SnowFlakeGenerator;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
@@ -40,7 +41,12 @@ public class GuidAutoConfiguration {
     @ConditionalOnMissingBean
     @ConditionalOnClass(SnowFlakeGenerator.class)
     public LongGuidGenerator longGuidGenerator(InstanceIdProvider instanceIdProvider) {
-        return new SnowFlakeGenerator(guidProperties.getTimeEpoch(), 0L, instanceIdProvider.getCurrentInstanceId());
+        SnowFlakeGenerator snowFlakeGenerator = new SnowFlakeGenerator(guidProperties.getTimeEpoch(), 0L, instanceIdProvider.getCurrentInstanceId());
+        if (!Boolean.TRUE.equals(guidProperties.getCached())) {
+            return snowFlakeGenerator;
+        }
+        return new CachedLongGuidGenerator(snowFlakeGenerator, guidProperties.getRingBufferSize(),
+            guidProperties.getPaddingFactor(), guidProperties.getRingEmptyPolicy(), guidProperties.getRingMaxWaitTime());
     }
 
 
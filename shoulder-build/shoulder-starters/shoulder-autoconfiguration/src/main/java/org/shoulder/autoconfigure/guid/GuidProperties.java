@@ -3,9 +3,12 @@ package org.shoulder.autoconfigure.guid;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.shoulder.autoconfigure.core.BaseAppProperties;
+import org.shoulder.core.guid.impl.CachedLongGuidGenerator;
 import org.shoulder.core.guid.impl.SnowFlakeGenerator;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.time.Duration;
+
 /**
  * 实例标识
  * 支持集群时才有效
@@ -24,4 +27,29 @@ public class GuidProperties {
      */
     private Long timeEpoch = SnowFlakeGenerator.DEFAULT_TIME_EPOCH;
 
+    /**
+     * 是否开启预生成缓存模式（后台线程批量预生成 id 放入环形缓冲区，调用方直接领取），适合 id 生成量大的场景
+     */
+    private Boolean cached = false;
+
+    /**
+     * 缓存模式下环形缓冲区大小
+     */
+    private Integer ringBufferSize = CachedLongGuidGenerator.DEFAULT_BUFFER_SIZE;
+
+    /**
+     * 缓存模式下剩余 id 低于缓冲区的百分之多少时触发填充
+     */
+    private Integer paddingFactor = CachedLongGuidGenerator.DEFAULT_PADDING_FACTOR;
+
+    /**
+     * 缓存模式下缓冲区被取空时的处理策略
+     */
+    private CachedLongGuidGenerator.RingEmptyPolicy ringEmptyPolicy = CachedLongGuidGenerator.RingEmptyPolicy.GENERATE_DIRECTLY;
+
+    /**
+     * 缓存模式下 WAIT 策略的最长等待时间，超时后直接生成
+     */
+    private Duration ringMaxWaitTime = CachedLongGuidGenerator.DEFAULT_MAX_WAIT_TIME;
+
 }
@@ -6,6 +6,8 @@ import org.shoulder.cluster.lock.redis.RedisLock;
 import org.shoulder.core.lock.ServerLock;
 import org.shoulder.core.lock.impl.JdbcLock;
 import org.shoulder.core.lock.impl.MemoryLock;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
@@ -14,6 +16,7 @@ import org.springframework.boot.context.properties.EnableConfigurationProperties
 import org.springframework.context.annotation.Bean;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.Scheduled;
 
@@ -88,12 +91,16 @@ public class LockAutoConfiguration {
     static class RedisLockAutoConfiguration {
 
         /**
-         * Redis
+         * Redis，默认通过 pub/sub 通知等待锁释放（使用共用的订阅容器，仅在有线程等待时订阅对应资源），
+         * shoulder.lock.redis.waitByNotify=false 或没有唯一的订阅容器时轮询等待
          */
         @Bean
         @ConditionalOnMissingBean
-        public ServerLock redisLock(ShoulderRedisProperties shoulderRedisProperties, StringRedisTemplate redisTemplate) {
-            return new RedisLock(shoulderRedisProperties.getLockKeyPrefix(), redisTemplate);
+        public ServerLock redisLock(ShoulderRedisProperties shoulderRedisProperties, StringRedisTemplate redisTemplate,
+                                    ObjectProvider<RedisMessageListenerContainer> listenerContainer,
+                                    @Value("${shoulder.lock.redis.waitByNotify:true}") boolean waitByNotify) {
+            return new RedisLock(shoulderRedisProperties.getLockKeyPrefix(), redisTemplate,
+                waitByNotify ? listenerContainer.getIfUnique() : null);
         }
     }
 
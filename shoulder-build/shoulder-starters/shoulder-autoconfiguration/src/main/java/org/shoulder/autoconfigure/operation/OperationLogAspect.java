@@ -33,19 +33,27 @@ import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.MethodClassKey;
 import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.EvaluationException;
 import org.springframework.expression.Expression;
+import org.springframework.expression.PropertyAccessor;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.ReflectivePropertyAccessor;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
 
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 激活操作日志 OperationLog 注解 AOP
@@ -79,6 +87,22 @@ public class OperationLogAspect {
      */
     private final SpelExpressionParser parser = new SpelExpressionParser();
 
+    /**
+     * 用于SpEL表达式解析，首次执行后编译为字节码
+     */
+    private final SpelExpressionParser compiledParser = new SpelExpressionParser(
+        new SpelParserConfiguration(SpelCompilerMode.IMMEDIATE, OperationLogAspect.class.getClassLoader()));
+
+    /**
+     * 所有 EvaluationContext 共用，ReflectivePropertyAccessor 内部缓存了反射结果
+     */
+    private final List<PropertyAccessor> propertyAccessors = Collections.singletonList(new ReflectivePropertyAccessor());
+
+    /**
+     * 方法日志元信息缓存，key 为 切点方法 + 目标类
+     */
+    private final Map<MethodClassKey, OpLogMethodMetadata> methodMetadataCache = new ConcurrentHashMap<>();
+
     // ********************************* annotation AOP *********************************************
 
     /**
@@ -163,15 +187,48 @@ public class OperationLogAspect {
     }
 
     private void creatNewContext(ProceedingJoinPoint joinPoint) throws NoSuchMethodException {
-        // 解析注解
+        // 解析注解（每个方法只解析一次）
+        OpLogMethodMetadata metadata = getMethodMetadata(joinPoint);
+        // 根据创建策略创建日志实体
+        OperationContextStrategy strategy = metadata.strategy;
+        OpLogContext context = lastOpLogContext.get() == null ? strategy.onMissingContext()
+            : strategy.onExistContext(lastOpLogContext.get());
+
+        // 创建日志
+        OperationLogDTO entity = createLog(joinPoint, metadata);
+        context.setOperationLog(entity);
+        if (log.isTraceEnabled()) {
+            log.trace("auto create a OperationLog: " + entity);
+        }
+        OpLogContextHolder.setContext(context);
+    }
+
+    /**
+     * 获取方法上的日志元信息，首次调用时解析并缓存
+     */
+    private OpLogMethodMetadata getMethodMetadata(ProceedingJoinPoint joinPoint) throws NoSuchMethodException {
         MethodSignature methodSignature = (MethodSignature) joinPoint.getSignature();
         Method method = methodSignature.getMethod();
+        Class<?> targetClass = joinPoint.getTarget() == null ? null : joinPoint.getTarget().getClass();
+        MethodClassKey cacheKey = new MethodClassKey(method, targetClass);
+        OpLogMethodMetadata metadata = methodMetadataCache.get(cacheKey);
+        if (metadata == null) {
+            // 解析是幂等的，并发时重复解析也无妨，不在 computeIfAbsent 中做（避免抛出受检异常 / 持锁解析）
+            metadata = resolveMethodMetadata(joinPoint, methodSignature, method);
+            methodMetadataCache.putIfAbsent(cacheKey, metadata);
+        }
+        return metadata;
+    }
+
+    private OpLogMethodMetadata resolveMethodMetadata(ProceedingJoinPoint joinPoint, MethodSignature methodSignature,
+                                                      Method method) throws NoSuchMethodException {
+        Method annotatedMethod = method;
         OperationLog methodAnnotation = method.getAnnotation(OperationLog.class);
         OperationLogConfig classAnnotation = method.getDeclaringClass().getAnnotation(OperationLogConfig.class);
         if (methodAnnotation == null) {
             // spring aop使用cglib生成的代理是不会加上父类的方法上的注解的，也就是这边生成的代理类上的方法上没有 OperationLog 注解
-            method = joinPoint.getTarget().getClass().getMethod(method.getName(), method.getParameterTypes());
-            methodAnnotation = method.getAnnotation(OperationLog.class);
+            annotatedMethod = joinPoint.getTarget().getClass().getMethod(method.getName(), method.getParameterTypes());
+            methodAnnotation = annotatedMethod.getAnnotation(OperationLog.class);
             if (methodAnnotation == null) {
                 // 不可能的情况，因为日志 AOP 就是以该注解为切点，需要检查 aspect 表达式
                 throw new IllegalStateException("@OperationLog can't be null.");
@@ -187,19 +244,55 @@ public class OperationLogAspect {
                 strategy = OperationContextStrategyEnum.getDefault();
             }
         }
-        // 根据创建策略创建日志实体
-        OpLogContext context = lastOpLogContext.get() == null ? strategy.onMissingContext()
-            : strategy.onExistContext(lastOpLogContext.get());
-
-        // 创建日志
-        OperationLogDTO entity = createLog(joinPoint, methodAnnotation, classAnnotation);
-        context.setOperationLog(entity);
-        if (log.isTraceEnabled()) {
-            log.trace("auto create a OperationLog: " + entity);
+        // objectType
+        String objectType = null;
+        if (StringUtils.isNotEmpty(methodAnnotation.objectType())) {
+            objectType = methodAnnotation.objectType();
+        } else if (classAnnotation != null && StringUtils.isNotEmpty(classAnnotation.objectType())) {
+            objectType = classAnnotation.objectType();
         }
-        OpLogContextHolder.setContext(context);
+        return new OpLogMethodMetadata(method, methodAnnotation, strategy, objectType,
+            resolveParamMetadata(method, methodSignature.getParameterNames(), methodAnnotation.logAllParams()));
     }
 
+    /**
+     * 解析需要记录的参数：名称、SpEL（预先解析并编译）、转换器
+     */
+    private OpLogParamMetadata[] resolveParamMetadata(Method method, String[] parameterNames, boolean logAllParams) {
+        Parameter[] parameters = method.getParameters();
+        List<OpLogParamMetadata> paramMetadataList = new ArrayList<>(parameters.length);
+        for (int i = 0; i < parameters.length; i++) {
+            OperationLogParam paramAnnotation = parameters[i].getAnnotation(OperationLogParam.class);
+            // if args[n] == null or without OperationLogParam Annotation than continue.
+            if (paramAnnotation == null && !logAllParams) {
+                continue;
+            }
+            String name = parameterNames[i];
+            boolean supportI18n = false;
+            // Spring Expression Language
+            String valueSpEL = "";
+            Class<? extends OperationLogParamValueConverter> converterClazz =
+                DefaultOperationLogParamValueConverter.class;
+
+            if (paramAnnotation != null) {
+                if (StringUtils.isNotBlank(paramAnnotation.name())) {
+                    name = paramAnnotation.name();
+                }
+                supportI18n = paramAnnotation.supportI18n();
+                valueSpEL = paramAnnotation.value();
+                converterClazz = paramAnnotation.converter();
+            }
+            Expression compiledExpression = null;
+            Expression expression = null;
+            if (StringUtils.isNotBlank(valueSpEL)) {
+                compiledExpression = compiledParser.parseExpression(valueSpEL);
+                expression = parser.parseExpression(valueSpEL);
+            }
+            paramMetadataList.add(new OpLogParamMetadata(i, name, parameterNames[i], parameters[i].getType(), supportI18n,
+                compiledExpression, expression, converterClazz));
+        }
+        return paramMetadataList.toArray(new OpLogParamMetadata[0]);
+    }
 
     /**
      * 执行方法后，清理本方法的上下文，恢复上次的上下文
@@ -219,8 +312,8 @@ public class OperationLogAspect {
      * 根据注解创建日志实体
      */
     @Nonnull
-    private OperationLogDTO createLog(ProceedingJoinPoint joinPoint,
-                                      OperationLog methodAnnotation, @Nullable OperationLogConfig classAnnotation) {
+    private OperationLogDTO createLog(ProceedingJoinPoint joinPoint, OpLogMethodMetadata metadata) {
+        OperationLog methodAnnotation = metadata.methodAnnotation;
         // 创建日志实体
         OperationLogDTO logDTO =
             OperationLogFactory.create(methodAnnotation.operation());
@@ -229,10 +322,8 @@ public class OperationLogAspect {
         logDTO.setResult(OperationResult.SUCCESS);
 
         // objectType
-        if (StringUtils.isNotEmpty(methodAnnotation.objectType())) {
-            logDTO.setObjectType(methodAnnotation.objectType());
-        } else if (classAnnotation != null && StringUtils.isNotEmpty(classAnnotation.objectType())) {
-            logDTO.setObjectType(classAnnotation.objectType());
+        if (metadata.objectType != null) {
+            logDTO.setObjectType(metadata.objectType);
         }
 
         // terminalType
@@ -252,7 +343,7 @@ public class OperationLogAspect {
         }
 
         // 解析日志参数
-        logDTO.setParams(createOperationParams(logDTO, joinPoint));
+        logDTO.setParams(createOperationParams(logDTO, joinPoint.getArgs(), metadata));
         logDTO.setTraceId(AppContext.getTraceId());
 
         return logDTO;
@@ -262,71 +353,50 @@ public class OperationLogAspect {
     /**
      * 解析操作参数
      *
-     * @param entity    解析过的日志实体
-     * @param joinPoint 连接点
+     * @param entity   解析过的日志实体
+     * @param args     方法参数
+     * @param metadata 方法日志元信息
      * @return 本方法中要记录的参数
      */
-    private List<OpLogParam> createOperationParams(@Nonnull OperationLogDTO entity, ProceedingJoinPoint joinPoint) {
-        MethodSignature methodSignature = (MethodSignature) joinPoint.getSignature();
-        Method method = methodSignature.getMethod();
-        List<OpLogParam> opLogParams = new LinkedList<>();
-        Parameter[] parameters = method.getParameters();
-        String[] parameterNames = methodSignature.getParameterNames();
-        Object[] args = joinPoint.getArgs();
-        OperationLog methodAnnotation = method.getAnnotation(OperationLog.class);
-        for (int i = 0; i < parameters.length; i++) {
-            OperationLogParam paramAnnotation = parameters[i].getAnnotation(OperationLogParam.class);
-            // if args[n] == null or without OperationLogParam Annotation than continue.
-            if (paramAnnotation == null && !methodAnnotation.logAllParams()) {
-                continue;
-            }
+    private List<OpLogParam> createOperationParams(@Nonnull OperationLogDTO entity, Object[] args, OpLogMethodMetadata metadata) {
+        OpLogParamMetadata[] paramMetadataArray = metadata.params;
+        List<OpLogParam> opLogParams = new ArrayList<>(paramMetadataArray.length);
+        // 同一次调用的参数共用一个 context
+        StandardEvaluationContext context = null;
+        for (OpLogParamMetadata paramMetadata : paramMetadataArray) {
+            int i = paramMetadata.index;
             OpLogParam opLogParam = new OpLogParam();
-
-            String name = parameterNames[i];
-            boolean supportI18n = false;
-            // Spring Expression Language
-            String valueSpEL = "";
-            Class<? extends OperationLogParamValueConverter> converterClazz =
-                DefaultOperationLogParamValueConverter.class;
-
-            if (paramAnnotation != null) {
-                if (StringUtils.isNotBlank(paramAnnotation.name())) {
-                    name = paramAnnotation.name();
-                }
-                supportI18n = paramAnnotation.supportI18n();
-                valueSpEL = paramAnnotation.value();
-                converterClazz = paramAnnotation.converter();
-            }
-
-            opLogParam.setName(name);
-            opLogParam.setSupportI18n(supportI18n);
+            opLogParam.setName(paramMetadata.name);
+            opLogParam.setSupportI18n(paramMetadata.supportI18n);
             // setValue
             try {
-                if (StringUtils.isNotBlank(valueSpEL)) {
+                if (paramMetadata.compiledExpression != null) {
                     // 使用 spel -> value
-                    Expression expression = parser.parseExpression(valueSpEL);
-                    EvaluationContext context = new StandardEvaluationContext();
                     if (args[i] == null) {
                         opLogParam.setValue(Collections.singletonList(operationLogProperties.getNullParamOutput()));
                     } else {
-                        context.setVariable(parameterNames[i], args[i]);
-                        //for (int i = 0; i < args.length; i++) { }
+                        if (context == null) {
+                            context = new StandardEvaluationContext();
+                            context.setPropertyAccessors(propertyAccessors);
+                        }
+                        context.setVariable(paramMetadata.parameterName, args[i]);
                         opLogParam.setValue(Collections.singletonList(Objects.requireNonNull(
-                            expression.getValue(context)).toString()));
+                            paramMetadata.getValue(context)).toString()));
                     }
 
                 } else {
                     // 使用 converter
-                    OperationLogParamValueConverter converter = OperationLogParamValueConverterHolder.getConvert(converterClazz);
+                    OperationLogParamValueConverter converter = OperationLogParamValueConverterHolder.getConvert(paramMetadata.converterClazz);
 
-                    opLogParam.setValue(converter.convert(entity, args[i], parameters[i].getType()));
+                    opLogParam.setValue(converter.convert(entity, args[i], paramMetadata.parameterType));
 
                 }
             } catch (Exception e) {
+                Method method = metadata.method;
                 log.warn("try convert FAIL, fallBack with default value(null). class:'" +
                     method.getDeclaringClass().getName() +
                     "', method:'" + method.getName() +
-                    "', paramName=" + parameterNames[i], e);
+                    "', paramName=" + paramMetadata.parameterName, e);
                 // 忽略该参数
                 continue;
             }
@@ -335,4 +405,102 @@ public class OperationLogAspect {
         return opLogParams;
     }
 
+    /**
+     * 方法上的日志元信息，与调用无关的部分，每个方法解析一次
+     */
+    private static class OpLogMethodMetadata {
+
+        /**
+         * 切点方法，用于打印日志
+         */
+        private final Method method;
+
+        private final OperationLog methodAnnotation;
+
+        /**
+         * 已处理默认值的上下文创建策略
+         */
+        private final OperationContextStrategy strategy;
+
+        /**
+         * 方法注解优先，其次类注解，都没有为 null
+         */
+        @Nullable
+        private final String objectType;
+
+        /**
+         * 需要记录的参数
+         */
+        private final OpLogParamMetadata[] params;
+
+        private OpLogMethodMetadata(Method method, OperationLog methodAnnotation, OperationContextStrategy strategy,
+                                    @Nullable String objectType, OpLogParamMetadata[] params) {
+            this.method = method;
+            this.methodAnnotation = methodAnnotation;
+            this.strategy = strategy;
+            this.objectType = objectType;
+            this.params = params;
+        }
+    }
+
+    /**
+     * 需要记录的参数的元信息
+     */
+    private static class OpLogParamMetadata {
+
+        /**
+         * 参数下标
+         */
+        private final int index;
+
+        /**
+         * 日志中的参数名
+         */
+        private final String name;
+
+        /**
+         * 方法定义中的参数名，即 SpEL 中的变量名
+         */
+        private final String parameterName;
+
+        private final Class<?> parameterType;
+
+        private final boolean supportI18n;
+
+        /**
+         * 编译模式解析的 SpEL，null 表示使用 converter
+         */
+        @Nullable
+        private final Expression compiledExpression;
+
+        /**
+         * 解释模式解析的 SpEL，编译后的表达式执行失败时（如参数实际类型变化）回退使用
+         */
+        @Nullable
+        private final Expression expression;
+
+        private final Class<? extends OperationLogParamValueConverter> converterClazz;
+
+        private OpLogParamMetadata(int index, String name, String parameterName, Class<?> parameterType, boolean supportI18n,
+                                   @Nullable Expression compiledExpression, @Nullable Expression expression,
+                                   Class<? extends OperationLogParamValueConverter> converterClazz) {
+            this.index = index;
+            this.name = name;
+            this.parameterName = parameterName;
+            this.parameterType = parameterType;
+            this.supportI18n = supportI18n;
+            this.compiledExpression = compiledExpression;
+            this.expression = expression;
+            this.converterClazz = converterClazz;
+        }
+
+        private Object getValue(EvaluationContext context) {
+            try {
+                return Objects.requireNonNull(compiledExpression).getValue(context);
+            } catch (EvaluationException e) {
+                return Objects.requireNonNull(expression).getValue(context);
+            }
+        }
+    }
+
 }
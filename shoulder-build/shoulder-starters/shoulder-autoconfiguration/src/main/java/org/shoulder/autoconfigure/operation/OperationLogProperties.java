@@ -1,6 +1,8 @@
 package org.shoulder.autoconfigure.operation;
 
 import lombok.Data;
+import org.shoulder.log.operation.logger.impl.AsyncOperationLogger;
+import org.shoulder.log.operation.logger.impl.BufferedOperationLogger;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.convert.DurationUnit;
 
@@ -68,6 +70,31 @@ public class OperationLogProperties {
          */
         private String threadName = "shoulder-opLogger";
 
+        /**
+         * 异步记录日志队列容量
+         */
+        private Integer asyncQueueCapacity = 10000;
+
+        /**
+         * 异步记录时每次最多合并多少条日志调用一次批量记录
+         */
+        private Integer asyncMaxBatchSize = 100;
+
+        /**
+         * 异步队列满时的处理策略
+         */
+        private AsyncOperationLogger.OverflowPolicy asyncOverflowPolicy = AsyncOperationLogger.OverflowPolicy.BLOCK;
+
+        /**
+         * 异步队列满且策略为 BLOCK 时，最长等待时间，超时丢弃
+         */
+        private Duration asyncOfferTimeout = Duration.ofMillis(100);
+
+        /**
+         * 异步队列满且策略为 SPILL_TO_FILE 时，写入的本地文件路径
+         */
+        private String asyncSpillFile;
+
         /**
          * 是否启用缓冲池。优化频繁记录单条，如：需将操作日志存数据库/发送至远程可使用，开启后每 0.2s 插入一次数据库 -> 每隔一段时间批量插入数据库
          * 默认 false，开启后可能无法查看到实时操作日志
@@ -92,6 +119,16 @@ public class OperationLogProperties {
          */
         private Integer perFlushMax = 20;
 
+        /**
+         * buffer 最多积攒多少条日志，超过后按 bufferOverflowPolicy 处理
+         */
+        private Integer bufferCapacity = 10000;
+
+        /**
+         * buffer 满时的处理策略，默认丢弃新日志，操作日志非常重要时可使用 CALLER_RUNS
+         */
+        private BufferedOperationLogger.OverflowPolicy bufferOverflowPolicy = BufferedOperationLogger.OverflowPolicy.DISCARD_NEWEST;
+
 
         public Integer getThreadNum() {
             return threadNum != null && threadNum > 0 ? threadNum : 1;
@@ -2,6 +2,7 @@ package org.shoulder.autoconfigure.operation;
 
 import jakarta.annotation.Nonnull;
 import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.shoulder.core.log.ShoulderLoggers;
 import org.shoulder.log.operation.context.OpLogContextHolder;
 import org.shoulder.log.operation.format.OperationLogFormatter;
@@ -30,6 +31,7 @@ import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.core.annotation.Order;
 import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 
+import java.nio.file.Paths;
 import java.util.Collection;
 import java.util.StringJoiner;
 import java.util.concurrent.ConcurrentLinkedQueue;
@@ -74,8 +76,9 @@ public class OperationLoggerAutoConfiguration implements ApplicationListener<Con
                 if (!(bean instanceof OperationLogger)) {
                     return bean;
                 }
-                int threadNum = operationLogProperties.getLogger().getThreadNum();
-                String threadName = operationLogProperties.getLogger().getThreadName();
+                OperationLogProperties.LoggerProperties loggerProperties = operationLogProperties.getLogger();
+                int threadNum = loggerProperties.getThreadNum();
+                String threadName = loggerProperties.getThreadName();
                 log.debug("OperationLogger-async=true,threadNum=" + threadNum + ",threadName=" + threadName);
                 // default rejectExecutionHandler is throw Ex, use ignore if opLog is not important.
                 CustomizableThreadFactory opLogThreadFactory = new CustomizableThreadFactory(threadName);
@@ -84,9 +87,18 @@ public class OperationLoggerAutoConfiguration implements ApplicationListener<Con
                 ExecutorService opLogExecutorService = new ThreadPoolExecutor(threadNum, threadNum,
                         60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(1000), opLogThreadFactory);
 
+                // 每个线程运行一个常驻 worker
                 return new AsyncOperationLogger()
                         .setExecutorService(opLogExecutorService)
-                        .setLogger((OperationLogger) bean);
+                        .setWorkerNum(threadNum)
+                        .setQueueCapacity(loggerProperties.getAsyncQueueCapacity())
+                        .setMaxBatchSize(loggerProperties.getAsyncMaxBatchSize())
+                        .setOverflowPolicy(loggerProperties.getAsyncOverflowPolicy())
+                        .setOfferTimeout(loggerProperties.getAsyncOfferTimeout())
+                        .setSpillFile(StringUtils.isBlank(loggerProperties.getAsyncSpillFile()) ? null
+                                : Paths.get(loggerProperties.getAsyncSpillFile()))
+                        .setLogger((OperationLogger) bean)
+                        .start();
             }
         };
     }
@@ -112,7 +124,9 @@ public class OperationLoggerAutoConfiguration implements ApplicationListener<Con
                 int flushThreshold = operationLogProperties.getLogger().getFlushThreshold();
                 int perFlushMax = operationLogProperties.getLogger().getPerFlushMax();
                 return new BufferedOperationLogger(new ConcurrentLinkedQueue<>(), (OperationLogger) bean, scheduledExecutorService,
-                        flushInterval, flushThreshold, perFlushMax);
+                        flushInterval, flushThreshold, perFlushMax,
+                        operationLogProperties.getLogger().getBufferCapacity(),
+                        operationLogProperties.getLogger().getBufferOverflowPolicy());
             }
         };
     }
@@ -6,6 +6,8 @@ import org.shoulder.autoconfigure.core.BaseAppProperties;
 import org.shoulder.core.util.AddressUtils;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.time.Duration;
+
 /**
  * 实例标识
  * 支持集群时才有效
@@ -33,6 +35,8 @@ public class ShoulderRedisProperties {
 
     private EmbeddedRedisProperties embedded = new EmbeddedRedisProperties();
 
+    private RedisCacheProperties cache = new RedisCacheProperties();
+
     @Data
     public static class EmbeddedRedisProperties {
 
@@ -57,4 +61,39 @@ public class ShoulderRedisProperties {
         private String configuration = "maxmemory 64M";
     }
 
+    @Data
+    public static class RedisCacheProperties {
+
+        /**
+         * 集群模式下是否使用 redis 作为 shoulder Cache（如 BaseCacheableServiceImpl 的缓存）
+         */
+        private Boolean enable = false;
+
+        /**
+         * 缓存名，作为 redis key 前缀
+         */
+        private String name = "cache";
+
+        /**
+         * 过期时间，默认一天
+         */
+        private Duration ttl = Duration.ofDays(1);
+
+        /**
+         * 批量读写、清理时每批 key 数
+         */
+        private Integer batchSize = 100;
+
+        /**
+         * 本地二级缓存（caffeine）最大条数，不设置则不使用二级缓存；
+         * 注意其他实例的修改不会通知本实例，仅适合读多写少、允许短暂不一致的数据
+         */
+        private Integer nearCacheMaxSize;
+
+        /**
+         * 本地二级缓存过期时间，默认 10 秒
+         */
+        private Duration nearCacheTtl = Duration.ofSeconds(10);
+    }
+
 }
@@ -1,15 +1,21 @@
 package org.shoulder.autoconfigure.web;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.shoulder.core.log.ShoulderLoggers;
+import org.shoulder.web.advice.EndpointMetricsRecorder;
 import org.shoulder.web.advice.RestControllerColorfulLogAspect;
 import org.shoulder.web.advice.RestControllerDataExceptionAdvice;
 import org.shoulder.web.advice.RestControllerExceptionAdvice;
 import org.shoulder.web.advice.RestControllerJsonLogAspect;
+import org.shoulder.web.advice.RestControllerMetricsLogAspect;
 import org.shoulder.web.advice.RestControllerUnionResponseAdvice;
 import org.shoulder.web.annotation.SkipResponseWrap;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -98,4 +104,34 @@ public class WebAdvanceAutoConfiguration {
         return new RestControllerJsonLogAspect(useCallerLogger);
     }
 
+    /**
+     * RestController 接口耗时统计【用于生产态】始终统计每个接口耗时、失败次数并定期汇总打印，出入参按比例抽样记录
+     */
+    @AutoConfiguration
+    @ConditionalOnClass(MeterRegistry.class)
+    @ConditionalOnProperty(name = "shoulder.web.log.type", havingValue = "metrics")
+    public static class RestControllerMetricsLogAspectAutoConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public EndpointMetricsRecorder endpointMetricsRecorder(ObjectProvider<MeterRegistry> meterRegistry,
+                                                               WebProperties webProperties) {
+            // 未引入 actuator 时仅用于汇总打印
+            EndpointMetricsRecorder recorder = new EndpointMetricsRecorder(meterRegistry.getIfAvailable(SimpleMeterRegistry::new),
+                EndpointMetricsRecorder.DEFAULT_METRICS_NAME, webProperties.getLog().getDigestPeriod());
+            recorder.startDigest();
+            return recorder;
+        }
+
+        @Bean
+        @Order(value = 0)
+        public RestControllerMetricsLogAspect restControllerMetricsLogAspect(
+            @Value("${shoulder.web.log.useCallerLogger:false}") boolean useCallerLogger,
+            EndpointMetricsRecorder endpointMetricsRecorder, WebProperties webProperties) {
+            ShoulderLoggers.SHOULDER_CONFIG.info("active shoulder.web.log.type=metrics");
+            return new RestControllerMetricsLogAspect(useCallerLogger, endpointMetricsRecorder,
+                webProperties.getLog().getPayloadSampleRate());
+        }
+    }
+
 }
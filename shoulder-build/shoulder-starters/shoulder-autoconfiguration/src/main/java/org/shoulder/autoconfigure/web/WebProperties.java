@@ -4,6 +4,7 @@ import lombok.Data;
 import org.shoulder.autoconfigure.core.BaseAppProperties;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -109,6 +110,16 @@ public class WebProperties {
          */
         private WebLogType type = WebLogType.COLORFUL;
 
+        /**
+         * type=metrics 时，出入参日志抽样比例 [0, 1]，0 为不记录（debug 级别时全部记录）
+         */
+        private Double payloadSampleRate = 0D;
+
+        /**
+         * type=metrics 时，接口耗时汇总日志打印周期，同时也是 p50、p99、max 的统计窗口
+         */
+        private Duration digestPeriod = Duration.ofMinutes(1);
+
     }
 
     public enum WebLogType {
@@ -121,6 +132,10 @@ public class WebProperties {
          * 压缩的 JSON 格式
          */
         JSON,
+        /**
+         * 统计每个接口耗时并定期汇总打印，出入参按比例抽样记录，需要 micrometer
+         */
+        METRICS,
         /**
          * 禁止自动打印日志
          */
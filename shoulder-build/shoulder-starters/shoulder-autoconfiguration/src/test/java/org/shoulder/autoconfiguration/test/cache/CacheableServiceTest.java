@@ -0,0 +1,162 @@
+package org.shoulder.autoconfiguration.test.cache;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.shoulder.data.mybatis.template.dao.BaseMapper;
+import org.shoulder.data.mybatis.template.entity.BaseEntity;
+import org.shoulder.data.mybatis.template.service.BaseCacheableServiceImpl;
+import org.shoulder.data.mybatis.template.service.CaffeineEntityCache;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.cache.Cache;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.lang.NonNull;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 带缓存的 Service 本地缓存：批量查询触发提前刷新、只加载未命中的数据、统计绑定到 Micrometer
+ *
+ * @author lym
+ */
+public class CacheableServiceTest {
+
+    /**
+     * getMulti / getMultiWrapper 访问过了刷新时间的缓存时触发异步刷新
+     */
+    @Test
+    public void testGetMultiRefreshAfterWrite() {
+        AtomicLong nanos = new AtomicLong();
+        AtomicInteger reloadCount = new AtomicInteger();
+        CacheLoader<Object, Object> loader = new CacheLoader<>() {
+            @Override
+            public Object load(@NonNull Object key) {
+                return null;
+            }
+
+            @Override
+            public Object reload(@NonNull Object key, @NonNull Object oldValue) {
+                reloadCount.incrementAndGet();
+                return oldValue + "-reloaded";
+            }
+        };
+        CaffeineEntityCache cache = new CaffeineEntityCache("testGetMultiRefreshAfterWrite", Caffeine.newBuilder()
+            .refreshAfterWrite(Duration.ofMinutes(5))
+            .ticker(nanos::get)
+            .executor(Runnable::run)
+            .build(loader));
+        cache.put("k1", "v1");
+        cache.put("k2", "v2");
+        Assertions.assertEquals(List.of("v1", "v2"), cache.getMulti(List.of("k1", "k2")));
+        Assertions.assertEquals(0, reloadCount.get());
+
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(6));
+        cache.getMulti(List.of("k1"));
+        Assertions.assertEquals(1, reloadCount.get());
+        cache.getMultiWrapper(List.of("k2"));
+        Assertions.assertEquals(2, reloadCount.get());
+        Assertions.assertEquals(List.of("v1-reloaded", "v2-reloaded"), cache.getMulti(List.of("k1", "k2")));
+    }
+
+    /**
+     * getMultiWrapper 区分未命中与缓存的空值
+     */
+    @Test
+    public void testGetMultiWrapper() {
+        CaffeineEntityCache cache = new CaffeineEntityCache("testGetMultiWrapper", Caffeine.newBuilder().build(k -> null));
+        cache.put("k1", "v1");
+        cache.put("k2", null);
+        List<Cache.ValueWrapper> wrappers = cache.getMultiWrapper(List.of("k1", "k2", "k3"));
+        Assertions.assertEquals("v1", wrappers.get(0).get());
+        Assertions.assertNotNull(wrappers.get(1));
+        Assertions.assertNull(wrappers.get(1).get());
+        Assertions.assertNull(wrappers.get(2));
+        Assertions.assertEquals(List.of("v1"), cache.getMulti(List.of("k1", "k2", "k3")).subList(0, 1));
+    }
+
+    /**
+     * loadByIds：只加载未命中的 id，db 中不存在的不缓存；按 id 查询与批量查询共用缓存 key
+     */
+    @Test
+    public void testLoadByIds() {
+        GenericApplicationContext context = new GenericApplicationContext();
+        context.refresh();
+        UserService service = new UserService();
+        service.onApplicationEvent(startedEvent(context));
+        List<Collection<? extends Serializable>> loadedIds = new ArrayList<>();
+        List<User> users = service.loadByIds(List.of(1L, 2L, 3L), ids -> {
+            loadedIds.add(new ArrayList<>(ids));
+            return ids.stream().filter(id -> !id.equals(3L)).map(id -> new User((Long) id)).toList();
+        });
+        Assertions.assertEquals(List.of(1L, 2L), users.stream().map(User::getId).toList());
+        Assertions.assertEquals(List.of(List.of(1L, 2L, 3L)), loadedIds);
+
+        // 1、2 命中，db 中不存在的 3 仍需加载
+        users = service.loadByIds(List.of(1L, 2L, 3L), ids -> {
+            loadedIds.add(new ArrayList<>(ids));
+            return List.of();
+        });
+        Assertions.assertEquals(List.of(1L, 2L), users.stream().map(User::getId).toList());
+        Assertions.assertEquals(List.of(3L), loadedIds.get(1));
+        // 批量加载时写入的缓存，按 id 查询也能命中（未命中会访问 db，这里没有 db 会失败）
+        Assertions.assertEquals(1L, service.getByIdFromCache(1L).getId());
+        context.close();
+    }
+
+    /**
+     * 本地缓存的命中 / 未命中统计绑定到 MeterRegistry
+     */
+    @Test
+    public void testCacheMetrics() {
+        GenericApplicationContext context = new GenericApplicationContext();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        context.registerBean(SimpleMeterRegistry.class, () -> registry);
+        context.refresh();
+        UserService service = new UserService();
+        service.onApplicationEvent(startedEvent(context));
+
+        service.loadByIds(List.of(1L, 2L), ids -> ids.stream().map(id -> new User((Long) id)).toList());
+        service.loadByIds(List.of(1L, 2L, 3L), ids -> List.of());
+        String cacheName = service.getCache().getName();
+        Assertions.assertEquals(2, countCacheGets(registry, cacheName, "hit"));
+        Assertions.assertEquals(3, countCacheGets(registry, cacheName, "miss"));
+        context.close();
+    }
+
+    private static double countCacheGets(SimpleMeterRegistry registry, String cacheName, String result) {
+        FunctionCounter counter = registry.get("cache.gets").tag("cache", cacheName).tag("result", result).functionCounter();
+        return counter.count();
+    }
+
+    private static ApplicationStartedEvent startedEvent(GenericApplicationContext context) {
+        return new ApplicationStartedEvent(new SpringApplication(), new String[0], context, Duration.ZERO);
+    }
+
+    public static class User extends BaseEntity<Long> {
+
+        public User() {
+        }
+
+        public User(Long id) {
+            this.id = id;
+        }
+    }
+
+    public interface UserMapper extends BaseMapper<User> {
+    }
+
+    public static class UserService extends BaseCacheableServiceImpl<UserMapper, User> {
+    }
+
+}
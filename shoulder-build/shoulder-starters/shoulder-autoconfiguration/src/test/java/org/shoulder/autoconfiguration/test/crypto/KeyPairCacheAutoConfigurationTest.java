@@ -0,0 +1,144 @@
+package org.shoulder.autoconfiguration.test.crypto;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.shoulder.autoconfigure.crypto.AsymmetricCryptoAutoConfiguration;
+import org.shoulder.cluster.redis.annotation.AppExclusive;
+import org.shoulder.core.context.AppInfo;
+import org.shoulder.crypto.asymmetric.dto.KeyPairDto;
+import org.shoulder.crypto.asymmetric.store.KeyPairCache;
+import org.shoulder.crypto.asymmetric.store.impl.NearKeyPairCache;
+import org.shoulder.crypto.local.LocalTextCipher;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.AutowireCandidateQualifier;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import redis.embedded.RedisServer;
+
+import java.time.Duration;
+
+/**
+ * 集群模式密钥对存储自动装配：启用本地缓存时在共用的订阅容器上监听失效消息，使用内嵌 redis，启动失败时跳过
+ *
+ * @author lym
+ */
+public class KeyPairCacheAutoConfigurationTest {
+
+    private static final int REDIS_PORT = 16381;
+
+    private static RedisServer redisServer;
+
+    private static LettuceConnectionFactory connectionFactory;
+
+    private static StringRedisTemplate redisTemplate;
+
+    @BeforeAll
+    public static void startRedis() {
+        try {
+            redisServer = RedisServer.newRedisServer().port(REDIS_PORT).bind("127.0.0.1").build();
+            redisServer.start();
+        } catch (Exception e) {
+            Assumptions.abort("embedded redis start fail: " + e.getMessage());
+        }
+        connectionFactory = new LettuceConnectionFactory("127.0.0.1", REDIS_PORT);
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    public static void stopRedis() throws Exception {
+        if (connectionFactory != null) {
+            connectionFactory.destroy();
+        }
+        if (redisServer != null) {
+            redisServer.stop();
+        }
+    }
+
+    @Test
+    public void testNearCache() {
+        boolean cluster = AppInfo.cluster();
+        try {
+            AppInfo.initCluster(true);
+            ApplicationContextRunner contextRunner = newContextRunner();
+            // 默认启用本地缓存，在共用的订阅容器上监听失效消息，不额外创建容器
+            contextRunner.run(context -> {
+                KeyPairCache keyPairCache = context.getBean(KeyPairCache.class);
+                NearKeyPairCache nearKeyPairCache = Assertions.assertInstanceOf(NearKeyPairCache.class, keyPairCache);
+                Assertions.assertEquals(1, context.getBeansOfType(RedisMessageListenerContainer.class).size());
+
+                // 其他节点修改后，本节点收到失效消息
+                keyPairCache.put("a", new KeyPairDto("pk", "vk"));
+                // 写入时的失效消息本节点也会收到，等待其到达后再加载
+                Thread.sleep(300);
+                Assertions.assertEquals("pk", keyPairCache.get("a").getPk());
+                Assertions.assertEquals(1, nearKeyPairCache.getLocalSize());
+                NearKeyPairCache otherNode = new NearKeyPairCache(new NoOpKeyPairCache(), redisTemplate,
+                        nearKeyPairCache.getChannel(), 16, Duration.ofMinutes(1));
+                otherNode.put("a", new KeyPairDto("pk2", "vk2"));
+                long deadline = System.currentTimeMillis() + 5000;
+                while (nearKeyPairCache.getLocalSize() > 0 && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(10);
+                }
+                Assertions.assertEquals(0, nearKeyPairCache.getLocalSize());
+            });
+
+            // 关闭本地缓存
+            contextRunner.withPropertyValues("shoulder.crypto.key-pair-cache.near-cache-enable=false")
+                    .run(context -> {
+                        Assertions.assertFalse(context.getBean(KeyPairCache.class) instanceof NearKeyPairCache);
+                        Assertions.assertEquals(1, context.getBeansOfType(RedisMessageListenerContainer.class).size());
+                    });
+        } finally {
+            AppInfo.initCluster(cluster);
+        }
+    }
+
+    private static ApplicationContextRunner newContextRunner() {
+        LocalTextCipher localTextCipher = Mockito.mock(LocalTextCipher.class);
+        Mockito.when(localTextCipher.encrypt(ArgumentMatchers.anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+        Mockito.when(localTextCipher.decrypt(ArgumentMatchers.anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+        return new ApplicationContextRunner()
+                .withUserConfiguration(AsymmetricCryptoAutoConfiguration.AsymmetricKeyClusterPairCacheConfig.class)
+                .withBean("redisTemplate", StringRedisTemplate.class, () -> redisTemplate,
+                        bd -> ((AbstractBeanDefinition) bd).addQualifier(new AutowireCandidateQualifier(AppExclusive.class)))
+                .withBean(RedisConnectionFactory.class, () -> connectionFactory)
+                .withBean(RedisMessageListenerContainer.class, () -> {
+                    // 共用的订阅容器，同 RedisAutoConfiguration
+                    RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+                    container.setConnectionFactory(connectionFactory);
+                    return container;
+                })
+                .withBean(LocalTextCipher.class, () -> localTextCipher);
+    }
+
+    /**
+     * 其他节点的远程存储，这里只用于广播失效消息
+     */
+    private static class NoOpKeyPairCache implements KeyPairCache {
+
+        @Override
+        public void put(String id, KeyPairDto keyPairDto) {
+        }
+
+        @Override
+        public boolean putIfAbsent(String id, KeyPairDto keyPairDto) {
+            return true;
+        }
+
+        @Override
+        public KeyPairDto get(String id) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+}
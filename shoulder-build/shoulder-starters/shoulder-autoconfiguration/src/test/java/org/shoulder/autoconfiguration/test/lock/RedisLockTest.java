@@ -0,0 +1,274 @@
+package org.shoulder.autoconfiguration.test.lock;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.shoulder.autoconfigure.lock.LockAutoConfiguration;
+import org.shoulder.autoconfigure.redis.RedisAutoConfiguration;
+import org.shoulder.cluster.lock.redis.RedisLock;
+import org.shoulder.core.lock.LockInfo;
+import org.shoulder.core.lock.ServerLock;
+import org.shoulder.core.lock.impl.MemoryLock;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import redis.embedded.RedisServer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * RedisLock 测试，使用内嵌 redis，启动失败时跳过
+ * <p>
+ * 注意：这里的性能测试仅为无预热粗略测试，精确测试请使用 JMH。
+ *
+ * @author lym
+ */
+public class RedisLockTest {
+
+    private static final int REDIS_PORT = 16379;
+
+    private static RedisServer redisServer;
+
+    private static LettuceConnectionFactory connectionFactory;
+
+    private static StringRedisTemplate redisTemplate;
+
+    private static RedisMessageListenerContainer listenerContainer;
+
+    @BeforeAll
+    public static void startRedis() {
+        try {
+            redisServer = RedisServer.newRedisServer().port(REDIS_PORT).bind("127.0.0.1").build();
+            redisServer.start();
+        } catch (Exception e) {
+            Assumptions.abort("embedded redis start fail: " + e.getMessage());
+        }
+        connectionFactory = new LettuceConnectionFactory("127.0.0.1", REDIS_PORT);
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+        listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(connectionFactory);
+        listenerContainer.afterPropertiesSet();
+        listenerContainer.start();
+    }
+
+    @AfterAll
+    public static void stopRedis() throws Exception {
+        if (listenerContainer != null) {
+            listenerContainer.destroy();
+        }
+        if (connectionFactory != null) {
+            connectionFactory.destroy();
+        }
+        if (redisServer != null) {
+            redisServer.stop();
+        }
+    }
+
+    /**
+     * 自动装配：redis 锁使用共用的订阅容器，按类型注入 RedisMessageListenerContainer 不会冲突；用户自定义的容器优先
+     */
+    @Test
+    public void testAutoConfiguration() {
+        ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(RedisAutoConfiguration.class, LockAutoConfiguration.class))
+            .withBean(RedisConnectionFactory.class, () -> connectionFactory)
+            .withPropertyValues("shoulder.lock.type=redis");
+        contextRunner.run(context -> {
+            Assertions.assertInstanceOf(RedisLock.class, context.getBean(ServerLock.class));
+            Assertions.assertNotNull(context.getBean(RedisMessageListenerContainer.class));
+        });
+        RedisMessageListenerContainer customContainer = new RedisMessageListenerContainer();
+        customContainer.setConnectionFactory(connectionFactory);
+        contextRunner.withBean("customListenerContainer", RedisMessageListenerContainer.class, () -> customContainer)
+            .run(context -> Assertions.assertSame(customContainer, context.getBean(RedisMessageListenerContainer.class)));
+    }
+
+    /**
+     * 通知模式：释放后等待者立即获取到锁，而不是等到下一次轮询
+     */
+    @Test
+    public void testTryLockByNotify() throws Exception {
+        RedisLock lock = new RedisLock("ut:", redisTemplate, listenerContainer);
+        // 兜底轮询设置很长，确保是被通知唤醒的
+        lock.setNotifyFallbackPollTime(Duration.ofSeconds(10));
+        long handoffNanos = handoff(lock, "testTryLockByNotify");
+        Assertions.assertTrue(handoffNanos < TimeUnit.SECONDS.toNanos(2), "handoff cost " + handoffNanos + "ns");
+
+        // 等待超时
+        LockInfo holder = newLockInfo("testTryLockByNotifyTimeout");
+        Assertions.assertTrue(lock.tryLock(holder));
+        LockInfo waiter = newLockInfo("testTryLockByNotifyTimeout");
+        long start = System.nanoTime();
+        Assertions.assertFalse(lock.tryLock(waiter, Duration.ofMillis(200)));
+        Assertions.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(200));
+        lock.unlock(holder.getResource(), holder.getToken());
+        Assertions.assertTrue(lock.tryLock(waiter, Duration.ofMillis(200)));
+        lock.unlock(waiter.getResource(), waiter.getToken());
+    }
+
+    /**
+     * 释放消息的 channel 带有 key 序列化器添加的应用前缀：共用 redis 的不同应用互不唤醒
+     */
+    @Test
+    public void testReleaseChannelWithAppPrefix() throws Exception {
+        RedisLock app1Lock = new RedisLock("ut:", newPrefixRedisTemplate("app1:"), listenerContainer);
+        RedisLock app2Lock = new RedisLock("ut:", newPrefixRedisTemplate("app2:"), listenerContainer);
+        LockInfo lock1 = newLockInfo("testReleaseChannelWithAppPrefix");
+        LockInfo lock2 = newLockInfo("testReleaseChannelWithAppPrefix");
+        String channel = "ut:__" + lock1.getResource();
+        List<String> channels = new CopyOnWriteArrayList<>();
+        MessageListener listener = (message, pattern) -> channels.add(new String(message.getChannel(), StandardCharsets.UTF_8));
+        listenerContainer.addMessageListener(listener,
+            List.of(new ChannelTopic(channel), new ChannelTopic("app1:" + channel), new ChannelTopic("app2:" + channel)));
+        try {
+            // 订阅生效
+            Thread.sleep(100);
+            // 不同应用的锁互不影响
+            Assertions.assertTrue(app1Lock.tryLock(lock1));
+            Assertions.assertTrue(app2Lock.tryLock(lock2));
+            app1Lock.unlock(lock1.getResource(), lock1.getToken());
+            long deadline = System.currentTimeMillis() + 2000;
+            while (channels.isEmpty() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            // 确认没有发到其他 channel
+            Thread.sleep(50);
+            Assertions.assertEquals(List.of("app1:" + channel), channels);
+            app2Lock.unlock(lock2.getResource(), lock2.getToken());
+        } finally {
+            listenerContainer.removeMessageListener(listener);
+        }
+    }
+
+    /**
+     * 多线程反复竞争同一资源：订阅 / 取消订阅交错时不丢失订阅，所有等待者都能获取到锁
+     */
+    @Test
+    public void testNotifyConcurrentWaiters() throws Exception {
+        RedisLock lock = new RedisLock("ut:", redisTemplate, listenerContainer);
+        lock.setNotifyFallbackPollTime(Duration.ofMillis(200));
+        int threadNum = 8;
+        int loop = 10;
+        AtomicInteger lockedCount = new AtomicInteger();
+        CountDownLatch finished = new CountDownLatch(threadNum);
+        for (int i = 0; i < threadNum; i++) {
+            new Thread(() -> {
+                try {
+                    for (int j = 0; j < loop; j++) {
+                        LockInfo lockInfo = newLockInfo("testNotifyConcurrentWaiters");
+                        if (lock.tryLock(lockInfo, Duration.ofSeconds(10))) {
+                            lockedCount.incrementAndGet();
+                            lock.unlock(lockInfo.getResource(), lockInfo.getToken());
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    finished.countDown();
+                }
+            }).start();
+        }
+        Assertions.assertTrue(finished.await(60, TimeUnit.SECONDS));
+        Assertions.assertEquals(threadNum * loop, lockedCount.get());
+    }
+
+    /**
+     * 续期：仅持有者可续期
+     */
+    @Test
+    public void testRenew() {
+        RedisLock lock = new RedisLock("ut:", redisTemplate);
+        LockInfo lockInfo = new LockInfo("testRenew", "ut", Duration.ofSeconds(1));
+        Assertions.assertTrue(lock.tryLock(lockInfo));
+        Assertions.assertTrue(lock.renew(lockInfo.getResource(), lockInfo.getToken(), Duration.ofSeconds(30)));
+        Assertions.assertTrue(redisTemplate.getExpire("ut:__" + lockInfo.getResource()) > 1);
+        Assertions.assertFalse(lock.renew(lockInfo.getResource(), "otherToken", Duration.ofSeconds(30)));
+        lock.unlock(lockInfo.getResource(), lockInfo.getToken());
+        Assertions.assertFalse(lock.renew(lockInfo.getResource(), lockInfo.getToken(), Duration.ofSeconds(30)));
+    }
+
+    /**
+     * 本机锁、redis 轮询、redis 通知 三种方式的锁交接延迟：持有者释放 到 等待者获取成功 的耗时
+     */
+    @Test
+    public void timer_handoff() throws Exception {
+        RedisLock pollLock = new RedisLock("ut:", redisTemplate);
+        RedisLock notifyLock = new RedisLock("ut:", redisTemplate, listenerContainer);
+        MemoryLock memoryLock = new MemoryLock();
+        int rounds = 20;
+        // 第一轮预热
+        for (int round = 0; round < 2; round++) {
+            long memoryCost = 0;
+            long pollCost = 0;
+            long notifyCost = 0;
+            for (int i = 0; i < rounds; i++) {
+                memoryCost += handoff(memoryLock, "timer_handoff_memory");
+                pollCost += handoff(pollLock, "timer_handoff_poll");
+                notifyCost += handoff(notifyLock, "timer_handoff_notify");
+            }
+            System.out.println("TIME-redisLock TEST: handoff avg cost, local memory " + memoryCost / rounds / 1000
+                + "us, redis poll " + pollCost / rounds / 1000 + "us, redis notify " + notifyCost / rounds / 1000 + "us");
+        }
+    }
+
+    /**
+     * 持有者加锁，等待者开始等待后持有者释放
+     *
+     * @return 释放到等待者获取成功的耗时（纳秒）
+     */
+    private static long handoff(ServerLock lock, String resource) throws Exception {
+        LockInfo holder = newLockInfo(resource);
+        Assertions.assertTrue(lock.tryLock(holder));
+        AtomicLong acquiredAt = new AtomicLong();
+        CountDownLatch waiting = new CountDownLatch(1);
+        LockInfo waiter = newLockInfo(resource);
+        Thread waiterThread = new Thread(() -> {
+            waiting.countDown();
+            try {
+                if (lock.tryLock(waiter, Duration.ofSeconds(5))) {
+                    acquiredAt.set(System.nanoTime());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        waiterThread.start();
+        waiting.await();
+        // 保证等待者已经开始阻塞
+        Thread.sleep(20);
+        long releaseAt = System.nanoTime();
+        lock.unlock(holder.getResource(), holder.getToken());
+        waiterThread.join();
+        Assertions.assertTrue(acquiredAt.get() > 0);
+        lock.unlock(waiter.getResource(), waiter.getToken());
+        return acquiredAt.get() - releaseAt;
+    }
+
+    private static StringRedisTemplate newPrefixRedisTemplate(String appPrefix) {
+        StringRedisTemplate template = new StringRedisTemplate(connectionFactory);
+        template.setKeySerializer(new RedisAutoConfiguration.WithPrefixKeyStringRedisSerializer(appPrefix));
+        template.afterPropertiesSet();
+        return template;
+    }
+
+    private static LockInfo newLockInfo(String resource) {
+        return new LockInfo(resource, "ut", Duration.ofSeconds(30));
+    }
+
+}
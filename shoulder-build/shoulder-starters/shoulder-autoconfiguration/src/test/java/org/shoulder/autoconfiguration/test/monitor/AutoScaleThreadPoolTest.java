@@ -0,0 +1,370 @@
+package org.shoulder.autoconfiguration.test.monitor;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.shoulder.core.concurrent.ResizableCapacityBlockingQueue;
+import org.shoulder.monitor.concurrent.AutoScaleThreadPool;
+import org.shoulder.monitor.concurrent.PredictiveScaleController;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 自动伸缩线程池：运行时调整、阈值策略与预测策略的回放对比
+ * <p>
+ * 回放使用离散事件模拟，不真正创建线程，结果可复现；线上录制的到达时间、执行耗时转成数组即可传入 {@link #replay}
+ *
+ * @author lym
+ */
+public class AutoScaleThreadPoolTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static final int CORE = 4;
+
+    private static final int MAX = 32;
+
+    private static final int QUEUE_CAPACITY = 1000;
+
+    /**
+     * 运行时调整线程数与队列容量
+     */
+    @Test
+    public void testResize() throws Exception {
+        AutoScaleThreadPool pool = new AutoScaleThreadPool(1, 1, 60, TimeUnit.SECONDS,
+            new ResizableCapacityBlockingQueue<>(1), AutoScaleThreadPool.ScaleRule.newRule());
+        CountDownLatch release = new CountDownLatch(1);
+        Runnable block = () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        pool.execute(block);
+        pool.execute(block);
+        Assertions.assertThrows(RejectedExecutionException.class, () -> pool.execute(block));
+
+        pool.resize(2, 4, 3);
+        Assertions.assertEquals(2, pool.getCorePoolSize());
+        Assertions.assertEquals(4, pool.getMaximumPoolSize());
+        Assertions.assertEquals(3, pool.getQueueCapacity());
+        // 扩大核心线程数后立即启动新线程消费堆积任务
+        Assertions.assertEquals(2, pool.getPoolSize());
+        for (int i = 0; i < 3; i++) {
+            pool.execute(block);
+        }
+        Assertions.assertEquals(3, pool.getQueue().size());
+
+        // 缩小到比当前 core 还小的 max
+        pool.resize(1, 1, null);
+        Assertions.assertEquals(1, pool.getCorePoolSize());
+        Assertions.assertEquals(1, pool.getMaximumPoolSize());
+        release.countDown();
+        pool.shutdown();
+        Assertions.assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+
+        AutoScaleThreadPool fixedQueuePool = new AutoScaleThreadPool(1, 2, 60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(10), AutoScaleThreadPool.ScaleRule.newRule());
+        Assertions.assertEquals(10, fixedQueuePool.getQueueCapacity());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> fixedQueuePool.resize(1, 2, 20));
+        fixedQueuePool.shutdown();
+    }
+
+    /**
+     * 先缩小到 core = max 再扩大：每次扩缩容线程数按规则配置重新计算，不会一直为 0
+     */
+    @Test
+    public void testResizeDownThenUp() {
+        AutoScaleThreadPool.ScaleRule scaleRule = AutoScaleThreadPool.ScaleRule.newRule()
+            .expansionThreadOneTime(3).shrinkageThreadOneTime(2);
+        AutoScaleThreadPool pool = new AutoScaleThreadPool(2, 8, 60, TimeUnit.SECONDS,
+            new ResizableCapacityBlockingQueue<>(100), scaleRule);
+        Assertions.assertEquals(3, pool.getExpansionThreadOneTime());
+        Assertions.assertEquals(2, pool.getShrinkageThreadOneTime());
+
+        pool.resize(2, 2, null);
+        Assertions.assertEquals(0, pool.getExpansionThreadOneTime());
+        Assertions.assertEquals(0, pool.getShrinkageThreadOneTime());
+
+        pool.resize(2, 8, null);
+        Assertions.assertEquals(3, pool.getExpansionThreadOneTime());
+        Assertions.assertEquals(2, pool.getShrinkageThreadOneTime());
+        pool.resize(2, 4, null);
+        Assertions.assertEquals(2, pool.getExpansionThreadOneTime());
+        Assertions.assertEquals(3, scaleRule.getExpansionThreadOneTime());
+        pool.shutdown();
+    }
+
+    /**
+     * 预测模式：突发任务时在队列堆积前扩容
+     */
+    @Test
+    public void testPredictiveExpansion() throws Exception {
+        AutoScaleThreadPool pool = new AutoScaleThreadPool(1, 16, 60, TimeUnit.SECONDS,
+            new ResizableCapacityBlockingQueue<>(10_000), AutoScaleThreadPool.ScaleRule.newRule()
+            .predictive(true).evaluateInterval(Duration.ofMillis(20)));
+        int taskNum = 400;
+        CountDownLatch finished = new CountDownLatch(taskNum);
+        for (int i = 0; i < taskNum; i++) {
+            pool.execute(() -> {
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                finished.countDown();
+            });
+            Thread.sleep(1);
+        }
+        Assertions.assertTrue(finished.await(10, TimeUnit.SECONDS));
+        Assertions.assertTrue(pool.getLargestPoolSize() > 1);
+        Assertions.assertTrue(pool.getPredictiveController().getServiceMillis() >= 5);
+        pool.shutdown();
+    }
+
+    /**
+     * 回放突发流量：预测策略的 p99 排队时长、拒绝数均低于阈值策略
+     */
+    @Test
+    public void testReplayBurstTrace() {
+        long[][] trace = burstTrace(new Random(42), 60);
+        SimulationResult threshold = replay(trace[0], trace[1], new ThresholdPolicy());
+        SimulationResult predictive = replay(trace[0], trace[1], new PredictivePolicy());
+        System.out.println("TIME-autoScaleThreadPool TEST: " + trace[0].length + " tasks, threshold " + threshold
+            + ", predictive " + predictive);
+        Assertions.assertTrue(predictive.p99QueueingMillis < threshold.p99QueueingMillis);
+        Assertions.assertTrue(predictive.rejected <= threshold.rejected);
+    }
+
+    /**
+     * 生成突发流量：平时 100/s，每 15s 出现一次持续 3s 的 600/s 突发；执行耗时均值 20ms，均为指数分布
+     *
+     * @return [到达时间, 执行耗时]
+     */
+    private static long[][] burstTrace(Random random, int seconds) {
+        long end = seconds * 1000L * MS;
+        long[] arrivals = new long[seconds * 300];
+        long[] services = new long[arrivals.length];
+        int n = 0;
+        long now = 0;
+        while (n < arrivals.length) {
+            long second = now / (1000 * MS);
+            double ratePerMs = second % 15 >= 10 && second % 15 < 13 ? 0.6 : 0.1;
+            now += (long) (-Math.log(1 - random.nextDouble()) / ratePerMs * MS);
+            if (now >= end) {
+                break;
+            }
+            arrivals[n] = now;
+            services[n] = (long) (-Math.log(1 - random.nextDouble()) * 20 * MS);
+            n++;
+        }
+        return new long[][]{Arrays.copyOf(arrivals, n), Arrays.copyOf(services, n)};
+    }
+
+    /**
+     * 回放：按 ThreadPoolExecutor 的语义模拟线程创建、入队、拒绝
+     *
+     * @param arrivalNanos 任务到达时间，递增
+     * @param serviceNanos 任务执行耗时
+     * @param policy       核心线程数调整策略
+     */
+    private static SimulationResult replay(long[] arrivalNanos, long[] serviceNanos, ScalePolicy policy) {
+        SimulatedPool pool = new SimulatedPool();
+        long[] queueingNanos = new long[arrivalNanos.length];
+        int started = 0;
+        int rejected = 0;
+        for (int i = 0; i < arrivalNanos.length; i++) {
+            long now = arrivalNanos[i];
+            // 先处理到达前完成的任务
+            while (!pool.completions.isEmpty() && pool.completions.peek()[0] <= now) {
+                long[] completion = pool.completions.poll();
+                pool.busy--;
+                policy.afterExecute(pool, completion[0], completion[1]);
+                started = pool.startQueued(completion[0], arrivalNanos, serviceNanos, queueingNanos, started, policy);
+            }
+            policy.beforeSubmit(pool, now);
+            started = pool.startQueued(now, arrivalNanos, serviceNanos, queueingNanos, started, policy);
+            if (pool.workers < pool.core || pool.workers > pool.busy) {
+                if (pool.workers == pool.busy) {
+                    pool.workers++;
+                }
+                queueingNanos[started++] = 0;
+                pool.start(now, serviceNanos[i], policy);
+            } else if (pool.queue.size() < QUEUE_CAPACITY) {
+                pool.queue.add(i);
+            } else if (pool.workers < MAX) {
+                pool.workers++;
+                queueingNanos[started++] = 0;
+                pool.start(now, serviceNanos[i], policy);
+            } else {
+                rejected++;
+            }
+        }
+        while (!pool.completions.isEmpty()) {
+            long[] completion = pool.completions.poll();
+            pool.busy--;
+            policy.afterExecute(pool, completion[0], completion[1]);
+            started = pool.startQueued(completion[0], arrivalNanos, serviceNanos, queueingNanos, started, policy);
+        }
+        long[] delays = Arrays.copyOf(queueingNanos, started);
+        Arrays.sort(delays);
+        return new SimulationResult(delays[(int) (delays.length * 0.99)] / MS, rejected, pool.largestCore);
+    }
+
+    private static class SimulatedPool {
+
+        int core = CORE;
+
+        int workers;
+
+        int busy;
+
+        int largestCore = CORE;
+
+        final ArrayDeque<Integer> queue = new ArrayDeque<>();
+
+        /**
+         * [完成时间, 执行耗时]
+         */
+        final PriorityQueue<long[]> completions = new PriorityQueue<>((a, b) -> Long.compare(a[0], b[0]));
+
+        void start(long now, long serviceNanos, ScalePolicy policy) {
+            busy++;
+            policy.beforeExecute(this, now);
+            completions.add(new long[]{now + serviceNanos, serviceNanos});
+        }
+
+        int startQueued(long now, long[] arrivalNanos, long[] serviceNanos, long[] queueingNanos, int started,
+                        ScalePolicy policy) {
+            while (!queue.isEmpty() && busy < workers) {
+                int index = queue.poll();
+                queueingNanos[started++] = now - arrivalNanos[index];
+                start(now, serviceNanos[index], policy);
+            }
+            return started;
+        }
+
+        /**
+         * 同 ThreadPoolExecutor.setCorePoolSize：扩大时为堆积任务启动新线程，缩小时回收空闲线程
+         */
+        void setCore(int newCore) {
+            core = newCore;
+            largestCore = Math.max(largestCore, newCore);
+            if (workers > newCore) {
+                workers = Math.max(newCore, busy);
+            }
+            while (workers < newCore && workers - busy < queue.size()) {
+                workers++;
+            }
+        }
+    }
+
+    private interface ScalePolicy {
+
+        default void beforeSubmit(SimulatedPool pool, long now) {
+        }
+
+        default void beforeExecute(SimulatedPool pool, long now) {
+        }
+
+        default void afterExecute(SimulatedPool pool, long now, long serviceNanos) {
+        }
+    }
+
+    /**
+     * 与 AutoScaleThreadPool 默认规则一致：队列超过 75% 扩容一个线程（冷却 5s），低于 25% 缩容一个线程（冷却 10s）
+     */
+    private static class ThresholdPolicy implements ScalePolicy {
+
+        private final int expansionOnTaskCount = (int) (QUEUE_CAPACITY * 0.75f);
+
+        private final int shrinkageOnTaskCount = (int) (QUEUE_CAPACITY * 0.25f);
+
+        private long expansionNanos = Long.MIN_VALUE;
+
+        private long shrinkageNanos = Long.MIN_VALUE;
+
+        @Override
+        public void beforeExecute(SimulatedPool pool, long now) {
+            if (now > expansionNanos) {
+                if (pool.queue.size() > expansionOnTaskCount && pool.workers < MAX) {
+                    pool.setCore(pool.workers + 1);
+                }
+                expansionNanos = now + 5000 * MS;
+            }
+        }
+
+        @Override
+        public void afterExecute(SimulatedPool pool, long now, long serviceNanos) {
+            if (now > shrinkageNanos) {
+                if (pool.queue.size() < shrinkageOnTaskCount && pool.workers > pool.core) {
+                    pool.setCore(pool.workers - 1);
+                }
+                shrinkageNanos = now + 10_000 * MS;
+            }
+        }
+    }
+
+    /**
+     * 与 AutoScaleThreadPool 预测模式一致：提交、执行完毕时每 100ms 计算一次
+     */
+    private static class PredictivePolicy implements ScalePolicy {
+
+        private final PredictiveScaleController controller = new PredictiveScaleController(0.8,
+            Duration.ofMillis(100), Duration.ofSeconds(10), 0);
+
+        private long nextEvaluateNanos;
+
+        @Override
+        public void beforeSubmit(SimulatedPool pool, long now) {
+            controller.recordArrival();
+            evaluate(pool, now);
+        }
+
+        @Override
+        public void afterExecute(SimulatedPool pool, long now, long serviceNanos) {
+            controller.recordService(serviceNanos);
+            evaluate(pool, now);
+        }
+
+        private void evaluate(SimulatedPool pool, long now) {
+            if (now < nextEvaluateNanos) {
+                return;
+            }
+            nextEvaluateNanos = now + 100 * MS;
+            int desired = controller.evaluate(now, pool.queue.size(), pool.core, CORE, MAX);
+            if (desired != pool.core) {
+                pool.setCore(desired);
+            }
+        }
+    }
+
+    private static class SimulationResult {
+
+        final long p99QueueingMillis;
+
+        final int rejected;
+
+        final int largestCore;
+
+        SimulationResult(long p99QueueingMillis, int rejected, int largestCore) {
+            this.p99QueueingMillis = p99QueueingMillis;
+            this.rejected = rejected;
+            this.largestCore = largestCore;
+        }
+
+        @Override
+        public String toString() {
+            return "p99 queueing " + p99QueueingMillis + "ms, rejected " + rejected + ", largest core " + largestCore;
+        }
+    }
+
+}
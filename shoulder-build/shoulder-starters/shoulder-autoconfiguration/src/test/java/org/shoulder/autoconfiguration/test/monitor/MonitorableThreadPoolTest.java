@@ -0,0 +1,116 @@
+package org.shoulder.autoconfiguration.test.monitor;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.shoulder.monitor.concurrent.DefaultMonitorableRunnable;
+import org.shoulder.monitor.concurrent.MonitorableThreadPool;
+import org.shoulder.monitor.concurrent.ThreadPoolMetrics;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 可监控线程池
+ * <p>
+ * 注意：这里的性能测试仅为无预热粗略测试，精确测试请使用 JMH。
+ *
+ * @author lym
+ */
+public class MonitorableThreadPoolTest {
+
+    private static final SimpleMeterRegistry REGISTRY = new SimpleMeterRegistry();
+
+    @BeforeAll
+    public static void addRegistry() {
+        Metrics.addRegistry(REGISTRY);
+    }
+
+    @AfterAll
+    public static void removeRegistry() {
+        Metrics.removeRegistry(REGISTRY);
+    }
+
+    /**
+     * 线程池状态在采集时读取；按任务名缓存计时器，且标签为任务名
+     */
+    @Test
+    public void testSampledMetrics() throws Exception {
+        MonitorableThreadPool pool = new MonitorableThreadPool(2, 2, 60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(100), "ut-sampled");
+        String prefix = ThreadPoolMetrics.getDefaultMetricsNamePrefix();
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(2);
+        for (int i = 0; i < 3; i++) {
+            DefaultMonitorableRunnable runnable = new DefaultMonitorableRunnable(() -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            runnable.setTaskName("block");
+            pool.execute(runnable);
+        }
+        started.await();
+        Assertions.assertEquals(2, gauge(prefix + "threads", "active"));
+        Assertions.assertEquals(1, gauge(prefix + "queue_tasks", "num"));
+        Assertions.assertEquals(3, gauge(prefix + "tasks", "total"));
+        release.countDown();
+        pool.shutdown();
+        Assertions.assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(3, gauge(prefix + "tasks", "completed"));
+        Assertions.assertEquals(0, gauge(prefix + "threads", "active"));
+        Assertions.assertEquals(2, gauge(prefix + "threads", "largest"));
+
+        Assertions.assertSame(pool.getMetrics().taskExecuteTime("block"), pool.getMetrics().taskExecuteTime("block"));
+        Assertions.assertEquals(3, REGISTRY.get(prefix + "timer")
+            .tags("module", "ut-sampled", "name", "execute", "task", "block").timer().count());
+        Assertions.assertEquals(3, REGISTRY.get(prefix + "timer")
+            .tags("module", "ut-sampled", "name", "queuing", "task", "block").timer().count());
+    }
+
+    /**
+     * 短任务吞吐：不监控 / 监控
+     */
+    @Test
+    public void timer_throughput() throws Exception {
+        int threads = 64;
+        int taskNum = 200_000;
+        // 第一轮预热
+        for (int round = 0; round < 2; round++) {
+            ThreadPoolExecutor plain = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+            ThreadPoolExecutor monitorable = new MonitorableThreadPool(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), "ut-throughput");
+            long plainCost = runTasks(plain, taskNum);
+            long monitorableCost = runTasks(monitorable, taskNum);
+            System.out.println("TIME-monitorableThreadPool TEST: " + taskNum + " tasks, plain " + plainCost / 1_000_000
+                + "ms (" + taskNum * 1_000_000_000L / plainCost + " tasks/s), monitorable " + monitorableCost / 1_000_000
+                + "ms (" + taskNum * 1_000_000_000L / monitorableCost + " tasks/s)");
+        }
+    }
+
+    private static long runTasks(ThreadPoolExecutor pool, int taskNum) throws InterruptedException {
+        pool.prestartAllCoreThreads();
+        CountDownLatch finished = new CountDownLatch(taskNum);
+        long start = System.nanoTime();
+        for (int i = 0; i < taskNum; i++) {
+            pool.execute(finished::countDown);
+        }
+        finished.await();
+        long cost = System.nanoTime() - start;
+        pool.shutdown();
+        return cost;
+    }
+
+    private static double gauge(String name, String tagName) {
+        return REGISTRY.get(name).tags("module", "ut-sampled", "name", tagName).gauge().value();
+    }
+
+}
@@ -0,0 +1,260 @@
+package org.shoulder.autoconfiguration.test.operation;
+
+import jakarta.annotation.Nonnull;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.shoulder.core.model.Operable;
+import org.shoulder.core.util.JsonUtils;
+import org.shoulder.log.operation.logger.OperationLogger;
+import org.shoulder.log.operation.logger.OperationLoggerInterceptor;
+import org.shoulder.log.operation.logger.impl.AsyncOperationLogger;
+import org.shoulder.log.operation.model.OperationLogDTO;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 异步操作日志：队列满时各溢出策略、批量合并不丢日志
+ *
+ * @author lym
+ */
+public class AsyncOperationLoggerTest {
+
+    /**
+     * BLOCK：队列有空位前阻塞，超时丢弃
+     */
+    @Test
+    public void testOverflowBlock() throws Exception {
+        RecordingOperationLogger delegate = new RecordingOperationLogger();
+        AsyncOperationLogger logger = newFullLogger(delegate, AsyncOperationLogger.OverflowPolicy.BLOCK);
+
+        // 等待超时，丢弃
+        logger.setOfferTimeout(Duration.ofMillis(50));
+        logger.log(new OperationLogDTO("3"));
+        Assertions.assertEquals(1, logger.getDroppedCount());
+
+        // 等待期间 worker 取走日志，放入成功
+        logger.setOfferTimeout(Duration.ofSeconds(10));
+        Thread releaser = new Thread(() -> {
+            sleep(100);
+            delegate.release();
+        });
+        releaser.start();
+        long start = System.currentTimeMillis();
+        logger.log(new OperationLogDTO("4"));
+        Assertions.assertTrue(System.currentTimeMillis() - start >= 50);
+        releaser.join();
+
+        logger.preDestroy();
+        Assertions.assertEquals(List.of("0", "1", "2", "4"), delegate.getOperations());
+        Assertions.assertEquals(1, logger.getDroppedCount());
+        Assertions.assertEquals(4, logger.getLoggedCount());
+    }
+
+    /**
+     * DISCARD_OLDEST：丢弃队列中最早的，放入新的
+     */
+    @Test
+    public void testOverflowDiscardOldest() {
+        RecordingOperationLogger delegate = new RecordingOperationLogger();
+        AsyncOperationLogger logger = newFullLogger(delegate, AsyncOperationLogger.OverflowPolicy.DISCARD_OLDEST);
+        logger.log(new OperationLogDTO("3"));
+        logger.log(new OperationLogDTO("4"));
+        Assertions.assertEquals(2, logger.getDroppedCount());
+        Assertions.assertEquals(2, logger.getQueueSize());
+
+        delegate.release();
+        logger.preDestroy();
+        Assertions.assertEquals(List.of("0", "3", "4"), delegate.getOperations());
+    }
+
+    /**
+     * CALLER_RUNS：由业务线程直接记录，不丢弃
+     */
+    @Test
+    public void testOverflowCallerRuns() {
+        RecordingOperationLogger delegate = new RecordingOperationLogger();
+        AsyncOperationLogger logger = newFullLogger(delegate, AsyncOperationLogger.OverflowPolicy.CALLER_RUNS);
+        logger.log(new OperationLogDTO("3"));
+        logger.log(List.of(new OperationLogDTO("4"), new OperationLogDTO("5")));
+        // worker 仍被阻塞，溢出的日志已在当前线程记录
+        Assertions.assertEquals(List.of("0", "3", "4", "5"), delegate.getOperations());
+        Assertions.assertEquals(List.of(Thread.currentThread().getName()), delegate.threadNames.subList(1, 2));
+
+        delegate.release();
+        logger.preDestroy();
+        Assertions.assertEquals(List.of("0", "3", "4", "5", "1", "2"), delegate.getOperations());
+        Assertions.assertEquals(0, logger.getDroppedCount());
+        Assertions.assertEquals(6, logger.getLoggedCount());
+    }
+
+    /**
+     * SPILL_TO_FILE：溢出的日志以 json 行写入文件；未设置文件时丢弃
+     */
+    @Test
+    public void testOverflowSpillToFile(@TempDir Path tempDir) throws Exception {
+        Path spillFile = tempDir.resolve("spill.log");
+        RecordingOperationLogger delegate = new RecordingOperationLogger();
+        AsyncOperationLogger logger = newFullLogger(delegate, AsyncOperationLogger.OverflowPolicy.SPILL_TO_FILE);
+        logger.setSpillFile(spillFile);
+        logger.log(new OperationLogDTO("3"));
+        logger.log(List.of(new OperationLogDTO("4"), new OperationLogDTO("5")));
+        Assertions.assertEquals(3, logger.getSpilledCount());
+        Assertions.assertEquals(0, logger.getDroppedCount());
+
+        logger.setSpillFile(null);
+        logger.log(new OperationLogDTO("6"));
+        Assertions.assertEquals(1, logger.getDroppedCount());
+
+        delegate.release();
+        logger.preDestroy();
+        Assertions.assertEquals(List.of("0", "1", "2"), delegate.getOperations());
+        List<String> lines = Files.readAllLines(spillFile, StandardCharsets.UTF_8);
+        Assertions.assertEquals(3, lines.size());
+        List<String> spilled = new ArrayList<>();
+        for (String line : lines) {
+            spilled.add(JsonUtils.parseObject(line, OperationLogDTO.class).getOperation());
+        }
+        Assertions.assertEquals(List.of("3", "4", "5"), spilled);
+    }
+
+    /**
+     * 合并：连续单条合并为一次批量记录，批量日志保持原顺序，所有日志都被记录
+     */
+    @Test
+    public void testCoalesceKeepsAllLogs() {
+        RecordingOperationLogger delegate = new RecordingOperationLogger();
+        AsyncOperationLogger logger = new AsyncOperationLogger()
+                .setLogger(delegate)
+                .setExecutorService(Executors.newSingleThreadExecutor())
+                .setQueueCapacity(1000)
+                .setMaxBatchSize(20);
+        List<String> expected = new ArrayList<>();
+        logger.log(new OperationLogDTO("0"));
+        expected.add("0");
+        delegate.awaitBlocked();
+
+        for (int i = 1; i <= 50; i++) {
+            logger.log(new OperationLogDTO(String.valueOf(i)));
+            expected.add(String.valueOf(i));
+        }
+        logger.log(List.of(new OperationLogDTO("batch-0"), new OperationLogDTO("batch-1")));
+        expected.add("batch-0");
+        expected.add("batch-1");
+        for (int i = 51; i <= 60; i++) {
+            logger.log(new OperationLogDTO(String.valueOf(i)));
+            expected.add(String.valueOf(i));
+        }
+        delegate.release();
+        logger.preDestroy();
+
+        Assertions.assertEquals(expected, delegate.getOperations());
+        Assertions.assertEquals(expected.size(), logger.getLoggedCount());
+        // 首条 + 每批至多 20 项（62 项，批量日志单独一次）
+        Assertions.assertTrue(logger.getDelegateCallCount() < expected.size() / 5);
+        Assertions.assertEquals(0, logger.getQueueSize());
+    }
+
+    /**
+     * 队列容量 2，worker 正在记录 "0"（被阻塞），队列中为 "1"、"2"
+     */
+    private static AsyncOperationLogger newFullLogger(RecordingOperationLogger delegate, AsyncOperationLogger.OverflowPolicy policy) {
+        AsyncOperationLogger logger = new AsyncOperationLogger()
+                .setLogger(delegate)
+                .setExecutorService(Executors.newSingleThreadExecutor())
+                .setQueueCapacity(2)
+                .setOverflowPolicy(policy);
+        logger.log(new OperationLogDTO("0"));
+        delegate.awaitBlocked();
+        logger.log(new OperationLogDTO("1"));
+        logger.log(new OperationLogDTO("2"));
+        Assertions.assertEquals(2, logger.getQueueSize());
+        return logger;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 记录所有日志，第一次调用阻塞直到 release
+     */
+    private static class RecordingOperationLogger implements OperationLogger {
+
+        private final List<String> operations = Collections.synchronizedList(new ArrayList<>());
+
+        private final List<String> threadNames = Collections.synchronizedList(new ArrayList<>());
+
+        private final AtomicBoolean first = new AtomicBoolean(true);
+
+        private final CountDownLatch blocked = new CountDownLatch(1);
+
+        private final CountDownLatch gate = new CountDownLatch(1);
+
+        @Override
+        public void log(@Nonnull OperationLogDTO opLog) {
+            record(List.of(opLog));
+        }
+
+        @Override
+        public void log(@Nonnull Collection<? extends OperationLogDTO> opLogList) {
+            record(opLogList);
+        }
+
+        @Override
+        public void log(@Nonnull OperationLogDTO opLog, List<? extends Operable> operableList) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void addInterceptor(OperationLoggerInterceptor logInterceptor) {
+        }
+
+        private void record(Collection<? extends OperationLogDTO> opLogList) {
+            threadNames.add(Thread.currentThread().getName());
+            opLogList.forEach(opLog -> operations.add(opLog.getOperation()));
+            if (first.compareAndSet(true, false)) {
+                blocked.countDown();
+                try {
+                    gate.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        private void awaitBlocked() {
+            try {
+                Assertions.assertTrue(blocked.await(5, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private void release() {
+            gate.countDown();
+        }
+
+        private List<String> getOperations() {
+            synchronized (operations) {
+                return new ArrayList<>(operations);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,211 @@
+package org.shoulder.autoconfiguration.test.operation;
+
+import jakarta.annotation.Nonnull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.shoulder.core.model.Operable;
+import org.shoulder.log.operation.logger.OperationLogger;
+import org.shoulder.log.operation.logger.OperationLoggerInterceptor;
+import org.shoulder.log.operation.logger.impl.BufferedOperationLogger;
+import org.shoulder.log.operation.model.OperationLogDTO;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 带缓冲的操作日志：达到阈值刷、定时刷、关闭前刷完、写入失败不丢日志
+ *
+ * @author lym
+ */
+public class BufferedOperationLoggerTest {
+
+    private static final String FLUSHER_THREAD_NAME = "ut-opLog-flusher";
+
+    private static final long NEVER = 3600_000;
+
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, FLUSHER_THREAD_NAME));
+
+    @AfterEach
+    public void shutdown() {
+        flusher.shutdownNow();
+    }
+
+    /**
+     * 达到阈值时唤醒刷盘线程写入，业务线程不写入
+     */
+    @Test
+    public void testFlushOnThreshold() {
+        RecordingOperationLogger delegate = new RecordingOperationLogger();
+        BufferedOperationLogger logger = new BufferedOperationLogger(new ConcurrentLinkedQueue<>(), delegate, flusher,
+                NEVER, 5, 100);
+        log(logger, 0, 4);
+        sleep(100);
+        Assertions.assertTrue(delegate.batches.isEmpty());
+        Assertions.assertEquals(4, logger.getBufferSize());
+
+        log(logger, 4, 5);
+        waitUntil(() -> logger.getFlushCount() == 1);
+        Assertions.assertEquals(List.of(List.of("0", "1", "2", "3", "4")), delegate.batches);
+        Assertions.assertEquals(List.of(FLUSHER_THREAD_NAME), delegate.threadNames);
+        Assertions.assertEquals(0, logger.getBufferSize());
+    }
+
+    /**
+     * 未达到阈值，按固定间隔写入
+     */
+    @Test
+    public void testFlushOnInterval() {
+        RecordingOperationLogger delegate = new RecordingOperationLogger();
+        BufferedOperationLogger logger = new BufferedOperationLogger(new ConcurrentLinkedQueue<>(), delegate, flusher,
+                50, 100, 100);
+        log(logger, 0, 3);
+        waitUntil(() -> logger.getFlushCount() == 1);
+        Assertions.assertEquals(List.of(List.of("0", "1", "2")), delegate.batches);
+        Assertions.assertEquals(List.of(FLUSHER_THREAD_NAME), delegate.threadNames);
+
+        log(logger, 3, 4);
+        waitUntil(() -> logger.getFlushCount() == 2);
+        Assertions.assertEquals(List.of("3"), delegate.batches.get(1));
+    }
+
+    /**
+     * 关闭前写完 buffer 中剩余日志，按 perFlushMax 拆分
+     */
+    @Test
+    public void testDrainOnShutdown() {
+        RecordingOperationLogger delegate = new RecordingOperationLogger();
+        BufferedOperationLogger logger = new BufferedOperationLogger(new ConcurrentLinkedQueue<>(), delegate, flusher,
+                NEVER, Integer.MAX_VALUE, 100);
+        log(logger, 0, 250);
+        Assertions.assertEquals(250, logger.getBufferSize());
+
+        logger.preDestroy();
+        Assertions.assertEquals(List.of(100, 100, 50), delegate.batches.stream().map(List::size).toList());
+        Assertions.assertEquals(range(0, 250), delegate.getOperations());
+        Assertions.assertEquals(0, logger.getBufferSize());
+        Assertions.assertEquals(3, logger.getFlushCount());
+    }
+
+    /**
+     * 写入失败：失败的一批保留，下次刷日志时重试，剩余日志仍在 buffer 中
+     */
+    @Test
+    public void testFlushFailNotLost() {
+        RecordingOperationLogger delegate = new RecordingOperationLogger();
+        delegate.failTimes.set(2);
+        BufferedOperationLogger logger = new BufferedOperationLogger(new ConcurrentLinkedQueue<>(), delegate, flusher,
+                NEVER, Integer.MAX_VALUE, 3);
+        log(logger, 0, 5);
+
+        Assertions.assertThrows(IllegalStateException.class, logger::consumerLog);
+        Assertions.assertEquals(5, logger.getBufferSize());
+        // 重试失败的一批再次失败
+        Assertions.assertThrows(IllegalStateException.class, logger::consumerLog);
+        Assertions.assertEquals(5, logger.getBufferSize());
+        Assertions.assertTrue(delegate.batches.isEmpty());
+
+        log(logger, 5, 7);
+        logger.consumerLog();
+        Assertions.assertEquals(List.of(List.of("0", "1", "2"), List.of("3", "4", "5"), List.of("6")), delegate.batches);
+        Assertions.assertEquals(0, logger.getBufferSize());
+    }
+
+    /**
+     * 写入失败时 DISCARD_OLDEST 仍受容量限制：待重试的日志占用容量
+     */
+    @Test
+    public void testFlushFailKeepCapacity() {
+        RecordingOperationLogger delegate = new RecordingOperationLogger();
+        delegate.failTimes.set(1);
+        BufferedOperationLogger logger = new BufferedOperationLogger(new ConcurrentLinkedQueue<>(), delegate, flusher,
+                NEVER, Integer.MAX_VALUE, 10, 3, BufferedOperationLogger.OverflowPolicy.DISCARD_OLDEST);
+        log(logger, 0, 3);
+        Assertions.assertThrows(IllegalStateException.class, logger::consumerLog);
+
+        log(logger, 3, 5);
+        Assertions.assertEquals(3, logger.getBufferSize());
+        Assertions.assertEquals(2, logger.getDroppedCount());
+        logger.consumerLog();
+        Assertions.assertEquals(range(0, 3), delegate.getOperations());
+    }
+
+    private static void log(BufferedOperationLogger logger, int from, int to) {
+        for (int i = from; i < to; i++) {
+            logger.log(new OperationLogDTO(String.valueOf(i)));
+        }
+    }
+
+    private static List<String> range(int from, int to) {
+        List<String> list = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            list.add(String.valueOf(i));
+        }
+        return list;
+    }
+
+    private static void waitUntil(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            Assertions.assertTrue(System.currentTimeMillis() < deadline, "wait timeout");
+            sleep(5);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 记录每批日志，前 failTimes 次批量写入抛异常
+     */
+    private static class RecordingOperationLogger implements OperationLogger {
+
+        private final List<List<String>> batches = Collections.synchronizedList(new ArrayList<>());
+
+        private final List<String> threadNames = Collections.synchronizedList(new ArrayList<>());
+
+        private final AtomicInteger failTimes = new AtomicInteger();
+
+        @Override
+        public void log(@Nonnull OperationLogDTO opLog) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void log(@Nonnull Collection<? extends OperationLogDTO> opLogList) {
+            if (failTimes.getAndDecrement() > 0) {
+                throw new IllegalStateException("mock db unavailable");
+            }
+            batches.add(opLogList.stream().map(OperationLogDTO::getOperation).toList());
+            threadNames.add(Thread.currentThread().getName());
+        }
+
+        @Override
+        public void log(@Nonnull OperationLogDTO opLog, List<? extends Operable> operableList) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void addInterceptor(OperationLoggerInterceptor logInterceptor) {
+        }
+
+        private List<String> getOperations() {
+            synchronized (batches) {
+                return batches.stream().flatMap(List::stream).toList();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,126 @@
+package org.shoulder.autoconfiguration.test.operation;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.shoulder.autoconfigure.operation.OperationLogAspect;
+import org.shoulder.autoconfigure.operation.OperationLogProperties;
+import org.shoulder.log.operation.annotation.OperationLog;
+import org.shoulder.log.operation.annotation.OperationLogParam;
+import org.shoulder.log.operation.context.OpLogContextHolder;
+import org.shoulder.log.operation.format.covertor.DefaultOperationLogParamValueConverter;
+import org.shoulder.log.operation.format.covertor.OperationLogParamValueConverterHolder;
+import org.shoulder.log.operation.logger.impl.NoOpOperationLogger;
+import org.shoulder.log.operation.model.OpLogParam;
+import org.shoulder.log.operation.model.OperationLogDTO;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * OperationLogAspect 测试
+ * <p>
+ * 注意：这里的性能测试仅为无预热粗略测试，精确测试请使用 JMH。
+ *
+ * @author lym
+ */
+public class OperationLogAspectTest {
+
+    private static final AtomicReference<OperationLogDTO> LAST_LOG = new AtomicReference<>();
+
+    private static AuditedService proxy;
+
+    @BeforeAll
+    public static void init() {
+        OperationLogParamValueConverterHolder.init(Collections.emptyList(), new DefaultOperationLogParamValueConverter());
+        OpLogContextHolder.setOperationLogger(new NoOpOperationLogger() {
+            @Override
+            public void log(OperationLogDTO opLog) {
+                LAST_LOG.set(opLog);
+            }
+        });
+        OperationLogAspect aspect = new OperationLogAspect();
+        ReflectionTestUtils.setField(aspect, "operationLogProperties", new OperationLogProperties());
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new AuditedService());
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(aspect);
+        proxy = proxyFactory.getProxy();
+    }
+
+    @AfterAll
+    public static void clean() {
+        OpLogContextHolder.setOperationLogger(null);
+    }
+
+    /**
+     * 注解参数、SpEL、null 参数都能正确解析，多次调用结果一致
+     */
+    @Test
+    public void testParams() {
+        for (int i = 0; i < 3; i++) {
+            proxy.update(new User("u" + i, i), "remark", null);
+            OperationLogDTO opLog = LAST_LOG.get();
+            Assertions.assertEquals("user.update", opLog.getOperation());
+            Assertions.assertEquals("user", opLog.getObjectType());
+            List<OpLogParam> params = opLog.getParams();
+            Assertions.assertEquals(3, params.size());
+            Assertions.assertEquals("userName", params.get(0).getName());
+            Assertions.assertEquals("u" + i, params.get(0).getValue().get(0));
+            Assertions.assertEquals("remark", params.get(1).getName());
+            Assertions.assertEquals("null", params.get(2).getValue().get(0));
+        }
+    }
+
+    /**
+     * 【性能】每次调用切面开销
+     */
+    @Test
+    public void timer_aspectOverhead() {
+        int invokeNum = 200_000;
+        User user = new User("name", 1);
+        for (int round = 0; round < 2; round++) {
+            // 第一轮预热
+            long start = System.nanoTime();
+            for (int i = 0; i < invokeNum; i++) {
+                proxy.update(user, "remark", "x");
+            }
+            long cost = System.nanoTime() - start;
+            System.out.println("TIME-OperationLogAspect TEST: cost " + cost / 1_000_000 + " ms, " + cost / invokeNum + " ns/op");
+        }
+    }
+
+    public static class AuditedService {
+
+        @OperationLog(operation = "user.update", objectType = "user")
+        public void update(@OperationLogParam(name = "userName", value = "#user.name") User user,
+                           @OperationLogParam String remark,
+                           @OperationLogParam(value = "#ext.length()") String ext) {
+        }
+
+    }
+
+    public static class User {
+
+        private final String name;
+
+        private final int age;
+
+        public User(String name, int age) {
+            this.name = name;
+            this.age = age;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getAge() {
+            return age;
+        }
+    }
+
+}
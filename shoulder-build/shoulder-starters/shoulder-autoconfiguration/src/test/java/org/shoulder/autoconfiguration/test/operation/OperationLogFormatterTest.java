@@ -0,0 +1,106 @@
+package org.shoulder.autoconfiguration.test.operation;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.shoulder.log.operation.enums.OperationResult;
+import org.shoulder.log.operation.enums.TerminalType;
+import org.shoulder.log.operation.format.OperationLogFormatter;
+import org.shoulder.log.operation.format.impl.JsonOperationLogFormatter;
+import org.shoulder.log.operation.format.impl.ShoulderOpLogFormatter;
+import org.shoulder.log.operation.model.OpLogParam;
+import org.shoulder.log.operation.model.OperationLogDTO;
+
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 操作日志格式化测试
+ * <p>
+ * 注意：这里的性能测试仅为无预热粗略测试，精确测试请使用 JMH。
+ *
+ * @author lym
+ */
+public class OperationLogFormatterTest {
+
+    /**
+     * 调用次数
+     */
+    private static final int INVOKE_NUM = 500_000;
+
+    /**
+     * 输出格式，多次调用（复用 StringBuilder）结果一致
+     */
+    @Test
+    public void testShoulderFormat() {
+        String expected = "userId:\"10001\",userName:\"admin\",terminalAddress:\"127.0.0.1\",operation:\"user.update\","
+                + "detail:\"update user\",objectType:\"user\",objectId:\"1\",appId:\"demo\",traceId:\"trace-1\","
+                + "terminalType:\"1\",result:\"0\",operationTime:\"2020-09-13T12:26:40.123 +0000\","
+                + "endTime:\"2020-09-13T12:26:40.456 +0000\",detailItems:\"[a,b]\","
+                + "params:\"[{\"name\"=\"user.update.userName\", \"value\"=\"\"},"
+                + "{\"name\"=\"user.update.remark\", \"value\"=\"user.update.remark\"}]\",ext1:\"v1\",ext2:\"2\"";
+        OperationLogFormatter formatter = new ShoulderOpLogFormatter();
+        OperationLogDTO opLog = newOpLog();
+        Assertions.assertEquals(expected, formatter.format(opLog));
+        Assertions.assertEquals(expected, formatter.format(opLog));
+    }
+
+    /**
+     * 【性能】与 json 格式化对比每次调用耗时与内存分配
+     */
+    @Test
+    public void timer_format() {
+        OperationLogDTO opLog = newOpLog();
+        OperationLogFormatter shoulderFormatter = new ShoulderOpLogFormatter();
+        OperationLogFormatter jsonFormatter = new JsonOperationLogFormatter();
+        for (int round = 0; round < 2; round++) {
+            // 第一轮预热
+            report("ShoulderOpLogFormatter", shoulderFormatter, opLog);
+            report("JsonOperationLogFormatter", jsonFormatter, opLog);
+        }
+    }
+
+    private static void report(String name, OperationLogFormatter formatter, OperationLogDTO opLog) {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        long length = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < INVOKE_NUM; i++) {
+            length += formatter.format(opLog).length();
+        }
+        long cost = System.nanoTime() - start;
+        long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        System.out.println("TIME-" + name + " TEST: cost " + cost / 1_000_000 + " ms, " + cost / INVOKE_NUM + " ns/op, "
+                + allocated / INVOKE_NUM + " bytes/op, length " + length / INVOKE_NUM);
+    }
+
+    private static OperationLogDTO newOpLog() {
+        OpLogParam param = new OpLogParam();
+        param.setName("userName");
+        param.setValue(List.of("lym"));
+        OpLogParam emptyParam = new OpLogParam();
+        emptyParam.setName("remark");
+        emptyParam.setValue(Arrays.asList("", "ok"));
+        return new OperationLogDTO("user.update")
+                .setUserId("10001")
+                .setUserName("admin")
+                .setTerminalType(TerminalType.BROWSER)
+                .setTerminalAddress("127.0.0.1")
+                .setOperationTime(Instant.ofEpochMilli(1_600_000_000_123L))
+                .setEndTime(Instant.ofEpochMilli(1_600_000_000_456L))
+                .setDetail("update user")
+                .setDetailI18nItems(Arrays.asList("a", null, "b"))
+                .setParams(List.of(param, emptyParam))
+                .setResult(OperationResult.SUCCESS)
+                .setObjectType("user")
+                .setObjectId("1")
+                .setAppId("demo")
+                .setInstanceId(1L)
+                .setTraceId("trace-1")
+                .setExtField("ext1", "v1")
+                .setExtField("ext2", 2);
+    }
+
+}
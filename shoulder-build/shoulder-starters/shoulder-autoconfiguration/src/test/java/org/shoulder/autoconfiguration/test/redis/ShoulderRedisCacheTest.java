@@ -0,0 +1,189 @@
+package org.shoulder.autoconfiguration.test.redis;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.shoulder.autoconfigure.core.CacheAutoConfiguration;
+import org.shoulder.autoconfigure.redis.RedisAutoConfiguration;
+import org.shoulder.cluster.cache.redis.ShoulderRedisCache;
+import org.shoulder.core.cache.Cache;
+import org.shoulder.core.context.AppInfo;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import redis.embedded.RedisServer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * ShoulderRedisCache 测试，使用内嵌 redis，启动失败时跳过
+ *
+ * @author lym
+ */
+public class ShoulderRedisCacheTest {
+
+    private static final int REDIS_PORT = 16380;
+
+    private static RedisServer redisServer;
+
+    private static LettuceConnectionFactory connectionFactory;
+
+    private static RedisTemplate<String, Object> redisTemplate;
+
+    private static StringRedisTemplate rawRedisTemplate;
+
+    @BeforeAll
+    public static void startRedis() {
+        try {
+            redisServer = RedisServer.newRedisServer().port(REDIS_PORT).bind("127.0.0.1").build();
+            redisServer.start();
+        } catch (Exception e) {
+            Assumptions.abort("embedded redis start fail: " + e.getMessage());
+        }
+        connectionFactory = new LettuceConnectionFactory("127.0.0.1", REDIS_PORT);
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        // 与自动装配一致：key 带应用前缀，value 使用 json
+        RedisAutoConfiguration.WithPrefixKeyStringRedisSerializer keySerializer =
+            new RedisAutoConfiguration.WithPrefixKeyStringRedisSerializer("app:");
+        redisTemplate = new RedisTemplate<>();
+        redisTemplate.setConnectionFactory(connectionFactory);
+        redisTemplate.setKeySerializer(keySerializer);
+        redisTemplate.setValueSerializer(RedisSerializer.json());
+        redisTemplate.afterPropertiesSet();
+        rawRedisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    public static void stopRedis() throws Exception {
+        if (connectionFactory != null) {
+            connectionFactory.destroy();
+        }
+        if (redisServer != null) {
+            redisServer.stop();
+        }
+    }
+
+    @Test
+    public void testGetPutEvict() {
+        ShoulderRedisCache cache = new ShoulderRedisCache("testGetPutEvict", redisTemplate, Duration.ofMinutes(1));
+        Assertions.assertNull(cache.get("k1"));
+
+        cache.put("k1", "v1");
+        Assertions.assertEquals("v1", cache.get("k1", String.class));
+        Assertions.assertEquals("v1", cache.get("k1", () -> "loaded"));
+        Assertions.assertTrue(rawRedisTemplate.hasKey("app:testGetPutEvict" + AppInfo.cacheKeySplit() + "k1"));
+        Assertions.assertTrue(rawRedisTemplate.getExpire("app:testGetPutEvict" + AppInfo.cacheKeySplit() + "k1") > 0);
+
+        // 缓存 null：命中，值为 null
+        cache.put("nullKey", null);
+        Assertions.assertNotNull(cache.get("nullKey"));
+        Assertions.assertNull(cache.get("nullKey").get());
+
+        Assertions.assertEquals("loaded", cache.get("k2", () -> "loaded"));
+        Assertions.assertEquals("loaded", cache.get("k2", String.class));
+
+        cache.evict("k1");
+        Assertions.assertNull(cache.get("k1"));
+        Assertions.assertEquals("loaded", cache.get("k2", String.class));
+    }
+
+    @Test
+    public void testMulti() {
+        ShoulderRedisCache cache = new ShoulderRedisCache("testMulti", redisTemplate, null, 3, null);
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            keys.add("k" + i);
+            if (i % 2 == 0) {
+                cache.put("k" + i, "v" + i);
+            }
+        }
+        List<Object> values = cache.getMulti(keys);
+        Assertions.assertEquals(Arrays.asList("v0", null, "v2", null, "v4", null, "v6", null, "v8", null), values);
+        Map<String, Object> valueMap = cache.getMultiMap(keys);
+        Assertions.assertEquals(Set.of("k0", "k2", "k4", "k6", "k8"), valueMap.keySet());
+
+        cache.evictMulti(List.of("k0", "k2", "k4", "k1"));
+        Assertions.assertEquals(Set.of("k6", "k8"), cache.getMultiMap(keys).keySet());
+    }
+
+    /**
+     * 清理：SCAN 分多批删除该缓存的所有 key，不影响其他缓存（包括名称前缀相同的缓存）
+     */
+    @Test
+    public void testClear() {
+        ShoulderRedisCache cache = new ShoulderRedisCache("testClear", redisTemplate, null, 10, null);
+        ShoulderRedisCache other = new ShoulderRedisCache("testClearOther", redisTemplate, null, 10, null);
+        ShoulderRedisCache glob = new ShoulderRedisCache("testC*", redisTemplate, null, 10, null);
+        for (int i = 0; i < 35; i++) {
+            cache.put("k" + i, i);
+        }
+        other.put("k0", "other");
+        glob.put("k0", "glob");
+        Assertions.assertEquals(35, rawRedisTemplate.keys("app:testClear" + AppInfo.cacheKeySplit() + "*").size());
+
+        cache.clear();
+        Assertions.assertTrue(rawRedisTemplate.keys("app:testClear" + AppInfo.cacheKeySplit() + "*").isEmpty());
+        Assertions.assertNull(cache.get("k0"));
+        Assertions.assertEquals("other", other.get("k0", String.class));
+        Assertions.assertEquals("glob", glob.get("k0", String.class));
+
+        glob.clear();
+        Assertions.assertNull(glob.get("k0"));
+        Assertions.assertEquals("other", other.get("k0", String.class));
+    }
+
+    /**
+     * 自动装配：集群模式且 shoulder.redis.cache.enable=true 时 shoulder Cache 使用 redis，配置 nearCacheMaxSize 时启用本地二级缓存
+     */
+    @Test
+    public void testAutoConfiguration() {
+        ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(CacheAutoConfiguration.class))
+            .withBean("redisTemplate", RedisTemplate.class, () -> redisTemplate);
+        boolean cluster = AppInfo.cluster();
+        try {
+            AppInfo.initCluster(true);
+            contextRunner.run(context -> Assertions.assertFalse(context.containsBean("shoulderRedisCache")));
+            contextRunner.withPropertyValues("shoulder.redis.cache.enable=true", "shoulder.redis.cache.name=autoCache")
+                .run(context -> {
+                    Cache cache = context.getBean(Cache.class);
+                    Assertions.assertInstanceOf(ShoulderRedisCache.class, cache);
+                    Assertions.assertEquals("autoCache", cache.getName());
+                    cache.put("k", "v");
+                    Assertions.assertEquals("v", cache.get("k", String.class));
+                    cache.clear();
+                    Assertions.assertNull(cache.get("k"));
+                });
+
+            // 配置二级缓存：redis 中的 key 被外部删除后仍可从本地读到
+            contextRunner.withPropertyValues("shoulder.redis.cache.enable=true", "shoulder.redis.cache.name=nearCache",
+                    "shoulder.redis.cache.nearCacheMaxSize=100", "shoulder.redis.cache.nearCacheTtl=1m")
+                .run(context -> {
+                    Cache cache = context.getBean(Cache.class);
+                    cache.put("k", "v");
+                    rawRedisTemplate.delete("app:nearCache" + AppInfo.cacheKeySplit() + "k");
+                    Assertions.assertEquals("v", cache.get("k", String.class));
+                    cache.evict("k");
+                    Assertions.assertNull(cache.get("k"));
+                });
+
+            AppInfo.initCluster(false);
+            contextRunner.withPropertyValues("shoulder.redis.cache.enable=true")
+                .run(context -> Assertions.assertFalse(context.containsBean("shoulderRedisCache")));
+        } finally {
+            AppInfo.initCluster(cluster);
+        }
+    }
+
+}
@@ -0,0 +1,173 @@
+package org.shoulder.autoconfiguration.test.sequence;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.shoulder.data.sequence.dao.AbstractCacheAndRetryableSequenceDao;
+import org.shoulder.data.sequence.model.SequenceRange;
+import org.shoulder.data.sequence.monitor.SequenceBufferMetrics;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 分段预取、自适应 step
+ *
+ * @author lym
+ */
+public class SequenceDaoTest {
+
+    private static final String SEQUENCE_NAME = "ut_sequence";
+
+    /**
+     * 剩余低于水位才预取；预取后切换到下一段不再同步访问 DB
+     */
+    @Test
+    public void testPrefetchOnWatermark() throws Exception {
+        MemorySequenceDao dao = newDao();
+        dao.setStep(100);
+        dao.setPrefetchWatermark(0.2);
+        dao.setAdaptiveStep(false);
+        dao.initialize();
+
+        SequenceRange first = dao.getNextSequence(SEQUENCE_NAME);
+        long boundary = first.getValue() + first.getStep();
+        Set<Long> values = new HashSet<>();
+        // 剩余 > 20%，不预取
+        while (boundary - first.currentValue() > first.getStep() * 0.2 + 1) {
+            Assertions.assertTrue(values.add(dao.getNextSequence(SEQUENCE_NAME).genNextValue()));
+        }
+        Assertions.assertEquals(0, dao.getSequenceBufferMetrics(SEQUENCE_NAME).getRefillCount());
+        Assertions.assertFalse(dao.getSequenceBufferMetrics(SEQUENCE_NAME).isNextReady());
+
+        // 低于水位，异步预取下一段
+        values.add(dao.getNextSequence(SEQUENCE_NAME).genNextValue());
+        values.add(dao.getNextSequence(SEQUENCE_NAME).genNextValue());
+        long deadline = System.currentTimeMillis() + 5000;
+        while (dao.getSequenceBufferMetrics(SEQUENCE_NAME).getPrefetchCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        SequenceBufferMetrics metrics = dao.getSequenceBufferMetrics(SEQUENCE_NAME);
+        Assertions.assertTrue(metrics.isNextReady());
+        Assertions.assertEquals(1, metrics.getPrefetchCount());
+        Assertions.assertEquals(1, metrics.getRefillCount());
+
+        // 用完当前段，切换到预取好的下一段
+        SequenceRange range = first;
+        while (range == first) {
+            range = dao.getNextSequence(SEQUENCE_NAME);
+            long value = range.genNextValue();
+            if (range == first) {
+                Assertions.assertTrue(value < boundary);
+            }
+            Assertions.assertTrue(values.add(value));
+        }
+        metrics = dao.getSequenceBufferMetrics(SEQUENCE_NAME);
+        Assertions.assertEquals(1, metrics.getRefillCount());
+        Assertions.assertEquals(0, metrics.getWaitCount());
+        Assertions.assertTrue(range.getValue() >= boundary);
+    }
+
+    /**
+     * 取段间隔短时翻倍直到上限，间隔长时减半
+     */
+    @Test
+    public void testAdaptiveStepGrowAndCap() throws Exception {
+        MemorySequenceDao dao = newDao();
+        dao.setStep(100);
+        dao.setMaxStepMultiple(10);
+        dao.setSegmentExpectedMillis(60_000);
+        dao.initialize();
+        SequenceRange local = dao.getNextSequence(SEQUENCE_NAME);
+
+        long[] expectedSteps = {100, 200, 400, 800, 1000, 1000};
+        for (long expectedStep : expectedSteps) {
+            SequenceRange range = dao.loadNextSequenceFromDbViaNewTransaction(SEQUENCE_NAME, local);
+            Assertions.assertEquals(expectedStep, dao.getSequenceBufferMetrics(SEQUENCE_NAME).getAdaptiveStep());
+            // 实际 step 有 [0, 30%) 的随机上浮
+            Assertions.assertTrue(range.getStep() >= expectedStep && range.getStep() <= expectedStep * 1.3 + 1);
+        }
+
+        // 间隔 >= 2 倍期望时减半
+        dao.setSegmentExpectedMillis(1);
+        Thread.sleep(5);
+        dao.loadNextSequenceFromDbViaNewTransaction(SEQUENCE_NAME, local);
+        Assertions.assertEquals(500, dao.getSequenceBufferMetrics(SEQUENCE_NAME).getAdaptiveStep());
+    }
+
+    /**
+     * 乐观锁冲突重试时不重复放大 step
+     */
+    @Test
+    public void testAdaptiveStepNotInflatedByRetry() throws Exception {
+        MemorySequenceDao dao = newDao();
+        dao.setStep(100);
+        dao.setMaxRetryTimes(3);
+        dao.initialize();
+        SequenceRange local = dao.getNextSequence(SEQUENCE_NAME);
+        dao.loadNextSequenceFromDbViaNewTransaction(SEQUENCE_NAME, local);
+        Assertions.assertEquals(100, dao.getSequenceBufferMetrics(SEQUENCE_NAME).getAdaptiveStep());
+
+        dao.conflictTimes.set(2);
+        dao.loadNextSequenceFromDbViaNewTransaction(SEQUENCE_NAME, local);
+        Assertions.assertEquals(0, dao.conflictTimes.get());
+        Assertions.assertEquals(200, dao.getSequenceBufferMetrics(SEQUENCE_NAME).getAdaptiveStep());
+    }
+
+    private static MemorySequenceDao newDao() throws Exception {
+        DataSource dataSource = Mockito.mock(DataSource.class);
+        Mockito.when(dataSource.getConnection()).thenAnswer(invocation -> Mockito.mock(Connection.class));
+        MemorySequenceDao dao = new MemorySequenceDao();
+        dao.setDataSource(dataSource);
+        dao.setPrefetchEnabled(true);
+        return dao;
+    }
+
+    /**
+     * 内存模拟序列表，update 为 CAS 语义
+     */
+    private static class MemorySequenceDao extends AbstractCacheAndRetryableSequenceDao {
+
+        private final Map<String, SequenceRange> table = new ConcurrentHashMap<>();
+
+        /**
+         * 模拟其他实例并发更新，接下来的几次 update 失败
+         */
+        private final AtomicInteger conflictTimes = new AtomicInteger();
+
+        @Override
+        protected void insertSequenceRange(SequenceRange sequenceRange) {
+            table.put(sequenceRange.getName(), copy(sequenceRange));
+        }
+
+        @Override
+        protected synchronized int updateSequenceRange(SequenceRange remoteSequenceRange) {
+            SequenceRange row = table.get(remoteSequenceRange.getName());
+            if (conflictTimes.getAndUpdate(i -> Math.max(i - 1, 0)) > 0) {
+                row.setValue(row.getValue() + row.getStep());
+                return 0;
+            }
+            if (row.getValue() != remoteSequenceRange.getValue()) {
+                return 0;
+            }
+            row.setValue(remoteSequenceRange.getLatestValue());
+            return 1;
+        }
+
+        @Override
+        protected synchronized SequenceRange selectSequenceRange(SequenceRange localSequenceRange) {
+            SequenceRange row = table.get(localSequenceRange.getName());
+            return row == null ? null : copy(row);
+        }
+
+        private static SequenceRange copy(SequenceRange source) {
+            return new SequenceRange(source.getName(), source.getMin(), source.getMax(), source.getStep(), source.getValue());
+        }
+    }
+
+}
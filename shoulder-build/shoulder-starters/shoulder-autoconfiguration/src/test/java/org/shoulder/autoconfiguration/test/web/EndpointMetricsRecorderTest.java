@@ -0,0 +1,90 @@
+package org.shoulder.autoconfiguration.test.web;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.shoulder.web.advice.EndpointMetricsRecorder;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 接口耗时统计测试
+ *
+ * @author lym
+ */
+public class EndpointMetricsRecorderTest {
+
+    @Test
+    public void testRecordAndDigest() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        EndpointMetricsRecorder recorder = new EndpointMetricsRecorder(registry, "ut_api", Duration.ofMinutes(1));
+        Method hello = DemoController.class.getDeclaredMethod("hello");
+        Method world = DemoController.class.getDeclaredMethod("world");
+
+        for (int i = 1; i <= 100; i++) {
+            recorder.record(hello, TimeUnit.MILLISECONDS.toNanos(i), i % 10 != 0);
+        }
+        recorder.record(world, TimeUnit.MILLISECONDS.toNanos(5), true);
+
+        String helloApi = DemoController.class.getName() + "#hello()";
+        Timer timer = registry.get("ut_api").tag("api", helloApi).timer();
+        Assertions.assertEquals(100, timer.count());
+        Assertions.assertEquals(10, registry.get("ut_api_error").tag("api", helloApi).counter().count());
+
+        List<EndpointMetricsRecorder.EndpointDigest> digests = recorder.digest();
+        Assertions.assertEquals(2, digests.size());
+        EndpointMetricsRecorder.EndpointDigest helloDigest = digests.stream()
+            .filter(d -> helloApi.equals(d.api())).findFirst().orElseThrow();
+        Assertions.assertEquals(100, helloDigest.count());
+        Assertions.assertEquals(10, helloDigest.errorCount());
+        Assertions.assertEquals(100, helloDigest.maxMillis(), 1);
+        // 百分位为近似值
+        Assertions.assertEquals(50, helloDigest.p50Millis(), 5);
+        Assertions.assertEquals(99, helloDigest.p99Millis(), 10);
+
+        // 只汇总上次汇总之后的调用，没有调用的接口不输出
+        recorder.record(hello, TimeUnit.MILLISECONDS.toNanos(1), false);
+        digests = recorder.digest();
+        Assertions.assertEquals(1, digests.size());
+        Assertions.assertEquals(1, digests.get(0).count());
+        Assertions.assertEquals(1, digests.get(0).errorCount());
+        Assertions.assertTrue(recorder.digest().isEmpty());
+        recorder.logDigest();
+    }
+
+    /**
+     * 重载方法各自统计
+     */
+    @Test
+    public void testOverloadedMethods() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        EndpointMetricsRecorder recorder = new EndpointMetricsRecorder(registry, "ut_api", Duration.ofMinutes(1));
+        recorder.record(DemoController.class.getDeclaredMethod("hello"), TimeUnit.MILLISECONDS.toNanos(1), true);
+        recorder.record(DemoController.class.getDeclaredMethod("hello", String.class), TimeUnit.MILLISECONDS.toNanos(1), true);
+        recorder.record(DemoController.class.getDeclaredMethod("hello", String.class), TimeUnit.MILLISECONDS.toNanos(1), true);
+
+        Assertions.assertEquals(1, registry.get("ut_api").tag("api", DemoController.class.getName() + "#hello()").timer().count());
+        Assertions.assertEquals(2, registry.get("ut_api").tag("api", DemoController.class.getName() + "#hello(String)").timer().count());
+        Assertions.assertEquals(2, recorder.digest().size());
+    }
+
+    private static class DemoController {
+
+        public String hello() {
+            return "hello";
+        }
+
+        public String hello(String name) {
+            return "hello " + name;
+        }
+
+        public String world() {
+            return "world";
+        }
+    }
+
+}
@@ -0,0 +1,134 @@
+package org.shoulder.autoconfiguration.test.web;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.shoulder.web.filter.CompiledPathMatcher;
+import org.shoulder.web.filter.PathFilterHelper;
+import org.shoulder.web.filter.PathFilterProperties;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 路径过滤测试
+ * <p>
+ * 注意：这里的性能测试仅为无预热粗略测试，精确测试请使用 JMH。
+ *
+ * @author lym
+ */
+public class PathFilterHelperTest {
+
+    private static final String[] PATTERNS = {
+        "/**", "/**/health", "/api/**", "/api/*/user", "/api/v?/order/**", "/api/{version}/goods/*",
+        "/static/**/*.js", "/static/*.css", "/a/b", "/a/b/", "/a/*", "/a/**/c", "/a/**/**/d", "/user/{id:\\d+}",
+        "/x*y/z", "api/relative"
+    };
+
+    private static final String[] PATHS = {
+        "/", "", "/health", "/actuator/health", "/actuator/health/", "/api", "/api/", "/api/v1/user", "/api/v1/user/",
+        "/api/v1/order", "/api/v12/order/1", "/api/v2/order/1/2", "/api/v1/goods/1", "/api/v1/goods/", "/static/a.js",
+        "/static/js/lib/a.js", "/static/a.css", "/static/a/a.css", "/a/b", "/a/b/", "/a/", "/a", "/a/c", "/a/x/y/c",
+        "/a/d", "/a/x/d/", "/user/123", "/user/abc", "/xay/z", "/xy/z", "//a//b", "api/relative", "/api/relative"
+    };
+
+    /**
+     * 与 AntPathMatcher 结果一致
+     */
+    @Test
+    public void testSameAsAntPathMatcher() {
+        AntPathMatcher antPathMatcher = new AntPathMatcher();
+        for (String pattern : PATTERNS) {
+            CompiledPathMatcher matcher = new CompiledPathMatcher(List.of(pattern), List.of());
+            for (String path : PATHS) {
+                Assertions.assertEquals(antPathMatcher.match(pattern, path), matcher.needFilter(path),
+                    "pattern=" + pattern + ", path=" + path);
+            }
+        }
+    }
+
+    @Test
+    public void testNeedFilter() {
+        PathFilterProperties properties = new PathFilterProperties();
+        properties.setExcludePathPatterns(List.of("/**/health", "/static/**"));
+        PathFilterHelper helper = new PathFilterHelper(properties);
+
+        Assertions.assertTrue(helper.needFilter("/api/v1/user"));
+        Assertions.assertFalse(helper.needFilter("/actuator/health"));
+        Assertions.assertFalse(helper.needFilter("/static/a.js"));
+        // 命中缓存
+        Assertions.assertFalse(helper.needFilter("/static/a.js"));
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/order");
+        Assertions.assertTrue(helper.needFilter(request));
+        Assertions.assertNotNull(request.getAttribute(PathFilterHelper.REQUEST_PATH_SEGMENTS_ATTRIBUTE));
+        Assertions.assertTrue(new PathFilterHelper(properties).needFilter(request));
+
+        helper.setEnable(false);
+        Assertions.assertFalse(helper.needFilter("/api/v1/user"));
+    }
+
+    /**
+     * 子类自定义 pathMatcher 时使用该匹配器
+     */
+    @Test
+    public void testCustomPathMatcher() {
+        PathFilterProperties properties = new PathFilterProperties();
+        properties.setPathPatterns(List.of("/api/**"));
+        properties.setExcludePathPatterns(List.of("/api/public/**"));
+        PathFilterHelper defaultHelper = new PathFilterHelper(properties);
+        Assertions.assertFalse(defaultHelper.needFilter("/API/user"));
+
+        PathFilterHelper helper = new PathFilterHelper(properties) {
+            {
+                AntPathMatcher caseInsensitiveMatcher = new AntPathMatcher();
+                caseInsensitiveMatcher.setCaseSensitive(false);
+                pathMatcher = caseInsensitiveMatcher;
+            }
+        };
+        Assertions.assertTrue(helper.needFilter("/API/user"));
+        Assertions.assertFalse(helper.needFilter("/Api/Public/a.js"));
+        Assertions.assertTrue(helper.needFilter(new MockHttpServletRequest("GET", "/api/User")));
+        Assertions.assertFalse(helper.needFilter("/other"));
+    }
+
+    /**
+     * 【性能】逐个 AntPathMatcher 匹配 与 预编译匹配（不使用结果缓存）对比
+     */
+    @Test
+    public void timer_needFilter() {
+        List<String> includes = List.of("/**");
+        List<String> excludes = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            excludes.add("/module" + i + "/**/internal/*");
+        }
+        excludes.add("/**/health");
+        String path = "/api/v1/tenant/123/order/456/items";
+        AntPathMatcher antPathMatcher = new AntPathMatcher();
+        CompiledPathMatcher matcher = new CompiledPathMatcher(includes, excludes);
+        int n = 100_000;
+        for (int round = 0; round < 2; round++) {
+            // 第一轮预热
+            long start = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                boolean need = antPathMatcher.match("/**", path);
+                for (String exclude : excludes) {
+                    if (antPathMatcher.match(exclude, path)) {
+                        need = false;
+                        break;
+                    }
+                }
+                Assertions.assertTrue(need);
+            }
+            long antCost = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                Assertions.assertTrue(matcher.needFilter(path));
+            }
+            long cost = System.nanoTime() - start;
+            System.out.println("TIME-pathFilter TEST: ant cost " + antCost / n + " ns/op, compiled cost " + cost / n + " ns/op");
+        }
+    }
+
+}
@@ -0,0 +1,132 @@
+package org.shoulder.autoconfiguration.test.web;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.shoulder.web.filter.xss.XssRequestWrapper;
+import org.shoulder.web.filter.xss.XssSanitizer;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * xss 清理测试
+ * <p>
+ * 注意：这里的性能测试仅为无预热粗略测试，精确测试请使用 JMH。
+ *
+ * @author lym
+ */
+public class XssSanitizerTest {
+
+    /**
+     * 旧实现：正则逐个替换（与旧版 XssRequestWrapper 的规则完全相同），仅用于性能对比
+     */
+    private static final Pattern[] LEGACY_PATTERNS = new Pattern[]{
+        Pattern.compile("<(no)?script>(.*?)</(no)?script>", Pattern.CASE_INSENSITIVE),
+        Pattern.compile("src[\\s]*=[\\s]*'(.*?)'", Pattern.CASE_INSENSITIVE | Pattern.MULTILINE | Pattern.DOTALL),
+        Pattern.compile("src[\\s]*=[\\s]*\"(.*?)\"", Pattern.CASE_INSENSITIVE | Pattern.MULTILINE | Pattern.DOTALL),
+        Pattern.compile("</script>", Pattern.CASE_INSENSITIVE),
+        Pattern.compile("<script(.*?)>", Pattern.CASE_INSENSITIVE | Pattern.MULTILINE | Pattern.DOTALL),
+        Pattern.compile("eval\\((.*?)\\)", Pattern.CASE_INSENSITIVE | Pattern.MULTILINE | Pattern.DOTALL),
+        Pattern.compile("expression\\((.*?)\\)", Pattern.CASE_INSENSITIVE | Pattern.MULTILINE | Pattern.DOTALL),
+        Pattern.compile("(javascript:|vbscript:|view-source:)*", Pattern.CASE_INSENSITIVE),
+        Pattern.compile("onload(.*?)=", Pattern.CASE_INSENSITIVE | Pattern.MULTILINE | Pattern.DOTALL),
+        Pattern.compile("<(\"[^\"]*\"|'[^']*'|[^'\">])*>", Pattern.CASE_INSENSITIVE | Pattern.MULTILINE | Pattern.DOTALL),
+        Pattern.compile("(window\\.location|window\\.|\\.location|document\\.cookie|document\\.|alert\\(.*?\\)|window\\.open\\()*", Pattern.CASE_INSENSITIVE | Pattern.MULTILINE | Pattern.DOTALL),
+        Pattern.compile("<+\\s*\\w*\\s*(oncontrolselect|oncopy|oncut|ondataavailable|ondatasetchanged|ondatasetcomplete|ondblclick|ondeactivate|ondrag|ondragend|ondragenter|ondragleave|ondragover|ondragstart|ondrop|onerror=|onerroupdate|onfilterchange|onfinish|onfocus|onfocusin|onfocusout|onhelp|onkeydown|onkeypress|onkeyup|onlayoutcomplete|onload|onlosecapture|onmousedown|onmouseenter|onmouseleave|onmousemove|onmousout|onmouseover|onmouseup|onmousewheel|onmove|onmoveend|onmovestart|onabort|onactivate|onafterprint|onafterupdate|onbefore|onbeforeactivate|onbeforecopy|onbeforecut|onbeforedeactivate|onbeforeeditocus|onbeforepaste|onbeforeprint|onbeforeunload|onbeforeupdate|onblur|onbounce|oncellchange|onchange|onclick|oncontextmenu|onpaste|onpropertychange|onreadystatuschange|onreset|onresize|onresizend|onresizestart|onrowenter|onrowexit|onrowsdelete|onrowsinserted|onscroll|onselect|onselectionchange|onselectstart|onstart|onstop|onsubmit|onunload)+\\s*=+", Pattern.CASE_INSENSITIVE | Pattern.MULTILINE | Pattern.DOTALL)
+    };
+
+    private static final String BENIGN = "张三 order-2024 search keyword, page=1 & size=20; remark: deliver before noon";
+
+    private static final String HOSTILE = "<img src=\"x\" onerror=\"alert(document.cookie)\"><script>window.location='http://evil'</script>"
+        + "javascript:eval(atob('YWxlcnQoMSk='))";
+
+    @Test
+    public void testSanitize() {
+        // 无需处理时返回原对象
+        Assertions.assertSame(BENIGN, XssSanitizer.sanitize(BENIGN));
+        Assertions.assertNull(XssSanitizer.sanitize(null));
+
+        Assertions.assertEquals("hi", XssSanitizer.sanitize("<script>alert(1)</script>hi"));
+        Assertions.assertEquals("hi", XssSanitizer.sanitize("<SCRIPT type=\"text/javascript\">var a = '</b>';</SCRIPT>hi"));
+        Assertions.assertEquals("", XssSanitizer.sanitize("<img src=\"x\" onerror=\"alert(1)\">"));
+        Assertions.assertEquals("ab", XssSanitizer.sanitize("a<b title='x>y'>b"));
+        // 删除后拼出的新关键字也会被删除
+        Assertions.assertEquals("", XssSanitizer.sanitize("javajavascript:script:alert(1)"));
+        Assertions.assertEquals("x", XssSanitizer.sanitize("x\0"));
+        Assertions.assertEquals("", XssSanitizer.sanitize("DOCUMENT.Cookie"));
+        Assertions.assertEquals("title", XssSanitizer.sanitize("document.title"));
+        // 删除标签后拼出的 src="..." / 事件属性，在转义前识别并删除
+        Assertions.assertEquals("", XssSanitizer.sanitize("sr<b>c=\"javascript:alert(1)\""));
+        Assertions.assertEquals("x 1", XssSanitizer.sanitize("x on<b>click=1"));
+
+        // 不完整标签与特殊字符转义
+        Assertions.assertEquals("&lt;b a&#x2f;b", XssSanitizer.sanitize("<b a/b"));
+        Assertions.assertEquals("&quot;q&quot; &#x27;s&#x27; 1 &gt; 0 (x)", XssSanitizer.sanitize("\"q\" 's' 1 > 0 (x)"));
+
+        // 事件属性：需为单词开头且后接 =
+        Assertions.assertEquals("&lt;img  1", XssSanitizer.sanitize("<img onclick = 1"));
+        Assertions.assertEquals("isonclick=1", XssSanitizer.sanitize("isonclick=1"));
+        Assertions.assertEquals("onclick", XssSanitizer.sanitize("onclick"));
+        Assertions.assertEquals("download=1", XssSanitizer.sanitize("download=1"));
+    }
+
+    @Test
+    public void testRequestWrapper() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setCharacterEncoding("UTF-8");
+        request.addParameter("q", "<b>x</b>y");
+        request.addParameter("rate", "100%");
+        request.addParameter("ids", "1", "<i>2</i>");
+        request.setQueryString("q=%3Cb%3Ex%3C%2Fb%3Ey");
+        XssRequestWrapper wrapper = new XssRequestWrapper(request);
+
+        Assertions.assertEquals("xy", wrapper.getParameter("q"));
+        Assertions.assertEquals("100%", wrapper.getParameter("rate"));
+        Assertions.assertArrayEquals(new String[]{"1", "2"}, wrapper.getParameterValues("ids"));
+        Assertions.assertNull(wrapper.getParameter("none"));
+        Assertions.assertEquals("q=xy", wrapper.getQueryString());
+
+        // 同一请求只清理一次
+        Map<String, String[]> parameterMap = wrapper.getParameterMap();
+        Assertions.assertSame(parameterMap, wrapper.getParameterMap());
+        wrapper.getParameterValues("ids")[0] = "changed";
+        Assertions.assertEquals("1", wrapper.getParameterValues("ids")[0]);
+    }
+
+    /**
+     * 【性能】正则逐个替换 与 单次扫描 对比
+     */
+    @Test
+    public void timer_sanitize() {
+        int n = 20_000;
+        for (int round = 0; round < 2; round++) {
+            // 第一轮预热
+            for (String input : new String[]{BENIGN, HOSTILE}) {
+                String name = input == BENIGN ? "benign" : "hostile";
+                long start = System.nanoTime();
+                for (int i = 0; i < n; i++) {
+                    legacySanitize(input);
+                }
+                long legacyCost = System.nanoTime() - start;
+                start = System.nanoTime();
+                for (int i = 0; i < n; i++) {
+                    XssSanitizer.sanitize(input);
+                }
+                long cost = System.nanoTime() - start;
+                System.out.println("TIME-xss-" + name + " TEST: regex cost " + legacyCost / n + " ns/op, scanner cost "
+                    + cost / n + " ns/op");
+            }
+        }
+    }
+
+    private static String legacySanitize(String context) {
+        context = context.replaceAll("\0", "");
+        for (Pattern scriptPattern : LEGACY_PATTERNS) {
+            context = scriptPattern.matcher(context).replaceAll("");
+        }
+        return context.replace("<", "&lt;").replace(">", "&gt;").replace("'", "&#x27;")
+            .replace("\"", "&quot;").replace("/", "&#x2f;");
+    }
+
+}